@@ -0,0 +1,166 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Counts spawners per chunk straight from a world's region files, without loading any chunk into the server.
+ * Region files are scanned in parallel on a dedicated fork-join pool, one {@link RegionFileScanner} per worker.
+ */
+public final class AnvilSpawnerImporter {
+    private final String stackSizeKey;
+    private final int parallelism;
+
+    /**
+     * @param stackSizeKey Key of the stack size in the spawner's {@code PublicBukkitValues}
+     * @param parallelism Number of worker threads
+     */
+    public AnvilSpawnerImporter(String stackSizeKey, int parallelism) {
+        this.stackSizeKey = stackSizeKey;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Decides the stack size of a spawner found in the region files
+     */
+    @FunctionalInterface
+    public interface StackSizeResolver {
+        /**
+         * @param x Block X coordinate
+         * @param y Block Y coordinate
+         * @param z Block Z coordinate
+         * @param nbtStackSize Stack size read from the block entity (1 if absent)
+         * @return Stack size to count
+         */
+        int resolve(int x, int y, int z, int nbtStackSize);
+    }
+
+    /**
+     * Result of scanning one world
+     * @param chunkCounts Spawner count per chunk, keyed by {@link #chunkKey(int, int)}
+     * @param regions Region files scanned
+     * @param chunks Chunks read
+     * @param skippedChunks Chunks that could not be read
+     * @param spawners Spawner block entities found
+     * @param bytes Size of all region files
+     * @param durationNanos Scan duration
+     */
+    public record ScanResult(Map<Long, Integer> chunkCounts, int regions, int chunks, int skippedChunks,
+                             int spawners, long bytes, long durationNanos) {
+
+        /**
+         * Get the total spawner count over all chunks
+         */
+        public long totalCount() {
+            return chunkCounts.values().stream().mapToLong(Integer::longValue).sum();
+        }
+
+        /**
+         * Get scan throughput in region files per second
+         */
+        public double regionsPerSecond() {
+            return durationNanos > 0 ? regions * 1_000_000_000.0 / durationNanos : 0;
+        }
+    }
+
+    /**
+     * Scan all region files of a world
+     * @param regionDirectory The world's {@code region} directory
+     * @param resolver Decides the stack size of each spawner found
+     * @return Spawner counts per chunk and scan statistics
+     * @throws IOException if the directory cannot be listed
+     */
+    public ScanResult scan(Path regionDirectory, StackSizeResolver resolver) throws IOException {
+        long start = System.nanoTime();
+
+        List<Path> regionFiles;
+        try (Stream<Path> files = Files.list(regionDirectory)) {
+            regionFiles = files.filter(path -> path.getFileName().toString().matches("r\\.-?\\d+\\.-?\\d+\\.mca"))
+                .toList();
+        }
+
+        long bytes = 0;
+        for (Path file : regionFiles) {
+            bytes += Files.size(file);
+        }
+
+        SpawnerNbtScanner nbtScanner = new SpawnerNbtScanner(stackSizeKey);
+        ConcurrentLinkedQueue<RegionFileScanner> scanners = new ConcurrentLinkedQueue<>();
+        ThreadLocal<RegionFileScanner> workerScanner = ThreadLocal.withInitial(() -> {
+            RegionFileScanner scanner = new RegionFileScanner(nbtScanner);
+            scanners.add(scanner);
+            return scanner;
+        });
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<RegionResult> results;
+        try {
+            results = pool.submit(() -> regionFiles.parallelStream()
+                .map(file -> scanRegion(workerScanner.get(), file, resolver))
+                .toList())
+                .join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+            scanners.forEach(RegionFileScanner::close);
+        }
+
+        Map<Long, Integer> chunkCounts = new HashMap<>();
+        int chunks = 0;
+        int skipped = 0;
+        int spawners = 0;
+        for (RegionResult result : results) {
+            // Regions never share chunks, so this is a plain union
+            chunkCounts.putAll(result.chunkCounts());
+            chunks += result.stats().chunks();
+            skipped += result.stats().skippedChunks();
+            spawners += result.stats().spawners();
+        }
+
+        return new ScanResult(chunkCounts, regionFiles.size(), chunks, skipped, spawners, bytes,
+            System.nanoTime() - start);
+    }
+
+    private RegionResult scanRegion(RegionFileScanner scanner, Path file, StackSizeResolver resolver) {
+        Map<Long, Integer> counts = new HashMap<>();
+        try {
+            RegionFileScanner.RegionStats stats = scanner.scan(file, (x, y, z, stackSize) ->
+                counts.merge(chunkKey(x >> 4, z >> 4), resolver.resolve(x, y, z, stackSize), Integer::sum));
+            return new RegionResult(counts, stats);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + file, e);
+        }
+    }
+
+    /**
+     * Pack chunk coordinates into a map key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get chunk X coordinate from a packed key
+     */
+    public static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Get chunk Z coordinate from a packed key
+     */
+    public static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    private record RegionResult(Map<Long, Integer> chunkCounts, RegionFileScanner.RegionStats stats) {}
+}
@@ -0,0 +1,209 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Reads spawners from one Anvil region file ({@code r.<x>.<z>.mca}).
+ * The file is memory-mapped and zlib chunks are inflated straight from the mapping into a reusable buffer.
+ * Instances are not thread-safe, use one per worker thread.
+ */
+public final class RegionFileScanner {
+    private static final int SECTOR_SIZE = 4096;
+    private static final int CHUNKS_PER_REGION = 1024;
+
+    private static final int COMPRESSION_GZIP = 1;
+    private static final int COMPRESSION_ZLIB = 2;
+    private static final int COMPRESSION_NONE = 3;
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private final SpawnerNbtScanner nbtScanner;
+    private final Inflater inflater = new Inflater();
+    private byte[] buffer = new byte[256 * 1024];
+
+    public RegionFileScanner(SpawnerNbtScanner nbtScanner) {
+        this.nbtScanner = nbtScanner;
+    }
+
+    /**
+     * Counters of one scanned region
+     * @param chunks Chunks read
+     * @param skippedChunks Chunks that could not be read (corrupt or unsupported compression)
+     * @param spawners Spawner block entities found
+     */
+    public record RegionStats(int chunks, int skippedChunks, int spawners) {}
+
+    /**
+     * Scan every chunk of a region file
+     * @param regionFile Path of the .mca file
+     * @param visitor Receives every spawner block entity
+     * @return Counters of the region
+     * @throws IOException if the file cannot be mapped
+     */
+    public RegionStats scan(Path regionFile, SpawnerNbtScanner.SpawnerVisitor visitor) throws IOException {
+        int chunks = 0;
+        int skipped = 0;
+        int[] spawners = new int[1];
+        SpawnerNbtScanner.SpawnerVisitor counting = (x, y, z, stackSize) -> {
+            spawners[0]++;
+            visitor.visit(x, y, z, stackSize);
+        };
+
+        try (FileChannel channel = FileChannel.open(regionFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 2L * SECTOR_SIZE) {
+                return new RegionStats(0, 0, 0);
+            }
+
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            for (int index = 0; index < CHUNKS_PER_REGION; index++) {
+                int location = region.getInt(index * 4);
+                if (location == 0) {
+                    continue;
+                }
+
+                long offset = (long) (location >>> 8) * SECTOR_SIZE;
+                if (offset < 2L * SECTOR_SIZE || offset + 5 > size) {
+                    skipped++;
+                    continue;
+                }
+
+                try {
+                    ByteBuffer nbt = readChunk(region, (int) offset, regionFile, index);
+                    if (nbt == null) {
+                        skipped++;
+                        continue;
+                    }
+                    nbtScanner.scan(nbt, counting);
+                    chunks++;
+                } catch (IllegalArgumentException | IOException | DataFormatException e) {
+                    // Chunk being written by the server, corrupt, or unsupported
+                    skipped++;
+                }
+            }
+        }
+
+        return new RegionStats(chunks, skipped, spawners[0]);
+    }
+
+    /**
+     * Read and decompress one chunk
+     * @return the uncompressed NBT, or null if the compression is unsupported
+     */
+    private ByteBuffer readChunk(MappedByteBuffer region, int offset, Path regionFile, int index)
+            throws IOException, DataFormatException {
+        int length = region.getInt(offset);
+        int compression = region.get(offset + 4) & 0xFF;
+        if (length < 1 || (long) offset + 4 + length > region.capacity()) {
+            throw new IllegalArgumentException("Invalid chunk length");
+        }
+
+        if ((compression & EXTERNAL_FLAG) != 0) {
+            // Oversized chunk stored in c.<x>.<z>.mcc next to the region file, the stub only holds the compression byte
+            return readExternalChunk(regionFile, index, compression & ~EXTERNAL_FLAG);
+        }
+        if (length == 1) {
+            throw new IllegalArgumentException("Empty chunk data");
+        }
+
+        ByteBuffer data = region.slice(offset + 5, length - 1);
+        return switch (compression) {
+            case COMPRESSION_ZLIB -> inflate(data);
+            case COMPRESSION_NONE -> data;
+            case COMPRESSION_GZIP -> readStream(new GZIPInputStream(new ByteBufferInputStream(data)));
+            default -> null;
+        };
+    }
+
+    private ByteBuffer readExternalChunk(Path regionFile, int index, int compression)
+            throws IOException, DataFormatException {
+        String[] parts = regionFile.getFileName().toString().split("\\.");
+        int chunkX = Integer.parseInt(parts[1]) * 32 + (index & 31);
+        int chunkZ = Integer.parseInt(parts[2]) * 32 + (index >> 5);
+        Path external = regionFile.resolveSibling("c." + chunkX + "." + chunkZ + ".mcc");
+        if (!Files.isRegularFile(external)) {
+            return null;
+        }
+
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(external));
+        return switch (compression) {
+            case COMPRESSION_ZLIB -> inflate(data);
+            case COMPRESSION_NONE -> data;
+            case COMPRESSION_GZIP -> readStream(new GZIPInputStream(new ByteArrayInputStream(data.array())));
+            default -> null;
+        };
+    }
+
+    private ByteBuffer inflate(ByteBuffer data) throws DataFormatException {
+        inflater.reset();
+        inflater.setInput(data);
+
+        int total = 0;
+        while (!inflater.finished()) {
+            if (total == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = inflater.inflate(buffer, total, buffer.length - total);
+            if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                throw new DataFormatException("Truncated chunk data");
+            }
+            total += read;
+        }
+        return ByteBuffer.wrap(buffer, 0, total);
+    }
+
+    private ByteBuffer readStream(InputStream in) throws IOException {
+        try (in) {
+            int total = 0;
+            int read;
+            while ((read = in.read(buffer, total, buffer.length - total)) != -1) {
+                total += read;
+                if (total == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            return ByteBuffer.wrap(buffer, 0, total);
+        }
+    }
+
+    /**
+     * Release the native inflater
+     */
+    public void close() {
+        inflater.end();
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
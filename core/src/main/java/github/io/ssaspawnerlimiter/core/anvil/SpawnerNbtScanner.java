@@ -0,0 +1,264 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming reader for uncompressed chunk NBT that only looks at spawner block entities.
+ * Every other tag is skipped without being materialized, so a chunk costs little more than a scan over its bytes.
+ * Supports the 1.18+ layout ({@code block_entities} at the root) and the older one ({@code Level.TileEntities}).
+ */
+public final class SpawnerNbtScanner {
+    private static final byte TAG_END = 0;
+    private static final byte TAG_BYTE = 1;
+    private static final byte TAG_SHORT = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_BYTE_ARRAY = 7;
+    private static final byte TAG_STRING = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_COMPOUND = 10;
+    private static final byte TAG_INT_ARRAY = 11;
+    private static final byte TAG_LONG_ARRAY = 12;
+
+    private static final byte[] SPAWNER_ID = "minecraft:spawner".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LEGACY_SPAWNER_ID = "minecraft:mob_spawner".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PRE_1_11_SPAWNER_ID = "MobSpawner".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] stackSizeKey;
+
+    /**
+     * @param stackSizeKey Key of the stack size in the block entity's {@code PublicBukkitValues},
+     *                     spawners without it count as a stack of 1
+     */
+    public SpawnerNbtScanner(String stackSizeKey) {
+        this.stackSizeKey = stackSizeKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Callback for each spawner found
+     */
+    @FunctionalInterface
+    public interface SpawnerVisitor {
+        void visit(int x, int y, int z, int stackSize);
+    }
+
+    /**
+     * Scan one chunk
+     * @param nbt Uncompressed chunk NBT
+     * @param visitor Receives every spawner block entity
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public void scan(ByteBuffer nbt, SpawnerVisitor visitor) {
+        try {
+            if (nbt.get() != TAG_COMPOUND) {
+                throw new IllegalArgumentException("Chunk root is not a compound");
+            }
+            skipString(nbt);
+            scanChunkCompound(nbt, visitor);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalArgumentException) {
+                throw e;
+            }
+            // Buffer underflow, negative lengths etc.
+            throw new IllegalArgumentException("Malformed chunk NBT", e);
+        }
+    }
+
+    private void scanChunkCompound(ByteBuffer buf, SpawnerVisitor visitor) {
+        byte type;
+        while ((type = buf.get()) != TAG_END) {
+            int nameLength = buf.getShort() & 0xFFFF;
+            int nameStart = buf.position();
+            buf.position(nameStart + nameLength);
+
+            if (type == TAG_LIST && (nameEquals(buf, nameStart, nameLength, "block_entities")
+                    || nameEquals(buf, nameStart, nameLength, "TileEntities"))) {
+                scanBlockEntities(buf, visitor);
+            } else if (type == TAG_COMPOUND && nameEquals(buf, nameStart, nameLength, "Level")) {
+                scanChunkCompound(buf, visitor);
+            } else {
+                skipPayload(buf, type);
+            }
+        }
+    }
+
+    private void scanBlockEntities(ByteBuffer buf, SpawnerVisitor visitor) {
+        byte elementType = buf.get();
+        int length = length(buf);
+        if (elementType != TAG_COMPOUND) {
+            for (int i = 0; i < length; i++) {
+                skipPayload(buf, elementType);
+            }
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            scanBlockEntity(buf, visitor);
+        }
+    }
+
+    private void scanBlockEntity(ByteBuffer buf, SpawnerVisitor visitor) {
+        boolean spawner = false;
+        int x = 0, y = 0, z = 0;
+        int stackSize = 1;
+
+        byte type;
+        while ((type = buf.get()) != TAG_END) {
+            int nameLength = buf.getShort() & 0xFFFF;
+            int nameStart = buf.position();
+            buf.position(nameStart + nameLength);
+
+            if (nameLength == 1 && type == TAG_INT) {
+                byte name = buf.get(nameStart);
+                int value = buf.getInt();
+                if (name == 'x') {
+                    x = value;
+                } else if (name == 'y') {
+                    y = value;
+                } else if (name == 'z') {
+                    z = value;
+                }
+            } else if (type == TAG_STRING && (nameEquals(buf, nameStart, nameLength, "id")
+                    || nameEquals(buf, nameStart, nameLength, "Id"))) {
+                int valueLength = buf.getShort() & 0xFFFF;
+                spawner = bytesEqual(buf, buf.position(), valueLength, SPAWNER_ID)
+                    || bytesEqual(buf, buf.position(), valueLength, LEGACY_SPAWNER_ID)
+                    || bytesEqual(buf, buf.position(), valueLength, PRE_1_11_SPAWNER_ID);
+                buf.position(buf.position() + valueLength);
+            } else if (type == TAG_COMPOUND && nameEquals(buf, nameStart, nameLength, "PublicBukkitValues")) {
+                int value = readStackSize(buf);
+                if (value > 0) {
+                    stackSize = value;
+                }
+            } else {
+                skipPayload(buf, type);
+            }
+        }
+
+        if (spawner) {
+            visitor.visit(x, y, z, stackSize);
+        }
+    }
+
+    /**
+     * Read the stack size from a PublicBukkitValues compound
+     * @return stack size, or 0 if absent
+     */
+    private int readStackSize(ByteBuffer buf) {
+        int stackSize = 0;
+        byte type;
+        while ((type = buf.get()) != TAG_END) {
+            int nameLength = buf.getShort() & 0xFFFF;
+            int nameStart = buf.position();
+            buf.position(nameStart + nameLength);
+
+            if (bytesEqual(buf, nameStart, nameLength, stackSizeKey)) {
+                switch (type) {
+                    case TAG_BYTE -> stackSize = buf.get();
+                    case TAG_SHORT -> stackSize = buf.getShort();
+                    case TAG_INT -> stackSize = buf.getInt();
+                    case TAG_LONG -> stackSize = (int) Math.min(Integer.MAX_VALUE, buf.getLong());
+                    case TAG_STRING -> stackSize = parseInt(buf);
+                    default -> skipPayload(buf, type);
+                }
+            } else {
+                skipPayload(buf, type);
+            }
+        }
+        return stackSize;
+    }
+
+    private int parseInt(ByteBuffer buf) {
+        int length = buf.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        try {
+            return Integer.parseInt(new String(bytes, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void skipPayload(ByteBuffer buf, byte type) {
+        switch (type) {
+            case TAG_BYTE -> skip(buf, 1);
+            case TAG_SHORT -> skip(buf, 2);
+            case TAG_INT, TAG_FLOAT -> skip(buf, 4);
+            case TAG_LONG, TAG_DOUBLE -> skip(buf, 8);
+            case TAG_BYTE_ARRAY -> skip(buf, length(buf));
+            case TAG_STRING -> skipString(buf);
+            case TAG_INT_ARRAY -> skip(buf, length(buf) * 4L);
+            case TAG_LONG_ARRAY -> skip(buf, length(buf) * 8L);
+            case TAG_LIST -> {
+                byte elementType = buf.get();
+                int length = length(buf);
+                switch (elementType) {
+                    case TAG_END -> { }
+                    case TAG_BYTE -> skip(buf, length);
+                    case TAG_SHORT -> skip(buf, length * 2L);
+                    case TAG_INT, TAG_FLOAT -> skip(buf, length * 4L);
+                    case TAG_LONG, TAG_DOUBLE -> skip(buf, length * 8L);
+                    default -> {
+                        for (int i = 0; i < length; i++) {
+                            skipPayload(buf, elementType);
+                        }
+                    }
+                }
+            }
+            case TAG_COMPOUND -> {
+                byte elementType;
+                while ((elementType = buf.get()) != TAG_END) {
+                    skipString(buf);
+                    skipPayload(buf, elementType);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int length(ByteBuffer buf) {
+        int length = buf.getInt();
+        if (length < 0) {
+            throw new IllegalArgumentException("Negative NBT length");
+        }
+        return length;
+    }
+
+    private static void skipString(ByteBuffer buf) {
+        skip(buf, buf.getShort() & 0xFFFF);
+    }
+
+    private static void skip(ByteBuffer buf, long count) {
+        if (count > buf.remaining()) {
+            throw new IllegalArgumentException("NBT tag exceeds chunk data");
+        }
+        buf.position(buf.position() + (int) count);
+    }
+
+    private static boolean nameEquals(ByteBuffer buf, int start, int length, String name) {
+        if (length != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf.get(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean bytesEqual(ByteBuffer buf, int start, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buf.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,174 @@
+package github.io.ssaspawnerlimiter.core.batch;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Folds count deltas per key into one net delta per drain.
+ * A delta is pending from {@link #add(Object, int)} until the write carrying it reports {@link #complete(Object, int)},
+ * so readers can add {@link #pending(Object)} to a stored count and never miss a change that is still on its way
+ * to storage. Decreases are left out of the pending delta: a reader racing a drain or a write would count a change
+ * twice, which is harmless for an increase but would let a limit check pass on too low a count.
+ * Thread-safe, all changes to a key happen inside one map operation.
+ */
+public final class DeltaBuffer<K> {
+    private final Map<K, Cell> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Add a delta to a key
+     * @param key The key
+     * @param delta Count change
+     */
+    public void add(K key, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        cells.compute(key, (k, cell) -> {
+            if (cell == null) {
+                cell = new Cell();
+            }
+            cell.buffered += delta;
+            cell.events++;
+            return cell;
+        });
+    }
+
+    /**
+     * Get the net increase of a key that is buffered or being written, decreases count once they are stored
+     */
+    public int pending(K key) {
+        Cell cell = cells.get(key);
+        // Buffered first, a drain moves it to in flight before clearing it
+        return cell != null ? Math.max(0, cell.buffered) + cell.inFlight : 0;
+    }
+
+    /**
+     * Get the net delta of a key that is buffered and not yet drained, decreases included
+     */
+    public int buffered(K key) {
+        Cell cell = cells.get(key);
+        return cell != null ? cell.buffered : 0;
+    }
+
+    /**
+     * Get the net delta of a key that is buffered or being written, decreases included.
+     * For comparing a stored count with one that already has every change, e.g. a recount.
+     */
+    public int unwritten(K key) {
+        int[] net = new int[1];
+        // Read in a map operation, a drain moves the delta from one field to the other
+        cells.computeIfPresent(key, (k, cell) -> {
+            net[0] = cell.buffered + cell.drained;
+            return cell;
+        });
+        return net[0];
+    }
+
+    /**
+     * Hand every buffered net delta to a writer, which must call {@link #complete(Object, int)} once the write is done.
+     * Keys whose deltas cancelled out are dropped without a write.
+     * @param writer Receives each key and its net delta
+     * @return number of buffered events folded into the writes
+     */
+    public int drain(ObjIntConsumer<K> writer) {
+        int events = 0;
+        for (K key : cells.keySet()) {
+            int[] taken = new int[2];
+            cells.computeIfPresent(key, (k, cell) -> {
+                taken[0] = cell.buffered;
+                taken[1] = cell.events;
+                if (cell.buffered != 0) {
+                    if (cell.buffered > 0) {
+                        cell.inFlight += cell.buffered;
+                    }
+                    cell.drained += cell.buffered;
+                    cell.writes++;
+                }
+                cell.buffered = 0;
+                cell.events = 0;
+                return cell.writes == 0 ? null : cell;
+            });
+            events += taken[1];
+            if (taken[0] != 0) {
+                writer.accept(key, taken[0]);
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Mark a drained delta as written
+     * @param key The key
+     * @param delta The delta handed to the writer
+     */
+    public void complete(K key, int delta) {
+        cells.computeIfPresent(key, (k, cell) -> {
+            if (delta > 0) {
+                cell.inFlight -= delta;
+            }
+            cell.drained -= delta;
+            cell.writes--;
+            return cell.writes == 0 && cell.events == 0 ? null : cell;
+        });
+    }
+
+    /**
+     * Drop the buffered delta of a key, for when its count is about to be replaced by one that already includes it.
+     * Deltas already drained are left alone, their writes still complete.
+     * @param key The key
+     * @return the dropped delta
+     */
+    public int discard(K key) {
+        int[] dropped = new int[1];
+        cells.computeIfPresent(key, (k, cell) -> {
+            dropped[0] = cell.buffered;
+            cell.buffered = 0;
+            return cell;
+        });
+        return dropped[0];
+    }
+
+    /**
+     * Drop the buffered deltas of every key matching a filter, see {@link #discard(Object)}
+     * @param filter Selects the keys
+     * @return the sum of the dropped deltas
+     */
+    public int discardIf(Predicate<? super K> filter) {
+        int dropped = 0;
+        for (K key : cells.keySet()) {
+            if (filter.test(key)) {
+                dropped += discard(key);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Get number of keys with a delta buffered or being written
+     */
+    public int size() {
+        return cells.size();
+    }
+
+    /**
+     * Check if any delta is buffered or being written
+     */
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    /**
+     * Net deltas of one key, only changed inside map operations on that key
+     */
+    private static final class Cell {
+        volatile int buffered;
+        // Increases only, see pending()
+        volatile int inFlight;
+        // Both signs, see unwritten()
+        int drained;
+        int events;
+        int writes;
+    }
+}
@@ -0,0 +1,104 @@
+package github.io.ssaspawnerlimiter.core.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of stored counts, each with the time it was written and a version. Entries older than the expiration are
+ * still returned, callers decide whether a stale count is good enough. A versioned put never replaces an entry of a
+ * later version, so results that arrive out of order can't overwrite newer ones; a dropped count leaves its version
+ * behind until it expires, so a result older than the drop can't bring the count back either. Thread-safe, every
+ * change to a key is one map operation.
+ */
+public final class CountCache<K> {
+    private final Map<K, Entry> entries = new ConcurrentHashMap<>();
+    private final long expirationMs;
+    private final LongSupplier clock;
+
+    /**
+     * A cached count
+     * @param count The count, negative if it was dropped
+     * @param timestamp When it was written (epoch millis)
+     * @param version Version of the write or read the count came from
+     */
+    public record Entry(int count, long timestamp, long version) {}
+
+    /**
+     * @param expirationMs Age after which an entry is expired
+     * @param clock Current time in epoch millis
+     */
+    public CountCache(long expirationMs, LongSupplier clock) {
+        this.expirationMs = expirationMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the cached count of a key, expired or not
+     * @return the entry, or null if none
+     */
+    public Entry get(K key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.count() >= 0 ? entry : null;
+    }
+
+    /**
+     * Check if an entry is older than the expiration
+     */
+    public boolean isExpired(Entry entry) {
+        return clock.getAsLong() - entry.timestamp() > expirationMs;
+    }
+
+    /**
+     * Cache a count written now, unless the cached count has a later version
+     * @param version Version of the write or read the count came from
+     * @return true if the cache changed
+     */
+    public boolean put(K key, int count, long version) {
+        Entry written = new Entry(count, clock.getAsLong(), version);
+        return entries.merge(key, written, (current, next) -> current.version() > version ? current : next) == written;
+    }
+
+    /**
+     * Cache a count written elsewhere, unless the cached count was written later
+     * @param count New count, negative to drop the entry
+     * @param writtenAt When the count was written (epoch millis)
+     * @param version Version to give the entry
+     * @return true if the cache changed
+     */
+    public boolean putIfNewer(K key, int count, long writtenAt, long version) {
+        if (count < 0) {
+            Entry previous = entries.put(key, new Entry(-1, clock.getAsLong(), version));
+            return previous != null && previous.count() >= 0;
+        }
+        Entry written = new Entry(count, Math.min(writtenAt, clock.getAsLong()), version);
+        return entries.merge(key, written, (current, next) -> current.timestamp() > writtenAt ? current : next) == written;
+    }
+
+    /**
+     * Drop the cached count of a key, unless the cached count has a later version
+     * @param version Version of the drop
+     */
+    public void remove(K key, long version) {
+        put(key, -1, version);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Drop entries older than the expiration, and what is left of dropped counts
+     */
+    public void removeExpired() {
+        long now = clock.getAsLong();
+        entries.values().removeIf(entry -> now - entry.timestamp() > expirationMs);
+    }
+
+    /**
+     * Get number of entries, including recently dropped counts
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,20 @@
+package github.io.ssaspawnerlimiter.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for the time a storage worker waited on the SQLite connection lock.
+ * The stack trace shows which operation was waiting.
+ */
+@Name("ssaspawnerlimiter.DatabaseLock")
+@Label("Database Lock Wait")
+@Category({"SSASpawnerLimiter", "Database"})
+@Description("Wait for the read/write lock guarding the SQLite connection")
+public class DatabaseLockEvent extends Event {
+    @Label("Write Lock")
+    public boolean write;
+}
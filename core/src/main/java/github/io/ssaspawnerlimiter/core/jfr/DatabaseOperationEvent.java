@@ -0,0 +1,32 @@
+package github.io.ssaspawnerlimiter.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one storage call, from the call until its future completes.
+ * Recorded on the thread that completes the future, so the stack trace is not the caller's.
+ */
+@Name("ssaspawnerlimiter.DatabaseOperation")
+@Label("Database Operation")
+@Category({"SSASpawnerLimiter", "Database"})
+@Description("A storage call of the limiter, from the call until the result is ready")
+@StackTrace(false)
+public class DatabaseOperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Backend")
+    public String backend;
+
+    @Label("Rows")
+    @Description("Entries returned by list and map results, -1 for single values")
+    public int rows;
+
+    @Label("Success")
+    public boolean success;
+}
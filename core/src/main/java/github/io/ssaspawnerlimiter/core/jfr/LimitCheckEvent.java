@@ -0,0 +1,48 @@
+package github.io.ssaspawnerlimiter.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one limit decision on a spawner change.
+ * Only the count and limit of denied checks are known; passing checks share one result and report 0.
+ */
+@Name("ssaspawnerlimiter.LimitCheck")
+@Label("Spawner Limit Check")
+@Category({"SSASpawnerLimiter", "Limits"})
+@Description("A chunk, world, area, player or entity type limit decided on a spawner change")
+@StackTrace(false)
+public class LimitCheckEvent extends Event {
+    @Label("Limit Type")
+    @Description("chunk, world, area, player, chunk_entity or player_entity")
+    public String limitType;
+
+    @Label("World")
+    public String world;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Result")
+    @Description("allowed, denied or unavailable")
+    public String result;
+
+    @Label("Count")
+    public long current;
+
+    @Label("Limit")
+    public long limit;
+}
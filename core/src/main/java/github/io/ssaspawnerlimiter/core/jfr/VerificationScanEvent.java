@@ -0,0 +1,34 @@
+package github.io.ssaspawnerlimiter.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one chunk verification, which scans every spawner SmartSpawner knows about.
+ */
+@Name("ssaspawnerlimiter.VerificationScan")
+@Label("Chunk Verification Scan")
+@Category({"SSASpawnerLimiter", "Limits"})
+@Description("Recount of a chunk's spawners from SmartSpawner's spawner list")
+@StackTrace(false)
+public class VerificationScanEvent extends Event {
+    @Label("World")
+    public String world;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Spawners Scanned")
+    public int spawnersScanned;
+
+    @Label("Counted Spawners")
+    @Description("Stack sizes summed over the chunk, -1 if the scan failed")
+    public int counted;
+}
@@ -0,0 +1,20 @@
+package github.io.ssaspawnerlimiter.core.key;
+
+/**
+ * Immutable key for identifying block positions across worlds.
+ * Thread-safe and suitable for use as HashMap keys.
+ */
+public record BlockKey(String world, int x, int y, int z) {
+
+    /**
+     * Get key of the chunk containing this block
+     */
+    public ChunkKey toChunkKey() {
+        return ChunkKey.ofBlock(world, x, z);
+    }
+
+    @Override
+    public String toString() {
+        return world + ":" + x + "," + y + "," + z;
+    }
+}
@@ -1,7 +1,4 @@
-package github.io.ssaspawnerlimiter.util;
-
-import org.bukkit.Chunk;
-import org.bukkit.Location;
+package github.io.ssaspawnerlimiter.core.key;
 
 /**
  * Immutable key for identifying chunks across worlds.
@@ -9,12 +6,11 @@ import org.bukkit.Location;
  */
 public record ChunkKey(String world, int x, int z) {
 
-    public ChunkKey(Chunk chunk) {
-        this(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
-    }
-
-    public ChunkKey(Location location) {
-        this(location.getChunk());
+    /**
+     * Get key of the chunk containing a block
+     */
+    public static ChunkKey ofBlock(String world, int blockX, int blockZ) {
+        return new ChunkKey(world, blockX >> 4, blockZ >> 4);
     }
 
     @Override
@@ -0,0 +1,291 @@
+package github.io.ssaspawnerlimiter.core.limit;
+
+import github.io.ssaspawnerlimiter.core.cache.CountCache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Counts of one kind of key (chunks, players) for limit checks: the cached stored count, loaded from storage on a
+ * miss, plus changes that are buffered or still being written. Knows nothing about the server, the key is any value
+ * usable as a map key and storage, pending deltas and load state are plugged in as functions.
+ * <p>
+ * Writes of one key run one after another and each takes a version from one sequence, so the cache only moves
+ * forward: a write result never replaces the result of a later write, and a load only caches what it read if no write
+ * of the key was in flight. Pending deltas are read before the stored count and must be released only after the
+ * write carrying them has updated the cache, so a concurrent check can over-count an increase but never miss it;
+ * decreases must not be pending, or a check could count them twice.
+ */
+public final class CountEngine<K> {
+    private final CountCache<K> cache;
+    private final Loader<K> loader;
+    private final IntUnaryOperator unavailableCount;
+    private final ToIntFunction<K> pendingDelta;
+    private final BooleanSupplier degraded;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    // Last write of each key with writes in flight, the next one is chained to it
+    private final Map<K, CompletableFuture<Integer>> writeTails = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Reads a stored count with a bounded wait
+     */
+    @FunctionalInterface
+    public interface Loader<K> {
+        /**
+         * @return the stored count, or null if it couldn't be read in time
+         */
+        Integer load(K key);
+    }
+
+    private CountEngine(Builder<K> builder) {
+        this.cache = new CountCache<>(builder.expirationMs, builder.clock);
+        this.loader = builder.loader;
+        this.unavailableCount = builder.unavailableCount;
+        this.pendingDelta = builder.pendingDelta;
+        this.degraded = builder.degraded;
+        this.hits = builder.hits;
+        this.misses = builder.misses;
+    }
+
+    /**
+     * Check adding to the count of a key against a limit
+     * @param key The key
+     * @param quantity Quantity being added
+     * @param limit The limit
+     * @return the outcome, {@link LimitCheck#UNAVAILABLE} if the count couldn't be read
+     */
+    public LimitCheck check(K key, int quantity, long limit) {
+        // Pending first: a write completing in between is then counted twice rather than not at all
+        int pending = pendingDelta.applyAsInt(key);
+        int stored = storedCount(key);
+        if (stored < 0) {
+            return LimitCheck.UNAVAILABLE;
+        }
+        return LimitCheck.of(stored + pending, quantity, limit);
+    }
+
+    /**
+     * Get the stored count of a key from the cache, or storage on a miss
+     * @return the count, or -1 if it couldn't be read and the unavailable policy gives none
+     */
+    public int storedCount(K key) {
+        CountCache.Entry cached = cache.get(key);
+        // Under load an expired count is better than waiting on storage
+        if (cached != null && (!cache.isExpired(cached) || degraded.getAsBoolean())) {
+            hits.increment();
+            return cached.count();
+        }
+
+        misses.increment();
+        // Take the version in the same map operation that finds no write in flight, so a write issued afterwards
+        // gets a later one
+        long[] version = {-1L};
+        writeTails.computeIfAbsent(key, k -> {
+            version[0] = versions.get();
+            return null;
+        });
+        Integer count = loader.load(key);
+        if (count == null) {
+            return unavailableCount.applyAsInt(cached != null ? cached.count() : -1);
+        }
+        // With a write in flight the read may or may not include it, the write will cache its own result
+        if (version[0] >= 0) {
+            cache.put(key, count, version[0]);
+        }
+        return count;
+    }
+
+    /**
+     * Write to the stored count of a key once the key's earlier writes are done, and cache the result
+     * @param key The key
+     * @param writer Starts the write and returns the new stored count, or a negative count if it failed or the key
+     *               should be loaded again
+     * @return CompletableFuture with the writer's result, completing after it was cached
+     */
+    public CompletableFuture<Integer> write(K key, Supplier<CompletableFuture<Integer>> writer) {
+        // The version and the place in the key's chain are taken in one map operation, so versions follow the chain
+        CompletableFuture<Integer> done = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Integer>> previous = new AtomicReference<>();
+        long[] version = new long[1];
+        writeTails.compute(key, (k, tail) -> {
+            previous.set(tail);
+            version[0] = versions.incrementAndGet();
+            return done;
+        });
+
+        CompletableFuture<Integer> after = previous.get() != null ? previous.get() : CompletableFuture.completedFuture(0);
+        after.handle((ignored, throwable) -> null)
+            .thenCompose(ignored -> writer.get())
+            .whenComplete((count, throwable) -> {
+                // Nothing newer can be cached while the key has writes in flight, so a failure can drop the entry
+                if (throwable != null || count < 0) {
+                    cache.remove(key, version[0]);
+                } else {
+                    cache.put(key, count, version[0]);
+                }
+                writeTails.remove(key, done);
+                if (throwable != null) {
+                    done.completeExceptionally(throwable);
+                } else {
+                    done.complete(count);
+                }
+            });
+        return done;
+    }
+
+    /**
+     * Get the net increase of a key that is buffered or not yet written
+     */
+    public int pendingDelta(K key) {
+        return pendingDelta.applyAsInt(key);
+    }
+
+    /**
+     * Get the cached count of a key, expired or not
+     * @return the entry, or null if none
+     */
+    public CountCache.Entry cached(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Cache a count just written to storage outside of {@link #write(Object, Supplier)}
+     */
+    public void update(K key, int count) {
+        cache.put(key, count, versions.incrementAndGet());
+    }
+
+    /**
+     * Cache a count written by another server, unless the local count was written later.
+     * Ignored while local writes of the key are in flight, their results include the other server's change.
+     * @param count New count, negative to drop the entry
+     * @param writtenAt When the other server wrote the count (epoch millis)
+     * @return true if the cache changed
+     */
+    public boolean applyRemote(K key, int count, long writtenAt) {
+        if (writeTails.containsKey(key)) {
+            return false;
+        }
+        return cache.putIfNewer(key, count, writtenAt, versions.incrementAndGet());
+    }
+
+    /**
+     * Check if writes of a key are in flight
+     */
+    public boolean isWriting(K key) {
+        return writeTails.containsKey(key);
+    }
+
+    /**
+     * Get a future completing once the writes in flight of every key matching a filter are done, failed or not.
+     * Writes issued afterwards are not waited for.
+     */
+    public CompletableFuture<Void> awaitWrites(Predicate<? super K> filter) {
+        return CompletableFuture.allOf(writeTails.entrySet().stream()
+            .filter(entry -> filter.test(entry.getKey()))
+            .map(entry -> entry.getValue().handle((count, throwable) -> null))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    public void invalidate(K key) {
+        cache.remove(key, versions.incrementAndGet());
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public void removeExpired() {
+        cache.removeExpired();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Create a builder
+     * @param loader Reads stored counts on a cache miss
+     */
+    public static <K> Builder<K> builder(Loader<K> loader) {
+        return new Builder<>(loader);
+    }
+
+    public static final class Builder<K> {
+        private final Loader<K> loader;
+        private IntUnaryOperator unavailableCount = stale -> -1;
+        private ToIntFunction<K> pendingDelta = key -> 0;
+        private BooleanSupplier degraded = () -> false;
+        private LongAdder hits = new LongAdder();
+        private LongAdder misses = new LongAdder();
+        private long expirationMs = 300_000L;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        private Builder(Loader<K> loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * Count to use when storage can't be read, given the stale cached count or -1
+         */
+        public Builder<K> unavailableCount(IntUnaryOperator unavailableCount) {
+            this.unavailableCount = unavailableCount;
+            return this;
+        }
+
+        /**
+         * Net increase of a key that is buffered or not yet written, without decreases that aren't stored yet
+         */
+        public Builder<K> pendingDelta(ToIntFunction<K> pendingDelta) {
+            this.pendingDelta = pendingDelta;
+            return this;
+        }
+
+        /**
+         * Whether expired counts should be used instead of loading them again
+         */
+        public Builder<K> degraded(BooleanSupplier degraded) {
+            this.degraded = degraded;
+            return this;
+        }
+
+        /**
+         * Counters of cache hits and misses
+         */
+        public Builder<K> counters(LongAdder hits, LongAdder misses) {
+            this.hits = hits;
+            this.misses = misses;
+            return this;
+        }
+
+        public Builder<K> expirationMs(long expirationMs) {
+            this.expirationMs = expirationMs;
+            return this;
+        }
+
+        /**
+         * Current time in epoch millis
+         */
+        public Builder<K> clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CountEngine<K> build() {
+            return new CountEngine<>(this);
+        }
+    }
+}
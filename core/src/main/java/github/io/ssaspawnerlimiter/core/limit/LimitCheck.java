@@ -0,0 +1,32 @@
+package github.io.ssaspawnerlimiter.core.limit;
+
+/**
+ * Outcome of a limit check, carrying the count and limit it was decided on so a denial message
+ * doesn't have to look them up again. Passing checks share one instance.
+ * @param allowed Whether the change fits the limit
+ * @param current Count before the change
+ * @param limit Limit the count was checked against
+ */
+public record LimitCheck(boolean allowed, long current, long limit) {
+    public static final LimitCheck ALLOWED = new LimitCheck(true, 0, 0);
+    // Denied because the count couldn't be read in time
+    public static final LimitCheck UNAVAILABLE = new LimitCheck(false, -1, 0);
+
+    /**
+     * Check adding to a count against a limit
+     * @param current Count before the change
+     * @param quantity Quantity being added
+     * @param limit The limit
+     * @return {@link #ALLOWED}, or a denial carrying the count and limit
+     */
+    public static LimitCheck of(long current, int quantity, long limit) {
+        return current + quantity <= limit ? ALLOWED : new LimitCheck(false, current, limit);
+    }
+
+    /**
+     * Check if the change was denied because the count couldn't be read
+     */
+    public boolean unavailable() {
+        return !allowed && current < 0;
+    }
+}
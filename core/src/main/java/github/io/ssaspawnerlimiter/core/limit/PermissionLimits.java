@@ -0,0 +1,33 @@
+package github.io.ssaspawnerlimiter.core.limit;
+
+/**
+ * Per-player limits granted by permission nodes like {@code ssaspawnerlimiter.perplayer.1500}.
+ * Parsed by hand since a scan runs over every effective permission of a player.
+ */
+public final class PermissionLimits {
+    public static final String PREFIX = "ssaspawnerlimiter.perplayer.";
+    public static final String BYPASS = PREFIX + "bypass";
+
+    private PermissionLimits() {
+    }
+
+    /**
+     * Get the limit granted by a permission node
+     * @param permission The permission node
+     * @return the limit, or -1 if the node doesn't grant one
+     * @throws NumberFormatException if the limit doesn't fit an int
+     */
+    public static int parse(String permission) {
+        int length = permission.length();
+        if (length == PREFIX.length() || !permission.startsWith(PREFIX)) {
+            return -1;
+        }
+        for (int i = PREFIX.length(); i < length; i++) {
+            char c = permission.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(permission, PREFIX.length(), length, 10);
+    }
+}
@@ -0,0 +1,97 @@
+package github.io.ssaspawnerlimiter.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed power-of-two buckets in microseconds: bucket {@code i} counts durations below
+ * {@code 2^i} µs, the last bucket everything longer. Buckets are striped {@link LongAdder}s, so recording from many
+ * threads is two uncontended adds and never allocates. Percentiles are read back as bucket upper bounds.
+ */
+public final class LatencyHistogram {
+    // Last bucket starts at 2^22 µs, about 4 seconds
+    public static final int BUCKETS = 24;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record one duration
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos) / 1000L;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        totalNanos.add(nanos);
+    }
+
+    /**
+     * Record the time since a {@link System#nanoTime()} reading
+     * @param startNanos When the measured work started
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Get upper bound of a bucket in microseconds, or {@link Long#MAX_VALUE} for the last one
+     */
+    public static long upperBoundMicros(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Copy the current counts; concurrent records may or may not be included
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        return new Snapshot(counts, count, totalNanos.sum());
+    }
+
+    /**
+     * Point in time copy of a histogram
+     * @param counts Count of each bucket
+     * @param count Total number of recorded durations
+     * @param totalNanos Sum of recorded durations
+     */
+    public record Snapshot(long[] counts, long count, long totalNanos) {
+
+        /**
+         * Get mean duration in microseconds
+         */
+        public double meanMicros() {
+            return count == 0 ? 0.0 : totalNanos / 1000.0 / count;
+        }
+
+        /**
+         * Get the upper bound of the bucket holding a percentile
+         * @param quantile Percentile as a fraction, e.g. 0.99
+         * @return bound in microseconds, 0 if empty, or {@link Long#MAX_VALUE} if in the overflow bucket
+         */
+        public long percentileMicros(double quantile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * count);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundMicros(i);
+                }
+            }
+            return upperBoundMicros(counts.length - 1);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package github.io.ssaspawnerlimiter.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Renders a {@link MetricsRegistry} in the Prometheus text exposition format (version 0.0.4).
+ * Metric names are prefixed and have dots replaced by underscores: counters get a {@code _total} suffix and
+ * histograms a {@code _seconds} suffix with cumulative {@code le} buckets. Reads only snapshots of the registry,
+ * so rendering never blocks recording.
+ */
+public final class PrometheusFormat {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat() {
+    }
+
+    /**
+     * Render every metric of a registry
+     * @param registry The registry
+     * @param prefix Prefix of every metric name, e.g. {@code ssaspawnerlimiter}
+     * @return exposition text
+     */
+    public static String render(MetricsRegistry registry, String prefix) {
+        StringBuilder out = new StringBuilder(4096);
+
+        for (Map.Entry<String, Long> counter : registry.counterValues().entrySet()) {
+            String name = name(prefix, counter.getKey()) + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, Long> gauge : registry.gaugeValues().entrySet()) {
+            String name = name(prefix, gauge.getKey());
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(gauge.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, LatencyHistogram.Snapshot> histogram : registry.histogramSnapshots().entrySet()) {
+            String name = name(prefix, histogram.getKey()) + "_seconds";
+            LatencyHistogram.Snapshot snapshot = histogram.getValue();
+            long[] counts = snapshot.counts();
+
+            out.append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = 0; i < counts.length - 1; i++) {
+                cumulative += counts[i];
+                out.append(name).append("_bucket{le=\"")
+                    .append(LatencyHistogram.upperBoundMicros(i) / 1_000_000.0)
+                    .append("\"} ").append(cumulative).append('\n');
+            }
+            out.append(name).append("_bucket{le=\"+Inf\"} ").append(snapshot.count()).append('\n');
+            out.append(name).append("_sum ").append(snapshot.totalNanos() / 1_000_000_000.0).append('\n');
+            out.append(name).append("_count ").append(snapshot.count()).append('\n');
+        }
+
+        return out.toString();
+    }
+
+    private static String name(String prefix, String metric) {
+        StringBuilder name = new StringBuilder(prefix.length() + metric.length() + 1).append(prefix).append('_');
+        for (int i = 0; i < metric.length(); i++) {
+            char c = metric.charAt(i);
+            name.append(Character.isLetterOrDigit(c) || c == '_' ? c : '_');
+        }
+        return name.toString();
+    }
+}
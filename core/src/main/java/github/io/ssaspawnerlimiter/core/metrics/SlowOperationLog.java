@@ -0,0 +1,314 @@
+package github.io.ssaspawnerlimiter.core.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Log of operations slower than their category's threshold, with the key they worked on, a breakdown of where the
+ * time went and the thread that ran them. Entries are handed to a bounded queue and formatted and written by one
+ * background thread to a size-rotated file, so callers never touch the disk. At most a configured number of entries
+ * are accepted per second; the rest are counted and summarized, and entries that don't fit the queue are dropped.
+ */
+public final class SlowOperationLog implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path file;
+    private final Logger logger;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private final LongAdder logged = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+
+    private volatile Settings settings = Settings.DISABLED;
+    private volatile boolean running = true;
+
+    // Sampling window, guarded by this
+    private long windowStart = System.nanoTime() - WINDOW_NANOS;
+    private int windowCount;
+    private int windowSuppressed;
+
+    // Written by the writer thread only
+    private BufferedWriter writer;
+    private long fileSize;
+
+    /**
+     * Kind of operation, each with its own threshold
+     */
+    public enum Category {
+        LIMIT_CHECK,
+        VERIFICATION,
+        DATABASE
+    }
+
+    /**
+     * @param enabled Whether slow operations are logged
+     * @param limitCheckNanos Threshold of limit checks
+     * @param verificationNanos Threshold of chunk verifications
+     * @param databaseNanos Threshold of database calls
+     * @param maxEntriesPerSecond Entries accepted per second, the rest are only counted
+     * @param maxFileBytes Size at which the log file is rotated
+     * @param maxFiles Number of rotated files kept next to the current one
+     */
+    public record Settings(boolean enabled, long limitCheckNanos, long verificationNanos, long databaseNanos,
+                           int maxEntriesPerSecond, long maxFileBytes, int maxFiles) {
+        public static final Settings DISABLED = new Settings(false, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+            0, Long.MAX_VALUE, 0);
+
+        long threshold(Category category) {
+            return switch (category) {
+                case LIMIT_CHECK -> limitCheckNanos;
+                case VERIFICATION -> verificationNanos;
+                case DATABASE -> databaseNanos;
+            };
+        }
+    }
+
+    /**
+     * @param file Log file, rotated to {@code file.1}, {@code file.2}, ...
+     * @param logger Logger for failures to write the file
+     */
+    public SlowOperationLog(Path file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+        this.writerThread = new Thread(this::writeLoop, "SSASpawnerLimiter-SlowLog");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    public void configure(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Check if a duration is slow enough to be logged
+     */
+    public boolean isSlow(Category category, long nanos) {
+        Settings current = settings;
+        return current.enabled() && nanos >= current.threshold(category);
+    }
+
+    /**
+     * Start an entry on the current thread; call {@link Entry#submit()} to log it
+     * @param operation Name of the operation
+     * @param key Chunk, player or other key the operation worked on, formatted only if the entry is written
+     * @param totalNanos Total duration
+     */
+    public Entry entry(String operation, Object key, long totalNanos) {
+        return new Entry(operation, key, totalNanos);
+    }
+
+    /**
+     * Get number of entries written or queued since startup
+     */
+    public long getLoggedCount() {
+        return logged.sum();
+    }
+
+    /**
+     * Get number of slow operations not logged because of sampling or a full queue
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * Write queued entries and stop the writer thread
+     */
+    @Override
+    public void close() {
+        // Not interrupted, that would close the file channel mid-write
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Entry entry) {
+        Settings current = settings;
+        int suppressedBefore = 0;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - windowStart >= WINDOW_NANOS) {
+                suppressedBefore = windowSuppressed;
+                windowStart = now;
+                windowCount = 0;
+                windowSuppressed = 0;
+            }
+            if (windowCount >= current.maxEntriesPerSecond()) {
+                windowSuppressed++;
+                suppressed.increment();
+                return;
+            }
+            windowCount++;
+        }
+
+        entry.suppressedBefore = suppressedBefore;
+        if (queue.offer(entry)) {
+            logged.increment();
+        } else {
+            suppressed.increment();
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            Entry entry;
+            try {
+                entry = running ? queue.poll(250, TimeUnit.MILLISECONDS) : queue.poll();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            try {
+                if (entry != null) {
+                    write(entry);
+                    // Write the whole burst before flushing
+                    while ((entry = queue.poll()) != null) {
+                        write(entry);
+                    }
+                }
+                if (writer != null) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to write slow operation log " + file, e);
+                closeWriter();
+            }
+        }
+        closeWriter();
+    }
+
+    private void write(Entry entry) throws IOException {
+        StringBuilder line = new StringBuilder(160);
+        if (entry.suppressedBefore > 0) {
+            line.append(Instant.ofEpochMilli(entry.timestamp)).append(" (")
+                .append(entry.suppressedBefore).append(" more slow operations not logged in the previous second)\n");
+        }
+        line.append(Instant.ofEpochMilli(entry.timestamp)).append(' ').append(entry.operation)
+            .append(" key=").append(entry.key)
+            .append(" total=").append(millis(entry.totalNanos));
+        for (int i = 0; i < entry.phaseCount; i++) {
+            line.append(' ').append(entry.phaseNames[i]).append('=').append(millis(entry.phaseNanos[i]));
+        }
+        line.append(" thread=\"").append(entry.thread).append("\"\n");
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (writer == null) {
+            openWriter();
+        } else if (fileSize + bytes.length > settings.maxFileBytes()) {
+            closeWriter();
+            rotate();
+            openWriter();
+        }
+        writer.write(line.toString());
+        fileSize += bytes.length;
+    }
+
+    private void openWriter() throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        fileSize = Files.size(file);
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close slow operation log " + file, e);
+        }
+        writer = null;
+    }
+
+    private void rotate() throws IOException {
+        int maxFiles = settings.maxFiles();
+        if (maxFiles <= 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        Files.deleteIfExists(rotated(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            if (Files.exists(rotated(i))) {
+                Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * One slow operation with up to four timed phases
+     */
+    public final class Entry {
+        private static final int MAX_PHASES = 4;
+
+        private final long timestamp = System.currentTimeMillis();
+        private final String operation;
+        private final Object key;
+        private final long totalNanos;
+        private final String[] phaseNames = new String[MAX_PHASES];
+        private final long[] phaseNanos = new long[MAX_PHASES];
+        private int phaseCount;
+        private String thread = Thread.currentThread().getName();
+        private int suppressedBefore;
+
+        private Entry(String operation, Object key, long totalNanos) {
+            this.operation = operation;
+            this.key = key;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Add a timed part of the operation
+         */
+        public Entry phase(String name, long nanos) {
+            if (phaseCount < MAX_PHASES) {
+                phaseNames[phaseCount] = name;
+                phaseNanos[phaseCount] = nanos;
+                phaseCount++;
+            }
+            return this;
+        }
+
+        /**
+         * Attribute the operation to another thread, e.g. the one that issued an async call
+         */
+        public Entry thread(String name) {
+            this.thread = name;
+            return this;
+        }
+
+        /**
+         * Queue the entry, unless too many were logged this second
+         */
+        public void submit() {
+            SlowOperationLog.this.submit(this);
+        }
+    }
+}
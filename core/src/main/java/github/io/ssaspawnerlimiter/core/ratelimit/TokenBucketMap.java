@@ -0,0 +1,176 @@
+package github.io.ssaspawnerlimiter.core.ratelimit;
+
+/**
+ * Token buckets keyed by a primitive long, stored without per-key objects.
+ * Each bucket is a single theoretical arrival time (the GCRA form of a token bucket): a request at {@code now}
+ * is allowed while {@code tat - now} stays within the burst tolerance, and pushes {@code tat} one emission interval
+ * further. Keys live in open-addressing tables split into lock-striped segments, and buckets that have refilled
+ * completely are dropped when a segment is rebuilt, so memory follows the number of recently active keys.
+ * Thread-safe, {@link #tryAcquire(long, long)} only allocates when a segment is rebuilt.
+ */
+public final class TokenBucketMap {
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * @param ratePerSecond Sustained rate each key may acquire at
+     * @param burst Number of acquisitions allowed back to back from a full bucket
+     */
+    public TokenBucketMap(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1");
+        }
+        this.emissionIntervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = emissionIntervalNanos * (burst - 1);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Take one token from a key's bucket
+     * @param key Bucket key
+     * @param nowNanos Current {@link System#nanoTime()}
+     * @return true if a token was available, false if the key is over its rate
+     */
+    public boolean tryAcquire(long key, long nowNanos) {
+        long hash = mix(key);
+        Segment segment = segments[(int) (hash >>> 60) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            int slot = segment.find(key, hash);
+            boolean present = segment.used[slot];
+            long tat = present ? Math.max(segment.tats[slot], nowNanos) : nowNanos;
+            if (tat - nowNanos > toleranceNanos) {
+                return false;
+            }
+
+            segment.tats[slot] = tat + emissionIntervalNanos;
+            if (!present) {
+                segment.used[slot] = true;
+                segment.keys[slot] = key;
+                if (++segment.size * 2 > segment.keys.length) {
+                    segment.rebuild(nowNanos);
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Get number of tracked buckets
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Drop buckets that have refilled completely and shrink the tables
+     * @param nowNanos Current {@link System#nanoTime()}
+     */
+    public void purgeIdle(long nowNanos) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.rebuild(nowNanos);
+            }
+        }
+    }
+
+    /**
+     * Drop all buckets
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.reset(INITIAL_CAPACITY);
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Linear probing table, guarded by its own monitor
+     */
+    private static final class Segment {
+        long[] keys;
+        long[] tats;
+        boolean[] used;
+        int size;
+
+        Segment() {
+            reset(INITIAL_CAPACITY);
+        }
+
+        void reset(int capacity) {
+            keys = new long[capacity];
+            tats = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+        }
+
+        /**
+         * Find the slot holding a key, or the free slot it would go into
+         */
+        int find(long key, long hash) {
+            int mask = keys.length - 1;
+            int slot = (int) hash & mask;
+            while (used[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Rehash live buckets, dropping full ones, and grow if still more than a quarter full
+         */
+        void rebuild(long nowNanos) {
+            long[] oldKeys = keys;
+            long[] oldTats = tats;
+            boolean[] oldUsed = used;
+
+            int live = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldUsed[i] && oldTats[i] > nowNanos) {
+                    live++;
+                }
+            }
+
+            int capacity = oldKeys.length;
+            while (live * 4 > capacity) {
+                capacity <<= 1;
+            }
+            while (capacity > INITIAL_CAPACITY && live * 8 < capacity) {
+                capacity >>= 1;
+            }
+
+            reset(capacity);
+            for (int i = 0; i < oldKeys.length; i++) {
+                // A bucket whose arrival time has passed is full again, same as an absent one
+                if (oldUsed[i] && oldTats[i] > nowNanos) {
+                    int slot = find(oldKeys[i], mix(oldKeys[i]));
+                    used[slot] = true;
+                    keys[slot] = oldKeys[i];
+                    tats[slot] = oldTats[i];
+                    size++;
+                }
+            }
+        }
+    }
+}
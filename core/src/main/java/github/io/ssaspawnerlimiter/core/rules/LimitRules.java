@@ -0,0 +1,184 @@
+package github.io.ssaspawnerlimiter.core.rules;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-world and per-entity-type limits, compiled into flat lookup tables.
+ * Worlds and entity types are mapped to small ids once, so a check is a couple of array reads.
+ * World id 0 is shared by all worlds without their own rules, entity id 0 ({@link #ANY_ENTITY}) is the total over all types.
+ * Instances are immutable, reloading compiles a new one.
+ */
+public final class LimitRules {
+    public static final int ANY_ENTITY = 0;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final Map<String, Integer> worldIds;
+    private final Map<String, Integer> entityIds;
+    private final int[][] chunkLimits;
+    private final int[] playerLimits;
+    private final boolean entityRules;
+
+    private LimitRules(Map<String, Integer> worldIds, Map<String, Integer> entityIds,
+                       int[][] chunkLimits, int[] playerLimits, boolean entityRules) {
+        this.worldIds = worldIds;
+        this.entityIds = entityIds;
+        this.chunkLimits = chunkLimits;
+        this.playerLimits = playerLimits;
+        this.entityRules = entityRules;
+    }
+
+    /**
+     * Get id of a world, 0 if it has no rules of its own
+     */
+    public int worldId(String world) {
+        return worldIds.getOrDefault(world, 0);
+    }
+
+    /**
+     * Get id of an entity type (its position in the list given to the builder plus one),
+     * {@link #ANY_ENTITY} if unknown
+     */
+    public int entityId(String entityType) {
+        return entityType != null ? entityIds.getOrDefault(entityType, ANY_ENTITY) : ANY_ENTITY;
+    }
+
+    /**
+     * Get the per-chunk limit
+     * @param worldId World id from {@link #worldId(String)}
+     * @param entityId Entity id from {@link #entityId(String)}, or {@link #ANY_ENTITY} for the total
+     * @return the limit, or {@link #UNLIMITED}
+     */
+    public int chunkLimit(int worldId, int entityId) {
+        return chunkLimits[worldId][entityId];
+    }
+
+    /**
+     * Get the per-player limit of one entity type
+     * @param entityId Entity id from {@link #entityId(String)}
+     * @return the limit, or {@link #UNLIMITED}
+     */
+    public int playerLimit(int entityId) {
+        return playerLimits[entityId];
+    }
+
+    /**
+     * Check if any per-entity-type limit is configured
+     */
+    public boolean hasEntityRules() {
+        return entityRules;
+    }
+
+    /**
+     * Create a builder
+     * @param defaultChunkLimit Per-chunk total for worlds without their own
+     * @param entityTypes All entity type names, in ordinal order
+     */
+    public static Builder builder(int defaultChunkLimit, List<String> entityTypes) {
+        return new Builder(defaultChunkLimit, entityTypes);
+    }
+
+    public static final class Builder {
+        private final int defaultChunkLimit;
+        private final List<String> entityTypes;
+        private final Map<String, Integer> worldChunkLimits = new LinkedHashMap<>();
+        private final Map<String, Integer> entityChunkLimits = new HashMap<>();
+        private final Map<String, Map<String, Integer>> worldEntityChunkLimits = new LinkedHashMap<>();
+        private final Map<String, Integer> entityPlayerLimits = new HashMap<>();
+
+        private Builder(int defaultChunkLimit, List<String> entityTypes) {
+            this.defaultChunkLimit = defaultChunkLimit;
+            this.entityTypes = entityTypes;
+        }
+
+        /**
+         * Set the per-chunk total of a world
+         */
+        public Builder worldChunkLimit(String world, int limit) {
+            worldChunkLimits.put(world, limit);
+            return this;
+        }
+
+        /**
+         * Set the per-chunk limit of an entity type in all worlds
+         */
+        public Builder entityChunkLimit(String entityType, int limit) {
+            entityChunkLimits.put(entityType, limit);
+            return this;
+        }
+
+        /**
+         * Set the per-chunk limit of an entity type in one world, overriding {@link #entityChunkLimit(String, int)}
+         */
+        public Builder worldEntityChunkLimit(String world, String entityType, int limit) {
+            worldEntityChunkLimits.computeIfAbsent(world, k -> new HashMap<>()).put(entityType, limit);
+            return this;
+        }
+
+        /**
+         * Set the per-player limit of an entity type
+         */
+        public Builder entityPlayerLimit(String entityType, int limit) {
+            entityPlayerLimits.put(entityType, limit);
+            return this;
+        }
+
+        /**
+         * Compile the lookup tables
+         * @throws IllegalArgumentException if a rule names an unknown entity type
+         */
+        public LimitRules build() {
+            Map<String, Integer> entityIds = new HashMap<>();
+            for (int i = 0; i < entityTypes.size(); i++) {
+                entityIds.put(entityTypes.get(i), i + 1);
+            }
+
+            Map<String, Integer> worldIds = new HashMap<>();
+            for (String world : worldChunkLimits.keySet()) {
+                worldIds.putIfAbsent(world, worldIds.size() + 1);
+            }
+            for (String world : worldEntityChunkLimits.keySet()) {
+                worldIds.putIfAbsent(world, worldIds.size() + 1);
+            }
+
+            int entityCount = entityTypes.size() + 1;
+            int[] defaultRow = new int[entityCount];
+            Arrays.fill(defaultRow, UNLIMITED);
+            defaultRow[ANY_ENTITY] = defaultChunkLimit;
+            entityChunkLimits.forEach((entityType, limit) -> defaultRow[requireEntity(entityIds, entityType)] = limit);
+
+            int[][] chunkLimits = new int[worldIds.size() + 1][];
+            chunkLimits[0] = defaultRow;
+            worldIds.forEach((world, id) -> {
+                int[] row = defaultRow.clone();
+                Integer total = worldChunkLimits.get(world);
+                if (total != null) {
+                    row[ANY_ENTITY] = total;
+                }
+                worldEntityChunkLimits.getOrDefault(world, Map.of())
+                    .forEach((entityType, limit) -> row[requireEntity(entityIds, entityType)] = limit);
+                chunkLimits[id] = row;
+            });
+
+            int[] playerLimits = new int[entityCount];
+            Arrays.fill(playerLimits, UNLIMITED);
+            entityPlayerLimits.forEach((entityType, limit) -> playerLimits[requireEntity(entityIds, entityType)] = limit);
+
+            boolean entityRules = !entityChunkLimits.isEmpty() || !entityPlayerLimits.isEmpty()
+                || worldEntityChunkLimits.values().stream().anyMatch(limits -> !limits.isEmpty());
+
+            return new LimitRules(Map.copyOf(worldIds), Map.copyOf(entityIds), chunkLimits, playerLimits, entityRules);
+        }
+
+        private static int requireEntity(Map<String, Integer> entityIds, String entityType) {
+            Integer id = entityIds.get(entityType);
+            if (id == null) {
+                throw new IllegalArgumentException("Unknown entity type: " + entityType);
+            }
+            return id;
+        }
+    }
+}
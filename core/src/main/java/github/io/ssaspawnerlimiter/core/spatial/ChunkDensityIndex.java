@@ -0,0 +1,195 @@
+package github.io.ssaspawnerlimiter.core.spatial;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spawner counts of one world's chunks, indexed for fast rectangle sums.
+ * Chunks are grouped into region-sized tiles of 32x32 chunks, each holding a dense 2D Fenwick tree,
+ * so a point update is O(log² 32) and a rectangle sum costs one Fenwick query per partially covered tile
+ * plus the stored total of every fully covered tile. Only tiles with spawners are allocated.
+ * Thread-safe.
+ */
+public final class ChunkDensityIndex {
+    private static final int TILE_SHIFT = 5;
+    private static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private final Map<Long, Tile> tiles = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Get the count of one chunk
+     */
+    public int get(int chunkX, int chunkZ) {
+        lock.readLock().lock();
+        try {
+            Tile tile = tiles.get(tileKey(chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT));
+            return tile != null ? tile.counts[(chunkZ & TILE_MASK) * TILE_SIZE + (chunkX & TILE_MASK)] : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Set the count of one chunk
+     * @param count New count (negative is treated as 0)
+     * @return the previous count
+     */
+    public int set(int chunkX, int chunkZ, int count) {
+        count = Math.max(0, count);
+        long key = tileKey(chunkX >> TILE_SHIFT, chunkZ >> TILE_SHIFT);
+        int localX = chunkX & TILE_MASK;
+        int localZ = chunkZ & TILE_MASK;
+
+        lock.writeLock().lock();
+        try {
+            Tile tile = tiles.get(key);
+            if (tile == null) {
+                if (count == 0) {
+                    return 0;
+                }
+                tile = new Tile();
+                tiles.put(key, tile);
+            }
+
+            int previous = tile.counts[localZ * TILE_SIZE + localX];
+            if (previous != count) {
+                tile.add(localX, localZ, count - previous);
+                if (tile.total == 0) {
+                    tiles.remove(key);
+                }
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add to the count of one chunk
+     * @param delta Count change, the count doesn't go below 0
+     * @return the new count
+     */
+    public int add(int chunkX, int chunkZ, int delta) {
+        lock.writeLock().lock();
+        try {
+            int count = Math.max(0, get(chunkX, chunkZ) + delta);
+            set(chunkX, chunkZ, count);
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sum the counts of all chunks in a rectangle (bounds inclusive)
+     */
+    public long sum(int minChunkX, int minChunkZ, int maxChunkX, int maxChunkZ) {
+        if (minChunkX > maxChunkX || minChunkZ > maxChunkZ) {
+            return 0;
+        }
+
+        int minTileX = minChunkX >> TILE_SHIFT;
+        int minTileZ = minChunkZ >> TILE_SHIFT;
+        int maxTileX = maxChunkX >> TILE_SHIFT;
+        int maxTileZ = maxChunkZ >> TILE_SHIFT;
+
+        lock.readLock().lock();
+        try {
+            long sum = 0;
+            for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+                for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+                    Tile tile = tiles.get(tileKey(tileX, tileZ));
+                    if (tile == null) {
+                        continue;
+                    }
+
+                    int x1 = tileX == minTileX ? minChunkX & TILE_MASK : 0;
+                    int z1 = tileZ == minTileZ ? minChunkZ & TILE_MASK : 0;
+                    int x2 = tileX == maxTileX ? maxChunkX & TILE_MASK : TILE_MASK;
+                    int z2 = tileZ == maxTileZ ? maxChunkZ & TILE_MASK : TILE_MASK;
+                    if (x1 == 0 && z1 == 0 && x2 == TILE_MASK && z2 == TILE_MASK) {
+                        sum += tile.total;
+                    } else {
+                        sum += tile.sum(x1, z1, x2, z2);
+                    }
+                }
+            }
+            return sum;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove all counts
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tiles.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get number of allocated tiles
+     */
+    public int getTileCount() {
+        lock.readLock().lock();
+        try {
+            return tiles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long tileKey(int tileX, int tileZ) {
+        return ((long) tileX << 32) | (tileZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * One 32x32 chunk tile: raw counts plus a 1-based 2D Fenwick tree over them
+     */
+    private static final class Tile {
+        private static final int STRIDE = TILE_SIZE + 1;
+
+        final int[] counts = new int[TILE_SIZE * TILE_SIZE];
+        final long[] tree = new long[STRIDE * STRIDE];
+        long total;
+
+        void add(int localX, int localZ, int delta) {
+            counts[localZ * TILE_SIZE + localX] += delta;
+            total += delta;
+            for (int z = localZ + 1; z <= TILE_SIZE; z += z & -z) {
+                for (int x = localX + 1; x <= TILE_SIZE; x += x & -x) {
+                    tree[z * STRIDE + x] += delta;
+                }
+            }
+        }
+
+        /**
+         * Sum of the rectangle [x1, x2] x [z1, z2] in local coordinates
+         */
+        long sum(int x1, int z1, int x2, int z2) {
+            return prefix(x2, z2) - prefix(x1 - 1, z2) - prefix(x2, z1 - 1) + prefix(x1 - 1, z1 - 1);
+        }
+
+        /**
+         * Sum of the rectangle [0, x] x [0, z], 0 if either bound is negative
+         */
+        private long prefix(int x, int z) {
+            long sum = 0;
+            for (int i = z + 1; i > 0; i -= i & -i) {
+                for (int j = x + 1; j > 0; j -= j & -j) {
+                    sum += tree[i * STRIDE + j];
+                }
+            }
+            return sum;
+        }
+    }
+}
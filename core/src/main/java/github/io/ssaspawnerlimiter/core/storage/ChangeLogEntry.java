@@ -0,0 +1,9 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+/**
+ * Row of the shared change log used to propagate cache updates between servers.
+ * @param seq Sequence number assigned by the database
+ * @param origin Id of the server that wrote the entry
+ * @param payload Encoded change batch
+ */
+public record ChangeLogEntry(long seq, String origin, byte[] payload) {}
@@ -0,0 +1,10 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+/**
+ * Spawner count of one chunk, used for bulk loading
+ * @param chunkX Chunk X coordinate
+ * @param chunkZ Chunk Z coordinate
+ * @param count Spawner count
+ */
+public record ChunkCount(int chunkX, int chunkZ, int count) {
+}
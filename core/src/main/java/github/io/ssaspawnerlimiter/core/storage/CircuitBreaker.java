@@ -0,0 +1,99 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker for synchronous database reads.
+ * Trips open after a number of consecutive failed or slow calls, so callers stop waiting on a database that can't
+ * answer in time. While open, no calls are let through; the owner probes the database in the background and
+ * {@link #close()}s the breaker once it answers again. Thread-safe.
+ */
+public final class CircuitBreaker {
+    private final int failureThreshold;
+    private final long slowCallNanos;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    /**
+     * State of the breaker
+     */
+    public enum State {
+        CLOSED,
+        OPEN
+    }
+
+    /**
+     * @param failureThreshold Consecutive failed or slow calls that trip the breaker
+     * @param slowCallNanos Calls taking longer than this count as failed even if they returned
+     */
+    public CircuitBreaker(int failureThreshold, long slowCallNanos) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.slowCallNanos = slowCallNanos;
+    }
+
+    /**
+     * Check if a call may go to the database, counting it as rejected otherwise
+     */
+    public boolean tryAcquire() {
+        if (state.get() == State.CLOSED) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Record the outcome of a call let through
+     * @param elapsedNanos How long the call took
+     * @param success Whether it returned a value
+     * @return true if this call tripped the breaker
+     */
+    public boolean record(long elapsedNanos, boolean success) {
+        if (success && elapsedNanos <= slowCallNanos) {
+            consecutiveFailures.set(0);
+            return false;
+        }
+
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && state.compareAndSet(State.CLOSED, State.OPEN)) {
+            trips.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Close the breaker after a successful probe
+     * @return true if it was open
+     */
+    public boolean close() {
+        consecutiveFailures.set(0);
+        return state.compareAndSet(State.OPEN, State.CLOSED);
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Get number of calls rejected while open
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Get number of times the breaker tripped
+     */
+    public long getTripCount() {
+        return trips.sum();
+    }
+}
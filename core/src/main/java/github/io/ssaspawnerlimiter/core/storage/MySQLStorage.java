@@ -0,0 +1,1130 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pooled JDBC storage backend for MySQL/MariaDB, intended for several servers sharing one database.
+ * Writes are queued and flushed in batches, each flush coalesces all pending operations per key
+ * into one server-side atomic upsert inside a single transaction.
+ */
+public class MySQLStorage implements SpawnerStorage {
+    private static final int MAX_FLUSH_RETRIES = 6;
+    private static final long MAX_RETRY_DELAY_MS = 10_000L;
+
+    private final Logger logger;
+    private final Settings settings;
+    private HikariDataSource dataSource;
+
+    // Pending writes, flushed in order by the writer thread
+    private final Object queueLock = new Object();
+    private List<WriteOp> pendingWrites = new ArrayList<>();
+    private boolean closed;
+    // Writer thread only: consecutive failed flushes, and when the queued batch may be retried
+    private int failedFlushes;
+    private long retryAtNanos;
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SSASpawnerLimiter-MySQL-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MySQLStorage(Logger logger, Settings settings) {
+        this.logger = logger;
+        this.settings = settings;
+    }
+
+    @Override
+    public String getName() {
+        return settings.mariadb() ? "MariaDB" : "MySQL";
+    }
+
+    /**
+     * Initialize connection pool and create tables
+     */
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                HikariConfig config = new HikariConfig();
+                config.setPoolName("SSASpawnerLimiter-Pool");
+                config.setJdbcUrl(settings.jdbcUrl());
+                config.setUsername(settings.username());
+                config.setPassword(settings.password());
+                config.setMaximumPoolSize(settings.poolSize());
+                config.setMinimumIdle(Math.min(2, settings.poolSize()));
+                config.setConnectionTimeout(10_000L);
+                config.addDataSourceProperty("cachePrepStmts", "true");
+                config.addDataSourceProperty("prepStmtCacheSize", "250");
+                config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+                config.addDataSourceProperty("useServerPrepStmts", "true");
+                config.addDataSourceProperty("rewriteBatchedStatements", "true");
+                dataSource = new HikariDataSource(config);
+
+                createTables();
+
+                writer.scheduleWithFixedDelay(this::flushWrites,
+                    settings.batchIntervalMs(), settings.batchIntervalMs(), TimeUnit.MILLISECONDS);
+                return true;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to initialize " + getName() + " database", e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Create necessary database tables
+     */
+    private void createTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS spawner_chunks (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    world VARCHAR(128) NOT NULL,
+                    chunk_x INT NOT NULL,
+                    chunk_z INT NOT NULL,
+                    spawner_count INT NOT NULL DEFAULT 0,
+                    last_updated BIGINT NOT NULL,
+                    UNIQUE KEY idx_chunk_location (world, chunk_x, chunk_z)
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_spawners (
+                    uuid CHAR(36) PRIMARY KEY,
+                    spawner_count INT NOT NULL DEFAULT 0,
+                    last_updated BIGINT NOT NULL
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS team_spawners (
+                    team_id VARCHAR(64) PRIMARY KEY,
+                    spawner_count INT NOT NULL DEFAULT 0,
+                    last_updated BIGINT NOT NULL
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS limiter_metadata (
+                    `key` VARCHAR(64) PRIMARY KEY,
+                    value TEXT NOT NULL
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS player_quota_leases (
+                    uuid CHAR(36) NOT NULL,
+                    server_id VARCHAR(64) NOT NULL,
+                    leased INT NOT NULL DEFAULT 0,
+                    expires_at BIGINT NOT NULL,
+                    PRIMARY KEY (uuid, server_id)
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS limiter_change_log (
+                    seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    origin VARCHAR(64) NOT NULL,
+                    payload MEDIUMBLOB NOT NULL,
+                    created_at BIGINT NOT NULL,
+                    KEY idx_change_log_created (created_at)
+                )
+                """);
+
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS spawner_owners (
+                    world VARCHAR(128) NOT NULL,
+                    x INT NOT NULL,
+                    y INT NOT NULL,
+                    z INT NOT NULL,
+                    owner CHAR(36) NOT NULL,
+                    stack_size INT NOT NULL DEFAULT 0,
+                    entity_type VARCHAR(64),
+                    team_id VARCHAR(64),
+                    PRIMARY KEY (world, x, y, z, owner),
+                    KEY idx_spawner_owner (owner)
+                )
+                """);
+
+            // Tables created before team pools were tracked per share lack the team column
+            if (!hasColumn(connection, "spawner_owners", "team_id")) {
+                stmt.execute("ALTER TABLE spawner_owners ADD COLUMN team_id VARCHAR(64)");
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> getSpawnerCount(String world, int chunkX, int chunkZ) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return selectChunkCount(connection, world, chunkX, chunkZ);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting spawner count", e);
+                return -1;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setSpawnerCount(String world, int chunkX, int chunkZ, int count) {
+        WriteOp op = new WriteOp(new ChunkRef(world, chunkX, chunkZ), true, count);
+        enqueue(op);
+        return op.future.thenApply(newCount -> newCount >= 0);
+    }
+
+    @Override
+    public CompletableFuture<Integer> incrementSpawnerCount(String world, int chunkX, int chunkZ, int amount) {
+        WriteOp op = new WriteOp(new ChunkRef(world, chunkX, chunkZ), false, amount);
+        enqueue(op);
+        return op.future;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteChunkData(String world, int chunkX, int chunkZ) {
+        // Make sure queued writes for this chunk land before the delete
+        return onWriter(() -> {
+            flushWrites();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "DELETE FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?")) {
+                stmt.setString(1, world);
+                stmt.setInt(2, chunkX);
+                stmt.setInt(3, chunkZ);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error deleting chunk data", e);
+                return false;
+            }
+        }, false);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replaceSpawnerCounts(String world, List<ChunkCount> counts) {
+        return onWriter(() -> {
+            flushWrites();
+            try {
+                return inTransaction(connection -> {
+                    try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM spawner_chunks WHERE world = ?")) {
+                        stmt.setString(1, world);
+                        stmt.executeUpdate();
+                    }
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated) VALUES (?, ?, ?, ?, ?)")) {
+                        int batched = 0;
+                        for (ChunkCount count : counts) {
+                            stmt.setString(1, world);
+                            stmt.setInt(2, count.chunkX());
+                            stmt.setInt(3, count.chunkZ());
+                            stmt.setInt(4, count.count());
+                            stmt.setLong(5, timestamp);
+                            stmt.addBatch();
+                            if (++batched % settings.batchSize() == 0) {
+                                stmt.executeBatch();
+                            }
+                        }
+                        stmt.executeBatch();
+                    }
+                    return true;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error replacing spawner counts of world " + world, e);
+                return false;
+            }
+        }, false);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<ChunkCount>>> getAllSpawnerCounts() {
+        return onWriter(() -> {
+            flushWrites();
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT world, chunk_x, chunk_z, spawner_count FROM spawner_chunks WHERE spawner_count > 0")) {
+                Map<String, List<ChunkCount>> counts = new HashMap<>();
+                while (rs.next()) {
+                    counts.computeIfAbsent(rs.getString("world"), k -> new ArrayList<>())
+                        .add(new ChunkCount(rs.getInt("chunk_x"), rs.getInt("chunk_z"), rs.getInt("spawner_count")));
+                }
+                return counts;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting chunk spawner counts", e);
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> getWorldSpawnerTotals() {
+        return onWriter(() -> {
+            flushWrites();
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT world, SUM(spawner_count) AS total FROM spawner_chunks GROUP BY world")) {
+                Map<String, Long> totals = new HashMap<>();
+                while (rs.next()) {
+                    totals.put(rs.getString("world"), rs.getLong("total"));
+                }
+                return totals;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting world spawner totals", e);
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getTotalChunks() {
+        return CompletableFuture.supplyAsync(() -> querySingleInt(
+            "SELECT COUNT(*) AS total FROM spawner_chunks", "Error getting total chunks"));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getTotalSpawners() {
+        return CompletableFuture.supplyAsync(() -> querySingleInt(
+            "SELECT COALESCE(SUM(spawner_count), 0) AS total FROM spawner_chunks", "Error getting total spawners"));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPlayerSpawnerCount(String uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return selectPlayerCount(connection, uuid);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting player spawner count", e);
+                return -1;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setPlayerSpawnerCount(String uuid, int count) {
+        WriteOp op = new WriteOp(uuid, true, count);
+        enqueue(op);
+        return op.future.thenApply(newCount -> newCount >= 0);
+    }
+
+    @Override
+    public CompletableFuture<Integer> incrementPlayerSpawnerCount(String uuid, int amount) {
+        WriteOp op = new WriteOp(uuid, false, amount);
+        enqueue(op);
+        return op.future;
+    }
+
+    @Override
+    public CompletableFuture<Integer> getTeamSpawnerCount(String teamId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return selectTeamCount(connection, teamId);
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting team spawner count", e);
+                return -1;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> incrementTeamSpawnerCount(String teamId, int amount) {
+        WriteOp op = new WriteOp(new TeamRef(teamId), false, amount);
+        enqueue(op);
+        return op.future;
+    }
+
+    @Override
+    public int getQueuedWrites() {
+        synchronized (queueLock) {
+            return pendingWrites.size();
+        }
+    }
+
+    /**
+     * Queue a write and flush early when the batch is full. Writes after {@link #close()} complete with -1.
+     */
+    private void enqueue(WriteOp op) {
+        boolean full;
+        synchronized (queueLock) {
+            if (closed) {
+                op.future.complete(-1);
+                return;
+            }
+            pendingWrites.add(op);
+            full = pendingWrites.size() >= settings.batchSize();
+        }
+        if (full) {
+            try {
+                writer.execute(this::flushWrites);
+            } catch (RejectedExecutionException e) {
+                // Closing, the final flush picks the write up
+            }
+        }
+    }
+
+    /**
+     * Run a database task on the writer thread, after the queued writes it runs behind
+     * @param rejected Result when the storage is closed
+     */
+    private <T> CompletableFuture<T> onWriter(Supplier<T> task, T rejected) {
+        try {
+            return CompletableFuture.supplyAsync(task, writer);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(rejected);
+        }
+    }
+
+    /**
+     * Drain the write queue and apply it in a single transaction.
+     * Operations on the same key are folded in order: a set resets the value, increments add to it, floored at zero
+     * after each one as SQLite applies them.
+     * A batch failing on a transient error (lost connection, deadlock, pool timeout) is put back at the head of the
+     * queue and retried with exponential backoff, other errors and the last retry complete its writes with -1.
+     * Runs on the writer thread only.
+     */
+    private void flushWrites() {
+        List<WriteOp> batch;
+        synchronized (queueLock) {
+            if (pendingWrites.isEmpty() || (!closed && System.nanoTime() < retryAtNanos)) {
+                return;
+            }
+            batch = pendingWrites;
+            pendingWrites = new ArrayList<>();
+        }
+
+        Map<Object, Folded> folded = new LinkedHashMap<>();
+        for (WriteOp op : batch) {
+            folded.computeIfAbsent(op.key, k -> new Folded()).add(op);
+        }
+
+        String chunkSetSQL = """
+            INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE spawner_count = ?, last_updated = ?
+            """;
+        String chunkIncrementSQL = """
+            INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE spawner_count = GREATEST(?, spawner_count + ?), last_updated = ?
+            """;
+        String playerSetSQL = """
+            INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE spawner_count = ?, last_updated = ?
+            """;
+        String playerIncrementSQL = """
+            INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE spawner_count = GREATEST(?, spawner_count + ?), last_updated = ?
+            """;
+        String teamIncrementSQL = """
+            INSERT INTO team_spawners (team_id, spawner_count, last_updated)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE spawner_count = GREATEST(?, spawner_count + ?), last_updated = ?
+            """;
+
+        long timestamp = System.currentTimeMillis();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement chunkSet = connection.prepareStatement(chunkSetSQL);
+                 PreparedStatement chunkIncrement = connection.prepareStatement(chunkIncrementSQL);
+                 PreparedStatement playerSet = connection.prepareStatement(playerSetSQL);
+                 PreparedStatement playerIncrement = connection.prepareStatement(playerIncrementSQL);
+                 PreparedStatement teamIncrement = connection.prepareStatement(teamIncrementSQL)) {
+
+                for (Map.Entry<Object, Folded> entry : folded.entrySet()) {
+                    Folded value = entry.getValue();
+                    // Absolute values are already final, increments are applied on the server
+                    int insertValue = value.apply(0);
+                    if (entry.getKey() instanceof ChunkRef chunk) {
+                        PreparedStatement stmt = value.absolute ? chunkSet : chunkIncrement;
+                        stmt.setString(1, chunk.world());
+                        stmt.setInt(2, chunk.x());
+                        stmt.setInt(3, chunk.z());
+                        stmt.setInt(4, insertValue);
+                        stmt.setLong(5, timestamp);
+                        if (value.absolute) {
+                            stmt.setInt(6, insertValue);
+                            stmt.setLong(7, timestamp);
+                        } else {
+                            stmt.setInt(6, value.floor);
+                            stmt.setInt(7, value.value);
+                            stmt.setLong(8, timestamp);
+                        }
+                        stmt.addBatch();
+                    } else if (entry.getKey() instanceof TeamRef team) {
+                        // Team pools are only ever incremented
+                        teamIncrement.setString(1, team.teamId());
+                        teamIncrement.setInt(2, insertValue);
+                        teamIncrement.setLong(3, timestamp);
+                        teamIncrement.setInt(4, value.floor);
+                        teamIncrement.setInt(5, value.value);
+                        teamIncrement.setLong(6, timestamp);
+                        teamIncrement.addBatch();
+                    } else {
+                        PreparedStatement stmt = value.absolute ? playerSet : playerIncrement;
+                        stmt.setString(1, (String) entry.getKey());
+                        stmt.setInt(2, insertValue);
+                        stmt.setLong(3, timestamp);
+                        if (value.absolute) {
+                            stmt.setInt(4, insertValue);
+                            stmt.setLong(5, timestamp);
+                        } else {
+                            stmt.setInt(4, value.floor);
+                            stmt.setInt(5, value.value);
+                            stmt.setLong(6, timestamp);
+                        }
+                        stmt.addBatch();
+                    }
+                }
+
+                chunkSet.executeBatch();
+                chunkIncrement.executeBatch();
+                playerSet.executeBatch();
+                playerIncrement.executeBatch();
+                teamIncrement.executeBatch();
+
+                // Read back final counts inside the same transaction
+                for (Map.Entry<Object, Folded> entry : folded.entrySet()) {
+                    Object key = entry.getKey();
+                    if (key instanceof ChunkRef chunk) {
+                        entry.getValue().result = selectChunkCount(connection, chunk.world(), chunk.x(), chunk.z());
+                    } else if (key instanceof TeamRef team) {
+                        entry.getValue().result = selectTeamCount(connection, team.teamId());
+                    } else {
+                        entry.getValue().result = selectPlayerCount(connection, (String) key);
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            failedFlushes = 0;
+            for (Folded value : folded.values()) {
+                for (WriteOp op : value.ops) {
+                    op.future.complete(value.result);
+                }
+            }
+        } catch (SQLException e) {
+            if (isTransient(e) && failedFlushes < MAX_FLUSH_RETRIES && requeue(batch)) {
+                failedFlushes++;
+                long delayMs = Math.min(MAX_RETRY_DELAY_MS, Math.max(100L, settings.batchIntervalMs()) << failedFlushes);
+                retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+                logger.warning("Error flushing " + batch.size() + " batched writes, retrying in " + delayMs
+                    + " ms (" + failedFlushes + "/" + MAX_FLUSH_RETRIES + "): " + e.getMessage());
+                return;
+            }
+
+            failedFlushes = 0;
+            logger.log(Level.SEVERE, "Error flushing " + batch.size() + " batched writes", e);
+            for (WriteOp op : batch) {
+                op.future.complete(-1);
+            }
+        }
+    }
+
+    /**
+     * Put a failed batch back ahead of the writes queued since, unless the storage is closing
+     * @return true if queued again
+     */
+    private boolean requeue(List<WriteOp> batch) {
+        synchronized (queueLock) {
+            if (closed) {
+                return false;
+            }
+            batch.addAll(pendingWrites);
+            pendingWrites = batch;
+            return true;
+        }
+    }
+
+    /**
+     * Check whether an error may go away on retry: lost connections, deadlocks and lock or pool timeouts
+     */
+    static boolean isTransient(SQLException e) {
+        if (e instanceof SQLTransientException || e instanceof SQLRecoverableException) {
+            return true;
+        }
+        // Drivers don't always use the subclasses: connection exceptions and transaction rollbacks by SQL state
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("08") || state.startsWith("40"));
+    }
+
+    /**
+     * Runs on the writer thread after a flush, so queued player writes are included
+     */
+    @Override
+    public CompletableFuture<Map<String, Integer>> getAllPlayerSpawnerCounts() {
+        return onWriter(() -> {
+            flushWrites();
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT uuid, spawner_count FROM player_spawners")) {
+                Map<String, Integer> counts = new HashMap<>();
+                while (rs.next()) {
+                    counts.put(rs.getString("uuid"), rs.getInt("spawner_count"));
+                }
+                return counts;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting player spawner counts", e);
+                return null;
+            }
+        }, null);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Integer>> adjustPlayerSpawnerCounts(Map<String, Integer> amounts) {
+        return onWriter(() -> {
+            flushWrites();
+            try {
+                return inTransaction(connection -> {
+                    String sql = """
+                        INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+                        VALUES (?, GREATEST(0, ?), ?)
+                        ON DUPLICATE KEY UPDATE spawner_count = GREATEST(0, spawner_count + ?), last_updated = ?
+                        """;
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        for (Map.Entry<String, Integer> entry : amounts.entrySet()) {
+                            stmt.setString(1, entry.getKey());
+                            stmt.setInt(2, entry.getValue());
+                            stmt.setLong(3, timestamp);
+                            stmt.setInt(4, entry.getValue());
+                            stmt.setLong(5, timestamp);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+
+                    Map<String, Integer> counts = new HashMap<>();
+                    for (String uuid : amounts.keySet()) {
+                        counts.put(uuid, selectPlayerCount(connection, uuid));
+                    }
+                    return counts;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error adjusting player spawner counts", e);
+                return null;
+            }
+        }, null);
+    }
+
+    /**
+     * Lease operations run on the writer thread after a flush, so they see every queued player write.
+     * The player row is locked FOR UPDATE to serialize servers leasing from the same player.
+     */
+    @Override
+    public CompletableFuture<QuotaLease> acquireQuotaLease(String uuid, String serverId, int limit, int target, long expiresAt) {
+        return onWriter(() -> {
+            flushWrites();
+            try {
+                return inTransaction(connection -> {
+                    int count = lockPlayerRow(connection, uuid);
+
+                    int leasedByOthers = 0;
+                    int leasedByUs = 0;
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT server_id, leased, expires_at FROM player_quota_leases WHERE uuid = ?")) {
+                        stmt.setString(1, uuid);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            long now = System.currentTimeMillis();
+                            while (rs.next()) {
+                                if (rs.getString("server_id").equals(serverId)) {
+                                    leasedByUs = rs.getInt("leased");
+                                } else if (rs.getLong("expires_at") > now) {
+                                    leasedByOthers += rs.getInt("leased");
+                                }
+                            }
+                        }
+                    }
+
+                    int available = (int) Math.max(0L, (long) limit - count - leasedByOthers);
+                    int leased = Math.min(target, available);
+
+                    try (PreparedStatement stmt = connection.prepareStatement("""
+                            INSERT INTO player_quota_leases (uuid, server_id, leased, expires_at)
+                            VALUES (?, ?, ?, ?)
+                            ON DUPLICATE KEY UPDATE leased = ?, expires_at = ?
+                            """)) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        stmt.setInt(3, leased);
+                        stmt.setLong(4, expiresAt);
+                        stmt.setInt(5, leased);
+                        stmt.setLong(6, expiresAt);
+                        stmt.executeUpdate();
+                    }
+
+                    return new QuotaLease(leased, leased - leasedByUs);
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error acquiring quota lease", e);
+                return QuotaLease.FAILED;
+            }
+        }, QuotaLease.FAILED);
+    }
+
+    @Override
+    public CompletableFuture<Integer> commitLeasedSpawners(String uuid, String serverId, int amount) {
+        return onWriter(() -> {
+            flushWrites();
+            try {
+                return inTransaction(connection -> {
+                    lockPlayerRow(connection, uuid);
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "UPDATE player_quota_leases SET leased = GREATEST(0, leased - ?) WHERE uuid = ? AND server_id = ?")) {
+                        stmt.setInt(1, amount);
+                        stmt.setString(2, uuid);
+                        stmt.setString(3, serverId);
+                        stmt.executeUpdate();
+                    }
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "UPDATE player_spawners SET spawner_count = GREATEST(0, spawner_count + ?), last_updated = ? WHERE uuid = ?")) {
+                        stmt.setInt(1, amount);
+                        stmt.setLong(2, System.currentTimeMillis());
+                        stmt.setString(3, uuid);
+                        stmt.executeUpdate();
+                    }
+
+                    return selectPlayerCount(connection, uuid);
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error committing leased spawners", e);
+                return -1;
+            }
+        }, -1);
+    }
+
+    @Override
+    public CompletableFuture<Integer> releaseQuotaLease(String uuid, String serverId) {
+        return onWriter(() -> {
+            try {
+                return inTransaction(connection -> {
+                    int released = 0;
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT leased FROM player_quota_leases WHERE uuid = ? AND server_id = ? FOR UPDATE")) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                released = rs.getInt("leased");
+                            }
+                        }
+                    }
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "DELETE FROM player_quota_leases WHERE uuid = ? AND server_id = ?")) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        stmt.executeUpdate();
+                    }
+                    return released;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error releasing quota lease", e);
+                return 0;
+            }
+        }, 0);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewQuotaLeases(String serverId, long expiresAt) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "UPDATE player_quota_leases SET expires_at = ? WHERE server_id = ?")) {
+                stmt.setLong(1, expiresAt);
+                stmt.setString(2, serverId);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error renewing quota leases", e);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> releaseQuotaLeases(String serverId) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "DELETE FROM player_quota_leases WHERE server_id = ?")) {
+                stmt.setString(1, serverId);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error releasing quota leases", e);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> appendChangeLog(String origin, byte[] payload) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "INSERT INTO limiter_change_log (origin, payload, created_at) VALUES (?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, origin);
+                stmt.setBytes(2, payload);
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    return keys.next() ? keys.getLong(1) : -1L;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error appending to change log", e);
+                return -1L;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<ChangeLogEntry>> readChangeLog(long afterSeq, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "SELECT seq, origin, payload FROM limiter_change_log WHERE seq > ? ORDER BY seq LIMIT ?")) {
+                stmt.setLong(1, afterSeq);
+                stmt.setInt(2, limit);
+
+                List<ChangeLogEntry> entries = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        entries.add(new ChangeLogEntry(rs.getLong("seq"), rs.getString("origin"), rs.getBytes("payload")));
+                    }
+                }
+                return entries;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error reading change log", e);
+                return List.<ChangeLogEntry>of();
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getLatestChangeSeq() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(seq), 0) AS seq FROM limiter_change_log")) {
+                return rs.next() ? rs.getLong("seq") : 0L;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error reading change log sequence", e);
+                return -1L;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> pruneChangeLog(long olderThan) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "DELETE FROM limiter_change_log WHERE created_at < ?")) {
+                stmt.setLong(1, olderThan);
+                return stmt.executeUpdate();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error pruning change log", e);
+                return 0;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> adjustOwnedSpawners(String world, int x, int y, int z, String owner, int amount,
+                                                          String entityType, String teamId) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = """
+                INSERT INTO spawner_owners (world, x, y, z, owner, stack_size, entity_type, team_id)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE stack_size = stack_size + VALUES(stack_size),
+                                        entity_type = COALESCE(VALUES(entity_type), entity_type),
+                                        team_id = COALESCE(VALUES(team_id), team_id)
+                """;
+
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setString(1, world);
+                stmt.setInt(2, x);
+                stmt.setInt(3, y);
+                stmt.setInt(4, z);
+                stmt.setString(5, owner);
+                stmt.setInt(6, amount);
+                stmt.setString(7, entityType);
+                stmt.setString(8, teamId);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error updating spawner owner", e);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<OwnedSpawner>> getAllOwnedSpawners() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM spawner_owners WHERE stack_size <= 0");
+
+                List<OwnedSpawner> spawners = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT world, x, y, z, owner, stack_size, entity_type, team_id FROM spawner_owners")) {
+                    while (rs.next()) {
+                        spawners.add(readOwnedSpawner(rs));
+                    }
+                }
+                return spawners;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error loading spawner owners", e);
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<OwnedSpawner>> getOwnedSpawners(String owner) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement stmt = connection.prepareStatement(
+                     "SELECT world, x, y, z, owner, stack_size, entity_type, team_id FROM spawner_owners WHERE owner = ? AND stack_size > 0")) {
+                stmt.setString(1, owner);
+
+                List<OwnedSpawner> spawners = new ArrayList<>();
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        spawners.add(readOwnedSpawner(rs));
+                    }
+                }
+                return spawners;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting owned spawners", e);
+                return List.<OwnedSpawner>of();
+            }
+        });
+    }
+
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                 "SELECT 1 FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?")) {
+            stmt.setString(1, table);
+            stmt.setString(2, column);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private OwnedSpawner readOwnedSpawner(ResultSet rs) throws SQLException {
+        return new OwnedSpawner(rs.getString("world"), rs.getInt("x"), rs.getInt("y"), rs.getInt("z"),
+            rs.getString("owner"), rs.getInt("stack_size"), rs.getString("entity_type"), rs.getString("team_id"));
+    }
+
+    /**
+     * Make sure the player row exists, lock it and return its count
+     */
+    private int lockPlayerRow(Connection connection, String uuid) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO player_spawners (uuid, spawner_count, last_updated) VALUES (?, 0, ?)")) {
+            stmt.setString(1, uuid);
+            stmt.setLong(2, System.currentTimeMillis());
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT spawner_count FROM player_spawners WHERE uuid = ? FOR UPDATE")) {
+            stmt.setString(1, uuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("spawner_count") : 0;
+            }
+        }
+    }
+
+    /**
+     * Run work in a transaction on a pooled connection
+     */
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private int selectChunkCount(Connection connection, String world, int chunkX, int chunkZ) throws SQLException {
+        String sql = "SELECT spawner_count FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, world);
+            stmt.setInt(2, chunkX);
+            stmt.setInt(3, chunkZ);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("spawner_count") : 0;
+            }
+        }
+    }
+
+    private int selectPlayerCount(Connection connection, String uuid) throws SQLException {
+        String sql = "SELECT spawner_count FROM player_spawners WHERE uuid = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, uuid);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("spawner_count") : 0;
+            }
+        }
+    }
+
+    private int selectTeamCount(Connection connection, String teamId) throws SQLException {
+        String sql = "SELECT spawner_count FROM team_spawners WHERE team_id = ?";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, teamId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt("spawner_count") : 0;
+            }
+        }
+    }
+
+    private int querySingleInt(String sql, String errorMessage) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt("total") : 0;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, errorMessage, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Flush pending writes and close the connection pool
+     */
+    @Override
+    public void close() {
+        synchronized (queueLock) {
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warning("Timed out waiting for the " + getName() + " writer to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (dataSource != null) {
+            // Writer is stopped, drain whatever is left on this thread, without retries or backoff
+            flushWrites();
+            dataSource.close();
+            logger.info("Database connection pool closed");
+        }
+    }
+
+    /**
+     * Connection settings for the MySQL/MariaDB backend
+     */
+    public record Settings(String jdbcUrl, String username, String password, boolean mariadb,
+                           int poolSize, long batchIntervalMs, int batchSize) {}
+
+    /**
+     * Chunk identifier used as batch key (player writes are keyed by UUID string)
+     */
+    private record ChunkRef(String world, int x, int z) {}
+
+    /**
+     * Team pool identifier used as batch key
+     */
+    private record TeamRef(String teamId) {}
+
+    /**
+     * Queued write operation
+     */
+    static class WriteOp {
+        final Object key;
+        final boolean absolute;
+        final int value;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        WriteOp(Object key, boolean absolute, int value) {
+            this.key = key;
+            this.absolute = absolute;
+            this.value = value;
+        }
+    }
+
+    /**
+     * All queued operations for one key, folded into a single upsert.
+     * Increments floored at zero one by one compose to {@code GREATEST(floor, stored + value)}, so the folded upsert
+     * gives the same count as applying them in turn: from 2, -5 then +3 gives 3, not 0.
+     */
+    static class Folded {
+        boolean absolute;
+        // The set value when absolute, otherwise the sum of the increments
+        int value;
+        // Lowest count the increments can leave, whatever the stored count
+        int floor;
+        int result = -1;
+        final List<WriteOp> ops = new ArrayList<>();
+
+        void add(WriteOp op) {
+            if (op.absolute) {
+                absolute = true;
+                value = Math.max(0, op.value);
+            } else if (absolute) {
+                value = Math.max(0, value + op.value);
+            } else {
+                value += op.value;
+                floor = Math.max(0, floor + op.value);
+            }
+            ops.add(op);
+        }
+
+        /**
+         * Get the count left by the folded operations
+         * @param stored Count stored before them, zero if there is no row
+         */
+        int apply(int stored) {
+            return absolute ? value : Math.max(floor, stored + value);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+/**
+ * Share of a spawner stack owned by one player
+ * @param world World name
+ * @param x Block X coordinate
+ * @param y Block Y coordinate
+ * @param z Block Z coordinate
+ * @param owner Owner UUID
+ * @param stackSize Number of spawners in the stack owned by this player
+ * @param entityType Spawned entity type, or null if unknown
+ * @param teamId Team pool charged for the share, empty for none, or null if unknown
+ */
+public record OwnedSpawner(String world, int x, int y, int z, String owner, int stackSize, String entityType,
+                           String teamId) {
+}
@@ -0,0 +1,14 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+/**
+ * Result of a quota lease request.
+ * @param leased Quota now leased to this server
+ * @param delta Change compared to the previous lease (negative when the lease shrank)
+ */
+public record QuotaLease(int leased, int delta) {
+    public static final QuotaLease FAILED = new QuotaLease(-1, 0);
+
+    public boolean isFailed() {
+        return leased < 0;
+    }
+}
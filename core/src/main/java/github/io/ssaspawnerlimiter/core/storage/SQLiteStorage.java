@@ -0,0 +1,1159 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import github.io.ssaspawnerlimiter.core.jfr.DatabaseLockEvent;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+
+import java.io.File;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Thread-safe SQLite storage backend (default).
+ * Uses a single local connection guarded by a read/write lock for Folia compatibility.
+ */
+public class SQLiteStorage implements SpawnerStorage {
+    private final Logger logger;
+    private final SlowOperationLog slowLog;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Lock wait and lock acquisition time of the operation running on this worker
+    private final ThreadLocal<long[]> lockTiming = ThreadLocal.withInitial(() -> new long[2]);
+    private Connection connection;
+    private final String databasePath;
+
+    public SQLiteStorage(Logger logger, File dataFolder, SlowOperationLog slowLog) {
+        this.logger = logger;
+        this.slowLog = slowLog;
+        if (!dataFolder.exists()) {
+            dataFolder.mkdirs();
+        }
+
+        String filename = "spawner_limits.db";
+        this.databasePath = new File(dataFolder, filename).getAbsolutePath();
+    }
+
+    @Override
+    public String getName() {
+        return "SQLite";
+    }
+
+    /**
+     * Lock the connection, recording the wait as a JFR event
+     */
+    private void acquire(Lock lock, boolean write) {
+        DatabaseLockEvent event = new DatabaseLockEvent();
+        long start = System.nanoTime();
+        event.begin();
+        lock.lock();
+        event.end();
+        if (event.shouldCommit()) {
+            event.write = write;
+            event.commit();
+        }
+
+        long[] timing = lockTiming.get();
+        timing[1] = System.nanoTime();
+        timing[0] = timing[1] - start;
+    }
+
+    /**
+     * Unlock the connection, logging the operation if waiting for the lock and running it was slow
+     */
+    private void release(Lock lock) {
+        lock.unlock();
+
+        long[] timing = lockTiming.get();
+        long sqlNanos = System.nanoTime() - timing[1];
+        long totalNanos = timing[0] + sqlNanos;
+        if (slowLog != null && slowLog.isSlow(SlowOperationLog.Category.DATABASE, totalNanos)) {
+            slowLog.entry("sqlite." + callingOperation(), "-", totalNanos)
+                .phase("lock_wait", timing[0])
+                .phase("sql", sqlNanos)
+                .submit();
+        }
+    }
+
+    /**
+     * Get name of the storage method that called {@link #release(Lock)}, only used for slow operations
+     */
+    private static String callingOperation() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .map(StackWalker.StackFrame::getMethodName)
+            .filter(name -> !name.equals("release") && !name.equals("callingOperation"))
+            .findFirst()
+            // Work runs in lambdas named like lambda$getSpawnerCount$3
+            .map(name -> name.startsWith("lambda$") ? name.substring(7, name.indexOf('$', 7)) : name)
+            .orElse("unknown"));
+    }
+
+    /**
+     * Initialize database connection and create tables
+     */
+    @Override
+    public CompletableFuture<Boolean> initialize() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                Class.forName("org.sqlite.JDBC");
+                connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath);
+                connection.setAutoCommit(true);
+
+                // Wait for locks instead of failing when another process shares the file
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("PRAGMA busy_timeout = 5000");
+                }
+
+                createTables();
+                return true;
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Failed to initialize database", e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Create necessary database tables
+     */
+    private void createTables() throws SQLException {
+        acquire(lock.writeLock(), true);
+        try (Statement stmt = connection.createStatement()) {
+            // Main table for chunk spawner counts
+            String createTableSQL = """
+                CREATE TABLE IF NOT EXISTS spawner_chunks (
+                    id INTEGER PRIMARY KEY AUTOINCREMENT,
+                    world TEXT NOT NULL,
+                    chunk_x INTEGER NOT NULL,
+                    chunk_z INTEGER NOT NULL,
+                    spawner_count INTEGER NOT NULL DEFAULT 0,
+                    last_updated INTEGER NOT NULL,
+                    UNIQUE(world, chunk_x, chunk_z)
+                );
+                """;
+            stmt.execute(createTableSQL);
+
+            // Create index for faster lookups
+            String createIndexSQL = """
+                CREATE INDEX IF NOT EXISTS idx_chunk_location 
+                ON spawner_chunks(world, chunk_x, chunk_z);
+                """;
+            stmt.execute(createIndexSQL);
+
+            // Table for per-player spawner counts
+            String createPlayerTableSQL = """
+                CREATE TABLE IF NOT EXISTS player_spawners (
+                    uuid TEXT PRIMARY KEY,
+                    spawner_count INTEGER NOT NULL DEFAULT 0,
+                    last_updated INTEGER NOT NULL
+                );
+                """;
+            stmt.execute(createPlayerTableSQL);
+
+            // Table for shared team quota pools
+            String createTeamTableSQL = """
+                CREATE TABLE IF NOT EXISTS team_spawners (
+                    team_id TEXT PRIMARY KEY,
+                    spawner_count INTEGER NOT NULL DEFAULT 0,
+                    last_updated INTEGER NOT NULL
+                );
+                """;
+            stmt.execute(createTeamTableSQL);
+
+            // Metadata table for future use
+            String createMetaTableSQL = """
+                CREATE TABLE IF NOT EXISTS limiter_metadata (
+                    key TEXT PRIMARY KEY,
+                    value TEXT NOT NULL
+                );
+                """;
+            stmt.execute(createMetaTableSQL);
+
+            // Quota leased by each server from a player's remaining limit
+            String createLeaseTableSQL = """
+                CREATE TABLE IF NOT EXISTS player_quota_leases (
+                    uuid TEXT NOT NULL,
+                    server_id TEXT NOT NULL,
+                    leased INTEGER NOT NULL DEFAULT 0,
+                    expires_at INTEGER NOT NULL,
+                    PRIMARY KEY (uuid, server_id)
+                );
+                """;
+            stmt.execute(createLeaseTableSQL);
+
+            // Change log for propagating cache updates between servers sharing this database
+            String createChangeLogTableSQL = """
+                CREATE TABLE IF NOT EXISTS limiter_change_log (
+                    seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                    origin TEXT NOT NULL,
+                    payload BLOB NOT NULL,
+                    created_at INTEGER NOT NULL
+                );
+                """;
+            stmt.execute(createChangeLogTableSQL);
+
+            // Owners of each spawner stack, so removals are charged to the players who placed them
+            String createOwnersTableSQL = """
+                CREATE TABLE IF NOT EXISTS spawner_owners (
+                    world TEXT NOT NULL,
+                    x INTEGER NOT NULL,
+                    y INTEGER NOT NULL,
+                    z INTEGER NOT NULL,
+                    owner TEXT NOT NULL,
+                    stack_size INTEGER NOT NULL DEFAULT 0,
+                    entity_type TEXT,
+                    team_id TEXT,
+                    PRIMARY KEY (world, x, y, z, owner)
+                );
+                """;
+            stmt.execute(createOwnersTableSQL);
+
+            // Tables created before team pools were tracked per share lack the team column
+            if (!hasColumn(stmt, "spawner_owners", "team_id")) {
+                stmt.execute("ALTER TABLE spawner_owners ADD COLUMN team_id TEXT");
+            }
+
+            String createOwnerIndexSQL = """
+                CREATE INDEX IF NOT EXISTS idx_spawner_owner
+                ON spawner_owners(owner);
+                """;
+            stmt.execute(createOwnerIndexSQL);
+        } finally {
+            release(lock.writeLock());
+        }
+    }
+
+    /**
+     * Get spawner count for a specific chunk
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return CompletableFuture with spawner count
+     */
+    @Override
+    public CompletableFuture<Integer> getSpawnerCount(String world, int chunkX, int chunkZ) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try {
+                String sql = "SELECT spawner_count FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, chunkX);
+                    stmt.setInt(3, chunkZ);
+
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        return rs.getInt("spawner_count");
+                    }
+                    return 0;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting spawner count", e);
+                return -1;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    /**
+     * Set spawner count for a specific chunk
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param count New spawner count
+     * @return CompletableFuture indicating success
+     */
+    @Override
+    public CompletableFuture<Boolean> setSpawnerCount(String world, int chunkX, int chunkZ, int count) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                String sql = """
+                    INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON CONFLICT(world, chunk_x, chunk_z) 
+                    DO UPDATE SET spawner_count = ?, last_updated = ?
+                    """;
+
+                long timestamp = System.currentTimeMillis();
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, chunkX);
+                    stmt.setInt(3, chunkZ);
+                    stmt.setInt(4, count);
+                    stmt.setLong(5, timestamp);
+                    stmt.setInt(6, count);
+                    stmt.setLong(7, timestamp);
+
+                    stmt.executeUpdate();
+                    return true;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error setting spawner count", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    /**
+     * Increment spawner count for a specific chunk
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param amount Amount to increment by
+     * @return CompletableFuture with new count
+     */
+    @Override
+    public CompletableFuture<Integer> incrementSpawnerCount(String world, int chunkX, int chunkZ, int amount) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                // First, get current count
+                int currentCount = 0;
+                String selectSQL = "SELECT spawner_count FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
+                try (PreparedStatement stmt = connection.prepareStatement(selectSQL)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, chunkX);
+                    stmt.setInt(3, chunkZ);
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        currentCount = rs.getInt("spawner_count");
+                    }
+                }
+
+                // Calculate new count
+                int newCount = Math.max(0, currentCount + amount);
+
+                // Update with new count
+                String updateSQL = """
+                    INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
+                    VALUES (?, ?, ?, ?, ?)
+                    ON CONFLICT(world, chunk_x, chunk_z) 
+                    DO UPDATE SET spawner_count = ?, last_updated = ?
+                    """;
+
+                long timestamp = System.currentTimeMillis();
+                try (PreparedStatement stmt = connection.prepareStatement(updateSQL)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, chunkX);
+                    stmt.setInt(3, chunkZ);
+                    stmt.setInt(4, newCount);
+                    stmt.setLong(5, timestamp);
+                    stmt.setInt(6, newCount);
+                    stmt.setLong(7, timestamp);
+                    stmt.executeUpdate();
+                }
+
+                return newCount;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error incrementing spawner count", e);
+                return -1;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    /**
+     * Delete chunk data
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return CompletableFuture indicating success
+     */
+    @Override
+    public CompletableFuture<Boolean> deleteChunkData(String world, int chunkX, int chunkZ) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                String sql = "DELETE FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, chunkX);
+                    stmt.setInt(3, chunkZ);
+                    stmt.executeUpdate();
+                    return true;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error deleting chunk data", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> replaceSpawnerCounts(String world, List<ChunkCount> counts) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                return inImmediateTransaction(() -> {
+                    try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM spawner_chunks WHERE world = ?")) {
+                        stmt.setString(1, world);
+                        stmt.executeUpdate();
+                    }
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated) VALUES (?, ?, ?, ?, ?)")) {
+                        for (ChunkCount count : counts) {
+                            stmt.setString(1, world);
+                            stmt.setInt(2, count.chunkX());
+                            stmt.setInt(3, count.chunkZ());
+                            stmt.setInt(4, count.count());
+                            stmt.setLong(5, timestamp);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+                    return true;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error replacing spawner counts of world " + world, e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, List<ChunkCount>>> getAllSpawnerCounts() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT world, chunk_x, chunk_z, spawner_count FROM spawner_chunks WHERE spawner_count > 0")) {
+                Map<String, List<ChunkCount>> counts = new HashMap<>();
+                while (rs.next()) {
+                    counts.computeIfAbsent(rs.getString("world"), k -> new ArrayList<>())
+                        .add(new ChunkCount(rs.getInt("chunk_x"), rs.getInt("chunk_z"), rs.getInt("spawner_count")));
+                }
+                return counts;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting chunk spawner counts", e);
+                return null;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> getWorldSpawnerTotals() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT world, SUM(spawner_count) AS total FROM spawner_chunks GROUP BY world")) {
+                Map<String, Long> totals = new HashMap<>();
+                while (rs.next()) {
+                    totals.put(rs.getString("world"), rs.getLong("total"));
+                }
+                return totals;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting world spawner totals", e);
+                return null;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    /**
+     * Get total number of tracked chunks
+     */
+    @Override
+    public CompletableFuture<Integer> getTotalChunks() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try {
+                String sql = "SELECT COUNT(*) as count FROM spawner_chunks";
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next()) {
+                        return rs.getInt("count");
+                    }
+                    return 0;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting total chunks", e);
+                return -1;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    /**
+     * Get total number of spawners across all chunks
+     */
+    @Override
+    public CompletableFuture<Integer> getTotalSpawners() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try {
+                String sql = "SELECT SUM(spawner_count) as total FROM spawner_chunks";
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery(sql)) {
+                    if (rs.next()) {
+                        return rs.getInt("total");
+                    }
+                    return 0;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting total spawners", e);
+                return -1;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    /**
+     * Get player spawner count
+     * @param uuid Player UUID
+     * @return CompletableFuture with spawner count
+     */
+    @Override
+    public CompletableFuture<Integer> getPlayerSpawnerCount(String uuid) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try {
+                String sql = "SELECT spawner_count FROM player_spawners WHERE uuid = ?";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, uuid);
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        return rs.getInt("spawner_count");
+                    }
+                    return 0;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting player spawner count", e);
+                return -1;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    /**
+     * Set player spawner count
+     * @param uuid Player UUID
+     * @param count New spawner count
+     * @return CompletableFuture indicating success
+     */
+    @Override
+    public CompletableFuture<Boolean> setPlayerSpawnerCount(String uuid, int count) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                String sql = """
+                    INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+                    VALUES (?, ?, ?)
+                    ON CONFLICT(uuid) 
+                    DO UPDATE SET spawner_count = ?, last_updated = ?
+                    """;
+
+                long timestamp = System.currentTimeMillis();
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, uuid);
+                    stmt.setInt(2, count);
+                    stmt.setLong(3, timestamp);
+                    stmt.setInt(4, count);
+                    stmt.setLong(5, timestamp);
+                    stmt.executeUpdate();
+                    return true;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error setting player spawner count", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    /**
+     * Increment player spawner count
+     * @param uuid Player UUID
+     * @param amount Amount to increment by (can be negative)
+     * @return CompletableFuture with new count
+     */
+    @Override
+    public CompletableFuture<Integer> incrementPlayerSpawnerCount(String uuid, int amount) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                // First, get current count
+                int currentCount = 0;
+                String selectSQL = "SELECT spawner_count FROM player_spawners WHERE uuid = ?";
+                try (PreparedStatement stmt = connection.prepareStatement(selectSQL)) {
+                    stmt.setString(1, uuid);
+                    ResultSet rs = stmt.executeQuery();
+                    if (rs.next()) {
+                        currentCount = rs.getInt("spawner_count");
+                    }
+                }
+
+                // Calculate new count (floor at 0)
+                int newCount = Math.max(0, currentCount + amount);
+
+                // Update with new count
+                String updateSQL = """
+                    INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+                    VALUES (?, ?, ?)
+                    ON CONFLICT(uuid) 
+                    DO UPDATE SET spawner_count = ?, last_updated = ?
+                    """;
+
+                long timestamp = System.currentTimeMillis();
+                try (PreparedStatement stmt = connection.prepareStatement(updateSQL)) {
+                    stmt.setString(1, uuid);
+                    stmt.setInt(2, newCount);
+                    stmt.setLong(3, timestamp);
+                    stmt.setInt(4, newCount);
+                    stmt.setLong(5, timestamp);
+                    stmt.executeUpdate();
+                }
+
+                return newCount;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error incrementing player spawner count", e);
+                return -1;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> getTeamSpawnerCount(String teamId) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT spawner_count FROM team_spawners WHERE team_id = ?")) {
+                stmt.setString(1, teamId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getInt("spawner_count") : 0;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting team spawner count", e);
+                return -1;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> incrementTeamSpawnerCount(String teamId, int amount) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                return inImmediateTransaction(() -> {
+                    String sql = """
+                        INSERT INTO team_spawners (team_id, spawner_count, last_updated)
+                        VALUES (?, MAX(0, ?), ?)
+                        ON CONFLICT(team_id)
+                        DO UPDATE SET spawner_count = MAX(0, spawner_count + ?), last_updated = ?
+                        """;
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        stmt.setString(1, teamId);
+                        stmt.setInt(2, amount);
+                        stmt.setLong(3, timestamp);
+                        stmt.setInt(4, amount);
+                        stmt.setLong(5, timestamp);
+                        stmt.executeUpdate();
+                    }
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT spawner_count FROM team_spawners WHERE team_id = ?")) {
+                        stmt.setString(1, teamId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next() ? rs.getInt("spawner_count") : 0;
+                        }
+                    }
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error incrementing team spawner count", e);
+                return -1;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Integer>> getAllPlayerSpawnerCounts() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT uuid, spawner_count FROM player_spawners")) {
+                Map<String, Integer> counts = new HashMap<>();
+                while (rs.next()) {
+                    counts.put(rs.getString("uuid"), rs.getInt("spawner_count"));
+                }
+                return counts;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting player spawner counts", e);
+                return null;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Integer>> adjustPlayerSpawnerCounts(Map<String, Integer> amounts) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                return inImmediateTransaction(() -> {
+                    String sql = """
+                        INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+                        VALUES (?, MAX(0, ?), ?)
+                        ON CONFLICT(uuid)
+                        DO UPDATE SET spawner_count = MAX(0, spawner_count + ?), last_updated = ?
+                        """;
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                        for (Map.Entry<String, Integer> entry : amounts.entrySet()) {
+                            stmt.setString(1, entry.getKey());
+                            stmt.setInt(2, entry.getValue());
+                            stmt.setLong(3, timestamp);
+                            stmt.setInt(4, entry.getValue());
+                            stmt.setLong(5, timestamp);
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                    }
+
+                    Map<String, Integer> counts = new HashMap<>();
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT spawner_count FROM player_spawners WHERE uuid = ?")) {
+                        for (String uuid : amounts.keySet()) {
+                            stmt.setString(1, uuid);
+                            ResultSet rs = stmt.executeQuery();
+                            counts.put(uuid, rs.next() ? rs.getInt("spawner_count") : 0);
+                        }
+                    }
+                    return counts;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error adjusting player spawner counts", e);
+                return null;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<QuotaLease> acquireQuotaLease(String uuid, String serverId, int limit, int target, long expiresAt) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                // IMMEDIATE takes the file write lock up front, so servers sharing the file serialize here
+                return inImmediateTransaction(() -> {
+                    int count = 0;
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT spawner_count FROM player_spawners WHERE uuid = ?")) {
+                        stmt.setString(1, uuid);
+                        ResultSet rs = stmt.executeQuery();
+                        if (rs.next()) {
+                            count = rs.getInt("spawner_count");
+                        }
+                    }
+
+                    int leasedByOthers = 0;
+                    int leasedByUs = 0;
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT server_id, leased, expires_at FROM player_quota_leases WHERE uuid = ?")) {
+                        stmt.setString(1, uuid);
+                        ResultSet rs = stmt.executeQuery();
+                        long now = System.currentTimeMillis();
+                        while (rs.next()) {
+                            if (rs.getString("server_id").equals(serverId)) {
+                                leasedByUs = rs.getInt("leased");
+                            } else if (rs.getLong("expires_at") > now) {
+                                leasedByOthers += rs.getInt("leased");
+                            }
+                        }
+                    }
+
+                    int available = (int) Math.max(0L, (long) limit - count - leasedByOthers);
+                    int leased = Math.min(target, available);
+
+                    try (PreparedStatement stmt = connection.prepareStatement("""
+                            INSERT INTO player_quota_leases (uuid, server_id, leased, expires_at)
+                            VALUES (?, ?, ?, ?)
+                            ON CONFLICT(uuid, server_id)
+                            DO UPDATE SET leased = ?, expires_at = ?
+                            """)) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        stmt.setInt(3, leased);
+                        stmt.setLong(4, expiresAt);
+                        stmt.setInt(5, leased);
+                        stmt.setLong(6, expiresAt);
+                        stmt.executeUpdate();
+                    }
+
+                    return new QuotaLease(leased, leased - leasedByUs);
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error acquiring quota lease", e);
+                return QuotaLease.FAILED;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> commitLeasedSpawners(String uuid, String serverId, int amount) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                return inImmediateTransaction(() -> {
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "UPDATE player_quota_leases SET leased = MAX(0, leased - ?) WHERE uuid = ? AND server_id = ?")) {
+                        stmt.setInt(1, amount);
+                        stmt.setString(2, uuid);
+                        stmt.setString(3, serverId);
+                        stmt.executeUpdate();
+                    }
+
+                    long timestamp = System.currentTimeMillis();
+                    try (PreparedStatement stmt = connection.prepareStatement("""
+                            INSERT INTO player_spawners (uuid, spawner_count, last_updated)
+                            VALUES (?, MAX(0, ?), ?)
+                            ON CONFLICT(uuid)
+                            DO UPDATE SET spawner_count = MAX(0, spawner_count + ?), last_updated = ?
+                            """)) {
+                        stmt.setString(1, uuid);
+                        stmt.setInt(2, amount);
+                        stmt.setLong(3, timestamp);
+                        stmt.setInt(4, amount);
+                        stmt.setLong(5, timestamp);
+                        stmt.executeUpdate();
+                    }
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT spawner_count FROM player_spawners WHERE uuid = ?")) {
+                        stmt.setString(1, uuid);
+                        ResultSet rs = stmt.executeQuery();
+                        return rs.next() ? rs.getInt("spawner_count") : 0;
+                    }
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error committing leased spawners", e);
+                return -1;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> releaseQuotaLease(String uuid, String serverId) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                return inImmediateTransaction(() -> {
+                    int released = 0;
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "SELECT leased FROM player_quota_leases WHERE uuid = ? AND server_id = ?")) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        ResultSet rs = stmt.executeQuery();
+                        if (rs.next()) {
+                            released = rs.getInt("leased");
+                        }
+                    }
+
+                    try (PreparedStatement stmt = connection.prepareStatement(
+                            "DELETE FROM player_quota_leases WHERE uuid = ? AND server_id = ?")) {
+                        stmt.setString(1, uuid);
+                        stmt.setString(2, serverId);
+                        stmt.executeUpdate();
+                    }
+                    return released;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error releasing quota lease", e);
+                return 0;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> renewQuotaLeases(String serverId, long expiresAt) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "UPDATE player_quota_leases SET expires_at = ? WHERE server_id = ?")) {
+                stmt.setLong(1, expiresAt);
+                stmt.setString(2, serverId);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error renewing quota leases", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> releaseQuotaLeases(String serverId) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM player_quota_leases WHERE server_id = ?")) {
+                stmt.setString(1, serverId);
+                stmt.executeUpdate();
+                return true;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error releasing quota leases", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> appendChangeLog(String origin, byte[] payload) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "INSERT INTO limiter_change_log (origin, payload, created_at) VALUES (?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, origin);
+                stmt.setBytes(2, payload);
+                stmt.setLong(3, System.currentTimeMillis());
+                stmt.executeUpdate();
+
+                ResultSet keys = stmt.getGeneratedKeys();
+                return keys.next() ? keys.getLong(1) : -1L;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error appending to change log", e);
+                return -1L;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<ChangeLogEntry>> readChangeLog(long afterSeq, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT seq, origin, payload FROM limiter_change_log WHERE seq > ? ORDER BY seq LIMIT ?")) {
+                stmt.setLong(1, afterSeq);
+                stmt.setInt(2, limit);
+
+                List<ChangeLogEntry> entries = new ArrayList<>();
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    entries.add(new ChangeLogEntry(rs.getLong("seq"), rs.getString("origin"), rs.getBytes("payload")));
+                }
+                return entries;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error reading change log", e);
+                return List.<ChangeLogEntry>of();
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> getLatestChangeSeq() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT MAX(seq) AS seq FROM limiter_change_log")) {
+                return rs.next() ? rs.getLong("seq") : 0L;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error reading change log sequence", e);
+                return -1L;
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> pruneChangeLog(long olderThan) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM limiter_change_log WHERE created_at < ?")) {
+                stmt.setLong(1, olderThan);
+                return stmt.executeUpdate();
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error pruning change log", e);
+                return 0;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> adjustOwnedSpawners(String world, int x, int y, int z, String owner, int amount,
+                                                          String entityType, String teamId) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try {
+                String sql = """
+                    INSERT INTO spawner_owners (world, x, y, z, owner, stack_size, entity_type, team_id)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                    ON CONFLICT(world, x, y, z, owner)
+                    DO UPDATE SET stack_size = stack_size + excluded.stack_size,
+                                  entity_type = COALESCE(excluded.entity_type, entity_type),
+                                  team_id = COALESCE(excluded.team_id, team_id)
+                    """;
+
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    stmt.setString(1, world);
+                    stmt.setInt(2, x);
+                    stmt.setInt(3, y);
+                    stmt.setInt(4, z);
+                    stmt.setString(5, owner);
+                    stmt.setInt(6, amount);
+                    stmt.setString(7, entityType);
+                    stmt.setString(8, teamId);
+                    stmt.executeUpdate();
+                    return true;
+                }
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error updating spawner owner", e);
+                return false;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<OwnedSpawner>> getAllOwnedSpawners() {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.writeLock(), true);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("DELETE FROM spawner_owners WHERE stack_size <= 0");
+
+                List<OwnedSpawner> spawners = new ArrayList<>();
+                ResultSet rs = stmt.executeQuery("SELECT world, x, y, z, owner, stack_size, entity_type, team_id FROM spawner_owners");
+                while (rs.next()) {
+                    spawners.add(readOwnedSpawner(rs));
+                }
+                return spawners;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error loading spawner owners", e);
+                return null;
+            } finally {
+                release(lock.writeLock());
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<OwnedSpawner>> getOwnedSpawners(String owner) {
+        return CompletableFuture.supplyAsync(() -> {
+            acquire(lock.readLock(), false);
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT world, x, y, z, owner, stack_size, entity_type, team_id FROM spawner_owners WHERE owner = ? AND stack_size > 0")) {
+                stmt.setString(1, owner);
+
+                List<OwnedSpawner> spawners = new ArrayList<>();
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    spawners.add(readOwnedSpawner(rs));
+                }
+                return spawners;
+            } catch (SQLException e) {
+                logger.log(Level.SEVERE, "Error getting owned spawners", e);
+                return List.<OwnedSpawner>of();
+            } finally {
+                release(lock.readLock());
+            }
+        });
+    }
+
+    private boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private OwnedSpawner readOwnedSpawner(ResultSet rs) throws SQLException {
+        return new OwnedSpawner(rs.getString("world"), rs.getInt("x"), rs.getInt("y"), rs.getInt("z"),
+            rs.getString("owner"), rs.getInt("stack_size"), rs.getString("entity_type"), rs.getString("team_id"));
+    }
+
+    /**
+     * Run work inside a BEGIN IMMEDIATE transaction. Caller must hold the write lock.
+     */
+    private <T> T inImmediateTransaction(SqlWork<T> work) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("BEGIN IMMEDIATE");
+            try {
+                T result = work.run();
+                stmt.execute("COMMIT");
+                return result;
+            } catch (SQLException e) {
+                stmt.execute("ROLLBACK");
+                throw e;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Close database connection
+     */
+    @Override
+    public void close() {
+        acquire(lock.writeLock(), true);
+        try {
+            if (connection != null && !connection.isClosed()) {
+                connection.close();
+                logger.info("Database connection closed");
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Error closing database connection", e);
+        } finally {
+            release(lock.writeLock());
+        }
+    }
+}
+
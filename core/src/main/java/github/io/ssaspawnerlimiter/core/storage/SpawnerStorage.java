@@ -0,0 +1,259 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage backend for chunk and player spawner counts.
+ * Implementations must be thread-safe, all operations complete asynchronously.
+ */
+public interface SpawnerStorage {
+
+    /**
+     * Get display name of this backend (shown in /ssl stats)
+     */
+    String getName();
+
+    /**
+     * Open connections and create tables
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> initialize();
+
+    /**
+     * Get spawner count for a specific chunk
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return CompletableFuture with spawner count, or -1 on error
+     */
+    CompletableFuture<Integer> getSpawnerCount(String world, int chunkX, int chunkZ);
+
+    /**
+     * Set spawner count for a specific chunk
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param count New spawner count
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> setSpawnerCount(String world, int chunkX, int chunkZ, int count);
+
+    /**
+     * Increment spawner count for a specific chunk (floored at 0)
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @param amount Amount to increment by (can be negative)
+     * @return CompletableFuture with new count, or -1 on error
+     */
+    CompletableFuture<Integer> incrementSpawnerCount(String world, int chunkX, int chunkZ, int amount);
+
+    /**
+     * Delete chunk data
+     * @param world World name
+     * @param chunkX Chunk X coordinate
+     * @param chunkZ Chunk Z coordinate
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> deleteChunkData(String world, int chunkX, int chunkZ);
+
+    /**
+     * Replace all chunk counts of a world in a single transaction (bulk load)
+     * @param world World name
+     * @param counts New counts of the world's chunks
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> replaceSpawnerCounts(String world, List<ChunkCount> counts);
+
+    /**
+     * Get all non-zero chunk spawner counts
+     * @return CompletableFuture with counts per world, or null on error
+     */
+    CompletableFuture<Map<String, List<ChunkCount>>> getAllSpawnerCounts();
+
+    /**
+     * Get total spawner count of each world
+     * @return CompletableFuture with totals per world, or null on error
+     */
+    CompletableFuture<Map<String, Long>> getWorldSpawnerTotals();
+
+    /**
+     * Get total number of tracked chunks
+     * @return CompletableFuture with the number, or -1 on error
+     */
+    CompletableFuture<Integer> getTotalChunks();
+
+    /**
+     * Get total number of spawners across all chunks
+     * @return CompletableFuture with the number, or -1 on error
+     */
+    CompletableFuture<Integer> getTotalSpawners();
+
+    /**
+     * Get player spawner count
+     * @param uuid Player UUID
+     * @return CompletableFuture with spawner count, or -1 on error
+     */
+    CompletableFuture<Integer> getPlayerSpawnerCount(String uuid);
+
+    /**
+     * Set player spawner count
+     * @param uuid Player UUID
+     * @param count New spawner count
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> setPlayerSpawnerCount(String uuid, int count);
+
+    /**
+     * Increment player spawner count (floored at 0)
+     * @param uuid Player UUID
+     * @param amount Amount to increment by (can be negative)
+     * @return CompletableFuture with new count, or -1 on error
+     */
+    CompletableFuture<Integer> incrementPlayerSpawnerCount(String uuid, int amount);
+
+    /**
+     * Get spawner count of a team's shared quota pool
+     * @param teamId Team id from the team provider
+     * @return CompletableFuture with spawner count, or -1 on error
+     */
+    CompletableFuture<Integer> getTeamSpawnerCount(String teamId);
+
+    /**
+     * Increment spawner count of a team's shared quota pool (floored at 0)
+     * @param teamId Team id from the team provider
+     * @param amount Amount to increment by (can be negative)
+     * @return CompletableFuture with new count, or -1 on error
+     */
+    CompletableFuture<Integer> incrementTeamSpawnerCount(String teamId, int amount);
+
+    /**
+     * Get spawner counts of all players
+     * @return CompletableFuture with count per player UUID, or null on error
+     */
+    CompletableFuture<Map<String, Integer>> getAllPlayerSpawnerCounts();
+
+    /**
+     * Add corrections to many player counts in a single transaction (floored at 0)
+     * @param amounts Amount to add per player UUID (can be negative)
+     * @return CompletableFuture with the new count per player UUID, or null on error
+     */
+    CompletableFuture<Map<String, Integer>> adjustPlayerSpawnerCounts(Map<String, Integer> amounts);
+
+    /**
+     * Top up this server's lease of a player's remaining quota.
+     * Atomically grants up to {@code target} from {@code limit - count - leases of other servers},
+     * ignoring expired leases of other servers.
+     * @param uuid Player UUID
+     * @param serverId Id of this server
+     * @param limit Network-wide limit of the player
+     * @param target Desired lease size
+     * @param expiresAt Lease expiry (epoch millis)
+     * @return CompletableFuture with the new lease, or {@link QuotaLease#FAILED}
+     */
+    CompletableFuture<QuotaLease> acquireQuotaLease(String uuid, String serverId, int limit, int target, long expiresAt);
+
+    /**
+     * Commit spawners placed from a lease: adds to the player count and takes the same amount off the lease
+     * @param uuid Player UUID
+     * @param serverId Id of this server
+     * @param amount Amount placed
+     * @return CompletableFuture with new player count, or -1 on error
+     */
+    CompletableFuture<Integer> commitLeasedSpawners(String uuid, String serverId, int amount);
+
+    /**
+     * Return a player's unused leased quota to the shared pool
+     * @param uuid Player UUID
+     * @param serverId Id of this server
+     * @return CompletableFuture with the amount returned
+     */
+    CompletableFuture<Integer> releaseQuotaLease(String uuid, String serverId);
+
+    /**
+     * Extend expiry of all leases held by this server
+     * @param serverId Id of this server
+     * @param expiresAt New expiry (epoch millis)
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> renewQuotaLeases(String serverId, long expiresAt);
+
+    /**
+     * Return all leases held by this server
+     * @param serverId Id of this server
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> releaseQuotaLeases(String serverId);
+
+    /**
+     * Append an entry to the shared change log
+     * @param origin Id of this server
+     * @param payload Encoded change batch
+     * @return CompletableFuture with the assigned sequence number, or -1 on error
+     */
+    CompletableFuture<Long> appendChangeLog(String origin, byte[] payload);
+
+    /**
+     * Read change log entries after a sequence number, in sequence order
+     * @param afterSeq Last sequence number already seen
+     * @param limit Maximum number of entries
+     * @return CompletableFuture with entries (empty on error)
+     */
+    CompletableFuture<List<ChangeLogEntry>> readChangeLog(long afterSeq, int limit);
+
+    /**
+     * Get the highest sequence number in the change log
+     * @return CompletableFuture with the sequence number, 0 if empty or -1 on error
+     */
+    CompletableFuture<Long> getLatestChangeSeq();
+
+    /**
+     * Delete change log entries older than a timestamp
+     * @param olderThan Epoch millis
+     * @return CompletableFuture with number of deleted entries
+     */
+    CompletableFuture<Integer> pruneChangeLog(long olderThan);
+
+    /**
+     * Add to (or take from) a player's share of the spawner stack at a block.
+     * Updates are additive so they commute, shares that reach 0 are purged by {@link #getAllOwnedSpawners()}.
+     * @param world World name
+     * @param x Block X coordinate
+     * @param y Block Y coordinate
+     * @param z Block Z coordinate
+     * @param owner Owner UUID
+     * @param amount Amount to add (can be negative)
+     * @param entityType Spawned entity type, or null to keep the stored one
+     * @param teamId Team pool charged for the share, or null to keep the stored one
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> adjustOwnedSpawners(String world, int x, int y, int z, String owner, int amount,
+                                                   String entityType, String teamId);
+
+    /**
+     * Purge empty ownership shares and load all remaining ones
+     * @return CompletableFuture with all owned spawner shares, or null on error
+     */
+    CompletableFuture<List<OwnedSpawner>> getAllOwnedSpawners();
+
+    /**
+     * Get spawner shares owned by a player
+     * @param owner Owner UUID
+     * @return CompletableFuture with the player's spawner shares (empty on error)
+     */
+    CompletableFuture<List<OwnedSpawner>> getOwnedSpawners(String owner);
+
+    /**
+     * Get number of writes queued and not yet flushed
+     */
+    default int getQueuedWrites() {
+        return 0;
+    }
+
+    /**
+     * Flush pending writes and close all connections
+     */
+    void close();
+}
@@ -0,0 +1,31 @@
+package github.io.ssaspawnerlimiter.core.sync;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Batch of cache changes exchanged between servers.
+ * Counts are absolute values as returned by the database; a negative count means "drop the entry".
+ */
+public record ChangeBatch(List<ChunkChange> chunks, List<PlayerChange> players) {
+
+    public boolean isEmpty() {
+        return chunks.isEmpty() && players.isEmpty();
+    }
+
+    public int size() {
+        return chunks.size() + players.size();
+    }
+
+    /**
+     * New count of a chunk
+     * @param writtenAt When the origin server wrote the value (epoch millis)
+     */
+    public record ChunkChange(String world, int x, int z, int count, long writtenAt) {}
+
+    /**
+     * New count of a player
+     * @param writtenAt When the origin server wrote the value (epoch millis)
+     */
+    public record PlayerChange(UUID uuid, int count, long writtenAt) {}
+}
@@ -0,0 +1,168 @@
+package github.io.ssaspawnerlimiter.core.sync;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary wire format for {@link ChangeBatch}.
+ * <pre>
+ * byte    version
+ * varlong baseTime                      (smallest writtenAt in the batch)
+ * varint  worldCount, worldCount x utf8 (length-prefixed world name table)
+ * varint  chunkCount, chunkCount x {varint world index, zigzag x, zigzag z, varint count + 1, varlong time offset}
+ * varint  playerCount, playerCount x {long msb, long lsb, varint count + 1, varlong time offset}
+ * </pre>
+ * World names are stored once per batch and coordinates/counts as varints,
+ * so a chunk change costs about 6-8 bytes regardless of batch size.
+ */
+public final class ChangeBatchCodec {
+    private static final byte VERSION = 1;
+
+    private ChangeBatchCodec() {
+    }
+
+    public static byte[] encode(ChangeBatch batch) {
+        long baseTime = Long.MAX_VALUE;
+        Map<String, Integer> worldIndex = new HashMap<>();
+        List<String> worlds = new ArrayList<>();
+        for (ChangeBatch.ChunkChange change : batch.chunks()) {
+            baseTime = Math.min(baseTime, change.writtenAt());
+            if (worldIndex.putIfAbsent(change.world(), worlds.size()) == null) {
+                worlds.add(change.world());
+            }
+        }
+        for (ChangeBatch.PlayerChange change : batch.players()) {
+            baseTime = Math.min(baseTime, change.writtenAt());
+        }
+        if (baseTime == Long.MAX_VALUE) {
+            baseTime = 0L;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + batch.size() * 12);
+        out.write(VERSION);
+        writeVarLong(out, baseTime);
+
+        writeVarLong(out, worlds.size());
+        for (String world : worlds) {
+            byte[] bytes = world.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        writeVarLong(out, batch.chunks().size());
+        for (ChangeBatch.ChunkChange change : batch.chunks()) {
+            writeVarLong(out, worldIndex.get(change.world()));
+            writeVarLong(out, zigZag(change.x()));
+            writeVarLong(out, zigZag(change.z()));
+            writeVarLong(out, Math.max(-1, change.count()) + 1L);
+            writeVarLong(out, change.writtenAt() - baseTime);
+        }
+
+        writeVarLong(out, batch.players().size());
+        for (ChangeBatch.PlayerChange change : batch.players()) {
+            writeLong(out, change.uuid().getMostSignificantBits());
+            writeLong(out, change.uuid().getLeastSignificantBits());
+            writeVarLong(out, Math.max(-1, change.count()) + 1L);
+            writeVarLong(out, change.writtenAt() - baseTime);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a batch
+     * @throws IllegalArgumentException if the payload is malformed or of an unknown version
+     */
+    public static ChangeBatch decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported change batch version: " + version);
+            }
+            long baseTime = readVarLong(buffer);
+
+            int worldCount = readLength(buffer);
+            String[] worlds = new String[worldCount];
+            for (int i = 0; i < worldCount; i++) {
+                byte[] bytes = new byte[readLength(buffer)];
+                buffer.get(bytes);
+                worlds[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int chunkCount = readLength(buffer);
+            List<ChangeBatch.ChunkChange> chunks = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                String world = worlds[(int) readVarLong(buffer)];
+                int x = unZigZag(readVarLong(buffer));
+                int z = unZigZag(readVarLong(buffer));
+                int count = (int) (readVarLong(buffer) - 1);
+                long writtenAt = baseTime + readVarLong(buffer);
+                chunks.add(new ChangeBatch.ChunkChange(world, x, z, count, writtenAt));
+            }
+
+            int playerCount = readLength(buffer);
+            List<ChangeBatch.PlayerChange> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+                int count = (int) (readVarLong(buffer) - 1);
+                long writtenAt = baseTime + readVarLong(buffer);
+                players.add(new ChangeBatch.PlayerChange(uuid, count, writtenAt));
+            }
+
+            return new ChangeBatch(chunks, players);
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated change batch", e);
+        }
+    }
+
+    private static long zigZag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+
+    private static int unZigZag(long value) {
+        int n = (int) value;
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readLength(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package github.io.ssaspawnerlimiter.core.sync;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport carrying encoded {@link ChangeBatch} messages between servers.
+ * Push-based transports (e.g. a message broker) can buffer received messages until the next poll.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Get display name of this transport
+     */
+    String getName();
+
+    /**
+     * Prepare the transport, called once before the first publish or poll
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> start();
+
+    /**
+     * Send a message to all other servers
+     * @param payload Encoded change batch
+     * @return CompletableFuture indicating success
+     */
+    CompletableFuture<Boolean> publish(byte[] payload);
+
+    /**
+     * Fetch messages from other servers received since the last poll
+     * @return CompletableFuture with payloads in arrival order
+     */
+    CompletableFuture<List<byte[]>> poll();
+
+    /**
+     * Release resources held by the transport
+     */
+    void close();
+}
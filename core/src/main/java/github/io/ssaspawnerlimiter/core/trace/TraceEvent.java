@@ -0,0 +1,26 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import java.util.UUID;
+
+/**
+ * One spawner event as it reached the limiter, with its outcome.
+ * @param timeMicros Time since the trace started
+ * @param type Kind of event
+ * @param player Player who caused the event. For removals (breaks, removes and unstacks) the owner charged: a removal
+ *               taking from several owners is one event per owner.
+ * @param world World name
+ * @param chunkX Chunk x
+ * @param chunkZ Chunk z
+ * @param quantity Spawners placed or removed, the stack size change for {@link Type#STACK}
+ * @param allowed Whether the limiter let the event through
+ */
+public record TraceEvent(long timeMicros, Type type, UUID player, String world, int chunkX, int chunkZ,
+                         int quantity, boolean allowed) {
+
+    public enum Type {
+        PLACE,
+        BREAK,
+        STACK,
+        REMOVE
+    }
+}
@@ -0,0 +1,103 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads a trace written by {@link TraceWriter}. Not thread-safe.
+ */
+public final class TraceReader implements Closeable {
+    private static final TraceEvent.Type[] TYPES = TraceEvent.Type.values();
+
+    private final DataInputStream in;
+    private final long startEpochMillis;
+    private final List<String> worlds = new ArrayList<>();
+    private final List<UUID> players = new ArrayList<>();
+    private long micros;
+
+    /**
+     * Read the header
+     * @param in Source, buffered by the caller
+     * @throws IOException if the stream isn't a trace of a supported version
+     */
+    public TraceReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (this.in.readInt() != TraceWriter.MAGIC) {
+            throw new IOException("Not a spawner event trace");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != TraceWriter.VERSION) {
+            throw new IOException("Unsupported trace version " + version);
+        }
+        this.startEpochMillis = this.in.readLong();
+    }
+
+    /**
+     * Get when the trace started (epoch millis)
+     */
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Read the next event
+     * @return the event, or null at the end of the trace. A trace cut off mid-record (e.g. by a crash) ends at the
+     * last complete event.
+     */
+    public TraceEvent next() throws IOException {
+        try {
+            while (true) {
+                int tag = in.read();
+                if (tag < 0) {
+                    return null;
+                }
+                if (tag == TraceWriter.TAG_WORLD) {
+                    worlds.add(in.readUTF());
+                } else if (tag == TraceWriter.TAG_PLAYER) {
+                    players.add(new UUID(in.readLong(), in.readLong()));
+                } else if ((tag & ~0x0F) == TraceWriter.TAG_EVENT && (tag & 0x07) < TYPES.length) {
+                    micros += readVarLong();
+                    UUID player = players.get((int) readVarLong());
+                    String world = worlds.get((int) readVarLong());
+                    int chunkX = unzigzag(readVarLong());
+                    int chunkZ = unzigzag(readVarLong());
+                    int quantity = unzigzag(readVarLong());
+                    return new TraceEvent(micros, TYPES[tag & 0x07], player, world, chunkX, chunkZ, quantity,
+                        (tag & TraceWriter.ALLOWED_FLAG) != 0);
+                } else {
+                    throw new IOException("Corrupt trace, unknown record tag " + tag);
+                }
+            }
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt trace, variable-length int too long");
+    }
+
+    private static int unzigzag(long value) {
+        int bits = (int) value;
+        return (bits >>> 1) ^ -(bits & 1);
+    }
+}
@@ -0,0 +1,134 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records spawner events to a trace file for offline replay. Callers only timestamp the event and hand it to a
+ * bounded queue; one background thread encodes and writes it. Events that don't fit the queue are dropped and
+ * counted, and recording stops once the file reaches its size limit.
+ */
+public final class TraceRecorder implements AutoCloseable {
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private final Path file;
+    private final long maxFileBytes;
+    private final Logger logger;
+    private final long startNanos = System.nanoTime();
+    private final BlockingQueue<TraceEvent> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = true;
+    private volatile boolean full;
+
+    /**
+     * Create the trace file and start recording
+     * @param file Trace file, replaced if it exists
+     * @param maxFileBytes Size at which recording stops
+     * @param logger Logger for failures to write the file
+     */
+    public TraceRecorder(Path file, long maxFileBytes, Logger logger) throws IOException {
+        this.file = file;
+        this.maxFileBytes = Math.min(maxFileBytes, Integer.MAX_VALUE);
+        this.logger = logger;
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        TraceWriter writer = new TraceWriter(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16),
+            System.currentTimeMillis());
+        this.writerThread = new Thread(() -> writeLoop(writer), "SSASpawnerLimiter-TraceRecorder");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Record an event that just happened
+     * @param type Kind of event
+     * @param player Player who caused it, the owner charged for removals
+     * @param world World name
+     * @param chunkX Chunk x
+     * @param chunkZ Chunk z
+     * @param quantity Spawners placed or removed, the stack size change for stacking
+     * @param allowed Whether the limiter let it through
+     */
+    public void record(TraceEvent.Type type, UUID player, String world, int chunkX, int chunkZ, int quantity,
+                       boolean allowed) {
+        if (full) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        if (queue.offer(new TraceEvent(micros, type, player, world, chunkX, chunkZ, quantity, allowed))) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Get the trace file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get number of events queued for the trace since it started
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Get number of events dropped because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Write queued events, close the file and stop the writer thread
+     */
+    @Override
+    public void close() {
+        // Not interrupted, that would close the file channel mid-write
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop(TraceWriter writer) {
+        try (writer) {
+            while (running || !queue.isEmpty()) {
+                TraceEvent event = running ? queue.poll(250, TimeUnit.MILLISECONDS) : queue.poll();
+                // Write the whole burst before flushing
+                while (event != null && !full) {
+                    writer.write(event);
+                    if (writer.size() >= maxFileBytes) {
+                        full = true;
+                        logger.warning("Trace " + file + " reached its size limit, recording stopped");
+                    }
+                    event = queue.poll();
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            full = true;
+            logger.log(Level.WARNING, "Failed to write trace " + file + ", recording stopped", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.limit.CountEngine;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.core.metrics.LatencyHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recorded trace against the limiter core: chunk and player limit checks on the count engine, over
+ * in-memory storage. Events are replayed in recorded order, at recorded speed, a multiple of it, or as fast as
+ * possible, and the replay reports throughput, check latency, decisions that differ from the recorded ones and
+ * counts that ended up different from what the recorded outcomes imply.
+ * <p>
+ * Counts start at zero, so with limits set, traces recorded on a server that already had spawners allow more than
+ * the server did; decisions and counts then show by how much. Removals are taken from the owner recorded with them,
+ * as the plugin charges them.
+ */
+public final class TraceReplayer {
+    private static final String USAGE = """
+        Usage: TraceReplayer <trace file> [options]
+          --speed <factor>      Replay at this multiple of recorded speed, 0 for as fast as possible (default 0)
+          --chunk-limit <n>     Spawners per chunk (default 1000)
+          --player-limit <n>    Spawners per player (default 500)""";
+
+    private final int chunkLimit;
+    private final int playerLimit;
+
+    // Storage of the replay, and the count engines in front of it as in the plugin
+    private final Map<ChunkKey, Integer> chunkStore = new HashMap<>();
+    private final Map<UUID, Integer> playerStore = new HashMap<>();
+    private final CountEngine<ChunkKey> chunkCounts;
+    private final CountEngine<UUID> playerCounts;
+
+    // Counts implied by the recorded outcomes
+    private final Map<ChunkKey, Integer> recordedChunks = new HashMap<>();
+    private final Map<UUID, Integer> recordedPlayers = new HashMap<>();
+
+    private final LatencyHistogram checkTime = new LatencyHistogram();
+    private long events;
+    private long allowedNow;
+    private long deniedNow;
+
+    public TraceReplayer(int chunkLimit, int playerLimit) {
+        this.chunkLimit = chunkLimit;
+        this.playerLimit = playerLimit;
+        this.chunkCounts = CountEngine.<ChunkKey>builder(key -> chunkStore.getOrDefault(key, 0)).build();
+        this.playerCounts = CountEngine.<UUID>builder(uuid -> playerStore.getOrDefault(uuid, 0)).build();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        Path trace = Path.of(args[0]);
+        double speed = 0;
+        int chunkLimit = 1000;
+        int playerLimit = 500;
+        for (int i = 1; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                System.err.println("Missing value of " + args[i] + "\n" + USAGE);
+                System.exit(2);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--speed" -> speed = Double.parseDouble(value);
+                case "--chunk-limit" -> chunkLimit = Integer.parseInt(value);
+                case "--player-limit" -> playerLimit = Integer.parseInt(value);
+                default -> {
+                    System.err.println("Unknown option " + args[i] + "\n" + USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        TraceReplayer replayer = new TraceReplayer(chunkLimit, playerLimit);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(trace), 1 << 16)) {
+            TraceReader reader = new TraceReader(in);
+            long start = System.nanoTime();
+            long lastMicros = replayer.replay(reader, speed);
+            long wallNanos = System.nanoTime() - start;
+
+            System.out.printf(Locale.ROOT, "Replayed %,d events from %s (recorded %s, spanning %.1f s)%n",
+                replayer.events, trace, Instant.ofEpochMilli(reader.getStartEpochMillis()), lastMicros / 1e6);
+            replayer.report(wallNanos, speed);
+        }
+    }
+
+    /**
+     * Replay every event of a trace
+     * @param speed Multiple of recorded speed, 0 for as fast as possible
+     * @return time of the last event since the trace started (micros)
+     */
+    public long replay(TraceReader reader, double speed) throws IOException {
+        long start = System.nanoTime();
+        long lastMicros = 0;
+        TraceEvent event;
+        while ((event = reader.next()) != null) {
+            if (speed > 0) {
+                long due = start + (long) (TimeUnit.MICROSECONDS.toNanos(event.timeMicros()) / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            apply(event);
+            lastMicros = event.timeMicros();
+        }
+        return lastMicros;
+    }
+
+    /**
+     * Decide and apply one event the way the plugin's listener does
+     */
+    public void apply(TraceEvent event) {
+        events++;
+        ChunkKey chunk = new ChunkKey(event.world(), event.chunkX(), event.chunkZ());
+        boolean adds = event.quantity() > 0 && (event.type() == TraceEvent.Type.PLACE || event.type() == TraceEvent.Type.STACK);
+        int delta = adds ? event.quantity() : -Math.abs(event.quantity());
+
+        // Removals are charged to the recorded player, the owner, and applied only if they went through
+        boolean allowed = event.allowed();
+        if (adds) {
+            long start = System.nanoTime();
+            LimitCheck check = chunkCounts.check(chunk, delta, chunkLimit);
+            if (check.allowed()) {
+                check = playerCounts.check(event.player(), delta, playerLimit);
+            }
+            checkTime.recordSince(start);
+            allowed = check.allowed();
+            if (allowed != event.allowed()) {
+                if (allowed) {
+                    allowedNow++;
+                } else {
+                    deniedNow++;
+                }
+            }
+        }
+
+        if (allowed) {
+            chunkCounts.update(chunk, add(chunkStore, chunk, delta));
+            playerCounts.update(event.player(), add(playerStore, event.player(), delta));
+        }
+        if (event.allowed()) {
+            add(recordedChunks, chunk, delta);
+            add(recordedPlayers, event.player(), delta);
+        }
+    }
+
+    /**
+     * Get number of events replayed
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Get number of events the recording denied and the replay allowed
+     */
+    public long getAllowedNow() {
+        return allowedNow;
+    }
+
+    /**
+     * Get number of events the recording allowed and the replay denied
+     */
+    public long getDeniedNow() {
+        return deniedNow;
+    }
+
+    /**
+     * Get the replayed count of a chunk
+     */
+    public int getChunkCount(ChunkKey chunk) {
+        return chunkStore.getOrDefault(chunk, 0);
+    }
+
+    /**
+     * Get the replayed count of a player
+     */
+    public int getPlayerCount(UUID player) {
+        return playerStore.getOrDefault(player, 0);
+    }
+
+    /**
+     * Print throughput, latency, decision and count divergence
+     */
+    public void report(long wallNanos, double speed) {
+        LatencyHistogram.Snapshot latency = checkTime.snapshot();
+        System.out.printf(Locale.ROOT, "Wall time %.2f s at %s, throughput %,.0f events/s%n",
+            wallNanos / 1e9, speed > 0 ? speed + "x recorded speed" : "full speed", events / (wallNanos / 1e9));
+        System.out.printf(Locale.ROOT, "Limit checks: %,d, mean %.2f us, p50 %s, p90 %s, p99 %s, p99.9 %s%n",
+            latency.count(), latency.meanMicros(), bound(latency, 0.5), bound(latency, 0.9), bound(latency, 0.99),
+            bound(latency, 0.999));
+        System.out.printf(Locale.ROOT, "Decisions differing from the recording: %,d (%,d allowed now, %,d denied now)%n",
+            allowedNow + deniedNow, allowedNow, deniedNow);
+        System.out.printf(Locale.ROOT, "Final counts: %s%n", divergence(chunkStore, recordedChunks, "chunks"));
+        System.out.printf(Locale.ROOT, "              %s%n", divergence(playerStore, recordedPlayers, "players"));
+    }
+
+    private static <K> int add(Map<K, Integer> counts, K key, int delta) {
+        // Counts never go below zero, like in the database
+        int count = Math.max(0, counts.getOrDefault(key, 0) + delta);
+        counts.put(key, count);
+        return count;
+    }
+
+    private static <K> String divergence(Map<K, Integer> replayed, Map<K, Integer> recorded, String what) {
+        Map<K, Integer> keys = new HashMap<>(recorded);
+        keys.putAll(replayed);
+        long diverging = 0;
+        long difference = 0;
+        for (K key : keys.keySet()) {
+            int diff = Math.abs(replayed.getOrDefault(key, 0) - recorded.getOrDefault(key, 0));
+            if (diff != 0) {
+                diverging++;
+                difference += diff;
+            }
+        }
+        return String.format(Locale.ROOT, "%,d of %,d %s diverge, by %,d spawners in total", diverging, keys.size(),
+            what, difference);
+    }
+
+    private static String bound(LatencyHistogram.Snapshot snapshot, double quantile) {
+        long micros = snapshot.percentileMicros(quantile);
+        return micros == Long.MAX_VALUE ? "∞" : "<" + micros + " us";
+    }
+}
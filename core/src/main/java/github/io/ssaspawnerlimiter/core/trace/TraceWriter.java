@@ -0,0 +1,108 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes trace events in the compact binary format read by {@link TraceReader}. Not thread-safe.
+ * <p>
+ * The stream starts with the magic {@code SSLT}, a format version byte and the start time (epoch millis, 8 bytes).
+ * Records follow, each starting with a tag byte:
+ * <ul>
+ *   <li>{@link #TAG_WORLD}: a world name (modified UTF-8), which gets the next world index</li>
+ *   <li>{@link #TAG_PLAYER}: a player UUID (16 bytes), which gets the next player index</li>
+ *   <li>{@link #TAG_EVENT} plus the event type ordinal, plus {@link #ALLOWED_FLAG} if it was allowed: microseconds
+ *   since the previous event, player index, world index, chunk x, chunk z and quantity as variable-length ints
+ *   (signed ones zigzag encoded)</li>
+ * </ul>
+ * Worlds and players are defined before their first event, so a typical event takes 7-9 bytes.
+ */
+public final class TraceWriter implements Closeable {
+    static final int MAGIC = 0x53534C54; // "SSLT"
+    static final int VERSION = 1;
+    static final int TAG_WORLD = 0x01;
+    static final int TAG_PLAYER = 0x02;
+    static final int TAG_EVENT = 0x10;
+    static final int ALLOWED_FLAG = 0x08;
+
+    private final DataOutputStream out;
+    private final Map<String, Integer> worlds = new HashMap<>();
+    private final Map<UUID, Integer> players = new HashMap<>();
+    private long lastMicros;
+
+    /**
+     * Write the header
+     * @param out Destination, buffered by the caller
+     * @param startEpochMillis When the trace started
+     */
+    public TraceWriter(OutputStream out, long startEpochMillis) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeLong(startEpochMillis);
+    }
+
+    /**
+     * Write an event, defining its world and player first if they are new
+     * @param event The event, not earlier than the previous one
+     */
+    public void write(TraceEvent event) throws IOException {
+        Integer world = worlds.get(event.world());
+        if (world == null) {
+            world = worlds.size();
+            worlds.put(event.world(), world);
+            out.writeByte(TAG_WORLD);
+            out.writeUTF(event.world());
+        }
+        Integer player = players.get(event.player());
+        if (player == null) {
+            player = players.size();
+            players.put(event.player(), player);
+            out.writeByte(TAG_PLAYER);
+            out.writeLong(event.player().getMostSignificantBits());
+            out.writeLong(event.player().getLeastSignificantBits());
+        }
+
+        out.writeByte(TAG_EVENT | event.type().ordinal() | (event.allowed() ? ALLOWED_FLAG : 0));
+        writeVarLong(Math.max(0, event.timeMicros() - lastMicros));
+        lastMicros = Math.max(lastMicros, event.timeMicros());
+        writeVarLong(player);
+        writeVarLong(world);
+        writeVarLong(zigzag(event.chunkX()));
+        writeVarLong(zigzag(event.chunkZ()));
+        writeVarLong(zigzag(event.quantity()));
+    }
+
+    /**
+     * Get number of bytes written so far, stops counting at {@link Integer#MAX_VALUE}
+     */
+    public int size() {
+        return out.size();
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,402 @@
+package github.io.ssaspawnerlimiter.core.stress;
+
+import github.io.ssaspawnerlimiter.core.batch.DeltaBuffer;
+import github.io.ssaspawnerlimiter.core.cache.CountCache;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.limit.CountEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Hammers the chunk and player counters from many threads with interleaved places and breaks, following the
+ * listener's path: check the chunk and player counts, buffer both deltas like {@code SpawnerDeltaBatcher}, and let a
+ * flusher drain them into ordered writes over storage whose writes complete after random delays. Each worker stands in
+ * for a region thread and only touches the chunks and players it owns, as the server runs all events of one chunk or
+ * player on one thread at a time. Entries expire within milliseconds and are dropped at random, so loads race with
+ * flushes and writes.
+ * <p>
+ * Each round asserts that
+ * <ul>
+ *     <li>no chunk or player ever holds more spawners than its limit,</li>
+ *     <li>once quiet, storage holds exactly the placed minus broken spawners of every key (no lost update),</li>
+ *     <li>and the cached count of every key equals the stored one, with nothing left pending.</li>
+ * </ul>
+ * {@code --unordered} runs the old write path instead (unchained writes caching their results in completion order)
+ * to show the suite catching it. Exits with status 1 if any assertion failed.
+ */
+public final class CounterStressHarness {
+    private static final String USAGE = """
+        Usage: CounterStressHarness [options]
+          --rounds <n>          Rounds, each with fresh counters (default 3)
+          --threads <n>         Region threads placing and breaking (default 8)
+          --ops <n>             Operations per thread per round (default 50000)
+          --chunks <n>          Chunks played on, at least one per thread (default 32)
+          --players <n>         Players placing, at least one per thread (default 16)
+          --chunk-limit <n>     Spawners per chunk (default 40)
+          --player-limit <n>    Spawners per player (default 60)
+          --seed <n>            Seed of the first round (default random)
+          --unordered           Use the unordered write path the ordering fixes replaced""";
+
+    private static final int MAX_REPORTED = 10;
+
+    private final Options options;
+    private final long seed;
+
+    private final ChunkKey[] chunks;
+    private final UUID[] players;
+
+    private final SimulatedStorage<ChunkKey> chunkStorage;
+    private final SimulatedStorage<UUID> playerStorage;
+    private final DeltaBuffer<ChunkKey> chunkDeltas = new DeltaBuffer<>();
+    private final DeltaBuffer<UUID> playerDeltas = new DeltaBuffer<>();
+    private final CountEngine<ChunkKey> chunkCounts;
+    private final CountEngine<UUID> playerCounts;
+
+    // What storage should end up holding, changed only by placements that passed both checks
+    private final Map<ChunkKey, AtomicInteger> chunkTruth = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> playerTruth = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+    private final LongAdder violationCount = new LongAdder();
+    private final LongAdder placed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder broken = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+
+    private record Options(int threads, int ops, int chunks, int players, int chunkLimit, int playerLimit,
+                           boolean unordered) {}
+
+    private record Placement(ChunkKey chunk, UUID player, int quantity) {}
+
+    private CounterStressHarness(Options options, long seed) {
+        this.options = options;
+        this.seed = seed;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        this.chunks = new ChunkKey[options.chunks()];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new ChunkKey("world", random.nextInt(-64, 64), random.nextInt(-64, 64));
+        }
+        this.players = new UUID[options.players()];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(random.nextLong(), random.nextLong());
+        }
+
+        this.chunkStorage = new SimulatedStorage<>();
+        this.playerStorage = new SimulatedStorage<>();
+        this.chunkCounts = CountEngine.<ChunkKey>builder(chunkStorage::load)
+            .pendingDelta(chunkDeltas::pending)
+            .expirationMs(2L)
+            .build();
+        this.playerCounts = CountEngine.<UUID>builder(playerStorage::load)
+            .pendingDelta(playerDeltas::pending)
+            .expirationMs(2L)
+            .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = 3;
+        int threads = 8;
+        int ops = 50_000;
+        int chunks = 32;
+        int players = 16;
+        int chunkLimit = 40;
+        int playerLimit = 60;
+        long seed = ThreadLocalRandom.current().nextLong();
+        boolean unordered = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--unordered")) {
+                unordered = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.err.println("Missing value of " + args[i] + "\n" + USAGE);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--rounds" -> rounds = Integer.parseInt(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--ops" -> ops = Integer.parseInt(value);
+                case "--chunks" -> chunks = Integer.parseInt(value);
+                case "--players" -> players = Integer.parseInt(value);
+                case "--chunk-limit" -> chunkLimit = Integer.parseInt(value);
+                case "--player-limit" -> playerLimit = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> {
+                    System.err.println("Unknown option " + args[i - 1] + "\n" + USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        if (chunks < threads || players < threads) {
+            System.err.println("Every thread needs a chunk and a player of its own\n" + USAGE);
+            System.exit(2);
+        }
+
+        Options options = new Options(threads, ops, chunks, players, chunkLimit, playerLimit, unordered);
+        long failed = 0;
+        for (int round = 0; round < rounds; round++) {
+            CounterStressHarness harness = new CounterStressHarness(options, seed + round);
+            try {
+                failed += harness.run(round + 1);
+            } finally {
+                harness.close();
+            }
+        }
+
+        if (failed > 0) {
+            System.out.println("FAILED: " + failed + " violation(s)");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Run one round and check the counters once it's quiet
+     * @return number of violations
+     */
+    private long run(int round) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (running.get()) {
+                flush();
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            }
+        }, "stress-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < options.threads(); i++) {
+            long workerSeed = seed * 31 + i;
+            int region = i;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    work(region, new SplittableRandom(workerSeed));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    violation("worker failed: " + e);
+                }
+            }, "stress-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+
+        // Write what is left, then stop flushing once nothing is pending or in flight
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!quiet() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        running.set(false);
+        flusher.join();
+        if (!quiet()) {
+            violation("writes still pending 30s after the last operation");
+        }
+
+        verify("chunk", chunks, chunkTruth, chunkStorage, chunkCounts);
+        verify("player", players, playerTruth, playerStorage, playerCounts);
+
+        long operations = (long) options.threads() * options.ops();
+        System.out.printf(Locale.ROOT,
+            "Round %d (seed %d): %d ops in %.2f s (%.0f ops/s), %d placed, %d denied, %d broken, %d writes, %d violation(s)%n",
+            round, seed, operations, elapsed / 1e9, operations / (elapsed / 1e9),
+            placed.sum(), denied.sum(), broken.sum(), writes.sum(), violationCount.sum());
+        for (String violation : violations) {
+            System.out.println("  " + violation);
+        }
+        if (violationCount.sum() > violations.size()) {
+            System.out.println("  ... and " + (violationCount.sum() - violations.size()) + " more");
+        }
+        return violationCount.sum();
+    }
+
+    /**
+     * Place and break spawners at random in the chunks and for the players of one region, breaking only what it placed
+     */
+    private void work(int region, SplittableRandom random) {
+        ChunkKey[] ownChunks = owned(chunks, region, ChunkKey[]::new);
+        UUID[] ownPlayers = owned(players, region, UUID[]::new);
+        List<Placement> own = new ArrayList<>();
+        for (int op = 0; op < options.ops(); op++) {
+            int roll = random.nextInt(100);
+            if (roll < 2) {
+                // Drop a cached entry, so the next check loads it while writes may be in flight
+                chunkCounts.invalidate(chunks[random.nextInt(chunks.length)]);
+                playerCounts.invalidate(players[random.nextInt(players.length)]);
+            } else if (roll < 60 || own.isEmpty()) {
+                Placement placement = new Placement(ownChunks[random.nextInt(ownChunks.length)],
+                    ownPlayers[random.nextInt(ownPlayers.length)], 1 + random.nextInt(3));
+                if (place(placement)) {
+                    own.add(placement);
+                }
+            } else {
+                int index = random.nextInt(own.size());
+                Placement placement = own.get(index);
+                own.set(index, own.getLast());
+                own.removeLast();
+                breakSpawner(placement);
+            }
+        }
+    }
+
+    private <T> T[] owned(T[] keys, int region, IntFunction<T[]> array) {
+        return IntStream.range(0, keys.length)
+            .filter(i -> i % options.threads() == region)
+            .mapToObj(i -> keys[i])
+            .toArray(array);
+    }
+
+    private boolean place(Placement placement) {
+        int quantity = placement.quantity();
+        if (!chunkCounts.check(placement.chunk(), quantity, options.chunkLimit()).allowed()
+                || !playerCounts.check(placement.player(), quantity, options.playerLimit()).allowed()) {
+            denied.increment();
+            return false;
+        }
+        // All limits passed, buffer the change for the flusher
+        chunkDeltas.add(placement.chunk(), quantity);
+        playerDeltas.add(placement.player(), quantity);
+
+        placed.increment();
+        int chunkCount = chunkTruth.computeIfAbsent(placement.chunk(), k -> new AtomicInteger()).addAndGet(quantity);
+        if (chunkCount > options.chunkLimit()) {
+            violation("chunk " + placement.chunk() + " holds " + chunkCount + " > limit " + options.chunkLimit());
+        }
+        int playerCount = playerTruth.computeIfAbsent(placement.player(), k -> new AtomicInteger()).addAndGet(quantity);
+        if (playerCount > options.playerLimit()) {
+            violation("player " + placement.player() + " holds " + playerCount + " > limit " + options.playerLimit());
+        }
+        return true;
+    }
+
+    private void breakSpawner(Placement placement) {
+        // The real count drops before the counters see it, as with the block already gone
+        chunkTruth.get(placement.chunk()).addAndGet(-placement.quantity());
+        playerTruth.get(placement.player()).addAndGet(-placement.quantity());
+        chunkDeltas.add(placement.chunk(), -placement.quantity());
+        playerDeltas.add(placement.player(), -placement.quantity());
+        broken.increment();
+    }
+
+    private void flush() {
+        chunkDeltas.drain((key, delta) -> write(chunkCounts, chunkDeltas, chunkStorage, key, delta));
+        playerDeltas.drain((key, delta) -> write(playerCounts, playerDeltas, playerStorage, key, delta));
+    }
+
+    private <K> void write(CountEngine<K> counts, DeltaBuffer<K> deltas, SimulatedStorage<K> storage, K key, int delta) {
+        writes.increment();
+        CompletableFuture<Integer> written = options.unordered()
+            ? storage.increment(key, delta).thenApply(count -> {
+                counts.update(key, count);
+                return count;
+            })
+            : counts.write(key, () -> storage.increment(key, delta));
+        written.whenComplete((count, throwable) -> deltas.complete(key, delta));
+    }
+
+    private boolean quiet() {
+        return chunkDeltas.isEmpty() && playerDeltas.isEmpty() && chunkStorage.idle() && playerStorage.idle();
+    }
+
+    private <K> void verify(String kind, K[] keys, Map<K, AtomicInteger> truth, SimulatedStorage<K> storage,
+                            CountEngine<K> counts) {
+        for (K key : keys) {
+            AtomicInteger real = truth.get(key);
+            int expected = real != null ? real.get() : 0;
+            int stored = storage.load(key);
+            if (stored != expected) {
+                violation(kind + " " + key + " stored " + stored + " but holds " + expected + " (lost update)");
+            }
+            CountCache.Entry cached = counts.cached(key);
+            if (cached != null && cached.count() != stored) {
+                violation(kind + " " + key + " cached " + cached.count() + " but stored " + stored);
+            }
+            if (counts.pendingDelta(key) != 0) {
+                violation(kind + " " + key + " has " + counts.pendingDelta(key) + " pending after quiescing");
+            }
+        }
+    }
+
+    private void violation(String message) {
+        violationCount.increment();
+        if (violations.size() < MAX_REPORTED) {
+            violations.add(message);
+        }
+    }
+
+    private void close() {
+        chunkStorage.close();
+        playerStorage.close();
+    }
+
+    /**
+     * Counts in memory behind an async API like the plugin's storage: increments run on a pool after a random
+     * delay, so writes of one key complete in any order unless the caller orders them
+     */
+    private static final class SimulatedStorage<K> {
+        private final Map<K, Integer> counts = new ConcurrentHashMap<>();
+        private final ExecutorService executor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "stress-storage");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        Integer load(K key) {
+            return counts.getOrDefault(key, 0);
+        }
+
+        CompletableFuture<Integer> increment(K key, int amount) {
+            inFlight.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(TimeUnit.MICROSECONDS.toNanos(500)));
+                    // Clamped at zero like the SQL backends
+                    return counts.merge(key, amount, (current, delta) -> Math.max(0, current + delta));
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }, executor);
+        }
+
+        boolean idle() {
+            return inFlight.get() == 0;
+        }
+
+        void close() {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Minimal big-endian NBT writer for building synthetic chunks in tests.
+ * Named tags are written with their header, list elements with {@link #listOf} and the payload methods.
+ */
+final class NbtWriter {
+    static final int END = 0, BYTE = 1, SHORT = 2, INT = 3, LONG = 4, DOUBLE = 6, BYTE_ARRAY = 7,
+        STRING = 8, LIST = 9, COMPOUND = 10, INT_ARRAY = 11, LONG_ARRAY = 12;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    /** Start an unnamed root compound */
+    static NbtWriter root() {
+        return new NbtWriter().header(COMPOUND, "");
+    }
+
+    NbtWriter header(int type, String name) {
+        return run(() -> {
+            out.writeByte(type);
+            out.writeUTF(name);
+        });
+    }
+
+    NbtWriter intTag(String name, int value) {
+        return header(INT, name).run(() -> out.writeInt(value));
+    }
+
+    NbtWriter byteTag(String name, int value) {
+        return header(BYTE, name).run(() -> out.writeByte(value));
+    }
+
+    NbtWriter shortTag(String name, int value) {
+        return header(SHORT, name).run(() -> out.writeShort(value));
+    }
+
+    NbtWriter longTag(String name, long value) {
+        return header(LONG, name).run(() -> out.writeLong(value));
+    }
+
+    NbtWriter doubleTag(String name, double value) {
+        return header(DOUBLE, name).run(() -> out.writeDouble(value));
+    }
+
+    NbtWriter stringTag(String name, String value) {
+        return header(STRING, name).run(() -> out.writeUTF(value));
+    }
+
+    NbtWriter byteArrayTag(String name, int length) {
+        return header(BYTE_ARRAY, name).run(() -> {
+            out.writeInt(length);
+            out.write(new byte[length]);
+        });
+    }
+
+    NbtWriter intArrayTag(String name, int... values) {
+        return header(INT_ARRAY, name).run(() -> {
+            out.writeInt(values.length);
+            for (int value : values) {
+                out.writeInt(value);
+            }
+        });
+    }
+
+    NbtWriter longArrayTag(String name, int length) {
+        return header(LONG_ARRAY, name).run(() -> {
+            out.writeInt(length);
+            out.write(new byte[length * 8]);
+        });
+    }
+
+    NbtWriter compound(String name) {
+        return header(COMPOUND, name);
+    }
+
+    NbtWriter list(String name, int elementType, int length) {
+        return header(LIST, name).listOf(elementType, length);
+    }
+
+    /** Payload of a list, used for named lists and lists nested in lists */
+    NbtWriter listOf(int elementType, int length) {
+        return run(() -> {
+            out.writeByte(elementType);
+            out.writeInt(length);
+        });
+    }
+
+    NbtWriter intPayload(int value) {
+        return run(() -> out.writeInt(value));
+    }
+
+    NbtWriter end() {
+        return run(() -> out.writeByte(0));
+    }
+
+    /** Spawner block entity as a list element, stack size omitted when 0 */
+    NbtWriter spawner(String id, int x, int y, int z, String stackKey, int stackSize) {
+        stringTag("id", id).intTag("x", x).intTag("y", y).intTag("z", z).byteTag("keepPacked", 0);
+        if (stackKey != null) {
+            compound("PublicBukkitValues").stringTag("smartspawner:entity", "ZOMBIE");
+            if (stackSize != 0) {
+                intTag(stackKey, stackSize);
+            }
+            end();
+        }
+        return end();
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    private NbtWriter run(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,171 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static github.io.ssaspawnerlimiter.core.anvil.SpawnerNbtScannerTest.STACK_KEY;
+import static github.io.ssaspawnerlimiter.core.anvil.SpawnerNbtScannerTest.modernChunk;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RegionFileScannerTest {
+    private static final int SECTOR = 4096;
+    private static final int GZIP = 1, ZLIB = 2, NONE = 3, LZ4 = 4, EXTERNAL = 0x80;
+
+    @TempDir
+    Path dir;
+
+    /** Builds a region file one chunk per index, each chunk starting on its own sector */
+    private static final class Region {
+        private final ByteBuffer header = ByteBuffer.allocate(2 * SECTOR);
+        private final ByteArrayOutputStream sectors = new ByteArrayOutputStream();
+
+        Region chunk(int index, int compression, byte[] data) {
+            return raw(index, data.length + 1, compression, data);
+        }
+
+        /** Chunk whose length field and payload may disagree */
+        Region raw(int index, int length, int compression, byte[] data) {
+            int sector = 2 + sectors.size() / SECTOR;
+            ByteBuffer chunk = ByteBuffer.allocate(sectorsFor(5 + data.length) * SECTOR);
+            chunk.putInt(length).put((byte) compression).put(data);
+            sectors.writeBytes(chunk.array());
+            return location(index, sector, chunk.capacity() / SECTOR);
+        }
+
+        Region location(int index, int sector, int count) {
+            header.putInt(index * 4, sector << 8 | count);
+            return this;
+        }
+
+        Path write(Path file) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.writeBytes(header.array());
+            out.writeBytes(sectors.toByteArray());
+            return Files.write(file, out.toByteArray());
+        }
+
+        private static int sectorsFor(int bytes) {
+            return (bytes + SECTOR - 1) / SECTOR;
+        }
+    }
+
+    private static byte[] zlib(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater())) {
+            deflate.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static RegionFileScanner.RegionStats scan(Path file, List<String> found) throws IOException {
+        RegionFileScanner scanner = new RegionFileScanner(new SpawnerNbtScanner(STACK_KEY));
+        try {
+            return scanner.scan(file, (x, y, z, stackSize) -> found.add(x + "," + z + "x" + stackSize));
+        } finally {
+            scanner.close();
+        }
+    }
+
+    @Test
+    void readsEveryCompression() throws IOException {
+        Path file = new Region()
+            .chunk(0, ZLIB, zlib(modernChunk(0, 0, 2)))
+            .chunk(1, NONE, modernChunk(16, 0, 3))
+            .chunk(2, GZIP, gzip(modernChunk(32, 0, 4)))
+            .write(dir.resolve("r.0.0.mca"));
+
+        List<String> found = new ArrayList<>();
+        assertEquals(new RegionFileScanner.RegionStats(3, 0, 6), scan(file, found));
+        assertEquals(List.of("0,0x2", "1,0x1", "16,0x3", "17,0x1", "32,0x4", "33,0x1"), found);
+    }
+
+    @Test
+    void growsBufferForLargeChunks() throws IOException {
+        // Padding compresses well but inflates past the initial 256 KiB buffer
+        byte[] large = NbtWriter.root()
+            .byteArrayTag("padding", 600 * 1024)
+            .list("block_entities", NbtWriter.COMPOUND, 1)
+                .spawner("minecraft:spawner", 5, 64, 5, STACK_KEY, 7)
+            .end().toByteArray();
+        Path file = new Region()
+            .chunk(0, ZLIB, zlib(large))
+            .chunk(1, GZIP, gzip(large))
+            .write(dir.resolve("r.0.0.mca"));
+
+        List<String> found = new ArrayList<>();
+        assertEquals(new RegionFileScanner.RegionStats(2, 0, 2), scan(file, found));
+        assertEquals(List.of("5,5x7", "5,5x7"), found);
+    }
+
+    @Test
+    void readsExternalChunksNextToTheRegion() throws IOException {
+        // Index 33 of r.-1.2 is chunk (-31, 65), the stub holds only the compression byte
+        Files.write(dir.resolve("c.-31.65.mcc"), zlib(modernChunk(-500, 1040, 9)));
+        Path file = new Region()
+            .raw(33, 1, EXTERNAL | ZLIB, new byte[0])
+            .raw(34, 1, EXTERNAL | ZLIB, new byte[0])
+            .write(dir.resolve("r.-1.2.mca"));
+
+        List<String> found = new ArrayList<>();
+        assertEquals(new RegionFileScanner.RegionStats(1, 1, 2), scan(file, found));
+        assertEquals(List.of("-500,1040x9", "-499,1040x1"), found);
+    }
+
+    @Test
+    void skipsTruncatedAndCorruptChunks() throws IOException {
+        byte[] compressed = zlib(modernChunk(0, 0, 2));
+        Path file = new Region()
+            .chunk(0, ZLIB, compressed)
+            // Deflate stream cut short
+            .chunk(1, ZLIB, Arrays.copyOf(compressed, compressed.length / 2))
+            // Length field runs past the end of the file
+            .raw(2, 100 * SECTOR, ZLIB, compressed)
+            // Empty payload
+            .raw(3, 1, ZLIB, new byte[0])
+            // Unsupported compression
+            .chunk(4, LZ4, compressed)
+            // Valid zlib of malformed NBT
+            .chunk(5, ZLIB, zlib(Arrays.copyOf(modernChunk(0, 0, 2), 100)))
+            // Sector inside the header, and past the end of the file
+            .location(6, 1, 1)
+            .location(7, 500, 1)
+            .write(dir.resolve("r.0.0.mca"));
+
+        List<String> found = new ArrayList<>();
+        assertEquals(new RegionFileScanner.RegionStats(1, 7, 2), scan(file, found));
+        assertEquals(List.of("0,0x2", "1,0x1"), found);
+    }
+
+    @Test
+    void ignoresFilesWithoutChunks() throws IOException {
+        Path empty = Files.write(dir.resolve("r.0.0.mca"), new byte[0]);
+        Path headerOnly = new Region().write(dir.resolve("r.0.1.mca"));
+        Path truncatedHeader = Files.write(dir.resolve("r.0.2.mca"), new byte[SECTOR + 10]);
+
+        List<String> found = new ArrayList<>();
+        assertEquals(new RegionFileScanner.RegionStats(0, 0, 0), scan(empty, found));
+        assertEquals(new RegionFileScanner.RegionStats(0, 0, 0), scan(headerOnly, found));
+        assertEquals(new RegionFileScanner.RegionStats(0, 0, 0), scan(truncatedHeader, found));
+        assertEquals(List.of(), found);
+    }
+}
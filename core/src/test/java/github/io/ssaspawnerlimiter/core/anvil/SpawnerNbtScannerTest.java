@@ -0,0 +1,124 @@
+package github.io.ssaspawnerlimiter.core.anvil;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static github.io.ssaspawnerlimiter.core.anvil.NbtWriter.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SpawnerNbtScannerTest {
+    static final String STACK_KEY = "smartspawner:stack_size";
+
+    private final SpawnerNbtScanner scanner = new SpawnerNbtScanner(STACK_KEY);
+
+    private List<String> scan(byte[] nbt) {
+        List<String> found = new ArrayList<>();
+        scanner.scan(ByteBuffer.wrap(nbt), (x, y, z, stackSize) -> found.add(x + "," + y + "," + z + "x" + stackSize));
+        return found;
+    }
+
+    /** 1.18+ chunk with every tag type before and inside the block entities */
+    static byte[] modernChunk(int x, int z, int stackSize) {
+        NbtWriter nbt = root()
+            .intTag("DataVersion", 3955)
+            .longTag("LastUpdate", 1234L)
+            .stringTag("Status", "minecraft:full")
+            .list("sections", COMPOUND, 1)
+                .byteTag("Y", -4)
+                .compound("block_states")
+                    .list("palette", COMPOUND, 1).stringTag("Name", "minecraft:stone").end()
+                    .longArrayTag("data", 3)
+                .end()
+                .byteArrayTag("BlockLight", 16)
+            .end()
+            .compound("Heightmaps").longArrayTag("MOTION_BLOCKING", 37).end()
+            .list("PostProcessing", LIST, 2)
+                .listOf(SHORT, 0)
+                .listOf(INT, 2).intPayload(1).intPayload(2)
+            .intArrayTag("structures", 1, 2, 3)
+            .list("block_entities", COMPOUND, 3)
+                // Spawner-like names inside a skipped chest must not be picked up
+                .stringTag("id", "minecraft:chest").intTag("x", x).intTag("y", 70).intTag("z", z)
+                .list("Items", COMPOUND, 1)
+                    .stringTag("id", "minecraft:spawner").byteTag("Count", 1)
+                    .compound("components").list("block_entities", COMPOUND, 0).end()
+                .end()
+                .end()
+                .spawner("minecraft:spawner", x, 64, z, STACK_KEY, stackSize)
+                .intTag("x", x + 1).intTag("y", -60).intTag("z", z).doubleTag("Delay", 20)
+                .stringTag("id", "minecraft:spawner").end()
+            .list("fluid_ticks", END, 0);
+        return nbt.end().toByteArray();
+    }
+
+    @Test
+    void findsSpawnersAndSkipsEverythingElse() {
+        assertEquals(List.of("-17,64,33x5", "-16,-60,33x1"), scan(modernChunk(-17, 33, 5)));
+    }
+
+    @Test
+    void readsLegacyLevelTileEntities() {
+        byte[] nbt = root()
+            .intTag("DataVersion", 1343)
+            .compound("Level")
+                .intTag("xPos", 2)
+                .list("Entities", COMPOUND, 0)
+                .list("TileEntities", COMPOUND, 2)
+                    .spawner("MobSpawner", 40, 12, 50, null, 0)
+                    .spawner("minecraft:mob_spawner", 41, 12, 50, STACK_KEY, 3)
+            .end()
+            .end().toByteArray();
+
+        assertEquals(List.of("40,12,50x1", "41,12,50x3"), scan(nbt));
+    }
+
+    @Test
+    void readsStackSizeOfEveryNumericType() {
+        byte[] nbt = root()
+            .list("block_entities", COMPOUND, 6)
+                .stringTag("id", "minecraft:spawner").intTag("x", 1)
+                .compound("PublicBukkitValues").byteTag(STACK_KEY, 2).end().end()
+                .stringTag("id", "minecraft:spawner").intTag("x", 2)
+                .compound("PublicBukkitValues").shortTag(STACK_KEY, 300).end().end()
+                .stringTag("id", "minecraft:spawner").intTag("x", 3)
+                .compound("PublicBukkitValues").longTag(STACK_KEY, Long.MAX_VALUE).end().end()
+                .stringTag("id", "minecraft:spawner").intTag("x", 4)
+                .compound("PublicBukkitValues").stringTag(STACK_KEY, " 12 ").end().end()
+                // Unparsable and non-positive values fall back to a stack of 1
+                .stringTag("id", "minecraft:spawner").intTag("x", 5)
+                .compound("PublicBukkitValues").stringTag(STACK_KEY, "many").end().end()
+                .stringTag("id", "minecraft:spawner").intTag("x", 6)
+                .compound("PublicBukkitValues").intTag(STACK_KEY, 0).intTag("other:stack_size", 9).end().end()
+            .end().toByteArray();
+
+        assertEquals(List.of("1,0,0x2", "2,0,0x300", "3,0,0x" + Integer.MAX_VALUE, "4,0,0x12", "5,0,0x1", "6,0,0x1"),
+            scan(nbt));
+    }
+
+    @Test
+    void ignoresStackSizeUnderAnotherKey() {
+        SpawnerNbtScanner other = new SpawnerNbtScanner("other:stack_size");
+        List<Integer> sizes = new ArrayList<>();
+        other.scan(ByteBuffer.wrap(modernChunk(0, 0, 5)), (x, y, z, stackSize) -> sizes.add(stackSize));
+        assertEquals(List.of(1, 1), sizes);
+    }
+
+    @Test
+    void rejectsTruncatedAndMalformedData() {
+        byte[] chunk = modernChunk(0, 0, 5);
+        for (int length : new int[]{0, 1, 40, chunk.length / 2, chunk.length - 1}) {
+            byte[] truncated = Arrays.copyOf(chunk, length);
+            assertThrows(IllegalArgumentException.class, () -> scan(truncated));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> scan(new NbtWriter().header(LIST, "").toByteArray()));
+        assertThrows(IllegalArgumentException.class, () -> scan(root().header(13, "bad").end().toByteArray()));
+        assertThrows(IllegalArgumentException.class,
+            () -> scan(root().header(BYTE_ARRAY, "neg").intPayload(-1).end().toByteArray()));
+    }
+}
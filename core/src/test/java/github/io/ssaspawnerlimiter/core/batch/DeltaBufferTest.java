@@ -0,0 +1,108 @@
+package github.io.ssaspawnerlimiter.core.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeltaBufferTest {
+    private final DeltaBuffer<String> deltas = new DeltaBuffer<>();
+
+    private Map<String, Integer> drain() {
+        Map<String, Integer> written = new HashMap<>();
+        deltas.drain(written::put);
+        return written;
+    }
+
+    @Test
+    void foldsDeltasPerKey() {
+        deltas.add("a", 3);
+        deltas.add("a", -1);
+        deltas.add("b", 2);
+
+        Map<String, Integer> written = new HashMap<>();
+        assertEquals(3, deltas.drain(written::put));
+        assertEquals(Map.of("a", 2, "b", 2), written);
+    }
+
+    @Test
+    void pendingLeavesOutDecreases() {
+        deltas.add("a", 3);
+        assertEquals(3, deltas.pending("a"));
+        deltas.add("a", -5);
+        assertEquals(0, deltas.pending("a"));
+        assertEquals(0, deltas.pending("unknown"));
+    }
+
+    @Test
+    void drainedIncreaseStaysPendingUntilComplete() {
+        deltas.add("a", 4);
+        drain();
+
+        assertEquals(4, deltas.pending("a"));
+        deltas.add("a", 1);
+        assertEquals(5, deltas.pending("a"));
+        deltas.complete("a", 4);
+        assertEquals(1, deltas.pending("a"));
+    }
+
+    @Test
+    void unwrittenIncludesDecreasesUntilComplete() {
+        deltas.add("a", 2);
+        deltas.add("b", -3);
+        drain();
+        deltas.add("a", -5);
+
+        assertEquals(-3, deltas.unwritten("a"));
+        assertEquals(-3, deltas.unwritten("b"));
+        deltas.complete("a", 2);
+        deltas.complete("b", -3);
+        assertEquals(-5, deltas.unwritten("a"));
+        assertEquals(0, deltas.unwritten("b"));
+        assertEquals(0, deltas.unwritten("unknown"));
+    }
+
+    @Test
+    void cancelledDeltasAreDroppedWithoutWrite() {
+        deltas.add("a", 2);
+        deltas.add("a", -2);
+
+        assertTrue(drain().isEmpty());
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    void keyIsReleasedOnceWritten() {
+        deltas.add("a", 2);
+        drain();
+        assertEquals(1, deltas.size());
+
+        deltas.complete("a", 2);
+        assertEquals(0, deltas.size());
+    }
+
+    @Test
+    void discardIfDropsMatchingKeys() {
+        deltas.add("world:1", 2);
+        deltas.add("world:2", -1);
+        deltas.add("nether:1", 4);
+
+        assertEquals(1, deltas.discardIf(key -> key.startsWith("world:")));
+        assertEquals(Map.of("nether:1", 4), drain());
+    }
+
+    @Test
+    void discardDropsOnlyBufferedDelta() {
+        deltas.add("a", 3);
+        drain();
+        deltas.add("a", 2);
+
+        assertEquals(2, deltas.discard("a"));
+        assertEquals(3, deltas.pending("a"));
+        assertTrue(drain().isEmpty());
+        assertEquals(0, deltas.discard("unknown"));
+    }
+}
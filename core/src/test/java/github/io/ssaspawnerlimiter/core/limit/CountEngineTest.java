@@ -0,0 +1,153 @@
+package github.io.ssaspawnerlimiter.core.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountEngineTest {
+    private final Map<String, Integer> store = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private CountEngine.Builder<String> builder() {
+        return CountEngine.builder(key -> {
+            loads.incrementAndGet();
+            return store.getOrDefault(key, 0);
+        });
+    }
+
+    @Test
+    void checkAddsPendingToStoredCount() {
+        store.put("a", 5);
+        CountEngine<String> counts = builder().pendingDelta(key -> 2).build();
+
+        assertSame(LimitCheck.ALLOWED, counts.check("a", 3, 10));
+        LimitCheck denied = counts.check("a", 4, 10);
+        assertFalse(denied.allowed());
+        assertEquals(7L, denied.current());
+        assertEquals(10L, denied.limit());
+    }
+
+    @Test
+    void awaitWritesWaitsForMatchingKeysOnly() {
+        CountEngine<String> counts = builder().build();
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        counts.write("world:1", () -> first);
+        counts.write("nether:1", () -> second);
+
+        CompletableFuture<Void> world = counts.awaitWrites(key -> key.startsWith("world:"));
+        assertFalse(world.isDone());
+        first.completeExceptionally(new IllegalStateException("write failed"));
+        assertTrue(world.isDone());
+        assertFalse(world.isCompletedExceptionally());
+        assertFalse(second.isDone());
+    }
+
+    @Test
+    void loadsOnceThenServesFromCache() {
+        store.put("a", 4);
+        LongAdder hits = new LongAdder();
+        LongAdder misses = new LongAdder();
+        CountEngine<String> counts = builder().counters(hits, misses).build();
+
+        assertEquals(4, counts.storedCount("a"));
+        store.put("a", 9);
+        assertEquals(4, counts.storedCount("a"));
+        assertEquals(1, loads.get());
+        assertEquals(1L, hits.sum());
+        assertEquals(1L, misses.sum());
+    }
+
+    @Test
+    void expiredEntryIsLoadedAgainUnlessDegraded() {
+        store.put("a", 4);
+        AtomicLong now = new AtomicLong(1_000L);
+        AtomicBoolean degraded = new AtomicBoolean();
+        CountEngine<String> counts = builder().clock(now::get).expirationMs(100L).degraded(degraded::get).build();
+
+        counts.storedCount("a");
+        store.put("a", 6);
+        now.addAndGet(101L);
+        degraded.set(true);
+        assertEquals(4, counts.storedCount("a"));
+        degraded.set(false);
+        assertEquals(6, counts.storedCount("a"));
+    }
+
+    @Test
+    void failedLoadFollowsUnavailablePolicy() {
+        CountEngine<String> denying = CountEngine.<String>builder(key -> null).build();
+        assertSame(LimitCheck.UNAVAILABLE, denying.check("a", 1, 10));
+        assertTrue(denying.check("a", 1, 10).unavailable());
+
+        CountEngine<String> allowing = CountEngine.<String>builder(key -> null).unavailableCount(stale -> 0).build();
+        assertSame(LimitCheck.ALLOWED, allowing.check("a", 1, 10));
+    }
+
+    @Test
+    void writesOfOneKeyRunInOrder() {
+        CountEngine<String> counts = builder().build();
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        AtomicBoolean secondStarted = new AtomicBoolean();
+
+        counts.write("a", () -> first);
+        CompletableFuture<Integer> second = counts.write("a", () -> {
+            secondStarted.set(true);
+            return CompletableFuture.completedFuture(7);
+        });
+
+        assertFalse(secondStarted.get());
+        assertTrue(counts.isWriting("a"));
+        first.complete(3);
+        assertEquals(7, second.join());
+        assertEquals(7, counts.cached("a").count());
+        assertFalse(counts.isWriting("a"));
+    }
+
+    @Test
+    void loadDuringWriteIsNotCached() {
+        store.put("a", 2);
+        CountEngine<String> counts = builder().build();
+        CompletableFuture<Integer> write = new CompletableFuture<>();
+        counts.write("a", () -> write);
+
+        assertEquals(2, counts.storedCount("a"));
+        assertNull(counts.cached("a"));
+        write.complete(5);
+        assertEquals(5, counts.cached("a").count());
+    }
+
+    @Test
+    void failedWriteDropsEntry() {
+        store.put("a", 2);
+        CountEngine<String> counts = builder().build();
+        counts.storedCount("a");
+
+        counts.write("a", () -> CompletableFuture.completedFuture(-1)).join();
+        assertNull(counts.cached("a"));
+    }
+
+    @Test
+    void remoteCountIgnoredWhileWriting() {
+        CountEngine<String> counts = builder().build();
+        CompletableFuture<Integer> write = new CompletableFuture<>();
+        counts.write("a", () -> write);
+
+        assertFalse(counts.applyRemote("a", 9, System.currentTimeMillis()));
+        write.complete(4);
+        assertTrue(counts.applyRemote("a", 9, System.currentTimeMillis() + 1_000L));
+        assertEquals(9, counts.cached("a").count());
+    }
+}
@@ -0,0 +1,70 @@
+package github.io.ssaspawnerlimiter.core.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketMapTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenSustainedRate() {
+        TokenBucketMap buckets = new TokenBucketMap(2.0, 3);
+        long now = 5 * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buckets.tryAcquire(1L, now), "burst " + i);
+        }
+        assertFalse(buckets.tryAcquire(1L, now));
+        // One token comes back every half second
+        assertFalse(buckets.tryAcquire(1L, now + SECOND / 2 - 1));
+        assertTrue(buckets.tryAcquire(1L, now + SECOND / 2));
+        assertFalse(buckets.tryAcquire(1L, now + SECOND / 2));
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        TokenBucketMap buckets = new TokenBucketMap(1.0, 1);
+
+        assertTrue(buckets.tryAcquire(1L, SECOND));
+        assertFalse(buckets.tryAcquire(1L, SECOND));
+        assertTrue(buckets.tryAcquire(2L, SECOND));
+        assertEquals(2, buckets.size());
+    }
+
+    @Test
+    void purgeDropsRefilledBuckets() {
+        TokenBucketMap buckets = new TokenBucketMap(10.0, 5);
+        for (long key = 0; key < 1_000; key++) {
+            assertTrue(buckets.tryAcquire(key, SECOND));
+        }
+        assertEquals(1_000, buckets.size());
+
+        buckets.purgeIdle(2 * SECOND);
+        assertEquals(0, buckets.size());
+        // A dropped bucket is full again
+        for (int i = 0; i < 5; i++) {
+            assertTrue(buckets.tryAcquire(7L, 2 * SECOND));
+        }
+        assertFalse(buckets.tryAcquire(7L, 2 * SECOND));
+    }
+
+    @Test
+    void clearForgetsAllBuckets() {
+        TokenBucketMap buckets = new TokenBucketMap(1.0, 1);
+        buckets.tryAcquire(1L, SECOND);
+
+        buckets.clear();
+        assertEquals(0, buckets.size());
+        assertTrue(buckets.tryAcquire(1L, SECOND));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketMap(0.0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketMap(1.0, 0));
+    }
+}
@@ -0,0 +1,75 @@
+package github.io.ssaspawnerlimiter.core.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitRulesTest {
+    private static final List<String> ENTITY_TYPES = List.of("ZOMBIE", "SKELETON", "BLAZE");
+
+    @Test
+    void defaultsApplyToWorldsWithoutRules() {
+        LimitRules rules = LimitRules.builder(50, ENTITY_TYPES).build();
+
+        int world = rules.worldId("world");
+        assertEquals(0, world);
+        assertEquals(50, rules.chunkLimit(world, LimitRules.ANY_ENTITY));
+        assertEquals(LimitRules.UNLIMITED, rules.chunkLimit(world, rules.entityId("ZOMBIE")));
+        assertEquals(LimitRules.UNLIMITED, rules.playerLimit(rules.entityId("ZOMBIE")));
+        assertFalse(rules.hasEntityRules());
+    }
+
+    @Test
+    void entityIdsFollowListOrder() {
+        LimitRules rules = LimitRules.builder(50, ENTITY_TYPES).build();
+
+        assertEquals(1, rules.entityId("ZOMBIE"));
+        assertEquals(3, rules.entityId("BLAZE"));
+        assertEquals(LimitRules.ANY_ENTITY, rules.entityId("CREEPER"));
+        assertEquals(LimitRules.ANY_ENTITY, rules.entityId(null));
+    }
+
+    @Test
+    void worldRulesOverrideDefaults() {
+        LimitRules rules = LimitRules.builder(50, ENTITY_TYPES)
+            .worldChunkLimit("world_nether", 20)
+            .entityChunkLimit("BLAZE", 10)
+            .worldEntityChunkLimit("world_nether", "BLAZE", 4)
+            .worldEntityChunkLimit("world_the_end", "ZOMBIE", 2)
+            .build();
+
+        int blaze = rules.entityId("BLAZE");
+        int nether = rules.worldId("world_nether");
+        int end = rules.worldId("world_the_end");
+        int overworld = rules.worldId("world");
+
+        assertEquals(20, rules.chunkLimit(nether, LimitRules.ANY_ENTITY));
+        assertEquals(4, rules.chunkLimit(nether, blaze));
+        assertEquals(50, rules.chunkLimit(end, LimitRules.ANY_ENTITY));
+        assertEquals(10, rules.chunkLimit(end, blaze));
+        assertEquals(2, rules.chunkLimit(end, rules.entityId("ZOMBIE")));
+        assertEquals(10, rules.chunkLimit(overworld, blaze));
+        assertEquals(LimitRules.UNLIMITED, rules.chunkLimit(overworld, rules.entityId("ZOMBIE")));
+        assertTrue(rules.hasEntityRules());
+    }
+
+    @Test
+    void playerEntityLimits() {
+        LimitRules rules = LimitRules.builder(50, ENTITY_TYPES).entityPlayerLimit("SKELETON", 30).build();
+
+        assertEquals(30, rules.playerLimit(rules.entityId("SKELETON")));
+        assertEquals(LimitRules.UNLIMITED, rules.playerLimit(rules.entityId("BLAZE")));
+        assertTrue(rules.hasEntityRules());
+    }
+
+    @Test
+    void unknownEntityTypeIsRejected() {
+        LimitRules.Builder builder = LimitRules.builder(50, ENTITY_TYPES).entityChunkLimit("CREEPER", 5);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
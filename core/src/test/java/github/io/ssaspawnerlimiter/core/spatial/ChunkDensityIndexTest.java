@@ -0,0 +1,96 @@
+package github.io.ssaspawnerlimiter.core.spatial;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkDensityIndexTest {
+    private static final int AREA = 100;
+    private static final int OFFSET = AREA / 2;
+
+    @Test
+    void setReturnsPreviousCount() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+
+        assertEquals(0, index.set(3, -4, 7));
+        assertEquals(7, index.set(3, -4, 2));
+        assertEquals(2, index.get(3, -4));
+        assertEquals(0, index.get(4, -4));
+    }
+
+    @Test
+    void negativeCountIsStoredAsZero() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+        index.set(1, 1, 5);
+
+        index.set(1, 1, -3);
+        assertEquals(0, index.get(1, 1));
+        assertEquals(0L, index.sum(-10, -10, 10, 10));
+    }
+
+    @Test
+    void addFloorsAtZero() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+
+        assertEquals(4, index.add(-2, 9, 4));
+        assertEquals(1, index.add(-2, 9, -3));
+        assertEquals(0, index.add(-2, 9, -5));
+        assertEquals(0, index.getTileCount());
+    }
+
+    @Test
+    void emptyTilesAreReleased() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+        index.set(0, 0, 1);
+        index.set(-1, -1, 1);
+        index.set(40, 0, 1);
+        assertEquals(3, index.getTileCount());
+
+        index.set(0, 0, 0);
+        index.set(-1, -1, 0);
+        assertEquals(1, index.getTileCount());
+        index.clear();
+        assertEquals(0, index.getTileCount());
+    }
+
+    @Test
+    void rectangleSumsMatchBruteForce() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+        int[][] counts = new int[AREA][AREA];
+        SplittableRandom random = new SplittableRandom(50);
+
+        for (int i = 0; i < 5_000; i++) {
+            int x = random.nextInt(AREA);
+            int z = random.nextInt(AREA);
+            int count = random.nextInt(4) == 0 ? 0 : random.nextInt(1, 30);
+            index.set(x - OFFSET, z - OFFSET, count);
+            counts[x][z] = count;
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            int minX = random.nextInt(AREA);
+            int minZ = random.nextInt(AREA);
+            int maxX = random.nextInt(minX, AREA);
+            int maxZ = random.nextInt(minZ, AREA);
+
+            long expected = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    expected += counts[x][z];
+                }
+            }
+            assertEquals(expected, index.sum(minX - OFFSET, minZ - OFFSET, maxX - OFFSET, maxZ - OFFSET),
+                "sum of " + minX + "," + minZ + " to " + maxX + "," + maxZ);
+        }
+    }
+
+    @Test
+    void emptyRectangleSumsToZero() {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+        index.set(0, 0, 5);
+
+        assertEquals(0L, index.sum(1, 0, 0, 0));
+    }
+}
@@ -0,0 +1,47 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.SQLTransientConnectionException;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MySQLStorageTest {
+
+    @Test
+    void rejectsWritesAfterClose() {
+        MySQLStorage storage = new MySQLStorage(Logger.getLogger("MySQLStorageTest"),
+            new MySQLStorage.Settings("jdbc:mysql://localhost/test", "user", "", false, 1, 50L, 500));
+        storage.close();
+
+        assertEquals(-1, storage.incrementSpawnerCount("world", 0, 0, 1).join());
+        assertEquals(-1, storage.incrementPlayerSpawnerCount("uuid", 1).join());
+        assertFalse(storage.setSpawnerCount("world", 0, 0, 3).join());
+        assertFalse(storage.deleteChunkData("world", 0, 0).join());
+        assertEquals(-1, storage.commitLeasedSpawners("uuid", "server", 1).join());
+        assertNull(storage.getWorldSpawnerTotals().join());
+        assertEquals(0, storage.getQueuedWrites());
+    }
+
+    @Test
+    void retriesOnlyTransientErrors() {
+        assertTrue(MySQLStorage.isTransient(new SQLTransientConnectionException("pool timeout")));
+        assertTrue(MySQLStorage.isTransient(new SQLTransactionRollbackException("deadlock", "40001")));
+        assertTrue(MySQLStorage.isTransient(new SQLRecoverableException("connection reset")));
+        assertTrue(MySQLStorage.isTransient(new SQLException("Communications link failure", "08S01")));
+        assertTrue(MySQLStorage.isTransient(new SQLException("Lock wait timeout", "40001", 1205)));
+
+        assertFalse(MySQLStorage.isTransient(new SQLSyntaxErrorException("bad SQL", "42000")));
+        assertFalse(MySQLStorage.isTransient(new SQLIntegrityConstraintViolationException("duplicate", "23000")));
+        assertFalse(MySQLStorage.isTransient(new SQLException("unknown")));
+    }
+}
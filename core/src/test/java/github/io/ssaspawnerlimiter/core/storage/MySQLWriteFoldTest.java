@@ -0,0 +1,76 @@
+package github.io.ssaspawnerlimiter.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The MySQL backend folds each key's queued writes into one upsert, which must leave the count SQLite leaves
+ * applying the same writes one at a time.
+ */
+class MySQLWriteFoldTest {
+
+    @Test
+    void floorsEachIncrement() {
+        MySQLStorage.Folded folded = fold(increment(-5), increment(3));
+
+        assertEquals(3, folded.apply(2));
+        assertEquals(3, folded.apply(0));
+        assertEquals(8, folded.apply(10));
+    }
+
+    @Test
+    void incrementsAfterSetStartFromTheSetValue() {
+        MySQLStorage.Folded folded = fold(increment(7), set(2), increment(-5), increment(3));
+
+        assertEquals(3, folded.apply(40));
+    }
+
+    @Test
+    void negativeSetIsStoredAsZero() {
+        assertEquals(0, fold(set(-4)).apply(9));
+    }
+
+    @Test
+    void matchesWritesAppliedInTurn() {
+        SplittableRandom random = new SplittableRandom(26);
+        for (int round = 0; round < 10_000; round++) {
+            MySQLStorage.WriteOp[] ops = new MySQLStorage.WriteOp[random.nextInt(1, 8)];
+            for (int i = 0; i < ops.length; i++) {
+                ops[i] = random.nextInt(8) == 0 ? set(random.nextInt(-2, 20)) : increment(random.nextInt(-10, 11));
+            }
+
+            int stored = random.nextInt(0, 20);
+            assertEquals(applyInTurn(stored, ops), fold(ops).apply(stored), "round " + round + " from " + stored);
+        }
+    }
+
+    /**
+     * What the SQLite backend stores for the same writes
+     */
+    private static int applyInTurn(int stored, MySQLStorage.WriteOp... ops) {
+        int count = stored;
+        for (MySQLStorage.WriteOp op : ops) {
+            count = op.absolute ? Math.max(0, op.value) : Math.max(0, count + op.value);
+        }
+        return count;
+    }
+
+    private static MySQLStorage.Folded fold(MySQLStorage.WriteOp... ops) {
+        MySQLStorage.Folded folded = new MySQLStorage.Folded();
+        for (MySQLStorage.WriteOp op : ops) {
+            folded.add(op);
+        }
+        return folded;
+    }
+
+    private static MySQLStorage.WriteOp set(int value) {
+        return new MySQLStorage.WriteOp("player", true, value);
+    }
+
+    private static MySQLStorage.WriteOp increment(int value) {
+        return new MySQLStorage.WriteOp("player", false, value);
+    }
+}
@@ -0,0 +1,86 @@
+package github.io.ssaspawnerlimiter.core.sync;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeBatchCodecTest {
+    private static final long NOW = 1_760_000_000_000L;
+
+    private static ChangeBatch batch() {
+        return new ChangeBatch(
+            List.of(
+                new ChangeBatch.ChunkChange("world", 0, 0, 12, NOW + 40),
+                new ChangeBatch.ChunkChange("world_nether", -1, -30_000_000, 0, NOW),
+                new ChangeBatch.ChunkChange("world", Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, NOW + 1),
+                new ChangeBatch.ChunkChange("wörld_the_end", 1_875_000, -1_875_000, -1, NOW + 5)),
+            List.of(
+                new ChangeBatch.PlayerChange(new UUID(-1L, 42L), 300, NOW + 2),
+                new ChangeBatch.PlayerChange(UUID.fromString("d1b2c3a4-0000-4000-8000-123456789abc"), -1, NOW + 9_000)));
+    }
+
+    @Test
+    void roundTripsChunksAndPlayers() {
+        ChangeBatch batch = batch();
+        assertEquals(batch, ChangeBatchCodec.decode(ChangeBatchCodec.encode(batch)));
+    }
+
+    @Test
+    void encodesEveryNegativeCountAsDrop() {
+        ChangeBatch batch = new ChangeBatch(
+            List.of(new ChangeBatch.ChunkChange("world", 3, -3, -7, NOW)),
+            List.of(new ChangeBatch.PlayerChange(new UUID(1L, 2L), Integer.MIN_VALUE, NOW)));
+
+        ChangeBatch decoded = ChangeBatchCodec.decode(ChangeBatchCodec.encode(batch));
+        assertEquals(-1, decoded.chunks().getFirst().count());
+        assertEquals(-1, decoded.players().getFirst().count());
+    }
+
+    @Test
+    void roundTripsEmptyBatch() {
+        ChangeBatch empty = new ChangeBatch(List.of(), List.of());
+        ChangeBatch decoded = ChangeBatchCodec.decode(ChangeBatchCodec.encode(empty));
+        assertTrue(decoded.isEmpty());
+    }
+
+    @Test
+    void storesEachWorldNameOnce() {
+        List<ChangeBatch.ChunkChange> chunks = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            chunks.add(new ChangeBatch.ChunkChange(i % 2 == 0 ? "world" : "world_nether", i, -i, i, NOW + i));
+        }
+        ChangeBatch batch = new ChangeBatch(chunks, List.of());
+
+        byte[] encoded = ChangeBatchCodec.encode(batch);
+        assertEquals(batch, ChangeBatchCodec.decode(encoded));
+        assertTrue(encoded.length < 100 * 8, "encoded " + encoded.length + " bytes");
+    }
+
+    @Test
+    void rejectsTruncatedPayload() {
+        byte[] encoded = ChangeBatchCodec.encode(batch());
+        for (int length = 0; length < encoded.length; length++) {
+            byte[] truncated = Arrays.copyOf(encoded, length);
+            assertThrows(IllegalArgumentException.class, () -> ChangeBatchCodec.decode(truncated));
+        }
+    }
+
+    @Test
+    void rejectsUnknownVersionAndBadLengths() {
+        byte[] encoded = ChangeBatchCodec.encode(batch());
+        encoded[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> ChangeBatchCodec.decode(encoded));
+
+        // Version 1, base time 0, then a world table longer than the payload
+        assertThrows(IllegalArgumentException.class, () -> ChangeBatchCodec.decode(new byte[]{1, 0, 100}));
+        // World index pointing past the world table
+        assertThrows(IllegalArgumentException.class, () -> ChangeBatchCodec.decode(new byte[]{1, 0, 0, 1, 5, 0, 0, 1, 0, 0}));
+    }
+}
@@ -0,0 +1,117 @@
+package github.io.ssaspawnerlimiter.core.trace;
+
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TraceReplayerTest {
+    private static final UUID ALICE = new UUID(1L, 1L);
+    private static final UUID BOB = new UUID(2L, 2L);
+    private static final ChunkKey CHUNK = new ChunkKey("world", -3, 7);
+
+    private static final List<TraceEvent> EVENTS = List.of(
+        new TraceEvent(0L, TraceEvent.Type.PLACE, ALICE, "world", -3, 7, 3, true),
+        // Over a chunk limit of 5, the recording let it through
+        new TraceEvent(1_500L, TraceEvent.Type.STACK, ALICE, "world", -3, 7, 3, true),
+        // Recorded as denied, fits the chunk limit on replay
+        new TraceEvent(1_600L, TraceEvent.Type.PLACE, BOB, "world", -3, 7, 1, false),
+        new TraceEvent(90_000L, TraceEvent.Type.BREAK, ALICE, "world", -3, 7, 2, true),
+        new TraceEvent(90_001L, TraceEvent.Type.PLACE, BOB, "world_nether", 0, 0, 4, true));
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        byte[] trace = write(EVENTS);
+        TraceReader reader = new TraceReader(new ByteArrayInputStream(trace));
+
+        assertEquals(1_700_000_000_000L, reader.getStartEpochMillis());
+        assertEquals(EVENTS, readAll(reader));
+    }
+
+    @Test
+    void truncatedTraceEndsAtLastCompleteEvent() throws IOException {
+        byte[] trace = write(EVENTS);
+        TraceReader reader = new TraceReader(new ByteArrayInputStream(Arrays.copyOf(trace, trace.length - 1)));
+
+        assertEquals(EVENTS.subList(0, EVENTS.size() - 1), readAll(reader));
+    }
+
+    @Test
+    void replayReportsDivergingDecisionsAndCounts() throws IOException {
+        TraceReplayer replayer = new TraceReplayer(5, 100);
+        long lastMicros = replayer.replay(new TraceReader(new ByteArrayInputStream(write(EVENTS))), 0);
+
+        assertEquals(90_001L, lastMicros);
+        assertEquals(5L, replayer.getEvents());
+        assertEquals(1L, replayer.getAllowedNow());
+        assertEquals(1L, replayer.getDeniedNow());
+        assertEquals(2, replayer.getChunkCount(CHUNK));
+        assertEquals(4, replayer.getChunkCount(new ChunkKey("world_nether", 0, 0)));
+        assertEquals(1, replayer.getPlayerCount(ALICE));
+        assertEquals(5, replayer.getPlayerCount(BOB));
+    }
+
+    @Test
+    void countsNeverGoBelowZero() {
+        TraceReplayer replayer = new TraceReplayer(5, 100);
+        replayer.apply(new TraceEvent(0L, TraceEvent.Type.REMOVE, ALICE, "world", -3, 7, -4, true));
+
+        assertEquals(0, replayer.getChunkCount(CHUNK));
+        assertEquals(0, replayer.getPlayerCount(ALICE));
+    }
+
+    @Test
+    void removalsTakeFromTheRecordedOwners() {
+        TraceReplayer replayer = new TraceReplayer(100, 100);
+        replayer.apply(new TraceEvent(0L, TraceEvent.Type.PLACE, ALICE, "world", -3, 7, 3, true));
+        replayer.apply(new TraceEvent(1L, TraceEvent.Type.STACK, BOB, "world", -3, 7, 2, true));
+        // Bob breaks the stack of 5, recorded as one event per owner charged
+        replayer.apply(new TraceEvent(2L, TraceEvent.Type.BREAK, BOB, "world", -3, 7, 2, true));
+        replayer.apply(new TraceEvent(2L, TraceEvent.Type.BREAK, ALICE, "world", -3, 7, 1, true));
+
+        assertEquals(2, replayer.getChunkCount(CHUNK));
+        assertEquals(2, replayer.getPlayerCount(ALICE));
+        assertEquals(0, replayer.getPlayerCount(BOB));
+    }
+
+    @Test
+    void deniedRemovalsAreNotApplied() {
+        TraceReplayer replayer = new TraceReplayer(100, 100);
+        replayer.apply(new TraceEvent(0L, TraceEvent.Type.PLACE, ALICE, "world", -3, 7, 3, true));
+        // Unstack cancelled by the rate limiter
+        replayer.apply(new TraceEvent(1L, TraceEvent.Type.STACK, ALICE, "world", -3, 7, -2, false));
+
+        assertEquals(3, replayer.getChunkCount(CHUNK));
+        assertEquals(3, replayer.getPlayerCount(ALICE));
+        assertEquals(0L, replayer.getAllowedNow() + replayer.getDeniedNow());
+    }
+
+    private static byte[] write(List<TraceEvent> events) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TraceWriter writer = new TraceWriter(out, 1_700_000_000_000L)) {
+            for (TraceEvent event : events) {
+                writer.write(event);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static List<TraceEvent> readAll(TraceReader reader) throws IOException {
+        List<TraceEvent> events = new ArrayList<>();
+        TraceEvent event;
+        while ((event = reader.next()) != null) {
+            events.add(event);
+        }
+        assertNull(reader.next());
+        return events;
+    }
+}
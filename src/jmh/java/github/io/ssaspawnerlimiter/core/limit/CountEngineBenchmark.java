@@ -0,0 +1,61 @@
+package github.io.ssaspawnerlimiter.core.limit;
+
+import github.io.ssaspawnerlimiter.core.batch.DeltaBuffer;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limit checks of the core count engine alone, without the server adapter around it:
+ * cached counts plus buffered deltas, over 1024 chunks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CountEngineBenchmark {
+    private static final int KEYS = 1024;
+
+    private final ChunkKey[] keys = new ChunkKey[KEYS];
+    private CountEngine<ChunkKey> engine;
+    private int next;
+
+    @Setup
+    public void setup() {
+        DeltaBuffer<ChunkKey> pending = new DeltaBuffer<>();
+        // Every key is cached, a load would mean the benchmark measures a miss
+        engine = CountEngine.<ChunkKey>builder(key -> {
+                throw new IllegalStateException("Unexpected load of " + key);
+            })
+            .pendingDelta(pending::pending)
+            .expirationMs(Long.MAX_VALUE / 2)
+            .build();
+
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = new ChunkKey("world", i & 31, i >> 5);
+            engine.update(keys[i], i % 100);
+            if (i % 4 == 0) {
+                pending.add(keys[i], 1);
+            }
+        }
+    }
+
+    @Benchmark
+    public LimitCheck check() {
+        return engine.check(keys[next++ & (KEYS - 1)], 1, 100);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public LimitCheck checkContended() {
+        // Racy index on purpose, any key is a cache hit
+        return engine.check(keys[next++ & (KEYS - 1)], 1, 100);
+    }
+}
@@ -0,0 +1,65 @@
+package github.io.ssaspawnerlimiter.database;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count increments against a temp SQLite file, waiting for each write like the count batcher's flush does.
+ * Chunks and players are picked from a fixed set so rows are updated, not only inserted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DatabaseBenchmark {
+    private static final int KEYS = 1024;
+
+    private PluginFixture fixture;
+    private DatabaseManager databaseManager;
+    private String[] players;
+
+    @Setup
+    public void setup() {
+        fixture = new PluginFixture(Map.of());
+        databaseManager = fixture.openDatabase();
+        players = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            players[i] = new UUID(0, i).toString();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Integer incrementChunk() {
+        int chunk = ThreadLocalRandom.current().nextInt(KEYS);
+        return databaseManager.incrementSpawnerCount("world", chunk & 31, chunk >> 5, 1).join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Integer incrementChunkContended() {
+        int chunk = ThreadLocalRandom.current().nextInt(KEYS);
+        return databaseManager.incrementSpawnerCount("world", chunk & 31, chunk >> 5, 1).join();
+    }
+
+    @Benchmark
+    public Integer incrementPlayer() {
+        return databaseManager.incrementPlayerSpawnerCount(players[ThreadLocalRandom.current().nextInt(KEYS)], 1).join();
+    }
+}
@@ -0,0 +1,69 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chunk limit check of a spawner placement, served from the cache or, on a miss, read from SQLite.
+ * Verification is off here; its scan is measured by {@link VerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChunkLimitBenchmark {
+    private PluginFixture fixture;
+    private ChunkLimitService chunkLimitService;
+    private Player player;
+    private Location location;
+
+    @Setup
+    public void setup() {
+        fixture = new PluginFixture(Map.of(
+            "verify_chunk_count_on_check", false,
+            "storage.sync_timeout_ms", 5000));
+        DatabaseManager databaseManager = fixture.openDatabase();
+        chunkLimitService = new ChunkLimitService(fixture.getPlugin(), databaseManager);
+
+        World world = PluginFixture.world("world");
+        location = new Location(world, 120, 64, -340);
+        player = PluginFixture.player(UUID.randomUUID(), PluginFixture.permissionSet(100));
+
+        databaseManager.setSpawnerCount(world.getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4, 10).join();
+        chunkLimitService.checkSpawner(player, location, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public LimitCheck cacheHit() {
+        return chunkLimitService.checkSpawner(player, location, 1);
+    }
+
+    /**
+     * Includes clearing the one-entry cache, which is small next to the database read
+     */
+    @Benchmark
+    public LimitCheck cacheMiss() {
+        chunkLimitService.clearCache();
+        return chunkLimitService.checkSpawner(player, location, 1);
+    }
+}
@@ -0,0 +1,51 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission-based player limit lookup, which matches every effective permission against the tier pattern.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlayerLimitBenchmark {
+    // Effective permissions of the player: a default player, a ranked player, a staff member
+    @Param({"20", "200", "1000"})
+    public int permissions;
+
+    private PluginFixture fixture;
+    private PlayerLimitService playerLimitService;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        fixture = new PluginFixture(Map.of());
+        // Limit lookup never touches storage
+        playerLimitService = new PlayerLimitService(fixture.getPlugin(), null);
+        player = PluginFixture.player(UUID.randomUUID(), PluginFixture.permissionSet(permissions));
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int getPlayerLimit() {
+        return playerLimitService.getPlayerLimit(player);
+    }
+}
@@ -0,0 +1,68 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scan of a chunk verification, which walks every spawner on the server to recount one chunk.
+ * Its cost grows with the server's total spawner count; the database write that follows is the same for every
+ * server and is measured by the database benchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VerificationBenchmark {
+    // Chunks along each side of the area spawners are spread over
+    private static final int AREA_CHUNKS = 64;
+
+    @Param({"1000", "10000", "100000"})
+    public int totalSpawners;
+
+    private PluginFixture fixture;
+    private List<SpawnerDataDTO> spawners;
+    private ChunkKey key;
+
+    @Setup
+    public void setup() {
+        fixture = new PluginFixture(Map.of());
+        World world = PluginFixture.world("world");
+        World nether = PluginFixture.world("world_nether");
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < totalSpawners; i++) {
+            World spawnerWorld = random.nextInt(4) == 0 ? nether : world;
+            int x = random.nextInt(AREA_CHUNKS * 16) - AREA_CHUNKS * 8;
+            int z = random.nextInt(AREA_CHUNKS * 16) - AREA_CHUNKS * 8;
+            fixture.addSpawner(new Location(spawnerWorld, x, random.nextInt(-60, 120), z), 1 + random.nextInt(64));
+        }
+        spawners = fixture.getSpawners();
+        key = new ChunkKey("world", 3, -2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int scan() {
+        return ChunkLimitService.countSpawnersInChunk(spawners, key);
+    }
+}
@@ -1,23 +1,46 @@
 package github.io.ssaspawnerlimiter;
 
 import github.io.ssaspawnerlimiter.command.BrigadierCommandManager;
+import github.io.ssaspawnerlimiter.core.metrics.MetricsRegistry;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+import github.io.ssaspawnerlimiter.core.trace.TraceRecorder;
 import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.listener.DenialNotifier;
+import github.io.ssaspawnerlimiter.listener.PlayerSessionListener;
 import github.io.ssaspawnerlimiter.listener.SpawnerLimitListener;
+import github.io.ssaspawnerlimiter.service.AnvilImportService;
 import github.io.ssaspawnerlimiter.service.ChunkLimitService;
+import github.io.ssaspawnerlimiter.service.DensityLimitService;
+import github.io.ssaspawnerlimiter.service.LoadGovernor;
+import github.io.ssaspawnerlimiter.service.MetricsExporter;
 import github.io.ssaspawnerlimiter.service.PlayerLimitService;
+import github.io.ssaspawnerlimiter.service.PlayerReconciliationService;
+import github.io.ssaspawnerlimiter.service.RateLimitService;
+import github.io.ssaspawnerlimiter.service.SpawnerDeltaBatcher;
+import github.io.ssaspawnerlimiter.service.SpawnerOwnershipService;
+import github.io.ssaspawnerlimiter.service.TeamQuotaService;
+import github.io.ssaspawnerlimiter.service.WorldCapService;
+import github.io.ssaspawnerlimiter.sync.CacheSyncService;
+import github.io.ssaspawnerlimiter.sync.DatabaseChangeLogTransport;
+import github.nighter.smartspawner.api.SmartSpawnerAPI;
+import github.nighter.smartspawner.api.SmartSpawnerProvider;
+import io.github.pluginlangcore.LanguageSystem.LanguageFileType;
+import io.github.pluginlangcore.LanguageSystem;
+import io.github.pluginlangcore.language.LanguageManager;
+import io.github.pluginlangcore.language.MessageService;
+import io.github.pluginupdatecore.updater.ConfigUpdater;
+import io.github.pluginupdatecore.updater.UpdateChecker;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
-import io.github.pluginlangcore.language.LanguageManager;
-import io.github.pluginlangcore.language.MessageService;
-import io.github.pluginlangcore.LanguageSystem;
-import io.github.pluginlangcore.LanguageSystem.LanguageFileType;
-import io.github.pluginupdatecore.updater.UpdateChecker;
-import io.github.pluginupdatecore.updater.ConfigUpdater;
-import github.nighter.smartspawner.api.SmartSpawnerAPI;
-import github.nighter.smartspawner.api.SmartSpawnerProvider;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 @Getter
@@ -30,11 +53,30 @@ public final class SSASpawnerLimiter extends JavaPlugin {
     private LanguageManager languageManager;
     private MessageService messageService;
     private SmartSpawnerAPI api;
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+    private SlowOperationLog slowOperationLog;
+    // Null unless trace_recorder is enabled
+    private volatile TraceRecorder traceRecorder;
     private DatabaseManager databaseManager;
+    private LoadGovernor loadGovernor;
     private ChunkLimitService chunkLimitService;
+    private DensityLimitService densityLimitService;
+    private WorldCapService worldCapService;
+    private RateLimitService rateLimitService;
+    private DenialNotifier denialNotifier;
     private PlayerLimitService playerLimitService;
+    private SpawnerDeltaBatcher spawnerDeltaBatcher;
+    private TeamQuotaService teamQuotaService;
+    private SpawnerOwnershipService spawnerOwnershipService;
+    private PlayerReconciliationService playerReconciliationService;
+    private AnvilImportService anvilImportService;
+    private CacheSyncService cacheSyncService;
+    private MetricsExporter metricsExporter;
+    private String serverId;
     private BrigadierCommandManager commandManager;
     private Scheduler.Task cacheCleanupTask;
+    private Scheduler.Task leaseRenewTask;
+    private Scheduler.Task worldCapReconcileTask;
 
     private void checkSmartSpawnerAPI() {
         api = SmartSpawnerProvider.getAPI();
@@ -59,6 +101,13 @@ public final class SSASpawnerLimiter extends JavaPlugin {
         reloadConfig();
     }
 
+    private void loadServerId() {
+        serverId = getConfig().getString("server_id", "");
+        if (serverId == null || serverId.isEmpty()) {
+            serverId = UUID.randomUUID().toString();
+        }
+    }
+
     private void initializeLanguageSystem() {
         languageSystem = LanguageSystem.builder(this)
                 .defaultLocale("en_US")
@@ -69,6 +118,50 @@ public final class SSASpawnerLimiter extends JavaPlugin {
         messageService = languageSystem.getMessageService();
     }
 
+    /**
+     * Apply the "slow_log" config section to the slow operation log
+     */
+    public void loadSlowLogConfiguration() {
+        slowOperationLog.configure(new SlowOperationLog.Settings(
+            getConfig().getBoolean("slow_log.enabled", false),
+            TimeUnit.MICROSECONDS.toNanos((long) (getConfig().getDouble("slow_log.limit_check_ms", 5.0) * 1000)),
+            TimeUnit.MICROSECONDS.toNanos((long) (getConfig().getDouble("slow_log.verification_ms", 20.0) * 1000)),
+            TimeUnit.MICROSECONDS.toNanos((long) (getConfig().getDouble("slow_log.database_ms", 50.0) * 1000)),
+            Math.max(1, getConfig().getInt("slow_log.max_entries_per_second", 20)),
+            Math.max(1L, getConfig().getLong("slow_log.max_file_size_kb", 1024L)) * 1024L,
+            Math.max(0, getConfig().getInt("slow_log.max_files", 5))));
+    }
+
+    /**
+     * Start or stop recording spawner events as set in the "trace_recorder" config section.
+     * Each start writes a new file to traces/.
+     */
+    public void loadTraceConfiguration() {
+        TraceRecorder current = traceRecorder;
+        boolean enabled = getConfig().getBoolean("trace_recorder.enabled", false);
+        if (!enabled) {
+            if (current != null) {
+                traceRecorder = null;
+                current.close();
+                getLogger().info("Stopped recording spawner events to " + current.getFile());
+            }
+            return;
+        }
+        if (current != null) {
+            return;
+        }
+
+        Path file = getDataFolder().toPath().resolve("traces")
+            .resolve("trace-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".sslt");
+        long maxFileBytes = Math.max(1L, getConfig().getLong("trace_recorder.max_file_size_mb", 256L)) * 1024L * 1024L;
+        try {
+            traceRecorder = new TraceRecorder(file, maxFileBytes, getLogger());
+            getLogger().info("Recording spawner events to " + file);
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Failed to create trace file " + file, e);
+        }
+    }
+
     private void initializeDatabase() {
         databaseManager = new DatabaseManager(this);
 
@@ -88,21 +181,93 @@ public final class SSASpawnerLimiter extends JavaPlugin {
     }
 
     private void initializeServices() {
+        // Sample server load first, the services below consult it on every check
+        loadGovernor = new LoadGovernor(this);
+        loadGovernor.start();
+
         // Initialize chunk limit service
         chunkLimitService = new ChunkLimitService(this, databaseManager);
 
         // Initialize player limit service
         playerLimitService = new PlayerLimitService(this, databaseManager);
 
+        // Fold count changes of one tick into one write per chunk and player
+        spawnerDeltaBatcher = new SpawnerDeltaBatcher(this, chunkLimitService, playerLimitService);
+
+        // Initialize team quota pools
+        teamQuotaService = new TeamQuotaService(this, databaseManager);
+
+        // Load spawner ownership index (already off the main thread)
+        spawnerOwnershipService = new SpawnerOwnershipService(this, databaseManager);
+        if (!spawnerOwnershipService.load()) {
+            getLogger().warning("Failed to load spawner owners, removals of unknown spawners are charged to the remover");
+        }
+
+        rateLimitService = new RateLimitService(this);
+        denialNotifier = new DenialNotifier(this);
+
+        // Seed per-world totals from stored chunk counts
+        worldCapService = new WorldCapService(this, databaseManager);
+        if (!worldCapService.reconcile()) {
+            getLogger().warning("Failed to load world spawner totals, world caps start from zero until the next reconciliation");
+        }
+
+        // Build area density index from stored chunk counts
+        densityLimitService = new DensityLimitService(this, databaseManager);
+        if (!densityLimitService.load()) {
+            getLogger().warning("Failed to load chunk counts, area density limits start from an empty index");
+        }
+
+        playerReconciliationService = new PlayerReconciliationService(this, databaseManager,
+            spawnerOwnershipService, playerLimitService);
+        anvilImportService = new AnvilImportService(this, databaseManager, chunkLimitService);
+
+        // Initialize cross-server cache sync
+        if (getConfig().getBoolean("cache_sync.enabled", false)) {
+            long retentionMs = Math.max(1L, getConfig().getLong("cache_sync.retention_minutes", 10L)) * 60_000L;
+            cacheSyncService = new CacheSyncService(this,
+                new DatabaseChangeLogTransport(databaseManager, serverId, retentionMs),
+                Math.max(1, getConfig().getInt("cache_sync.max_entries_per_message", 4096)),
+                Math.max(1L, getConfig().getLong("cache_sync.flush_interval_ticks", 10L)),
+                Math.max(1L, getConfig().getLong("cache_sync.poll_interval_ticks", 20L)));
+            cacheSyncService.start();
+        }
+
+        // Export metrics for monitoring
+        metricsExporter = new MetricsExporter(this);
+        metricsExporter.start();
+
         // Register event listeners
-        Bukkit.getPluginManager().registerEvents(new SpawnerLimitListener(this, chunkLimitService, playerLimitService), this);
+        Bukkit.getPluginManager().registerEvents(new SpawnerLimitListener(this, rateLimitService, chunkLimitService, playerLimitService,
+            densityLimitService, teamQuotaService, worldCapService, spawnerOwnershipService, denialNotifier,
+            spawnerDeltaBatcher), this);
+        Bukkit.getPluginManager().registerEvents(new PlayerSessionListener(playerLimitService, teamQuotaService, denialNotifier), this);
 
         // Start cache cleanup task (hardcoded: 5 minutes = 6000 ticks)
         long cleanupInterval = 6000L; // 5 minutes in ticks
         cacheCleanupTask = Scheduler.runTaskTimerAsync(() -> {
             chunkLimitService.cleanupExpiredCache();
             playerLimitService.cleanupExpiredCache();
+            teamQuotaService.cleanupExpiredCache();
+            rateLimitService.cleanup();
         }, cleanupInterval, cleanupInterval);
+
+        // Keep quota leases alive (hardcoded: 30 seconds = 600 ticks, well below the lease TTL)
+        long leaseRenewInterval = 600L;
+        leaseRenewTask = Scheduler.runTaskTimerAsync(() -> {
+            if (playerLimitService.getLeaseManager() != null) {
+                playerLimitService.getLeaseManager().renewExpiry();
+            }
+        }, leaseRenewInterval, leaseRenewInterval);
+
+        // Correct world totals against the database
+        long reconcileInterval = Math.max(1L, getConfig().getLong("world_caps.reconcile_interval_minutes", 10L)) * 1200L;
+        worldCapReconcileTask = Scheduler.runTaskTimerAsync(() -> {
+            // Deferred to the next run while the server is behind
+            if (!loadGovernor.isDegraded()) {
+                worldCapService.reconcile();
+            }
+        }, reconcileInterval, reconcileInterval);
     }
 
     private void initializeCommands() {
@@ -122,6 +287,7 @@ public final class SSASpawnerLimiter extends JavaPlugin {
 
         // Initialize configuration
         updateConfig();
+        loadServerId();
 
         // Initialize language system
         initializeLanguageSystem();
@@ -129,6 +295,11 @@ public final class SSASpawnerLimiter extends JavaPlugin {
         // Check for updates
         checkPluginUpdates();
 
+        // Initialize slow operation log before anything it times
+        slowOperationLog = new SlowOperationLog(getDataFolder().toPath().resolve("logs/slow-operations.log"), getLogger());
+        loadSlowLogConfiguration();
+        loadTraceConfiguration();
+
         // Initialize database (async)
         initializeDatabase();
 
@@ -144,12 +315,57 @@ public final class SSASpawnerLimiter extends JavaPlugin {
         if (cacheCleanupTask != null) {
             cacheCleanupTask.cancel();
         }
+        if (leaseRenewTask != null) {
+            leaseRenewTask.cancel();
+        }
+        if (worldCapReconcileTask != null) {
+            worldCapReconcileTask.cancel();
+        }
+        if (loadGovernor != null) {
+            loadGovernor.stop();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+
+        // Write counts buffered this tick, before the database is closed under them
+        if (spawnerDeltaBatcher != null) {
+            try {
+                spawnerDeltaBatcher.flush().get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                getLogger().warning("Failed to write buffered spawner counts: " + e.getMessage());
+            }
+        }
+
+        // Publish pending cache changes
+        if (cacheSyncService != null) {
+            cacheSyncService.stop();
+        }
+
+        // Return leased quota so other servers can use it right away
+        if (playerLimitService != null && playerLimitService.getLeaseManager() != null) {
+            try {
+                playerLimitService.getLeaseManager().releaseAll().get(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                getLogger().warning("Failed to release quota leases: " + e.getMessage());
+            }
+        }
 
         // Close database connection
         if (databaseManager != null) {
             databaseManager.close();
         }
 
+        // Write remaining slow operation entries
+        if (slowOperationLog != null) {
+            slowOperationLog.close();
+        }
+
+        // Write remaining trace events
+        if (traceRecorder != null) {
+            traceRecorder.close();
+        }
+
         getLogger().info("SSA Spawner Limiter has been disabled!");
     }
 }
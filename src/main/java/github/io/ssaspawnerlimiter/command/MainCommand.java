@@ -5,7 +5,10 @@ import com.mojang.brigadier.tree.LiteralCommandNode;
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
 import github.io.ssaspawnerlimiter.command.subcommands.CheckPlayerSubCommand;
 import github.io.ssaspawnerlimiter.command.subcommands.CheckSubCommand;
+import github.io.ssaspawnerlimiter.command.subcommands.ImportSubCommand;
 import github.io.ssaspawnerlimiter.command.subcommands.InfoSubCommand;
+import github.io.ssaspawnerlimiter.command.subcommands.MetricsSubCommand;
+import github.io.ssaspawnerlimiter.command.subcommands.ReconcileSubCommand;
 import github.io.ssaspawnerlimiter.command.subcommands.ReloadSubCommand;
 import github.io.ssaspawnerlimiter.command.subcommands.StatsSubCommand;
 import io.github.pluginlangcore.language.MessageService;
@@ -35,7 +38,10 @@ public class MainCommand {
                 new InfoSubCommand(plugin),
                 new CheckSubCommand(plugin),
                 new CheckPlayerSubCommand(plugin),
-                new StatsSubCommand(plugin)
+                new StatsSubCommand(plugin),
+                new MetricsSubCommand(plugin),
+                new ReconcileSubCommand(plugin),
+                new ImportSubCommand(plugin)
         );
     }
 
@@ -3,10 +3,11 @@ package github.io.ssaspawnerlimiter.command.subcommands;
 import com.mojang.brigadier.arguments.StringArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
-import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.command.BaseSubCommand;
-import github.io.ssaspawnerlimiter.util.ChunkKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
 import org.bukkit.Bukkit;
@@ -77,12 +78,12 @@ public class CheckSubCommand extends BaseSubCommand {
         }
 
         Chunk chunk = target.getLocation().getChunk();
-        ChunkKey key = new ChunkKey(chunk);
+        ChunkKey key = BukkitKeys.chunk(chunk);
 
         // Run async to avoid blocking
         Scheduler.runTaskAsync(() -> {
             int count = plugin.getChunkLimitService().getSpawnerCount(key);
-            int limit = plugin.getChunkLimitService().getMaxSpawnersPerChunk();
+            int limit = plugin.getChunkLimitService().getMaxSpawnersPerChunk(key.world());
 
             // Send message on appropriate thread
             java.util.Map<String, String> placeholders = new java.util.HashMap<>();
@@ -0,0 +1,123 @@
+package github.io.ssaspawnerlimiter.command.subcommands;
+
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.command.BaseSubCommand;
+import github.io.ssaspawnerlimiter.service.AnvilImportService;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@NullMarked
+public class ImportSubCommand extends BaseSubCommand {
+
+    public ImportSubCommand(SSASpawnerLimiter plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public String getName() {
+        return "import";
+    }
+
+    @Override
+    public String getPermission() {
+        return "ssaspawnerlimiter.command.import";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Seed chunk counts of a world from its region files";
+    }
+
+    @Override
+    public LiteralArgumentBuilder<CommandSourceStack> build() {
+        LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal(getName());
+
+        builder.requires(source -> hasPermission(source.getSender()));
+
+        // Add world argument with suggestions
+        builder.then(Commands.argument("world", StringArgumentType.word())
+                .suggests((context, suggestionsBuilder) -> {
+                    for (World world : Bukkit.getWorlds()) {
+                        suggestionsBuilder.suggest(world.getName());
+                    }
+                    return suggestionsBuilder.buildFuture();
+                })
+                .executes(this::executeWithWorld));
+
+        // Add execute for when no world is provided (show usage)
+        builder.executes(this::execute);
+
+        return builder;
+    }
+
+    @Override
+    public int execute(CommandContext<CommandSourceStack> context) {
+        CommandSender sender = context.getSource().getSender();
+        plugin.getMessageService().sendMessage(sender, "command_usage_import");
+        return 0;
+    }
+
+    private int executeWithWorld(CommandContext<CommandSourceStack> context) {
+        CommandSender sender = context.getSource().getSender();
+        String worldName = context.getArgument("world", String.class);
+
+        World world = Bukkit.getWorld(worldName);
+        if (world == null) {
+            plugin.getMessageService().sendMessage(sender, "command_import_world_not_found");
+            return 0;
+        }
+
+        AnvilImportService service = plugin.getAnvilImportService();
+        if (service == null || service.isRunning()) {
+            plugin.getMessageService().sendMessage(sender, "command_import_running");
+            return 0;
+        }
+
+        Map<String, String> startPlaceholders = new HashMap<>();
+        startPlaceholders.put("world", world.getName());
+        plugin.getMessageService().sendMessage(sender, "command_import_started", startPlaceholders);
+
+        service.importWorld(world).whenComplete((result, throwable) -> {
+            Runnable sendMessages = () -> {
+                Map<String, String> placeholders = new HashMap<>();
+                placeholders.put("world", world.getName());
+
+                if (throwable != null || result == null) {
+                    Throwable cause = throwable != null && throwable.getCause() != null ? throwable.getCause() : throwable;
+                    placeholders.put("error", cause != null ? String.valueOf(cause.getMessage()) : "already running");
+                    plugin.getMessageService().sendMessage(sender, "command_import_failed", placeholders);
+                    return;
+                }
+
+                placeholders.put("regions", String.valueOf(result.regions()));
+                placeholders.put("chunks", String.valueOf(result.chunks()));
+                placeholders.put("skipped", String.valueOf(result.skippedChunks()));
+                placeholders.put("spawners", String.valueOf(result.totalCount()));
+                placeholders.put("time", String.valueOf(result.durationNanos() / 1_000_000L));
+                placeholders.put("rate", String.format(Locale.ROOT, "%.1f", result.regionsPerSecond()));
+                plugin.getMessageService().sendMessage(sender, "command_import_result", placeholders);
+            };
+
+            if (sender instanceof Player player) {
+                Scheduler.runAtLocation(player.getLocation(), sendMessages);
+            } else {
+                sendMessages.run();
+            }
+        });
+
+        return 1;
+    }
+}
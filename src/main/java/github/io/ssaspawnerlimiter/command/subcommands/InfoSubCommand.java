@@ -1,10 +1,11 @@
 package github.io.ssaspawnerlimiter.command.subcommands;
 
 import com.mojang.brigadier.context.CommandContext;
-import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.command.BaseSubCommand;
-import github.io.ssaspawnerlimiter.util.ChunkKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.bukkit.Chunk;
 import org.bukkit.command.CommandSender;
@@ -49,7 +50,7 @@ public class InfoSubCommand extends BaseSubCommand {
         assert player != null; // Already checked by isPlayer
 
         Chunk chunk = player.getLocation().getChunk();
-        ChunkKey key = new ChunkKey(chunk);
+        ChunkKey key = BukkitKeys.chunk(chunk);
 
         boolean hasBypass = player.hasPermission("ssaspawnerlimiter.bypass");
 
@@ -58,7 +59,7 @@ public class InfoSubCommand extends BaseSubCommand {
         // Run async to avoid blocking main thread
         Scheduler.runTaskAsync(() -> {
             int count = plugin.getChunkLimitService().getSpawnerCount(key);
-            int limit = plugin.getChunkLimitService().getMaxSpawnersPerChunk();
+            int limit = plugin.getChunkLimitService().getMaxSpawnersPerChunk(key.world());
 
             // Send messages on player's region thread
             Scheduler.runAtLocation(player.getLocation(), () -> {
@@ -0,0 +1,92 @@
+package github.io.ssaspawnerlimiter.command.subcommands;
+
+import com.mojang.brigadier.context.CommandContext;
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.command.BaseSubCommand;
+import github.io.ssaspawnerlimiter.core.metrics.LatencyHistogram;
+import github.io.ssaspawnerlimiter.core.metrics.MetricsRegistry;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@NullMarked
+public class MetricsSubCommand extends BaseSubCommand {
+
+    public MetricsSubCommand(SSASpawnerLimiter plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public String getName() {
+        return "metrics";
+    }
+
+    @Override
+    public String getPermission() {
+        return "ssaspawnerlimiter.command.metrics";
+    }
+
+    @Override
+    public String getDescription() {
+        return "View hot path counters, gauges and latencies";
+    }
+
+    @Override
+    public int execute(CommandContext<CommandSourceStack> context) {
+        CommandSender sender = context.getSource().getSender();
+
+        plugin.getMessageService().sendMessage(sender, "command_metrics_header");
+
+        // Read the registry async, gauges may take locks
+        Scheduler.runTaskAsync(() -> {
+            MetricsRegistry metrics = plugin.getMetricsRegistry();
+            Map<String, Long> counters = metrics.counterValues();
+            Map<String, Long> gauges = metrics.gaugeValues();
+            Map<String, LatencyHistogram.Snapshot> histograms = metrics.histogramSnapshots();
+
+            // Send messages on appropriate thread
+            Runnable sendMessages = () -> {
+                counters.forEach((name, value) -> {
+                    Map<String, String> placeholders = new HashMap<>();
+                    placeholders.put("name", name);
+                    placeholders.put("value", String.valueOf(value));
+                    plugin.getMessageService().sendMessage(sender, "command_metrics_counter", placeholders);
+                });
+
+                gauges.forEach((name, value) -> {
+                    Map<String, String> placeholders = new HashMap<>();
+                    placeholders.put("name", name);
+                    placeholders.put("value", String.valueOf(value));
+                    plugin.getMessageService().sendMessage(sender, "command_metrics_gauge", placeholders);
+                });
+
+                histograms.forEach((name, snapshot) -> {
+                    Map<String, String> placeholders = new HashMap<>();
+                    placeholders.put("name", name);
+                    placeholders.put("count", String.valueOf(snapshot.count()));
+                    placeholders.put("mean", String.format("%.1f", snapshot.meanMicros()));
+                    placeholders.put("p50", formatBound(snapshot.percentileMicros(0.5)));
+                    placeholders.put("p99", formatBound(snapshot.percentileMicros(0.99)));
+                    plugin.getMessageService().sendMessage(sender, "command_metrics_histogram", placeholders);
+                });
+            };
+
+            if (sender instanceof Player player) {
+                Scheduler.runAtLocation(player.getLocation(), sendMessages);
+            } else {
+                sendMessages.run();
+            }
+        });
+
+        return 1;
+    }
+
+    private String formatBound(long micros) {
+        return micros == Long.MAX_VALUE ? "∞" : "<" + micros;
+    }
+}
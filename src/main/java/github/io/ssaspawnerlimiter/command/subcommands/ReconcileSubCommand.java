@@ -0,0 +1,113 @@
+package github.io.ssaspawnerlimiter.command.subcommands;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.command.BaseSubCommand;
+import github.io.ssaspawnerlimiter.service.PlayerReconciliationService;
+import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.command.brigadier.Commands;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jspecify.annotations.NullMarked;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@NullMarked
+public class ReconcileSubCommand extends BaseSubCommand {
+
+    public ReconcileSubCommand(SSASpawnerLimiter plugin) {
+        super(plugin);
+    }
+
+    @Override
+    public String getName() {
+        return "reconcile";
+    }
+
+    @Override
+    public String getPermission() {
+        return "ssaspawnerlimiter.command.reconcile";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Recount per-player spawners from SmartSpawner data";
+    }
+
+    @Override
+    public LiteralArgumentBuilder<CommandSourceStack> build() {
+        LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal(getName());
+
+        builder.requires(source -> hasPermission(source.getSender()));
+
+        // Dry run by default, "apply" writes the corrections
+        builder.then(Commands.literal("apply").executes(context -> reconcile(context, true)));
+        builder.executes(this::execute);
+
+        return builder;
+    }
+
+    @Override
+    public int execute(CommandContext<CommandSourceStack> context) {
+        return reconcile(context, false);
+    }
+
+    private int reconcile(CommandContext<CommandSourceStack> context, boolean apply) {
+        CommandSender sender = context.getSource().getSender();
+
+        PlayerReconciliationService service = plugin.getPlayerReconciliationService();
+        if (service == null || service.isRunning()) {
+            plugin.getMessageService().sendMessage(sender, "command_reconcile_running");
+            return 0;
+        }
+
+        plugin.getMessageService().sendMessage(sender, apply ? "command_reconcile_started" : "command_reconcile_dry_run");
+
+        int reportSize = Math.max(0, plugin.getConfig().getInt("reconciliation.report_size", 10));
+        service.reconcile(apply, reportSize).whenComplete((report, throwable) -> {
+            Runnable sendMessages = () -> {
+                if (report == null) {
+                    plugin.getMessageService().sendMessage(sender, "command_reconcile_failed");
+                    return;
+                }
+
+                Map<String, String> placeholders = new HashMap<>();
+                placeholders.put("spawners", String.valueOf(report.spawners()));
+                placeholders.put("players", String.valueOf(report.playersChecked()));
+                placeholders.put("discrepancies", String.valueOf(report.discrepancyCount()));
+                placeholders.put("unowned", String.valueOf(report.unownedSpawners()));
+                placeholders.put("time", String.valueOf(report.durationMs()));
+                plugin.getMessageService().sendMessage(sender, "command_reconcile_result", placeholders);
+
+                for (PlayerReconciliationService.Discrepancy discrepancy : report.largest()) {
+                    OfflinePlayer player = Bukkit.getOfflinePlayer(UUID.fromString(discrepancy.uuid()));
+                    Map<String, String> entryPlaceholders = new HashMap<>();
+                    entryPlaceholders.put("player", player.getName() != null ? player.getName() : discrepancy.uuid());
+                    entryPlaceholders.put("stored", String.valueOf(discrepancy.stored()));
+                    entryPlaceholders.put("actual", String.valueOf(discrepancy.actual()));
+                    plugin.getMessageService().sendMessage(sender, "command_reconcile_entry", entryPlaceholders);
+                }
+
+                if (report.applied()) {
+                    plugin.getMessageService().sendMessage(sender, "command_reconcile_applied");
+                } else if (report.refused()) {
+                    plugin.getMessageService().sendMessage(sender, "command_reconcile_unowned", placeholders);
+                }
+            };
+
+            if (sender instanceof Player player) {
+                Scheduler.runAtLocation(player.getLocation(), sendMessages);
+            } else {
+                sendMessages.run();
+            }
+        });
+
+        return 1;
+    }
+}
@@ -48,12 +48,49 @@ public class ReloadSubCommand extends BaseSubCommand {
                 plugin.getChunkLimitService().clearCache();
             }
 
+            if (plugin.getDensityLimitService() != null) {
+                plugin.getDensityLimitService().loadConfiguration();
+            }
+
             // Reload and clear cache for player limit service
             if (plugin.getPlayerLimitService() != null) {
                 plugin.getPlayerLimitService().loadConfiguration();
                 plugin.getPlayerLimitService().clearCache();
             }
 
+            if (plugin.getRateLimitService() != null) {
+                plugin.getRateLimitService().loadConfiguration();
+            }
+
+            plugin.getDatabaseManager().loadConfiguration();
+            plugin.loadSlowLogConfiguration();
+            plugin.loadTraceConfiguration();
+
+            if (plugin.getLoadGovernor() != null) {
+                plugin.getLoadGovernor().loadConfiguration();
+            }
+
+            if (plugin.getSpawnerDeltaBatcher() != null) {
+                plugin.getSpawnerDeltaBatcher().loadConfiguration();
+            }
+
+            if (plugin.getDenialNotifier() != null) {
+                plugin.getDenialNotifier().loadConfiguration();
+            }
+
+            if (plugin.getWorldCapService() != null) {
+                plugin.getWorldCapService().loadConfiguration();
+            }
+
+            if (plugin.getTeamQuotaService() != null) {
+                plugin.getTeamQuotaService().loadConfiguration();
+                plugin.getTeamQuotaService().clearCache();
+            }
+
+            if (plugin.getMetricsExporter() != null) {
+                plugin.getMetricsExporter().reload();
+            }
+
             plugin.getMessageService().sendMessage(sender, "reload_success");
             return 1;
         } catch (Exception e) {
@@ -1,9 +1,10 @@
 package github.io.ssaspawnerlimiter.command.subcommands;
 
 import com.mojang.brigadier.context.CommandContext;
-import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
 import github.io.ssaspawnerlimiter.command.BaseSubCommand;
+import github.io.ssaspawnerlimiter.core.storage.CircuitBreaker;
 import github.io.ssaspawnerlimiter.service.ChunkLimitService;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import org.bukkit.command.CommandSender;
@@ -11,6 +12,7 @@ import org.bukkit.entity.Player;
 import org.jspecify.annotations.NullMarked;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 @NullMarked
@@ -60,9 +62,48 @@ public class StatsSubCommand extends BaseSubCommand {
                     cachePlaceholders.put("cache", String.valueOf(stats.cacheSize()));
                     plugin.getMessageService().sendMessage(sender, "command_stats_cache_size", cachePlaceholders);
 
+                    if (plugin.getWorldCapService() != null) {
+                        plugin.getWorldCapService().getTotals().forEach((world, total) -> {
+                            long cap = plugin.getWorldCapService().getCap(world);
+                            Map<String, String> worldPlaceholders = new HashMap<>();
+                            worldPlaceholders.put("world", world);
+                            worldPlaceholders.put("spawners", String.valueOf(total));
+                            worldPlaceholders.put("limit", cap >= 0 ? String.valueOf(cap) : "∞");
+                            worldPlaceholders.put("percent", cap > 0 ? String.format("%.1f", total * 100.0 / cap) : "0.0");
+                            plugin.getMessageService().sendMessage(sender, "command_stats_world", worldPlaceholders);
+                        });
+                    }
+
+                    if (plugin.getRateLimitService() != null) {
+                        Map<String, String> ratePlaceholders = new HashMap<>();
+                        ratePlaceholders.put("rejected", String.valueOf(plugin.getRateLimitService().getRejectedCount()));
+                        plugin.getMessageService().sendMessage(sender, "command_stats_rate_limited", ratePlaceholders);
+                    }
+
+                    if (plugin.getChunkLimitService().isVerifyChunkCountOnCheck()) {
+                        Map<String, String> verifyPlaceholders = new HashMap<>();
+                        verifyPlaceholders.put("performed", String.valueOf(plugin.getChunkLimitService().getVerificationsPerformed()));
+                        verifyPlaceholders.put("skipped", String.valueOf(plugin.getChunkLimitService().getVerificationsSkipped()));
+                        plugin.getMessageService().sendMessage(sender, "command_stats_verification", verifyPlaceholders);
+                    }
+
+                    if (plugin.getLoadGovernor() != null) {
+                        Map<String, String> loadPlaceholders = new HashMap<>();
+                        loadPlaceholders.put("mode", plugin.getLoadGovernor().getMode().name().toLowerCase(Locale.ROOT));
+                        loadPlaceholders.put("mspt", String.format("%.1f", plugin.getLoadGovernor().getMspt()));
+                        plugin.getMessageService().sendMessage(sender, "command_stats_load_mode", loadPlaceholders);
+                    }
+
                     Map<String, String> dbPlaceholders = new HashMap<>();
-                    dbPlaceholders.put("database", "SQLite");
+                    dbPlaceholders.put("database", plugin.getDatabaseManager().getBackendName());
                     plugin.getMessageService().sendMessage(sender, "command_stats_database", dbPlaceholders);
+
+                    CircuitBreaker circuitBreaker = plugin.getDatabaseManager().getCircuitBreaker();
+                    Map<String, String> breakerPlaceholders = new HashMap<>();
+                    breakerPlaceholders.put("state", circuitBreaker.getState().name().toLowerCase(Locale.ROOT));
+                    breakerPlaceholders.put("trips", String.valueOf(circuitBreaker.getTripCount()));
+                    breakerPlaceholders.put("rejected", String.valueOf(circuitBreaker.getRejectedCount()));
+                    plugin.getMessageService().sendMessage(sender, "command_stats_circuit_breaker", breakerPlaceholders);
                 };
 
                 if (sender instanceof Player player) {
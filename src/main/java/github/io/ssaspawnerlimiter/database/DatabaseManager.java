@@ -1,106 +1,359 @@
 package github.io.ssaspawnerlimiter.database;
 
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.jfr.DatabaseOperationEvent;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.metrics.LatencyHistogram;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+import github.io.ssaspawnerlimiter.core.storage.ChangeLogEntry;
+import github.io.ssaspawnerlimiter.core.storage.ChunkCount;
+import github.io.ssaspawnerlimiter.core.storage.CircuitBreaker;
+import github.io.ssaspawnerlimiter.core.storage.MySQLStorage;
+import github.io.ssaspawnerlimiter.core.storage.OwnedSpawner;
+import github.io.ssaspawnerlimiter.core.storage.QuotaLease;
+import github.io.ssaspawnerlimiter.core.storage.SQLiteStorage;
+import github.io.ssaspawnerlimiter.core.storage.SpawnerStorage;
 import lombok.Getter;
-
-import java.io.File;
-import java.sql.*;
+import jdk.jfr.EventType;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.logging.Level;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
- * Thread-safe SQLite database manager for storing spawner chunk data.
- * Uses connection pooling and proper locking for Folia compatibility.
+ * Entry point for spawner count storage.
+ * Selects the configured {@link SpawnerStorage} backend (SQLite by default) and delegates to it.
+ * Reads that a server thread has to wait for go through {@link #awaitSync(Supplier)}, which bounds the wait and
+ * stops waiting altogether while a circuit breaker is open.
  */
 public class DatabaseManager {
+    // Checked before allocating an event, so untraced operations don't create one
+    private static final EventType DATABASE_OPERATION_EVENT = EventType.getEventType(DatabaseOperationEvent.class);
+
     private final SSASpawnerLimiter plugin;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     @Getter
-    private Connection connection;
-    private final String databasePath;
+    private final SpawnerStorage storage;
+    @Getter
+    private final CircuitBreaker circuitBreaker;
+    private final AtomicBoolean probing = new AtomicBoolean();
+    // Storage operations started and not completed yet
+    private final LongAdder inFlight = new LongAdder();
+    // Latency histogram of each operation, indexed by ordinal
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+
+    private long syncTimeoutMs;
+    private long probeIntervalTicks;
+    @Getter
+    private FailurePolicy failurePolicy;
+
+    /**
+     * What limit checks do while a count can't be read in time
+     */
+    public enum FailurePolicy {
+        // Treat the count as zero
+        ALLOW,
+        // Deny the change
+        DENY,
+        // Use the last cached count, or zero if none
+        LAST_KNOWN
+    }
+
+    /**
+     * Timed storage operations, each with its own db.{operation} histogram
+     */
+    private enum Operation {
+        GET_SPAWNER_COUNT("get_spawner_count"),
+        SET_SPAWNER_COUNT("set_spawner_count"),
+        INCREMENT_SPAWNER_COUNT("increment_spawner_count"),
+        DELETE_CHUNK_DATA("delete_chunk_data"),
+        REPLACE_SPAWNER_COUNTS("replace_spawner_counts"),
+        GET_ALL_SPAWNER_COUNTS("get_all_spawner_counts"),
+        GET_WORLD_SPAWNER_TOTALS("get_world_spawner_totals"),
+        GET_TOTAL_CHUNKS("get_total_chunks"),
+        GET_TOTAL_SPAWNERS("get_total_spawners"),
+        GET_PLAYER_SPAWNER_COUNT("get_player_spawner_count"),
+        SET_PLAYER_SPAWNER_COUNT("set_player_spawner_count"),
+        INCREMENT_PLAYER_SPAWNER_COUNT("increment_player_spawner_count"),
+        GET_TEAM_SPAWNER_COUNT("get_team_spawner_count"),
+        INCREMENT_TEAM_SPAWNER_COUNT("increment_team_spawner_count"),
+        GET_ALL_PLAYER_SPAWNER_COUNTS("get_all_player_spawner_counts"),
+        ADJUST_PLAYER_SPAWNER_COUNTS("adjust_player_spawner_counts"),
+        ACQUIRE_QUOTA_LEASE("acquire_quota_lease"),
+        COMMIT_LEASED_SPAWNERS("commit_leased_spawners"),
+        RELEASE_QUOTA_LEASE("release_quota_lease"),
+        RENEW_QUOTA_LEASES("renew_quota_leases"),
+        RELEASE_QUOTA_LEASES("release_quota_leases"),
+        APPEND_CHANGE_LOG("append_change_log"),
+        READ_CHANGE_LOG("read_change_log"),
+        GET_LATEST_CHANGE_SEQ("get_latest_change_seq"),
+        PRUNE_CHANGE_LOG("prune_change_log"),
+        ADJUST_OWNED_SPAWNERS("adjust_owned_spawners"),
+        GET_ALL_OWNED_SPAWNERS("get_all_owned_spawners"),
+        GET_OWNED_SPAWNERS("get_owned_spawners");
+
+        final String id;
+        final String metric;
+
+        Operation(String id) {
+            this.id = id;
+            this.metric = "db." + id;
+        }
+    }
 
     public DatabaseManager(SSASpawnerLimiter plugin) {
         this.plugin = plugin;
-        File dataFolder = plugin.getDataFolder();
-        if (!dataFolder.exists()) {
-            dataFolder.mkdirs();
+        this.storage = createStorage();
+        this.circuitBreaker = new CircuitBreaker(
+            Math.max(1, plugin.getConfig().getInt("storage.circuit_breaker.failure_threshold", 5)),
+            TimeUnit.MILLISECONDS.toNanos(Math.max(1L, plugin.getConfig().getLong("storage.circuit_breaker.slow_call_ms", 100L))));
+        loadConfiguration();
+
+        for (Operation operation : Operation.values()) {
+            histograms[operation.ordinal()] = plugin.getMetricsRegistry().histogram(operation.metric);
         }
+        plugin.getMetricsRegistry().gauge("db.in_flight", inFlight::sum);
+        plugin.getMetricsRegistry().gauge("db.write_queue", storage::getQueuedWrites);
+        plugin.getMetricsRegistry().gauge("db.breaker_open", () -> circuitBreaker.getState() == CircuitBreaker.State.OPEN ? 1 : 0);
+    }
+
+    public void loadConfiguration() {
+        this.syncTimeoutMs = Math.max(1L, plugin.getConfig().getLong("storage.sync_timeout_ms", 250L));
+        this.probeIntervalTicks = Math.max(1L, plugin.getConfig().getLong("storage.circuit_breaker.probe_interval_seconds", 5L)) * 20L;
 
-        String filename = "spawner_limits.db";
-        this.databasePath = new File(dataFolder, filename).getAbsolutePath();
+        String policy = plugin.getConfig().getString("storage.unavailable_policy", "LAST_KNOWN");
+        try {
+            this.failurePolicy = FailurePolicy.valueOf(policy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown storage.unavailable_policy '" + policy + "', using LAST_KNOWN");
+            this.failurePolicy = FailurePolicy.LAST_KNOWN;
+        }
     }
 
     /**
-     * Initialize database connection and create tables
+     * Wait for a read on a server thread, bounded by storage.sync_timeout_ms.
+     * Failed and slow reads count toward tripping the circuit breaker; while it is open the read isn't made at all
+     * and the database is probed in the background until it answers again.
+     * @param read The read to run
+     * @return the value, or null if the read failed, the database didn't answer in time or the circuit is open
      */
-    public CompletableFuture<Boolean> initialize() {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Class.forName("org.sqlite.JDBC");
-                connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath);
-                connection.setAutoCommit(true);
-
-                createTables();
-                return true;
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Failed to initialize database", e);
-                return false;
+    public <T> T awaitSync(Supplier<CompletableFuture<T>> read) {
+        return awaitSync(read, Objects::nonNull);
+    }
+
+    /**
+     * Wait for a count read on a server thread, like {@link #awaitSync(Supplier)}; the backends report a failed
+     * read as a negative count
+     * @param read The read to run
+     * @return the count, or null if the read failed, the database didn't answer in time or the circuit is open
+     */
+    public Integer awaitCount(Supplier<CompletableFuture<Integer>> read) {
+        return awaitSync(read, count -> count != null && count >= 0);
+    }
+
+    /**
+     * Wait for a read on a server thread
+     * @param read The read to run
+     * @param valid Tells a value read from a failure sentinel
+     * @return the value, or null if it wasn't valid, the database didn't answer in time or the circuit is open
+     */
+    public <T> T awaitSync(Supplier<CompletableFuture<T>> read, Predicate<T> valid) {
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        T value = null;
+        boolean success = false;
+        try {
+            value = read.get().get(syncTimeoutMs, TimeUnit.MILLISECONDS);
+            success = valid.test(value);
+            if (!success) {
+                plugin.getLogger().warning("Database read failed, see the error logged above");
+                value = null;
+            }
+        } catch (TimeoutException e) {
+            plugin.getLogger().warning("Database read timed out after " + syncTimeoutMs + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning("Database read failed: " + e.getCause().getMessage());
+        }
+
+        if (circuitBreaker.record(System.nanoTime() - start, success)) {
+            plugin.getLogger().warning("Database is failing or slow, circuit breaker OPEN, limit checks follow the "
+                + failurePolicy + " policy until it recovers");
+            scheduleProbe();
+        }
+        return value;
+    }
+
+    /**
+     * Get the count a limit check should use when the stored count couldn't be read, following storage.unavailable_policy
+     * @param lastKnown Last cached count, or -1 if none
+     * @return count to check against, or -1 to deny
+     */
+    public int getUnavailableCount(int lastKnown) {
+        return switch (failurePolicy) {
+            case ALLOW -> 0;
+            case DENY -> -1;
+            case LAST_KNOWN -> Math.max(0, lastKnown);
+        };
+    }
+
+    /**
+     * Record latency of a storage operation in the db.{operation} histogram, as a JFR event and, if slow,
+     * in the slow operation log once it completes
+     * @param key Chunk, player or other key of the operation, or null if it has none
+     */
+    private <T> CompletableFuture<T> timed(Operation operation, Object key, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        Thread caller = Thread.currentThread();
+        inFlight.increment();
+        LatencyHistogram histogram = histograms[operation.ordinal()];
+        DatabaseOperationEvent event = DATABASE_OPERATION_EVENT.isEnabled() ? new DatabaseOperationEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        return future.whenComplete((value, throwable) -> {
+            inFlight.decrement();
+            long elapsed = System.nanoTime() - start;
+            histogram.record(elapsed);
+            if (event != null) {
+                commitEvent(event, operation, value, throwable);
+            }
+
+            SlowOperationLog slowLog = plugin.getSlowOperationLog();
+            if (slowLog.isSlow(SlowOperationLog.Category.DATABASE, elapsed)) {
+                slowLog.entry(operation.metric, key != null ? key : "-", elapsed)
+                    .thread(caller.getName())
+                    .submit();
             }
         });
     }
 
     /**
-     * Create necessary database tables
+     * Commit a database operation JFR event if it is being recorded
      */
-    private void createTables() throws SQLException {
-        lock.writeLock().lock();
-        try (Statement stmt = connection.createStatement()) {
-            // Main table for chunk spawner counts
-            String createTableSQL = """
-                CREATE TABLE IF NOT EXISTS spawner_chunks (
-                    id INTEGER PRIMARY KEY AUTOINCREMENT,
-                    world TEXT NOT NULL,
-                    chunk_x INTEGER NOT NULL,
-                    chunk_z INTEGER NOT NULL,
-                    spawner_count INTEGER NOT NULL DEFAULT 0,
-                    last_updated INTEGER NOT NULL,
-                    UNIQUE(world, chunk_x, chunk_z)
-                );
-                """;
-            stmt.execute(createTableSQL);
-
-            // Create index for faster lookups
-            String createIndexSQL = """
-                CREATE INDEX IF NOT EXISTS idx_chunk_location 
-                ON spawner_chunks(world, chunk_x, chunk_z);
-                """;
-            stmt.execute(createIndexSQL);
-
-            // Table for per-player spawner counts
-            String createPlayerTableSQL = """
-                CREATE TABLE IF NOT EXISTS player_spawners (
-                    uuid TEXT PRIMARY KEY,
-                    spawner_count INTEGER NOT NULL DEFAULT 0,
-                    last_updated INTEGER NOT NULL
-                );
-                """;
-            stmt.execute(createPlayerTableSQL);
-
-            // Metadata table for future use
-            String createMetaTableSQL = """
-                CREATE TABLE IF NOT EXISTS limiter_metadata (
-                    key TEXT PRIMARY KEY,
-                    value TEXT NOT NULL
+    private void commitEvent(DatabaseOperationEvent event, Operation operation, Object value, Throwable throwable) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.operation = operation.id;
+        event.backend = storage.getName();
+        event.rows = value instanceof Collection<?> list ? list.size() : value instanceof Map<?, ?> map ? map.size() : -1;
+        event.success = throwable == null;
+        event.commit();
+    }
+
+    /**
+     * Probe the database in the background until it answers in time, then close the circuit breaker
+     */
+    private void scheduleProbe() {
+        if (!probing.compareAndSet(false, true)) {
+            return;
+        }
+        Scheduler.runTaskLaterAsync(this::probe, probeIntervalTicks);
+    }
+
+    private void probe() {
+        boolean recovered;
+        try {
+            recovered = storage.getTotalChunks().get(syncTimeoutMs, TimeUnit.MILLISECONDS) >= 0;
+        } catch (Exception e) {
+            recovered = false;
+        }
+
+        if (recovered) {
+            probing.set(false);
+            if (circuitBreaker.close()) {
+                plugin.getLogger().info("Database recovered, circuit breaker CLOSED");
+            }
+        } else {
+            Scheduler.runTaskLaterAsync(this::probe, probeIntervalTicks);
+        }
+    }
+
+    /**
+     * Create storage backend from the "storage" config section
+     */
+    private SpawnerStorage createStorage() {
+        String type = plugin.getConfig().getString("storage.type", "SQLITE").toUpperCase();
+
+        switch (type) {
+            case "MYSQL", "MARIADB" -> {
+                ConfigurationSection section = plugin.getConfig().getConfigurationSection("storage.mysql");
+                if (section == null) {
+                    plugin.getLogger().warning("Missing storage.mysql section, falling back to SQLite");
+                    break;
+                }
+
+                boolean mariadb = type.equals("MARIADB");
+                String jdbcUrl = section.getString("jdbc_url", "");
+                if (jdbcUrl == null || jdbcUrl.isEmpty()) {
+                    jdbcUrl = String.format("jdbc:%s://%s:%d/%s",
+                        mariadb && isDriverPresent("org.mariadb.jdbc.Driver") ? "mariadb" : "mysql",
+                        section.getString("host", "localhost"),
+                        section.getInt("port", 3306),
+                        section.getString("database", "ssaspawnerlimiter"));
+                }
+
+                MySQLStorage.Settings settings = new MySQLStorage.Settings(
+                    jdbcUrl,
+                    section.getString("username", "root"),
+                    section.getString("password", ""),
+                    mariadb,
+                    Math.max(1, section.getInt("pool_size", 8)),
+                    Math.max(1L, section.getLong("batch_interval_ms", 50L)),
+                    Math.max(1, section.getInt("batch_size", 500))
                 );
-                """;
-            stmt.execute(createMetaTableSQL);
-        } finally {
-            lock.writeLock().unlock();
+                return new MySQLStorage(plugin.getLogger(), settings);
+            }
+            case "SQLITE" -> {
+                // Default backend
+            }
+            default -> plugin.getLogger().warning("Unknown storage type '" + type + "', falling back to SQLite");
+        }
+
+        return new SQLiteStorage(plugin.getLogger(), plugin.getDataFolder(), plugin.getSlowOperationLog());
+    }
+
+    private boolean isDriverPresent(String driverClass) {
+        try {
+            Class.forName(driverClass);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
         }
     }
 
+    /**
+     * Get display name of the active storage backend
+     */
+    public String getBackendName() {
+        return storage.getName();
+    }
+
+    /**
+     * Initialize database connection and create tables
+     */
+    public CompletableFuture<Boolean> initialize() {
+        plugin.getLogger().info("Using " + storage.getName() + " storage backend");
+        return storage.initialize();
+    }
+
     /**
      * Get spawner count for a specific chunk
      * @param world World name
@@ -109,28 +362,7 @@ public class DatabaseManager {
      * @return CompletableFuture with spawner count
      */
     public CompletableFuture<Integer> getSpawnerCount(String world, int chunkX, int chunkZ) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.readLock().lock();
-            try {
-                String sql = "SELECT spawner_count FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, world);
-                    stmt.setInt(2, chunkX);
-                    stmt.setInt(3, chunkZ);
-
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        return rs.getInt("spawner_count");
-                    }
-                    return 0;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error getting spawner count", e);
-                return 0;
-            } finally {
-                lock.readLock().unlock();
-            }
-        });
+        return timed(Operation.GET_SPAWNER_COUNT, new ChunkKey(world, chunkX, chunkZ), storage.getSpawnerCount(world, chunkX, chunkZ));
     }
 
     /**
@@ -142,36 +374,7 @@ public class DatabaseManager {
      * @return CompletableFuture indicating success
      */
     public CompletableFuture<Boolean> setSpawnerCount(String world, int chunkX, int chunkZ, int count) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.writeLock().lock();
-            try {
-                String sql = """
-                    INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
-                    VALUES (?, ?, ?, ?, ?)
-                    ON CONFLICT(world, chunk_x, chunk_z) 
-                    DO UPDATE SET spawner_count = ?, last_updated = ?
-                    """;
-
-                long timestamp = System.currentTimeMillis();
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, world);
-                    stmt.setInt(2, chunkX);
-                    stmt.setInt(3, chunkZ);
-                    stmt.setInt(4, count);
-                    stmt.setLong(5, timestamp);
-                    stmt.setInt(6, count);
-                    stmt.setLong(7, timestamp);
-
-                    stmt.executeUpdate();
-                    return true;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error setting spawner count", e);
-                return false;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        });
+        return timed(Operation.SET_SPAWNER_COUNT, new ChunkKey(world, chunkX, chunkZ), storage.setSpawnerCount(world, chunkX, chunkZ, count));
     }
 
     /**
@@ -183,53 +386,7 @@ public class DatabaseManager {
      * @return CompletableFuture with new count
      */
     public CompletableFuture<Integer> incrementSpawnerCount(String world, int chunkX, int chunkZ, int amount) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.writeLock().lock();
-            try {
-                // First, get current count
-                int currentCount = 0;
-                String selectSQL = "SELECT spawner_count FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
-                try (PreparedStatement stmt = connection.prepareStatement(selectSQL)) {
-                    stmt.setString(1, world);
-                    stmt.setInt(2, chunkX);
-                    stmt.setInt(3, chunkZ);
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        currentCount = rs.getInt("spawner_count");
-                    }
-                }
-
-                // Calculate new count
-                int newCount = Math.max(0, currentCount + amount);
-
-                // Update with new count
-                String updateSQL = """
-                    INSERT INTO spawner_chunks (world, chunk_x, chunk_z, spawner_count, last_updated)
-                    VALUES (?, ?, ?, ?, ?)
-                    ON CONFLICT(world, chunk_x, chunk_z) 
-                    DO UPDATE SET spawner_count = ?, last_updated = ?
-                    """;
-
-                long timestamp = System.currentTimeMillis();
-                try (PreparedStatement stmt = connection.prepareStatement(updateSQL)) {
-                    stmt.setString(1, world);
-                    stmt.setInt(2, chunkX);
-                    stmt.setInt(3, chunkZ);
-                    stmt.setInt(4, newCount);
-                    stmt.setLong(5, timestamp);
-                    stmt.setInt(6, newCount);
-                    stmt.setLong(7, timestamp);
-                    stmt.executeUpdate();
-                }
-
-                return newCount;
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error incrementing spawner count", e);
-                return -1;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        });
+        return timed(Operation.INCREMENT_SPAWNER_COUNT, new ChunkKey(world, chunkX, chunkZ), storage.incrementSpawnerCount(world, chunkX, chunkZ, amount));
     }
 
     /**
@@ -240,72 +397,43 @@ public class DatabaseManager {
      * @return CompletableFuture indicating success
      */
     public CompletableFuture<Boolean> deleteChunkData(String world, int chunkX, int chunkZ) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.writeLock().lock();
-            try {
-                String sql = "DELETE FROM spawner_chunks WHERE world = ? AND chunk_x = ? AND chunk_z = ?";
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, world);
-                    stmt.setInt(2, chunkX);
-                    stmt.setInt(3, chunkZ);
-                    stmt.executeUpdate();
-                    return true;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error deleting chunk data", e);
-                return false;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        });
+        return timed(Operation.DELETE_CHUNK_DATA, new ChunkKey(world, chunkX, chunkZ), storage.deleteChunkData(world, chunkX, chunkZ));
+    }
+
+    /**
+     * Replace all chunk counts of a world
+     * @see SpawnerStorage#replaceSpawnerCounts(String, List)
+     */
+    public CompletableFuture<Boolean> replaceSpawnerCounts(String world, List<ChunkCount> counts) {
+        return timed(Operation.REPLACE_SPAWNER_COUNTS, world, storage.replaceSpawnerCounts(world, counts));
+    }
+
+    /**
+     * @see SpawnerStorage#getAllSpawnerCounts()
+     */
+    public CompletableFuture<Map<String, List<ChunkCount>>> getAllSpawnerCounts() {
+        return timed(Operation.GET_ALL_SPAWNER_COUNTS, null, storage.getAllSpawnerCounts());
+    }
+
+    /**
+     * @see SpawnerStorage#getWorldSpawnerTotals()
+     */
+    public CompletableFuture<Map<String, Long>> getWorldSpawnerTotals() {
+        return timed(Operation.GET_WORLD_SPAWNER_TOTALS, null, storage.getWorldSpawnerTotals());
     }
 
     /**
      * Get total number of tracked chunks
      */
     public CompletableFuture<Integer> getTotalChunks() {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.readLock().lock();
-            try {
-                String sql = "SELECT COUNT(*) as count FROM spawner_chunks";
-                try (Statement stmt = connection.createStatement();
-                     ResultSet rs = stmt.executeQuery(sql)) {
-                    if (rs.next()) {
-                        return rs.getInt("count");
-                    }
-                    return 0;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error getting total chunks", e);
-                return 0;
-            } finally {
-                lock.readLock().unlock();
-            }
-        });
+        return timed(Operation.GET_TOTAL_CHUNKS, null, storage.getTotalChunks());
     }
 
     /**
      * Get total number of spawners across all chunks
      */
     public CompletableFuture<Integer> getTotalSpawners() {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.readLock().lock();
-            try {
-                String sql = "SELECT SUM(spawner_count) as total FROM spawner_chunks";
-                try (Statement stmt = connection.createStatement();
-                     ResultSet rs = stmt.executeQuery(sql)) {
-                    if (rs.next()) {
-                        return rs.getInt("total");
-                    }
-                    return 0;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error getting total spawners", e);
-                return 0;
-            } finally {
-                lock.readLock().unlock();
-            }
-        });
+        return timed(Operation.GET_TOTAL_SPAWNERS, null, storage.getTotalSpawners());
     }
 
     /**
@@ -314,25 +442,7 @@ public class DatabaseManager {
      * @return CompletableFuture with spawner count
      */
     public CompletableFuture<Integer> getPlayerSpawnerCount(String uuid) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.readLock().lock();
-            try {
-                String sql = "SELECT spawner_count FROM player_spawners WHERE uuid = ?";
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, uuid);
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        return rs.getInt("spawner_count");
-                    }
-                    return 0;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error getting player spawner count", e);
-                return 0;
-            } finally {
-                lock.readLock().unlock();
-            }
-        });
+        return timed(Operation.GET_PLAYER_SPAWNER_COUNT, uuid, storage.getPlayerSpawnerCount(uuid));
     }
 
     /**
@@ -342,33 +452,7 @@ public class DatabaseManager {
      * @return CompletableFuture indicating success
      */
     public CompletableFuture<Boolean> setPlayerSpawnerCount(String uuid, int count) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.writeLock().lock();
-            try {
-                String sql = """
-                    INSERT INTO player_spawners (uuid, spawner_count, last_updated)
-                    VALUES (?, ?, ?)
-                    ON CONFLICT(uuid) 
-                    DO UPDATE SET spawner_count = ?, last_updated = ?
-                    """;
-
-                long timestamp = System.currentTimeMillis();
-                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                    stmt.setString(1, uuid);
-                    stmt.setInt(2, count);
-                    stmt.setLong(3, timestamp);
-                    stmt.setInt(4, count);
-                    stmt.setLong(5, timestamp);
-                    stmt.executeUpdate();
-                    return true;
-                }
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error setting player spawner count", e);
-                return false;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        });
+        return timed(Operation.SET_PLAYER_SPAWNER_COUNT, uuid, storage.setPlayerSpawnerCount(uuid, count));
     }
 
     /**
@@ -378,66 +462,141 @@ public class DatabaseManager {
      * @return CompletableFuture with new count
      */
     public CompletableFuture<Integer> incrementPlayerSpawnerCount(String uuid, int amount) {
-        return CompletableFuture.supplyAsync(() -> {
-            lock.writeLock().lock();
-            try {
-                // First, get current count
-                int currentCount = 0;
-                String selectSQL = "SELECT spawner_count FROM player_spawners WHERE uuid = ?";
-                try (PreparedStatement stmt = connection.prepareStatement(selectSQL)) {
-                    stmt.setString(1, uuid);
-                    ResultSet rs = stmt.executeQuery();
-                    if (rs.next()) {
-                        currentCount = rs.getInt("spawner_count");
-                    }
-                }
+        return timed(Operation.INCREMENT_PLAYER_SPAWNER_COUNT, uuid, storage.incrementPlayerSpawnerCount(uuid, amount));
+    }
 
-                // Calculate new count (floor at 0)
-                int newCount = Math.max(0, currentCount + amount);
-
-                // Update with new count
-                String updateSQL = """
-                    INSERT INTO player_spawners (uuid, spawner_count, last_updated)
-                    VALUES (?, ?, ?)
-                    ON CONFLICT(uuid) 
-                    DO UPDATE SET spawner_count = ?, last_updated = ?
-                    """;
-
-                long timestamp = System.currentTimeMillis();
-                try (PreparedStatement stmt = connection.prepareStatement(updateSQL)) {
-                    stmt.setString(1, uuid);
-                    stmt.setInt(2, newCount);
-                    stmt.setLong(3, timestamp);
-                    stmt.setInt(4, newCount);
-                    stmt.setLong(5, timestamp);
-                    stmt.executeUpdate();
-                }
+    /**
+     * @see SpawnerStorage#getTeamSpawnerCount(String)
+     */
+    public CompletableFuture<Integer> getTeamSpawnerCount(String teamId) {
+        return timed(Operation.GET_TEAM_SPAWNER_COUNT, teamId, storage.getTeamSpawnerCount(teamId));
+    }
 
-                return newCount;
-            } catch (SQLException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error incrementing player spawner count", e);
-                return -1;
-            } finally {
-                lock.writeLock().unlock();
-            }
-        });
+    /**
+     * @see SpawnerStorage#incrementTeamSpawnerCount(String, int)
+     */
+    public CompletableFuture<Integer> incrementTeamSpawnerCount(String teamId, int amount) {
+        return timed(Operation.INCREMENT_TEAM_SPAWNER_COUNT, teamId, storage.incrementTeamSpawnerCount(teamId, amount));
+    }
+
+    /**
+     * Get spawner counts of all players
+     * @see SpawnerStorage#getAllPlayerSpawnerCounts()
+     */
+    public CompletableFuture<Map<String, Integer>> getAllPlayerSpawnerCounts() {
+        return timed(Operation.GET_ALL_PLAYER_SPAWNER_COUNTS, null, storage.getAllPlayerSpawnerCounts());
+    }
+
+    /**
+     * Add corrections to many player counts in a single transaction
+     * @see SpawnerStorage#adjustPlayerSpawnerCounts(Map)
+     */
+    public CompletableFuture<Map<String, Integer>> adjustPlayerSpawnerCounts(Map<String, Integer> amounts) {
+        return timed(Operation.ADJUST_PLAYER_SPAWNER_COUNTS, null, storage.adjustPlayerSpawnerCounts(amounts));
+    }
+
+    /**
+     * Top up this server's lease of a player's remaining quota
+     * @see SpawnerStorage#acquireQuotaLease(String, String, int, int, long)
+     */
+    public CompletableFuture<QuotaLease> acquireQuotaLease(String uuid, String serverId, int limit, int target, long expiresAt) {
+        return timed(Operation.ACQUIRE_QUOTA_LEASE, uuid, storage.acquireQuotaLease(uuid, serverId, limit, target, expiresAt));
+    }
+
+    /**
+     * Commit spawners placed from a lease
+     * @see SpawnerStorage#commitLeasedSpawners(String, String, int)
+     */
+    public CompletableFuture<Integer> commitLeasedSpawners(String uuid, String serverId, int amount) {
+        return timed(Operation.COMMIT_LEASED_SPAWNERS, uuid, storage.commitLeasedSpawners(uuid, serverId, amount));
+    }
+
+    /**
+     * Return a player's unused leased quota
+     * @see SpawnerStorage#releaseQuotaLease(String, String)
+     */
+    public CompletableFuture<Integer> releaseQuotaLease(String uuid, String serverId) {
+        return timed(Operation.RELEASE_QUOTA_LEASE, uuid, storage.releaseQuotaLease(uuid, serverId));
+    }
+
+    /**
+     * Extend expiry of all leases held by a server
+     * @see SpawnerStorage#renewQuotaLeases(String, long)
+     */
+    public CompletableFuture<Boolean> renewQuotaLeases(String serverId, long expiresAt) {
+        return timed(Operation.RENEW_QUOTA_LEASES, serverId, storage.renewQuotaLeases(serverId, expiresAt));
+    }
+
+    /**
+     * Return all leases held by a server
+     * @see SpawnerStorage#releaseQuotaLeases(String)
+     */
+    public CompletableFuture<Boolean> releaseQuotaLeases(String serverId) {
+        return timed(Operation.RELEASE_QUOTA_LEASES, serverId, storage.releaseQuotaLeases(serverId));
+    }
+
+    /**
+     * Append an entry to the shared change log
+     * @see SpawnerStorage#appendChangeLog(String, byte[])
+     */
+    public CompletableFuture<Long> appendChangeLog(String origin, byte[] payload) {
+        return timed(Operation.APPEND_CHANGE_LOG, origin, storage.appendChangeLog(origin, payload));
+    }
+
+    /**
+     * Read change log entries after a sequence number
+     * @see SpawnerStorage#readChangeLog(long, int)
+     */
+    public CompletableFuture<List<ChangeLogEntry>> readChangeLog(long afterSeq, int limit) {
+        return timed(Operation.READ_CHANGE_LOG, afterSeq, storage.readChangeLog(afterSeq, limit));
+    }
+
+    /**
+     * Get the highest sequence number in the change log
+     * @see SpawnerStorage#getLatestChangeSeq()
+     */
+    public CompletableFuture<Long> getLatestChangeSeq() {
+        return timed(Operation.GET_LATEST_CHANGE_SEQ, null, storage.getLatestChangeSeq());
+    }
+
+    /**
+     * Delete old change log entries
+     * @see SpawnerStorage#pruneChangeLog(long)
+     */
+    public CompletableFuture<Integer> pruneChangeLog(long olderThan) {
+        return timed(Operation.PRUNE_CHANGE_LOG, null, storage.pruneChangeLog(olderThan));
+    }
+
+    /**
+     * Adjust a player's share of a spawner stack
+     * @see SpawnerStorage#adjustOwnedSpawners(String, int, int, int, String, int, String, String)
+     */
+    public CompletableFuture<Boolean> adjustOwnedSpawners(String world, int x, int y, int z, String owner, int amount,
+                                                          String entityType, String teamId) {
+        return timed(Operation.ADJUST_OWNED_SPAWNERS, owner,
+            storage.adjustOwnedSpawners(world, x, y, z, owner, amount, entityType, teamId));
+    }
+
+    /**
+     * Load all owned spawner shares
+     * @see SpawnerStorage#getAllOwnedSpawners()
+     */
+    public CompletableFuture<List<OwnedSpawner>> getAllOwnedSpawners() {
+        return timed(Operation.GET_ALL_OWNED_SPAWNERS, null, storage.getAllOwnedSpawners());
+    }
+
+    /**
+     * Get spawner shares owned by a player
+     * @see SpawnerStorage#getOwnedSpawners(String)
+     */
+    public CompletableFuture<List<OwnedSpawner>> getOwnedSpawners(String owner) {
+        return timed(Operation.GET_OWNED_SPAWNERS, owner, storage.getOwnedSpawners(owner));
     }
 
     /**
      * Close database connection
      */
     public void close() {
-        lock.writeLock().lock();
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                plugin.getLogger().info("Database connection closed");
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Error closing database connection", e);
-        } finally {
-            lock.writeLock().unlock();
-        }
+        storage.close();
     }
 }
-
@@ -0,0 +1,154 @@
+package github.io.ssaspawnerlimiter.listener;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells players why a spawner change was denied, at most once per window.
+ * Denials within a window are folded into one pending message holding the latest values, and each player has
+ * at most one message task scheduled at a time. The first denial after a quiet window is sent on the next tick,
+ * later ones at the end of the window.
+ */
+public class DenialNotifier {
+    private final SSASpawnerLimiter plugin;
+
+    // Pending denial of each player with a message scheduled or recently sent
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    private volatile long windowTicks;
+
+    /**
+     * Message template of each kind of denial: the message key and the name of its extra placeholder
+     */
+    public enum Denial {
+        CHUNK("chunk_limit_reached", null),
+        PLAYER("player_limit_reached", null),
+        ENTITY("entity_limit_reached", "entity"),
+        AREA("area_limit_reached", "size"),
+        WORLD("world_limit_reached", "world"),
+        TEAM("team_limit_reached", "team"),
+        SERVER("server_limit_reached", null),
+        UNAVAILABLE("limit_check_unavailable", null);
+
+        private final String key;
+        private final String subjectPlaceholder;
+
+        Denial(String key, String subjectPlaceholder) {
+            this.key = key;
+            this.subjectPlaceholder = subjectPlaceholder;
+        }
+
+        Map<String, String> placeholders(long current, long limit, String subject) {
+            if (subjectPlaceholder == null) {
+                return Map.of("current", String.valueOf(current), "limit", String.valueOf(limit));
+            }
+            return Map.of("current", String.valueOf(current), "limit", String.valueOf(limit),
+                subjectPlaceholder, subject != null ? subject : "");
+        }
+    }
+
+    public DenialNotifier(SSASpawnerLimiter plugin) {
+        this.plugin = plugin;
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        this.windowTicks = Math.max(1L, plugin.getConfig().getLong("denial_messages.window_ticks", 20L));
+    }
+
+    /**
+     * Tell a player a limit check denied their change
+     * @param player The player
+     * @param denial Kind of limit reached
+     * @param check The denied check
+     * @param subject Value of the denial's extra placeholder, or null if it has none
+     */
+    public void deny(Player player, Denial denial, LimitCheck check, String subject) {
+        if (check.unavailable()) {
+            deny(player, Denial.UNAVAILABLE, 0, 0, null);
+            return;
+        }
+        deny(player, denial, check.current(), check.limit(), subject);
+    }
+
+    /**
+     * Tell a player a limit denied their change
+     * @param player The player
+     * @param denial Kind of limit reached
+     * @param current Count the check was decided on
+     * @param limit Limit the count was checked against
+     * @param subject Value of the denial's extra placeholder, or null if it has none
+     */
+    public void deny(Player player, Denial denial, long current, long limit, String subject) {
+        Pending state = pending.computeIfAbsent(player.getUniqueId(), k -> new Pending());
+        long delayTicks;
+        synchronized (state) {
+            state.denial = denial;
+            state.current = current;
+            state.limit = limit;
+            state.subject = subject;
+            if (state.scheduled) {
+                return;
+            }
+            state.scheduled = true;
+
+            long waitNanos = state.nextAllowedNanos - System.nanoTime();
+            delayTicks = waitNanos > 0 ? Math.max(1L, waitNanos / 50_000_000L) : 0L;
+        }
+
+        if (delayTicks > 0) {
+            Scheduler.runEntityTaskLater(player, () -> send(player, state), delayTicks);
+        } else {
+            Scheduler.runEntityTask(player, () -> send(player, state));
+        }
+    }
+
+    /**
+     * Forget the pending denial of a player who left
+     */
+    public void onPlayerQuit(UUID uuid) {
+        pending.remove(uuid);
+    }
+
+    private void send(Player player, Pending state) {
+        Denial denial;
+        long current;
+        long limit;
+        String subject;
+        synchronized (state) {
+            denial = state.denial;
+            current = state.current;
+            limit = state.limit;
+            subject = state.subject;
+            state.scheduled = false;
+            state.nextAllowedNanos = System.nanoTime() + windowTicks * 50_000_000L;
+        }
+
+        if (!player.isOnline()) {
+            return;
+        }
+        if (denial == Denial.ENTITY && subject != null) {
+            subject = subject.toLowerCase(Locale.ROOT).replace('_', ' ');
+        }
+        plugin.getMessageService().sendMessage(player, denial.key, denial.placeholders(current, limit, subject));
+    }
+
+    /**
+     * Latest denial of a player, guarded by its own monitor
+     */
+    private static final class Pending {
+        Denial denial;
+        long current;
+        long limit;
+        String subject;
+        boolean scheduled;
+        long nextAllowedNanos;
+    }
+}
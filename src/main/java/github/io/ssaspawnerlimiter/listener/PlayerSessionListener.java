@@ -0,0 +1,38 @@
+package github.io.ssaspawnerlimiter.listener;
+
+import github.io.ssaspawnerlimiter.service.PlayerLimitService;
+import github.io.ssaspawnerlimiter.service.TeamQuotaService;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener for player join/quit to manage per-player state such as quota leases.
+ */
+public class PlayerSessionListener implements Listener {
+    private final PlayerLimitService playerLimitService;
+    private final TeamQuotaService teamQuotaService;
+    private final DenialNotifier denialNotifier;
+
+    public PlayerSessionListener(PlayerLimitService playerLimitService, TeamQuotaService teamQuotaService,
+                                 DenialNotifier denialNotifier) {
+        this.playerLimitService = playerLimitService;
+        this.teamQuotaService = teamQuotaService;
+        this.denialNotifier = denialNotifier;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        playerLimitService.onPlayerJoin(event.getPlayer());
+        teamQuotaService.onPlayerJoin(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        playerLimitService.onPlayerQuit(event.getPlayer().getUniqueId());
+        teamQuotaService.onPlayerQuit(event.getPlayer().getUniqueId());
+        denialNotifier.onPlayerQuit(event.getPlayer().getUniqueId());
+    }
+}
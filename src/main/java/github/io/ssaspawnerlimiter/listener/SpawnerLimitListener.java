@@ -1,22 +1,38 @@
 package github.io.ssaspawnerlimiter.listener;
 
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
-import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.jfr.LimitCheckEvent;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.core.metrics.LatencyHistogram;
+import github.io.ssaspawnerlimiter.core.metrics.MetricsRegistry;
+import github.io.ssaspawnerlimiter.core.trace.TraceEvent;
+import github.io.ssaspawnerlimiter.core.trace.TraceRecorder;
 import github.io.ssaspawnerlimiter.service.ChunkLimitService;
+import github.io.ssaspawnerlimiter.service.DensityLimitService;
 import github.io.ssaspawnerlimiter.service.PlayerLimitService;
-import github.io.ssaspawnerlimiter.util.ChunkKey;
-import github.nighter.smartspawner.api.events.SpawnerPlayerBreakEvent;
+import github.io.ssaspawnerlimiter.service.RateLimitService;
+import github.io.ssaspawnerlimiter.service.SpawnerDeltaBatcher;
+import github.io.ssaspawnerlimiter.service.SpawnerOwnershipService;
+import github.io.ssaspawnerlimiter.service.TeamQuotaService;
+import github.io.ssaspawnerlimiter.service.WorldCapService;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
 import github.nighter.smartspawner.api.events.SpawnerPlaceEvent;
+import github.nighter.smartspawner.api.events.SpawnerPlayerBreakEvent;
 import github.nighter.smartspawner.api.events.SpawnerRemoveEvent;
 import github.nighter.smartspawner.api.events.SpawnerStackEvent;
+import jdk.jfr.EventType;
 import org.bukkit.Location;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.CreatureSpawner;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -24,14 +40,49 @@ import java.util.UUID;
  * Designed to be thread-safe and work with Folia's region-based threading.
  */
 public class SpawnerLimitListener implements Listener {
+    // Checked before allocating an event, so untraced checks don't create one
+    private static final EventType LIMIT_CHECK_EVENT = EventType.getEventType(LimitCheckEvent.class);
+
     private final SSASpawnerLimiter plugin;
+    private final RateLimitService rateLimitService;
     private final ChunkLimitService chunkLimitService;
     private final PlayerLimitService playerLimitService;
+    private final DensityLimitService densityLimitService;
+    private final TeamQuotaService teamQuotaService;
+    private final WorldCapService worldCapService;
+    private final SpawnerOwnershipService ownershipService;
+    private final DenialNotifier denialNotifier;
+    private final SpawnerDeltaBatcher deltaBatcher;
 
-    public SpawnerLimitListener(SSASpawnerLimiter plugin, ChunkLimitService chunkLimitService, PlayerLimitService playerLimitService) {
+    // Handler latencies, looked up once so recording is a striped add
+    private final LatencyHistogram placeTime;
+    private final LatencyHistogram breakTime;
+    private final LatencyHistogram stackTime;
+    private final LatencyHistogram stackCompleteTime;
+    private final LatencyHistogram removeTime;
+
+    public SpawnerLimitListener(SSASpawnerLimiter plugin, RateLimitService rateLimitService, ChunkLimitService chunkLimitService,
+                                PlayerLimitService playerLimitService, DensityLimitService densityLimitService,
+                                TeamQuotaService teamQuotaService, WorldCapService worldCapService,
+                                SpawnerOwnershipService ownershipService, DenialNotifier denialNotifier,
+                                SpawnerDeltaBatcher deltaBatcher) {
         this.plugin = plugin;
+        this.rateLimitService = rateLimitService;
         this.chunkLimitService = chunkLimitService;
         this.playerLimitService = playerLimitService;
+        this.densityLimitService = densityLimitService;
+        this.teamQuotaService = teamQuotaService;
+        this.worldCapService = worldCapService;
+        this.ownershipService = ownershipService;
+        this.denialNotifier = denialNotifier;
+        this.deltaBatcher = deltaBatcher;
+
+        MetricsRegistry metrics = plugin.getMetricsRegistry();
+        this.placeTime = metrics.histogram("listener.place");
+        this.breakTime = metrics.histogram("listener.break");
+        this.stackTime = metrics.histogram("listener.stack");
+        this.stackCompleteTime = metrics.histogram("listener.stack_complete");
+        this.removeTime = metrics.histogram("listener.remove");
     }
 
     /**
@@ -39,46 +90,49 @@ public class SpawnerLimitListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onSpawnerPlace(SpawnerPlaceEvent event) {
-        Player player = event.getPlayer();
-        Location location = event.getLocation();
-        int quantity = event.getQuantity();
-        UUID playerUUID = player.getUniqueId();
-
-        // Check chunk limit synchronously for immediate cancellation
-        boolean canPlaceChunk = chunkLimitService.canPlaceSpawner(player, location, quantity);
-
-        if (!canPlaceChunk) {
-            event.setCancelled(true);
-
-            // Send chunk limit message to player on their region thread
-            Scheduler.runAtLocation(player.getLocation(), () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("limit", String.valueOf(chunkLimitService.getMaxSpawnersPerChunk()));
-                placeholders.put("current", String.valueOf(chunkLimitService.getSpawnerCount(new ChunkKey(location))));
-                plugin.getMessageService().sendMessage(player, "chunk_limit_reached", placeholders);
-            });
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            Location location = event.getLocation();
+            int quantity = event.getQuantity();
+            UUID playerUUID = player.getUniqueId();
 
-        // Check player limit synchronously for immediate cancellation
-        boolean canPlacePlayer = playerLimitService.canPlaceSpawner(player, quantity);
+            // Reject mutation storms before any cache, permission or database work
+            if (!rateLimitService.tryAcquire(player, location)) {
+                event.setCancelled(true);
+                return;
+            }
 
-        if (!canPlacePlayer) {
-            event.setCancelled(true);
+            if (!canPlaceSpawner(player, location, quantity)) {
+                event.setCancelled(true);
+                return;
+            }
 
-            // Send player limit message to player on their region thread
-            Scheduler.runAtLocation(player.getLocation(), () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("limit", String.valueOf(playerLimitService.getPlayerLimit(player)));
-                placeholders.put("current", String.valueOf(playerLimitService.getPlayerSpawnerCount(playerUUID)));
-                plugin.getMessageService().sendMessage(player, "player_limit_reached", placeholders);
-            });
-            return;
-        }
+            // Check team pool and server cap
+            if (!canPlacePooled(player, quantity)) {
+                event.setCancelled(true);
+                return;
+            }
 
-        // Both limits passed - Update counts in database asynchronously (in background)
-        chunkLimitService.addSpawners(location, quantity);
-        playerLimitService.addSpawners(playerUUID, quantity);
+            String entityType = getSpawnedType(location);
+            if (entityType == null) {
+                entityType = getHeldSpawnerType(player);
+            }
+            if (!canPlaceEntity(player, location, entityType, quantity)) {
+                event.setCancelled(true);
+                return;
+            }
+
+            // All limits passed - Update counts in database asynchronously (in background)
+            deltaBatcher.addChunkSpawners(location, quantity);
+            deltaBatcher.addPlayerSpawners(playerUUID, quantity);
+            String teamId = teamQuotaService.addSpawners(playerUUID, quantity);
+            ownershipService.addSpawners(location, playerUUID, quantity, entityType, teamId);
+        } finally {
+            placeTime.recordSince(start);
+            trace(TraceEvent.Type.PLACE, event.getPlayer().getUniqueId(), event.getLocation(), event.getQuantity(),
+                !event.isCancelled());
+        }
     }
 
     /**
@@ -86,22 +140,29 @@ public class SpawnerLimitListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onSpawnerBreak(SpawnerPlayerBreakEvent event) {
-        Player player = event.getPlayer();
-        Location location = event.getLocation();
-        int quantity = event.getQuantity();
-        UUID playerUUID = player.getUniqueId();
+        long start = System.nanoTime();
+        List<SpawnerOwnershipService.Removal> removals = List.of();
+        try {
+            Player player = event.getPlayer();
+            Location location = event.getLocation();
+            int quantity = event.getQuantity();
+            UUID playerUUID = player.getUniqueId();
 
-        if (plugin.getConfig().getBoolean("debug", false)) {
-            String entityName = event.getEntity() != null ? event.getEntity().getName() : "Unknown";
-            plugin.getLogger().info(String.format(
-                "[DEBUG] SpawnerBreakEvent - Player: %s, Entity: %s, Quantity: %d, Chunk: %s",
-                player.getName(), entityName, quantity, new ChunkKey(location)
-            ));
-        }
+            if (plugin.getConfig().getBoolean("debug", false)) {
+                String entityName = event.getEntity() != null ? event.getEntity().getName() : "Unknown";
+                plugin.getLogger().info(String.format(
+                    "[DEBUG] SpawnerBreakEvent - Player: %s, Entity: %s, Quantity: %d, Chunk: %s",
+                    player.getName(), entityName, quantity, BukkitKeys.chunk(location)
+                ));
+            }
 
-        // Update counts asynchronously in background
-        chunkLimitService.removeSpawners(location, quantity);
-        playerLimitService.removeSpawners(playerUUID, quantity);
+            // Update counts asynchronously in background
+            deltaBatcher.addChunkSpawners(location, -quantity);
+            removals = removeOwnedSpawners(location, playerUUID, quantity);
+        } finally {
+            breakTime.recordSince(start);
+            traceRemovals(TraceEvent.Type.BREAK, event.getPlayer(), event.getLocation(), event.getQuantity(), removals);
+        }
     }
 
     /**
@@ -109,48 +170,52 @@ public class SpawnerLimitListener implements Listener {
      */
     @EventHandler(priority = EventPriority.HIGH)
     public void onSpawnerStack(SpawnerStackEvent event) {
-        Player player = event.getPlayer();
-        Location location = event.getLocation();
-        int oldQuantity = event.getOldStackSize();
-        int newQuantity = event.getNewStackSize();
-        int difference = newQuantity - oldQuantity;
-        UUID playerUUID = player.getUniqueId();
-
-        // Only check if we're adding to the stack
-        if (difference <= 0) {
-            return;
-        }
+        long start = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            Location location = event.getLocation();
+            int oldQuantity = event.getOldStackSize();
+            int newQuantity = event.getNewStackSize();
+            int difference = newQuantity - oldQuantity;
+            UUID playerUUID = player.getUniqueId();
 
-        // Check if adding would exceed chunk limit (SYNC for immediate cancel)
-        boolean canStackChunk = chunkLimitService.canPlaceSpawner(player, location, difference);
+            // Reject stack/unstack loops before any cache, permission or database work
+            if (!rateLimitService.tryAcquire(player, location)) {
+                event.setCancelled(true);
+                return;
+            }
 
-        if (!canStackChunk) {
-            event.setCancelled(true);
+            // Only check if we're adding to the stack
+            if (difference <= 0) {
+                return;
+            }
 
-            // Send chunk limit message to player on their region thread
-            Scheduler.runAtLocation(player.getLocation(), () -> {
-                int currentCount = chunkLimitService.getSpawnerCount(new ChunkKey(location));
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("limit", String.valueOf(chunkLimitService.getMaxSpawnersPerChunk()));
-                placeholders.put("current", String.valueOf(currentCount));
-                plugin.getMessageService().sendMessage(player, "chunk_limit_reached", placeholders);
-            });
-            return;
-        }
+            // Check if adding would exceed any limit (SYNC for immediate cancel)
+            if (!canPlaceSpawner(player, location, difference)) {
+                event.setCancelled(true);
+                return;
+            }
 
-        // Check if adding would exceed player limit (SYNC for immediate cancel)
-        boolean canStackPlayer = playerLimitService.canPlaceSpawner(player, difference);
+            if (!canPlacePooled(player, difference)) {
+                event.setCancelled(true);
+                return;
+            }
 
-        if (!canStackPlayer) {
-            event.setCancelled(true);
-
-            // Send player limit message to player on their region thread
-            Scheduler.runAtLocation(player.getLocation(), () -> {
-                Map<String, String> placeholders = new HashMap<>();
-                placeholders.put("limit", String.valueOf(playerLimitService.getPlayerLimit(player)));
-                placeholders.put("current", String.valueOf(playerLimitService.getPlayerSpawnerCount(playerUUID)));
-                plugin.getMessageService().sendMessage(player, "player_limit_reached", placeholders);
-            });
+            String entityType = ownershipService.getEntityType(BukkitKeys.block(location));
+            if (entityType == null) {
+                entityType = getSpawnedType(location);
+            }
+            if (!canPlaceEntity(player, location, entityType, difference)) {
+                event.setCancelled(true);
+            }
+        } finally {
+            stackTime.recordSince(start);
+            // Unstacks that go through are traced on completion, with the owners they are charged to
+            int difference = event.getNewStackSize() - event.getOldStackSize();
+            if (difference >= 0 || event.isCancelled()) {
+                trace(TraceEvent.Type.STACK, event.getPlayer().getUniqueId(), event.getLocation(), difference,
+                    !event.isCancelled());
+            }
         }
     }
 
@@ -159,15 +224,28 @@ public class SpawnerLimitListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onSpawnerStackComplete(SpawnerStackEvent event) {
-        Player player = event.getPlayer();
-        Location location = event.getLocation();
-        int oldQuantity = event.getOldStackSize();
-        int newQuantity = event.getNewStackSize();
-        UUID playerUUID = player.getUniqueId();
+        long start = System.nanoTime();
+        try {
+            Player player = event.getPlayer();
+            Location location = event.getLocation();
+            int oldQuantity = event.getOldStackSize();
+            int newQuantity = event.getNewStackSize();
+            UUID playerUUID = player.getUniqueId();
 
-        // Update counts asynchronously
-        chunkLimitService.updateStackCount(location, oldQuantity, newQuantity);
-        playerLimitService.updateStackCount(playerUUID, oldQuantity, newQuantity);
+            // Update counts asynchronously, folded with the rest of this tick's changes
+            int difference = newQuantity - oldQuantity;
+            deltaBatcher.addChunkSpawners(location, difference);
+            if (difference > 0) {
+                deltaBatcher.addPlayerSpawners(playerUUID, difference);
+                String teamId = teamQuotaService.addSpawners(playerUUID, difference);
+                ownershipService.addSpawners(location, playerUUID, difference, null, teamId);
+            } else if (difference < 0) {
+                traceRemovals(TraceEvent.Type.STACK, player, location, difference,
+                    removeOwnedSpawners(location, playerUUID, -difference));
+            }
+        } finally {
+            stackCompleteTime.recordSince(start);
+        }
     }
 
     /**
@@ -175,14 +253,218 @@ public class SpawnerLimitListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onSpawnerRemove(SpawnerRemoveEvent event) {
-        Player player = event.getPlayer();
-        Location location = event.getLocation();
-        int changeAmount = event.getChangeAmount();
-        UUID playerUUID = player.getUniqueId();
-
-        // changeAmount is the difference (can be negative when removing)
-        chunkLimitService.removeSpawners(location, Math.abs(changeAmount));
-        playerLimitService.removeSpawners(playerUUID, Math.abs(changeAmount));
+        long start = System.nanoTime();
+        List<SpawnerOwnershipService.Removal> removals = List.of();
+        try {
+            Player player = event.getPlayer();
+            Location location = event.getLocation();
+            int changeAmount = event.getChangeAmount();
+            UUID playerUUID = player.getUniqueId();
+
+            // changeAmount is the difference (can be negative when removing)
+            deltaBatcher.addChunkSpawners(location, -Math.abs(changeAmount));
+            removals = removeOwnedSpawners(location, playerUUID, Math.abs(changeAmount));
+        } finally {
+            removeTime.recordSince(start);
+            traceRemovals(TraceEvent.Type.REMOVE, event.getPlayer(), event.getLocation(),
+                Math.abs(event.getChangeAmount()), removals);
+        }
+    }
+
+    /**
+     * Decrease player and team counts of the owners of removed spawners
+     * @return Amount taken per owner
+     */
+    private List<SpawnerOwnershipService.Removal> removeOwnedSpawners(Location location, UUID actor, int quantity) {
+        List<SpawnerOwnershipService.Removal> removals = ownershipService.removeSpawners(location, actor, quantity);
+        for (SpawnerOwnershipService.Removal removal : removals) {
+            deltaBatcher.addPlayerSpawners(removal.owner(), -removal.amount());
+            teamQuotaService.removeSpawners(removal.owner(), removal.amount(), removal.teamId());
+        }
+        return removals;
+    }
+
+    /**
+     * Check the chunk limit, world cap, area limit and player limit in turn, and tell the player the first one reached
+     * @return true if allowed, false otherwise
+     */
+    private boolean canPlaceSpawner(Player player, Location location, int quantity) {
+        LimitCheckEvent event = beginEvent();
+        LimitCheck check = chunkLimitService.checkSpawner(player, location, quantity);
+        commitEvent(event, "chunk", player, location, quantity, check);
+        if (!check.allowed()) {
+            denialNotifier.deny(player, DenialNotifier.Denial.CHUNK, check, null);
+            return false;
+        }
+
+        event = beginEvent();
+        check = worldCapService.checkSpawner(player, location, quantity);
+        commitEvent(event, "world", player, location, quantity, check);
+        if (!check.allowed()) {
+            denialNotifier.deny(player, DenialNotifier.Denial.WORLD, check, location.getWorld().getName());
+            return false;
+        }
+
+        // Area limit so farms can't spread over neighbouring chunks
+        event = beginEvent();
+        check = densityLimitService.checkSpawner(player, location, quantity);
+        commitEvent(event, "area", player, location, quantity, check);
+        if (!check.allowed()) {
+            int size = densityLimitService.getSize();
+            denialNotifier.deny(player, DenialNotifier.Denial.AREA, check, size + "x" + size);
+            return false;
+        }
+
+        event = beginEvent();
+        check = playerLimitService.checkSpawner(player, quantity);
+        commitEvent(event, "player", player, location, quantity, check);
+        if (!check.allowed()) {
+            denialNotifier.deny(player, DenialNotifier.Denial.PLAYER, check, null);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check the player's team pool and the server-wide cap, and tell the player when one is reached
+     * @return true if allowed, false otherwise
+     */
+    private boolean canPlacePooled(Player player, int quantity) {
+        TeamQuotaService.Result result = teamQuotaService.canPlaceSpawner(player, quantity);
+        if (result == TeamQuotaService.Result.ALLOWED) {
+            return true;
+        }
+
+        // Both counts were just read by the check, so these are cache hits
+        if (result == TeamQuotaService.Result.UNAVAILABLE) {
+            denialNotifier.deny(player, DenialNotifier.Denial.UNAVAILABLE, LimitCheck.UNAVAILABLE, null);
+        } else if (result == TeamQuotaService.Result.SERVER_LIMIT) {
+            denialNotifier.deny(player, DenialNotifier.Denial.SERVER,
+                teamQuotaService.getServerCount(), teamQuotaService.getServerCap(), null);
+        } else {
+            String teamId = teamQuotaService.getTeamId(player.getUniqueId());
+            if (teamId != null) {
+                denialNotifier.deny(player, DenialNotifier.Denial.TEAM,
+                    teamQuotaService.getTeamSpawnerCount(teamId), teamQuotaService.getTeamLimit(teamId), teamId);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check per-entity-type limits of the chunk and the player, and tell the player when one is reached
+     * @return true if allowed, false otherwise
+     */
+    private boolean canPlaceEntity(Player player, Location location, String entityType, int quantity) {
+        if (entityType == null || !chunkLimitService.getLimitRules().hasEntityRules()) {
+            return true;
+        }
+
+        LimitCheckEvent event = beginEvent();
+        LimitCheck check = chunkLimitService.checkEntity(player, location, entityType, quantity);
+        commitEvent(event, "chunk_entity", player, location, quantity, check);
+        if (check.allowed()) {
+            event = beginEvent();
+            check = playerLimitService.checkEntity(player, entityType, quantity);
+            commitEvent(event, "player_entity", player, location, quantity, check);
+        }
+        if (check.allowed()) {
+            return true;
+        }
+
+        denialNotifier.deny(player, DenialNotifier.Denial.ENTITY, check, entityType);
+        return false;
+    }
+
+    /**
+     * Start a limit check JFR event, or return null without allocating one while the event isn't recorded
+     */
+    private static LimitCheckEvent beginEvent() {
+        if (!LIMIT_CHECK_EVENT.isEnabled()) {
+            return null;
+        }
+        LimitCheckEvent event = new LimitCheckEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commit a limit check JFR event if it is being recorded
+     */
+    private void commitEvent(LimitCheckEvent event, String limitType, Player player, Location location,
+                             int quantity, LimitCheck check) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.limitType = limitType;
+        event.world = location.getWorld() != null ? location.getWorld().getName() : null;
+        event.chunkX = location.getBlockX() >> 4;
+        event.chunkZ = location.getBlockZ() >> 4;
+        event.player = player.getUniqueId().toString();
+        event.quantity = quantity;
+        event.result = check.allowed() ? "allowed" : check.unavailable() ? "unavailable" : "denied";
+        event.current = check.current();
+        event.limit = check.limit();
+        event.commit();
+    }
+
+    /**
+     * Add an event and its outcome to the trace if one is being recorded
+     */
+    private void trace(TraceEvent.Type type, UUID player, Location location, int quantity, boolean allowed) {
+        TraceRecorder recorder = plugin.getTraceRecorder();
+        if (recorder != null && location.getWorld() != null) {
+            recorder.record(type, player, location.getWorld().getName(),
+                location.getBlockX() >> 4, location.getBlockZ() >> 4, quantity, allowed);
+        }
+    }
+
+    /**
+     * Record a removal as one event per owner charged, so a replay takes each share off the right player
+     * @param quantity Spawners removed, negative for unstacking
+     * @param removals Shares taken per owner, empty to charge the actor with everything
+     */
+    private void traceRemovals(TraceEvent.Type type, Player actor, Location location, int quantity,
+                               List<SpawnerOwnershipService.Removal> removals) {
+        if (removals.isEmpty()) {
+            trace(type, actor.getUniqueId(), location, quantity, true);
+            return;
+        }
+        for (SpawnerOwnershipService.Removal removal : removals) {
+            trace(type, removal.owner(), location, quantity < 0 ? -removal.amount() : removal.amount(), true);
+        }
+    }
+
+    /**
+     * Get spawned entity type of the spawner item in the player's hand, or null if unknown
+     */
+    private String getHeldSpawnerType(Player player) {
+        for (ItemStack item : new ItemStack[]{player.getInventory().getItemInMainHand(), player.getInventory().getItemInOffHand()}) {
+            if (item != null && item.getItemMeta() instanceof BlockStateMeta meta && meta.hasBlockState()
+                    && meta.getBlockState() instanceof CreatureSpawner spawner) {
+                EntityType type = spawner.getSpawnedType();
+                if (type != null) {
+                    return type.name();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get spawned entity type from the placed block, or null if unknown
+     */
+    private String getSpawnedType(Location location) {
+        BlockState state = location.getBlock().getState(false);
+        if (state instanceof CreatureSpawner spawner) {
+            EntityType type = spawner.getSpawnedType();
+            return type != null ? type.name() : null;
+        }
+        return null;
     }
 }
 
@@ -0,0 +1,146 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.anvil.AnvilSpawnerImporter;
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.storage.ChunkCount;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seeds chunk counts of a world from its region files in the background.
+ * Stack sizes come from SmartSpawner's spawner list when it knows the spawner,
+ * otherwise from the block entity's persistent data, otherwise 1.
+ */
+public class AnvilImportService {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+    private final ChunkLimitService chunkLimitService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AnvilImportService(SSASpawnerLimiter plugin, DatabaseManager databaseManager, ChunkLimitService chunkLimitService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.chunkLimitService = chunkLimitService;
+    }
+
+    /**
+     * Get the region directory of a world, depending on its dimension
+     */
+    public static Path getRegionDirectory(World world) {
+        Path folder = world.getWorldFolder().toPath();
+        return switch (world.getEnvironment()) {
+            case NETHER -> folder.resolve("DIM-1").resolve("region");
+            case THE_END -> folder.resolve("DIM1").resolve("region");
+            default -> folder.resolve("region");
+        };
+    }
+
+    /**
+     * Scan a world's region files and replace its chunk counts (ASYNC)
+     * @param world The world to import
+     * @return CompletableFuture with the scan result, or null if an import is already running
+     */
+    public CompletableFuture<AnvilSpawnerImporter.ScanResult> importWorld(World world) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String worldName = world.getName();
+        Path regionDirectory = getRegionDirectory(world);
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (!Files.isDirectory(regionDirectory)) {
+                throw new IllegalStateException("No region directory at " + regionDirectory);
+            }
+
+            Map<BlockKey, Integer> knownStacks = getKnownStacks(worldName);
+            String stackSizeKey = plugin.getConfig().getString("anvil_import.stack_size_key", "smartspawner:stack_size");
+            int parallelism = Math.max(1, plugin.getConfig().getInt("anvil_import.parallelism",
+                Runtime.getRuntime().availableProcessors() / 2));
+
+            AnvilSpawnerImporter importer = new AnvilSpawnerImporter(stackSizeKey, parallelism);
+            AnvilSpawnerImporter.ScanResult result;
+            try {
+                result = importer.scan(regionDirectory, (x, y, z, nbtStackSize) ->
+                    knownStacks.getOrDefault(new BlockKey(worldName, x, y, z), nbtStackSize));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            List<ChunkCount> counts = new ArrayList<>(result.chunkCounts().size());
+            result.chunkCounts().forEach((key, count) -> {
+                if (count > 0) {
+                    counts.add(new ChunkCount(AnvilSpawnerImporter.chunkX(key), AnvilSpawnerImporter.chunkZ(key), count));
+                }
+            });
+
+            // The scan replaces the world's counts like a recount: changes still buffered are dropped, and writes
+            // already started land before the replace instead of on top of it
+            SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+            if (deltaBatcher != null) {
+                deltaBatcher.discardWorldDeltas(worldName);
+            }
+            chunkLimitService.awaitWrites(worldName).join();
+
+            if (!databaseManager.replaceSpawnerCounts(worldName, counts).join()) {
+                throw new IllegalStateException("Failed to write chunk counts");
+            }
+            chunkLimitService.clearCache();
+            if (plugin.getDensityLimitService() != null) {
+                plugin.getDensityLimitService().replaceWorld(worldName, counts);
+            }
+            if (plugin.getWorldCapService() != null) {
+                plugin.getWorldCapService().reconcile();
+            }
+
+            plugin.getLogger().info(String.format(
+                "Imported %s: %d regions (%.1f MB) in %d ms, %.1f regions/s, %d chunks read, %d skipped, %d spawners in %d chunks",
+                worldName, result.regions(), result.bytes() / (1024.0 * 1024.0), result.durationNanos() / 1_000_000L,
+                result.regionsPerSecond(), result.chunks(), result.skippedChunks(), result.spawners(), counts.size()
+            ));
+            return result;
+        }).whenComplete((result, throwable) -> running.set(false));
+    }
+
+    /**
+     * Stack sizes of the world's spawners known to SmartSpawner
+     */
+    private Map<BlockKey, Integer> getKnownStacks(String worldName) {
+        Map<BlockKey, Integer> stacks = new HashMap<>();
+        List<SpawnerDataDTO> spawners = plugin.getApi().getAllSpawners();
+        if (spawners == null) {
+            return stacks;
+        }
+
+        for (SpawnerDataDTO spawner : spawners) {
+            Location location = spawner.getLocation();
+            if (location != null && location.getWorld() != null && location.getWorld().getName().equals(worldName)) {
+                stacks.put(BukkitKeys.block(location), spawner.getStackSize());
+            }
+        }
+        return stacks;
+    }
+
+    /**
+     * Check if an import is currently running
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -1,34 +1,52 @@
 package github.io.ssaspawnerlimiter.service;
 
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.cache.CountCache;
+import github.io.ssaspawnerlimiter.core.jfr.VerificationScanEvent;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.limit.CountEngine;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.core.metrics.LatencyHistogram;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+import github.io.ssaspawnerlimiter.core.rules.LimitRules;
 import github.io.ssaspawnerlimiter.database.DatabaseManager;
-import github.io.ssaspawnerlimiter.util.ChunkKey;
+import github.io.ssaspawnerlimiter.sync.CacheSyncService;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
 import github.nighter.smartspawner.api.SmartSpawnerAPI;
 import github.nighter.smartspawner.api.data.SpawnerDataDTO;
 import lombok.Getter;
-import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service for managing chunk spawner limits with caching and thread-safety.
  * Designed to work efficiently with Folia's region-based threading.
  */
 public class ChunkLimitService {
+    // Verification times kept before expired ones are pruned on insert
+    private static final int MAX_VERIFIED_CHUNKS = 1024;
+
     private final SSASpawnerLimiter plugin;
     private final DatabaseManager databaseManager;
     private final SmartSpawnerAPI api;
 
-    // Thread-safe cache for chunk spawner counts
-    private final Map<ChunkKey, CacheEntry> chunkCache;
-    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    // Cached chunk spawner counts and the limit checks on them
+    private final CountEngine<ChunkKey> counts;
+    // When each chunk was last verified, for the verification cooldown
+    private final Map<ChunkKey, Long> lastVerified = new ConcurrentHashMap<>();
+    private final LongAdder verificationsPerformed;
+    private final LongAdder verificationsSkipped;
+    private final LatencyHistogram verifyScanTime;
 
     @Getter
     private boolean enabled;
@@ -36,13 +54,28 @@ public class ChunkLimitService {
     private int maxSpawnersPerChunk;
     @Getter
     private boolean verifyChunkCountOnCheck;
-    private final long cacheExpirationMs = 300 * 1000L; // 5 minutes
+    @Getter
+    private volatile LimitRules limitRules;
+    private double verifyNearLimitFraction;
+    private long verifyMaxAgeMs;
+    private long verifyCooldownMs;
 
     public ChunkLimitService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.databaseManager = databaseManager;
         this.api = plugin.getApi();
-        this.chunkCache = new ConcurrentHashMap<>();
+        this.counts = CountEngine.<ChunkKey>builder(
+                key -> databaseManager.awaitCount(() -> databaseManager.getSpawnerCount(key.world(), key.x(), key.z())))
+            .unavailableCount(stale -> databaseManager.getUnavailableCount(stale))
+            .pendingDelta(this::getPendingDelta)
+            .degraded(this::isDegraded)
+            .counters(plugin.getMetricsRegistry().counter("cache.chunk.hit"),
+                plugin.getMetricsRegistry().counter("cache.chunk.miss"))
+            .expirationMs(300 * 1000L) // 5 minutes
+            .build();
+        this.verifyScanTime = plugin.getMetricsRegistry().histogram("verify.scan");
+        this.verificationsPerformed = plugin.getMetricsRegistry().counter("verify.performed");
+        this.verificationsSkipped = plugin.getMetricsRegistry().counter("verify.skipped");
         loadSpawnerLimit();
     }
 
@@ -53,7 +86,82 @@ public class ChunkLimitService {
         if (verifyChunkCountOnCheck) {
             plugin.getLogger().info("Chunk spawner count verification is ENABLED. You can disable it after all chunks are verified to improve performance.");
         }
+        this.verifyNearLimitFraction = Math.max(0.0, Math.min(1.0,
+            plugin.getConfig().getDouble("verify_policy.near_limit_fraction", 0.9)));
+        this.verifyMaxAgeMs = Math.max(0L, plugin.getConfig().getLong("verify_policy.max_cache_age_seconds", 120L)) * 1000L;
+        this.verifyCooldownMs = Math.max(0L, plugin.getConfig().getLong("verify_policy.cooldown_seconds", 5L)) * 1000L;
+        this.limitRules = compileLimitRules(plugin.getConfig().getConfigurationSection("limit_rules"));
+    }
+
+    /**
+     * Compile the limit_rules section into lookup tables
+     */
+    private LimitRules compileLimitRules(ConfigurationSection section) {
+        List<String> entityTypes = Arrays.stream(EntityType.values()).map(Enum::name).toList();
+        LimitRules.Builder builder = LimitRules.builder(maxSpawnersPerChunk, entityTypes);
+        if (section == null) {
+            return builder.build();
+        }
+
+        ConfigurationSection worlds = section.getConfigurationSection("worlds");
+        if (worlds != null) {
+            for (String world : worlds.getKeys(false)) {
+                ConfigurationSection worldSection = worlds.getConfigurationSection(world);
+                if (worldSection == null) {
+                    continue;
+                }
+                if (worldSection.isInt("max_spawners_per_chunk")) {
+                    builder.worldChunkLimit(world, worldSection.getInt("max_spawners_per_chunk"));
+                }
+                ConfigurationSection entities = worldSection.getConfigurationSection("entities");
+                if (entities != null) {
+                    for (String entity : entities.getKeys(false)) {
+                        String type = entityName(entity, entityTypes);
+                        if (type != null) {
+                            builder.worldEntityChunkLimit(world, type, entities.getInt(entity));
+                        }
+                    }
+                }
+            }
+        }
 
+        ConfigurationSection entities = section.getConfigurationSection("entities");
+        if (entities != null) {
+            for (String entity : entities.getKeys(false)) {
+                String type = entityName(entity, entityTypes);
+                ConfigurationSection entitySection = entities.getConfigurationSection(entity);
+                if (type == null || entitySection == null) {
+                    continue;
+                }
+                if (entitySection.isInt("per_chunk")) {
+                    builder.entityChunkLimit(type, entitySection.getInt("per_chunk"));
+                }
+                if (entitySection.isInt("per_player")) {
+                    builder.entityPlayerLimit(type, entitySection.getInt("per_player"));
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+    private String entityName(String name, List<String> entityTypes) {
+        String type = name.toUpperCase(Locale.ROOT);
+        if (!entityTypes.contains(type)) {
+            plugin.getLogger().warning("Unknown entity type in limit_rules: " + name);
+            return null;
+        }
+        return type;
+    }
+
+    /**
+     * Get the per-chunk spawner limit of a world
+     * @param world World name
+     * @return the limit
+     */
+    public int getMaxSpawnersPerChunk(String world) {
+        LimitRules rules = limitRules;
+        return rules.chunkLimit(rules.worldId(world), LimitRules.ANY_ENTITY);
     }
 
     /**
@@ -64,21 +172,86 @@ public class ChunkLimitService {
      * @return true if allowed, false otherwise
      */
     public boolean canPlaceSpawner(Player player, Location location, int quantity) {
+        return checkSpawner(player, location, quantity).allowed();
+    }
+
+    /**
+     * Check if a player can place spawners in a chunk (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param quantity The quantity being placed
+     * @return the outcome, with the chunk count and limit when denied
+     */
+    public LimitCheck checkSpawner(Player player, Location location, int quantity) {
         if (!enabled) {
-            return true;
+            return LimitCheck.ALLOWED;
         }
 
         // Check bypass permission (hardcoded for simplicity)
         if (player.hasPermission("ssaspawnerlimiter.bypass")) {
-            return true;
+            return LimitCheck.ALLOWED;
+        }
+
+        ChunkKey key = BukkitKeys.chunk(location);
+
+        int limit = getMaxSpawnersPerChunk(key.world());
+        int currentCount = getCheckedCount(key, quantity, limit);
+        if (currentCount < 0) {
+            return LimitCheck.UNAVAILABLE;
+        }
+        return LimitCheck.of(currentCount, quantity, limit);
+    }
+
+    /**
+     * Check the per-chunk limit of one entity type (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param entityType Spawned entity type, or null if unknown
+     * @param quantity The quantity being placed
+     * @return true if allowed, false otherwise
+     */
+    public boolean canPlaceEntity(Player player, Location location, String entityType, int quantity) {
+        return checkEntity(player, location, entityType, quantity).allowed();
+    }
+
+    /**
+     * Check the per-chunk limit of one entity type (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param entityType Spawned entity type, or null if unknown
+     * @param quantity The quantity being placed
+     * @return the outcome, with the chunk's count of the type and its limit when denied
+     */
+    public LimitCheck checkEntity(Player player, Location location, String entityType, int quantity) {
+        if (!enabled || entityType == null) {
+            return LimitCheck.ALLOWED;
         }
 
-        Chunk chunk = location.getChunk();
-        ChunkKey key = new ChunkKey(chunk);
+        LimitRules rules = limitRules;
+        ChunkKey key = BukkitKeys.chunk(location);
+        int limit = rules.chunkLimit(rules.worldId(key.world()), rules.entityId(entityType));
+        if (limit == LimitRules.UNLIMITED || player.hasPermission("ssaspawnerlimiter.bypass")) {
+            return LimitCheck.ALLOWED;
+        }
 
-        int currentCount = getSpawnerCount(key);
-        int newCount = currentCount + quantity;
-        return newCount <= maxSpawnersPerChunk;
+        return LimitCheck.of(getEntityCount(key, entityType), quantity, limit);
+    }
+
+    /**
+     * Get the per-chunk limit of one entity type
+     * @return the limit, or {@link LimitRules#UNLIMITED}
+     */
+    public int getEntityLimit(String world, String entityType) {
+        LimitRules rules = limitRules;
+        return rules.chunkLimit(rules.worldId(world), rules.entityId(entityType));
+    }
+
+    /**
+     * Get number of spawners of one entity type in a chunk, from the ownership index
+     */
+    public int getEntityCount(ChunkKey key, String entityType) {
+        SpawnerOwnershipService ownershipService = plugin.getSpawnerOwnershipService();
+        return ownershipService != null ? ownershipService.getChunkEntityCount(key, entityType) : 0;
     }
 
     /**
@@ -95,22 +268,91 @@ public class ChunkLimitService {
             }
         }
 
-        CacheEntry cached = getCachedCount(key);
-        if (cached != null && !cached.isExpired()) {
-            return cached.count;
+        return Math.max(0, counts.storedCount(key));
+    }
+
+    /**
+     * Get spawner count of a chunk for a limit check (SYNC).
+     * The chunk is only verified when the check could come out differently: the stored count plus the quantity is
+     * within {@code verify_policy.near_limit_fraction} of the limit, or the cached count is older than
+     * {@code verify_policy.max_cache_age_seconds}. A chunk isn't verified again within its cooldown.
+     * @param key The chunk key
+     * @param quantity The quantity being placed
+     * @param limit The chunk limit
+     * @return current count, including changes not written yet unless it was verified, or -1 if unavailable
+     */
+    private int getCheckedCount(ChunkKey key, int quantity, int limit) {
+        long start = System.nanoTime();
+        long verifyNanos = 0;
+        if (verifyChunkCountOnCheck && isDegraded()) {
+            verificationsSkipped.increment();
+        } else if (verifyChunkCountOnCheck) {
+            long now = System.currentTimeMillis();
+            CountCache.Entry cached = counts.cached(key);
+            boolean stale = cached == null || now - cached.timestamp() > verifyMaxAgeMs;
+            boolean nearLimit = cached != null
+                && cached.count() + getPendingDelta(key) + (long) quantity >= limit * verifyNearLimitFraction;
+
+            if (stale || nearLimit) {
+                Long verifiedAt = lastVerified.get(key);
+                if (verifiedAt == null || now - verifiedAt >= verifyCooldownMs) {
+                    lastVerified.put(key, now);
+                    if (lastVerified.size() > MAX_VERIFIED_CHUNKS) {
+                        lastVerified.values().removeIf(time -> now - time >= verifyCooldownMs);
+                    }
+                    verificationsPerformed.increment();
+                    // A verified count already reflects the world, only stored counts lag behind buffered deltas
+                    long verifyStart = System.nanoTime();
+                    int actualCount = verifyAndUpdateChunkCount(key);
+                    verifyNanos = System.nanoTime() - verifyStart;
+                    if (actualCount >= 0) {
+                        logIfSlow(key, start, verifyNanos, 0);
+                        return actualCount;
+                    }
+                } else {
+                    verificationsSkipped.increment();
+                }
+            } else {
+                verificationsSkipped.increment();
+            }
         }
 
-        // Cache miss or expired, fetch from database synchronously
-        try {
-            int count = databaseManager.getSpawnerCount(key.world(), key.x(), key.z()).get();
-            updateCache(key, count);
-            return count;
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error getting spawner count for chunk " + key + ": " + e.getMessage());
-            return 0;
+        long readStart = System.nanoTime();
+        // Pending first: a write completing in between is then counted twice rather than not at all
+        int pending = getPendingDelta(key);
+        int storedCount = counts.storedCount(key);
+        logIfSlow(key, start, verifyNanos, System.nanoTime() - readStart);
+        return storedCount < 0 ? -1 : storedCount + pending;
+    }
+
+    /**
+     * Log a chunk check to the slow operation log if it took too long
+     * @param readNanos Time spent reading the count from the cache or, on a miss, the database
+     */
+    private void logIfSlow(ChunkKey key, long startNanos, long verifyNanos, long readNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (plugin.getSlowOperationLog().isSlow(SlowOperationLog.Category.LIMIT_CHECK, elapsed)) {
+            plugin.getSlowOperationLog().entry("chunk_check", key, elapsed)
+                .phase("verify", verifyNanos)
+                .phase("read", readNanos)
+                .submit();
         }
     }
 
+    /**
+     * Get number of chunk verifications run by limit checks since startup
+     */
+    public long getVerificationsPerformed() {
+        return verificationsPerformed.sum();
+    }
+
+    /**
+     * Get number of limit checks that skipped verification since startup
+     */
+    public long getVerificationsSkipped() {
+        return verificationsSkipped.sum();
+    }
+
     /**
      * Verify and update chunk count by checking actual spawners in the chunk
      * Uses SmartSpawner API to get all spawners and filter by chunk
@@ -120,32 +362,35 @@ public class ChunkLimitService {
      * @return actual count, or -1 if verification failed
      */
     private int verifyAndUpdateChunkCount(ChunkKey key) {
+        long start = System.nanoTime();
+        VerificationScanEvent event = new VerificationScanEvent();
+        event.begin();
+        int scanned = 0;
+        int counted = -1;
+        long fetchNanos = 0;
         try {
             // Get all spawners from API (cached by SmartSpawner)
             List<SpawnerDataDTO> allSpawners = api.getAllSpawners();
+            fetchNanos = System.nanoTime() - start;
 
             if (allSpawners == null) {
                 return -1;
             }
+            scanned = allSpawners.size();
+
+            int actualCount = countSpawnersInChunk(allSpawners, key);
 
-            // Filter spawners in this chunk and sum their stack sizes
-            int actualCount = allSpawners.stream()
-                .filter(spawner -> {
-                    Location loc = spawner.getLocation();
-                    return loc != null
-                        && loc.getWorld() != null
-                        && loc.getWorld().getName().equals(key.world())
-                        && (loc.getBlockX() >> 4) == key.x()
-                        && (loc.getBlockZ() >> 4) == key.z();
-                })
-                .mapToInt(SpawnerDataDTO::getStackSize)
-                .sum();
+            // The recount already includes changes still buffered for this chunk, written after the set they would
+            // be counted twice. Drained ones are written before the set, which is queued behind them.
+            SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+            if (deltaBatcher != null) {
+                deltaBatcher.discardChunkDelta(key);
+            }
 
             // Update database and cache with actual count
-            databaseManager.setSpawnerCount(key.world(), key.x(), key.z(), actualCount)
+            setSpawnerCount(key, actualCount)
                 .thenAccept(success -> {
                     if (success) {
-                        updateCache(key, actualCount);
                         if (plugin.getConfig().getBoolean("debug", false)) {
                             plugin.getLogger().info(String.format(
                                 "[VERIFY] Chunk %s actual count: %d", key, actualCount
@@ -154,26 +399,93 @@ public class ChunkLimitService {
                     }
                 });
 
+            counted = actualCount;
             return actualCount;
 
         } catch (Exception e) {
             plugin.getLogger().warning("Error verifying chunk count for " + key + ": " + e.getMessage());
             return -1;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            verifyScanTime.record(elapsed);
+            if (plugin.getSlowOperationLog().isSlow(SlowOperationLog.Category.VERIFICATION, elapsed)) {
+                plugin.getSlowOperationLog().entry("verification", key, elapsed)
+                    .phase("fetch", fetchNanos)
+                    .phase("scan", elapsed - fetchNanos)
+                    .submit();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.world = key.world();
+                event.chunkX = key.x();
+                event.chunkZ = key.z();
+                event.spawnersScanned = scanned;
+                event.counted = counted;
+                event.commit();
+            }
         }
     }
 
+    /**
+     * Sum stack sizes of the spawners in a chunk
+     * @param spawners All spawners, as returned by SmartSpawner
+     * @param key The chunk
+     * @return total stack size of the chunk's spawners
+     */
+    static int countSpawnersInChunk(List<SpawnerDataDTO> spawners, ChunkKey key) {
+        return spawners.stream()
+            .filter(spawner -> {
+                Location loc = spawner.getLocation();
+                return loc != null
+                    && loc.getWorld() != null
+                    && loc.getWorld().getName().equals(key.world())
+                    && (loc.getBlockX() >> 4) == key.x()
+                    && (loc.getBlockZ() >> 4) == key.z();
+            })
+            .mapToInt(SpawnerDataDTO::getStackSize)
+            .sum();
+    }
+
     /**
      * Add spawners to a chunk count (ASYNC - for background database update)
      * @param location The location of the spawner
      * @param quantity The quantity to add
      */
     public void addSpawners(Location location, int quantity) {
-        Chunk chunk = location.getChunk();
-        ChunkKey key = new ChunkKey(chunk);
+        ChunkKey key = BukkitKeys.chunk(location);
 
-        databaseManager.incrementSpawnerCount(key.world(), key.x(), key.z(), quantity)
+        WorldCapService worldCapService = plugin.getWorldCapService();
+        if (worldCapService != null) {
+            worldCapService.add(key.world(), quantity);
+        }
+
+        writeDelta(key, quantity);
+        // After the write is queued, so an earlier write completing in between leaves the index alone
+        DensityLimitService densityLimitService = plugin.getDensityLimitService();
+        if (densityLimitService != null) {
+            densityLimitService.onChunkDelta(key, quantity);
+        }
+    }
+
+    /**
+     * Write a chunk count delta whose world total and area density were already applied (ASYNC database update)
+     * @param key The chunk key
+     * @param quantity The quantity to add (negative to remove)
+     * @return CompletableFuture completing once the cache holds the written count
+     */
+    public CompletableFuture<Void> writeDelta(ChunkKey key, int quantity) {
+        return counts.write(key, () -> databaseManager.incrementSpawnerCount(key.world(), key.x(), key.z(), quantity))
             .thenAccept(newCount -> {
-                updateCache(key, newCount);
+                if (newCount >= 0) {
+                    correctDensity(key, newCount);
+                    publishChange(key, newCount);
+                } else {
+                    // Not stored, take it back out of the area
+                    DensityLimitService densityLimitService = plugin.getDensityLimitService();
+                    if (densityLimitService != null) {
+                        densityLimitService.onChunkDelta(key, -quantity);
+                    }
+                }
             });
     }
 
@@ -204,12 +516,15 @@ public class ChunkLimitService {
      * @return CompletableFuture indicating success
      */
     public CompletableFuture<Boolean> setSpawnerCount(ChunkKey key, int count) {
-        return databaseManager.setSpawnerCount(key.world(), key.x(), key.z(), count)
-            .thenApply(success -> {
-                if (success) {
-                    updateCache(key, count);
+        return counts.write(key, () -> databaseManager.setSpawnerCount(key.world(), key.x(), key.z(), count)
+                .thenApply(success -> success ? count : -1))
+            .thenApply(written -> {
+                if (written < 0) {
+                    return false;
                 }
-                return success;
+                correctDensity(key, written);
+                publishChange(key, written);
+                return true;
             });
     }
 
@@ -222,86 +537,119 @@ public class ChunkLimitService {
         return databaseManager.deleteChunkData(key.world(), key.x(), key.z())
             .thenApply(success -> {
                 if (success) {
-                    invalidateCache(key);
+                    counts.invalidate(key);
+                    lastVerified.remove(key);
+                    updateDensity(key, -1);
+                    publishChange(key, -1);
                 }
                 return success;
             });
     }
 
     /**
-     * Get cached count for a chunk
+     * Check if the load governor currently has expensive paths turned off
      */
-    private CacheEntry getCachedCount(ChunkKey key) {
-        cacheLock.readLock().lock();
-        try {
-            return chunkCache.get(key);
-        } finally {
-            cacheLock.readLock().unlock();
+    private boolean isDegraded() {
+        LoadGovernor loadGovernor = plugin.getLoadGovernor();
+        return loadGovernor != null && loadGovernor.isDegraded();
+    }
+
+    /**
+     * Get the net increase of a chunk that is buffered or not yet written
+     */
+    private int getPendingDelta(ChunkKey key) {
+        SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+        return deltaBatcher != null ? deltaBatcher.getPendingChunkDelta(key) : 0;
+    }
+
+    /**
+     * Correct the area density index with a written count, once no other change of the chunk is buffered or being
+     * written. Those are already in the index but not in the count.
+     */
+    private void correctDensity(ChunkKey key, int count) {
+        SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+        if (!counts.isWriting(key) && (deltaBatcher == null || deltaBatcher.getBufferedChunkDelta(key) == 0)) {
+            updateDensity(key, count);
         }
     }
 
     /**
-     * Update cache with new count
+     * Feed a known count into the area density index
+     * @param count New count, negative if the chunk was reset
      */
-    private void updateCache(ChunkKey key, int count) {
-        cacheLock.writeLock().lock();
-        try {
-            chunkCache.put(key, new CacheEntry(count, System.currentTimeMillis()));
-        } finally {
-            cacheLock.writeLock().unlock();
+    private void updateDensity(ChunkKey key, int count) {
+        DensityLimitService densityLimitService = plugin.getDensityLimitService();
+        if (densityLimitService != null) {
+            densityLimitService.onChunkCount(key, count);
         }
     }
 
     /**
-     * Invalidate cache for a chunk
+     * Apply a count written by another server sharing the storage backend.
+     * Ignored when the local entry was written later. The world total moves by the difference to the count cached
+     * here, and the density index keeps this server's buffered changes on top of the new count.
+     * @param key The chunk key
+     * @param count New count, negative to drop the entry
+     * @param writtenAt When the other server wrote the count (epoch millis)
      */
-    private void invalidateCache(ChunkKey key) {
-        cacheLock.writeLock().lock();
-        try {
-            chunkCache.remove(key);
-        } finally {
-            cacheLock.writeLock().unlock();
+    public void applyRemoteCount(ChunkKey key, int count, long writtenAt) {
+        CountCache.Entry previous = counts.cached(key);
+        if (!counts.applyRemote(key, count, writtenAt) && count >= 0) {
+            return;
+        }
+
+        // Without a cached count the change is unknown, the next reconciliation picks it up
+        WorldCapService worldCapService = plugin.getWorldCapService();
+        if (worldCapService != null && previous != null) {
+            worldCapService.add(key.world(), Math.max(0, count) - previous.count());
+        }
+
+        SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+        int buffered = deltaBatcher != null ? deltaBatcher.getBufferedChunkDelta(key) : 0;
+        updateDensity(key, count < 0 ? count : Math.max(0, count + buffered));
+    }
+
+    /**
+     * Queue a written count for other servers sharing the storage backend
+     * @param count New count, negative if the entry should be dropped
+     */
+    private void publishChange(ChunkKey key, int count) {
+        CacheSyncService cacheSyncService = plugin.getCacheSyncService();
+        if (cacheSyncService != null) {
+            cacheSyncService.recordChunk(key, count);
         }
     }
 
+    /**
+     * Get a future completing once the chunk count writes of a world that are in flight are done
+     */
+    public CompletableFuture<Void> awaitWrites(String world) {
+        return counts.awaitWrites(key -> key.world().equals(world));
+    }
+
     /**
      * Clear all cache entries
      */
     public void clearCache() {
-        cacheLock.writeLock().lock();
-        try {
-            chunkCache.clear();
-            plugin.getLogger().info("Cache cleared");
-        } finally {
-            cacheLock.writeLock().unlock();
-        }
+        counts.clear();
+        lastVerified.clear();
+        plugin.getLogger().info("Cache cleared");
     }
 
     /**
      * Clean up expired cache entries
      */
     public void cleanupExpiredCache() {
-        cacheLock.writeLock().lock();
-        try {
-            long now = System.currentTimeMillis();
-            chunkCache.entrySet().removeIf(entry ->
-                now - entry.getValue().timestamp > cacheExpirationMs
-            );
-        } finally {
-            cacheLock.writeLock().unlock();
-        }
+        long now = System.currentTimeMillis();
+        counts.removeExpired();
+        lastVerified.values().removeIf(verifiedAt -> now - verifiedAt >= verifyCooldownMs);
     }
 
     /**
      * Get cache size
      */
     public int getCacheSize() {
-        cacheLock.readLock().lock();
-        try {
-            return chunkCache.size();
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+        return counts.size();
     }
 
     /**
@@ -314,23 +662,6 @@ public class ChunkLimitService {
         );
     }
 
-    /**
-     * Cache entry with expiration
-     */
-    private class CacheEntry {
-        final int count;
-        final long timestamp;
-
-        CacheEntry(int count, long timestamp) {
-            this.count = count;
-            this.timestamp = timestamp;
-        }
-
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > cacheExpirationMs;
-        }
-    }
-
     /**
      * Statistics record
      */
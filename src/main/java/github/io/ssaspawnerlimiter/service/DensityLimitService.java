@@ -0,0 +1,170 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.core.spatial.ChunkDensityIndex;
+import github.io.ssaspawnerlimiter.core.storage.ChunkCount;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Limits the total spawners in an area of chunks, so farms can't dodge the chunk limit by spreading
+ * over neighbouring chunks. Counts of all chunks are kept in a per-world {@link ChunkDensityIndex}.
+ * Changes are applied as they happen, like world totals, and counts {@link ChunkLimitService} writes correct them.
+ */
+public class DensityLimitService {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+
+    private final Map<String, ChunkDensityIndex> indexes = new ConcurrentHashMap<>();
+
+    @Getter
+    private boolean enabled;
+    @Getter
+    private Mode mode;
+    @Getter
+    private int size;
+    @Getter
+    private int maxSpawners;
+
+    /**
+     * Shape of the limited area
+     */
+    public enum Mode {
+        // NxN chunks centered on the chunk being placed in
+        NEIGHBOURHOOD,
+        // Fixed NxN chunk grid cell containing the chunk
+        GRID
+    }
+
+    public DensityLimitService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("density_limit.enabled", false);
+        this.size = Math.max(1, plugin.getConfig().getInt("density_limit.size", 5));
+        this.maxSpawners = plugin.getConfig().getInt("density_limit.max_spawners", 3000);
+
+        String modeName = plugin.getConfig().getString("density_limit.mode", "NEIGHBOURHOOD");
+        try {
+            this.mode = Mode.valueOf(modeName.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown density_limit.mode: " + modeName + ", using NEIGHBOURHOOD");
+            this.mode = Mode.NEIGHBOURHOOD;
+        }
+        if (mode == Mode.NEIGHBOURHOOD && size % 2 == 0) {
+            size++;
+            plugin.getLogger().warning("density_limit.size must be odd in NEIGHBOURHOOD mode, using " + size);
+        }
+    }
+
+    /**
+     * Load all chunk counts from the database (blocks, call off the main thread)
+     * @return true if loaded, false otherwise
+     */
+    public boolean load() {
+        Map<String, List<ChunkCount>> counts = databaseManager.getAllSpawnerCounts().join();
+        if (counts == null) {
+            return false;
+        }
+
+        indexes.clear();
+        counts.forEach(this::replaceWorld);
+        plugin.getLogger().info("Loaded density index for " + counts.size() + " worlds");
+        return true;
+    }
+
+    /**
+     * Replace all counts of a world, e.g. after a region file import
+     * @param world World name
+     * @param counts New chunk counts
+     */
+    public void replaceWorld(String world, List<ChunkCount> counts) {
+        ChunkDensityIndex index = new ChunkDensityIndex();
+        for (ChunkCount count : counts) {
+            index.set(count.chunkX(), count.chunkZ(), count.count());
+        }
+        indexes.put(world, index);
+    }
+
+    /**
+     * Record the current count of a chunk
+     * @param key The chunk key
+     * @param count The count, negative if the chunk was reset
+     */
+    public void onChunkCount(ChunkKey key, int count) {
+        indexes.computeIfAbsent(key.world(), k -> new ChunkDensityIndex()).set(key.x(), key.z(), count);
+    }
+
+    /**
+     * Apply a change to the count of a chunk before it is written
+     * @param key The chunk key
+     * @param delta Count change
+     */
+    public void onChunkDelta(ChunkKey key, int delta) {
+        indexes.computeIfAbsent(key.world(), k -> new ChunkDensityIndex()).add(key.x(), key.z(), delta);
+    }
+
+    /**
+     * Check if a player can place spawners without exceeding the area limit (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param quantity The quantity being placed
+     * @return true if allowed, false otherwise
+     */
+    public boolean canPlaceSpawner(Player player, Location location, int quantity) {
+        return checkSpawner(player, location, quantity).allowed();
+    }
+
+    /**
+     * Check if a player can place spawners without exceeding the area limit (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param quantity The quantity being placed
+     * @return the outcome, with the area count and limit when denied
+     */
+    public LimitCheck checkSpawner(Player player, Location location, int quantity) {
+        if (!enabled) {
+            return LimitCheck.ALLOWED;
+        }
+
+        if (player.hasPermission("ssaspawnerlimiter.bypass")) {
+            return LimitCheck.ALLOWED;
+        }
+
+        return LimitCheck.of(getAreaCount(BukkitKeys.chunk(location)), quantity, maxSpawners);
+    }
+
+    /**
+     * Get total spawner count of the area containing a chunk
+     * @param key The chunk key
+     * @return current count
+     */
+    public long getAreaCount(ChunkKey key) {
+        ChunkDensityIndex index = indexes.get(key.world());
+        if (index == null) {
+            return 0;
+        }
+
+        if (mode == Mode.GRID) {
+            int minX = Math.floorDiv(key.x(), size) * size;
+            int minZ = Math.floorDiv(key.z(), size) * size;
+            return index.sum(minX, minZ, minX + size - 1, minZ + size - 1);
+        }
+
+        int radius = size / 2;
+        return index.sum(key.x() - radius, key.z() - radius, key.x() + radius, key.z() + radius);
+    }
+}
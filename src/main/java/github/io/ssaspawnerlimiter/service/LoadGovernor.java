@@ -0,0 +1,127 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+
+/**
+ * Samples the server's tick duration (MSPT) and switches the limiter into a degraded mode while the server is behind.
+ * In degraded mode the expensive synchronous paths are turned off: checks skip chunk verification, serve expired
+ * cache entries and remembered permission limits instead of blocking on the database or scanning permissions,
+ * and periodic reconciliation is deferred. Separate enter and exit thresholds keep the mode from flapping.
+ */
+public class LoadGovernor {
+    private static final long SAMPLE_INTERVAL_TICKS = 20L;
+    // Weight of the newest sample when MSPT is measured from tick intervals
+    private static final double SMOOTHING = 0.3;
+
+    private final SSASpawnerLimiter plugin;
+
+    @Getter
+    private boolean enabled;
+    private double degradeMspt;
+    private double restoreMspt;
+
+    @Getter
+    private volatile Mode mode = Mode.NORMAL;
+    @Getter
+    private volatile double mspt;
+
+    // Whether Bukkit.getAverageTickTime() works on this server, otherwise tick intervals are measured
+    private boolean averageTickTimeSupported = true;
+    private long lastSampleNanos;
+    private Scheduler.Task sampleTask;
+
+    /**
+     * Operating mode of the limiter
+     */
+    public enum Mode {
+        NORMAL,
+        DEGRADED
+    }
+
+    public LoadGovernor(SSASpawnerLimiter plugin) {
+        this.plugin = plugin;
+        loadConfiguration();
+
+        plugin.getMetricsRegistry().gauge("load.degraded", () -> isDegraded() ? 1 : 0);
+        plugin.getMetricsRegistry().gauge("load.mspt", () -> Math.round(mspt));
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("load_governor.enabled", true);
+        this.degradeMspt = Math.max(1.0, plugin.getConfig().getDouble("load_governor.degrade_mspt", 45.0));
+        this.restoreMspt = Math.min(degradeMspt, Math.max(0.0, plugin.getConfig().getDouble("load_governor.restore_mspt", 35.0)));
+        if (!enabled && mode != Mode.NORMAL) {
+            setMode(Mode.NORMAL);
+        }
+    }
+
+    /**
+     * Start sampling tick duration
+     */
+    public void start() {
+        lastSampleNanos = System.nanoTime();
+        sampleTask = Scheduler.runTaskTimer(this::sample, SAMPLE_INTERVAL_TICKS, SAMPLE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stop sampling tick duration
+     */
+    public void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+        }
+    }
+
+    /**
+     * Check if expensive checks should be skipped right now
+     */
+    public boolean isDegraded() {
+        return mode == Mode.DEGRADED;
+    }
+
+    private void sample() {
+        mspt = measureMspt();
+        if (!enabled) {
+            return;
+        }
+
+        if (mode == Mode.NORMAL && mspt >= degradeMspt) {
+            setMode(Mode.DEGRADED);
+        } else if (mode == Mode.DEGRADED && mspt <= restoreMspt) {
+            setMode(Mode.NORMAL);
+        }
+    }
+
+    private double measureMspt() {
+        long now = System.nanoTime();
+        double intervalMspt = (now - lastSampleNanos) / 1_000_000.0 / SAMPLE_INTERVAL_TICKS;
+        lastSampleNanos = now;
+
+        if (averageTickTimeSupported) {
+            try {
+                return Bukkit.getAverageTickTime();
+            } catch (UnsupportedOperationException | NoSuchMethodError e) {
+                // Folia has no global tick, fall back to how long our own ticks take to come around
+                averageTickTimeSupported = false;
+                plugin.getLogger().info("Average tick time is not available, measuring MSPT from tick intervals");
+            }
+        }
+        return mspt == 0 ? intervalMspt : mspt + SMOOTHING * (intervalMspt - mspt);
+    }
+
+    private void setMode(Mode newMode) {
+        Mode oldMode = mode;
+        mode = newMode;
+        if (newMode == Mode.DEGRADED) {
+            plugin.getLogger().warning(String.format(
+                "Server is behind (%.1f mspt), switching from %s to %s mode: skipping chunk verification, "
+                    + "serving cached counts and deferring reconciliation", mspt, oldMode, newMode));
+        } else {
+            plugin.getLogger().info(String.format(
+                "Server load recovered (%.1f mspt), switching from %s to %s mode", mspt, oldMode, newMode));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package github.io.ssaspawnerlimiter.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.metrics.PrometheusFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * Exports the metrics registry in Prometheus text format, either from an embedded HTTP endpoint or by periodically
+ * rewriting a file for node-exporter's textfile collector. Rendering always runs off the server threads: scrapes on
+ * the endpoint's own thread, file writes on the async scheduler.
+ */
+public class MetricsExporter {
+    private static final String METRIC_PREFIX = "ssaspawnerlimiter";
+
+    private final SSASpawnerLimiter plugin;
+
+    private Mode mode = Mode.NONE;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private Scheduler.Task fileTask;
+
+    /**
+     * Where metrics are exported to
+     */
+    public enum Mode {
+        NONE,
+        HTTP,
+        FILE
+    }
+
+    public MetricsExporter(SSASpawnerLimiter plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start exporting as configured
+     */
+    public void start() {
+        String configured = plugin.getConfig().getString("metrics_export.mode", "NONE");
+        try {
+            mode = Mode.valueOf(configured.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown metrics_export.mode '" + configured + "', metrics are not exported");
+            mode = Mode.NONE;
+        }
+
+        switch (mode) {
+            case HTTP -> startHttp();
+            case FILE -> startFile();
+            case NONE -> { }
+        }
+    }
+
+    /**
+     * Stop exporting
+     */
+    public void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+        if (fileTask != null) {
+            fileTask.cancel();
+            fileTask = null;
+        }
+        mode = Mode.NONE;
+    }
+
+    /**
+     * Restart with the current configuration
+     */
+    public void reload() {
+        stop();
+        start();
+    }
+
+    private void startHttp() {
+        String host = plugin.getConfig().getString("metrics_export.http.host", "127.0.0.1");
+        int port = plugin.getConfig().getInt("metrics_export.http.port", 9464);
+        String path = plugin.getConfig().getString("metrics_export.http.path", "/metrics");
+
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to bind metrics endpoint on " + host + ":" + port, e);
+            mode = Mode.NONE;
+            return;
+        }
+
+        httpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SSASpawnerLimiter-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext(path, this::handleScrape);
+        httpServer.start();
+        plugin.getLogger().info("Serving metrics on http://" + host + ":" + port + path);
+    }
+
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = PrometheusFormat.render(plugin.getMetricsRegistry(), METRIC_PREFIX)
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PrometheusFormat.CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void startFile() {
+        Path file = plugin.getDataFolder().toPath()
+            .resolve(plugin.getConfig().getString("metrics_export.file.path", "metrics/ssaspawnerlimiter.prom"));
+        long intervalTicks = Math.max(1L, plugin.getConfig().getLong("metrics_export.file.interval_seconds", 15L)) * 20L;
+
+        fileTask = Scheduler.runTaskTimerAsync(() -> writeFile(file), intervalTicks, intervalTicks);
+        plugin.getLogger().info("Writing metrics to " + file);
+    }
+
+    private void writeFile(Path file) {
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+
+            // The collector may read at any time, so write aside and swap the file in whole
+            Path temp = dir.resolve(file.getFileName() + ".tmp");
+            Files.writeString(temp, PrometheusFormat.render(plugin.getMetricsRegistry(), METRIC_PREFIX));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Failed to write metrics file " + file, e);
+        }
+    }
+}
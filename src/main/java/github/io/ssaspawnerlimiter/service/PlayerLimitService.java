@@ -1,18 +1,24 @@
 package github.io.ssaspawnerlimiter.service;
 
 import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.limit.CountEngine;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.core.limit.PermissionLimits;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+import github.io.ssaspawnerlimiter.core.rules.LimitRules;
 import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.sync.CacheSyncService;
 import lombok.Getter;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Service for managing per-player spawner limits with permission-based tiers.
@@ -22,24 +28,34 @@ public class PlayerLimitService {
     private final SSASpawnerLimiter plugin;
     private final DatabaseManager databaseManager;
 
-    // Thread-safe cache for player spawner counts
-    private final Map<UUID, CacheEntry> playerCache;
-    private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
+    // Cached player spawner counts and the limit checks on them
+    private final CountEngine<UUID> counts;
+    // Last permission limit scanned for each online player, reused while the server is behind
+    private final Map<UUID, Integer> knownLimits = new ConcurrentHashMap<>();
 
     @Getter
     private boolean enabled;
     @Getter
     private int defaultMaxSpawnersPerPlayer;
-    private final long cacheExpirationMs = 300 * 1000L; // 5 minutes
 
-    // Pattern to match permission nodes like ssaspawnerlimiter.perplayer.1500
-    private static final Pattern PERMISSION_PATTERN = Pattern.compile("ssaspawnerlimiter\\.perplayer\\.(\\d+)");
-    private static final String BYPASS_PERMISSION = "ssaspawnerlimiter.perplayer.bypass";
+    // Network-wide quota leases, null when lease mode is disabled
+    @Getter
+    private QuotaLeaseManager leaseManager;
+
+    private static final String BYPASS_PERMISSION = PermissionLimits.BYPASS;
 
     public PlayerLimitService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
         this.plugin = plugin;
         this.databaseManager = databaseManager;
-        this.playerCache = new ConcurrentHashMap<>();
+        this.counts = CountEngine.<UUID>builder(
+                uuid -> databaseManager.awaitCount(() -> databaseManager.getPlayerSpawnerCount(uuid.toString())))
+            .unavailableCount(stale -> databaseManager.getUnavailableCount(stale))
+            .pendingDelta(this::getPendingDelta)
+            .degraded(this::isDegraded)
+            .counters(plugin.getMetricsRegistry().counter("cache.player.hit"),
+                plugin.getMetricsRegistry().counter("cache.player.miss"))
+            .expirationMs(300 * 1000L) // 5 minutes
+            .build();
         loadConfiguration();
     }
 
@@ -49,6 +65,31 @@ public class PlayerLimitService {
     public void loadConfiguration() {
         this.enabled = plugin.getConfig().getBoolean("enable_player_limit", true);
         this.defaultMaxSpawnersPerPlayer = plugin.getConfig().getInt("max_spawners_per_player", 500);
+        loadLeaseConfiguration();
+    }
+
+    /**
+     * (Re)create the quota lease manager from the "quota_lease" section.
+     * Leases held under the previous settings are returned first.
+     */
+    private void loadLeaseConfiguration() {
+        if (leaseManager != null) {
+            leaseManager.releaseAll();
+            leaseManager = null;
+        }
+
+        if (!plugin.getConfig().getBoolean("quota_lease.enabled", false)) {
+            return;
+        }
+
+        // Leases of a previous run with a random server id expire on their own
+        String serverId = plugin.getServerId();
+        int blockSize = Math.max(1, plugin.getConfig().getInt("quota_lease.block_size", 64));
+        int lowWatermark = Math.max(0, plugin.getConfig().getInt("quota_lease.low_watermark", 16));
+        long ttlMs = Math.max(10L, plugin.getConfig().getLong("quota_lease.ttl_seconds", 120L)) * 1000L;
+
+        leaseManager = new QuotaLeaseManager(plugin, databaseManager, serverId, blockSize, lowWatermark, ttlMs);
+        plugin.getLogger().info("Quota lease mode is ENABLED (server id: " + serverId + ")");
     }
 
     /**
@@ -58,21 +99,123 @@ public class PlayerLimitService {
      * @return true if allowed, false otherwise
      */
     public boolean canPlaceSpawner(Player player, int quantity) {
+        return checkSpawner(player, quantity).allowed();
+    }
+
+    /**
+     * Check if a player can place spawners (SYNC)
+     * @param player The player placing the spawner
+     * @param quantity The quantity being placed
+     * @return the outcome, with the player's count and limit when denied
+     */
+    public LimitCheck checkSpawner(Player player, int quantity) {
         if (!enabled) {
-            return true;
+            return LimitCheck.ALLOWED;
         }
 
         // Check bypass permission
         if (player.hasPermission(BYPASS_PERMISSION)) {
-            return true;
+            return LimitCheck.ALLOWED;
         }
 
+        long start = System.nanoTime();
         UUID uuid = player.getUniqueId();
-        int currentCount = getPlayerSpawnerCount(uuid);
         int limit = getPlayerLimit(player);
-        int newCount = currentCount + quantity;
+        long permissionNanos = System.nanoTime() - start;
+
+        // Served from the locally leased share of the network-wide limit
+        if (leaseManager != null) {
+            // Buffered and in-flight placements haven't been taken off the lease yet
+            int pending = Math.max(0, getPendingDelta(uuid));
+            boolean hasQuota = leaseManager.hasQuota(uuid, quantity + pending, limit);
+            logIfSlow(uuid, start, permissionNanos, "lease");
+            if (hasQuota) {
+                return LimitCheck.ALLOWED;
+            }
+            return new LimitCheck(false, getPlayerSpawnerCount(uuid) + pending, limit);
+        }
+
+        LimitCheck check = counts.check(uuid, quantity, limit);
+        logIfSlow(uuid, start, permissionNanos, "read");
+        return check;
+    }
+
+    /**
+     * Log a player check to the slow operation log if it took too long
+     * @param countPhase Name of the part after the permission lookup: "read" from the cache or database, or "lease"
+     */
+    private void logIfSlow(UUID uuid, long startNanos, long permissionNanos, String countPhase) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (plugin.getSlowOperationLog().isSlow(SlowOperationLog.Category.LIMIT_CHECK, elapsed)) {
+            plugin.getSlowOperationLog().entry("player_check", uuid, elapsed)
+                .phase("permission", permissionNanos)
+                .phase(countPhase, elapsed - permissionNanos)
+                .submit();
+        }
+    }
+
+    /**
+     * Check the per-player limit of one entity type (SYNC)
+     * @param player The player placing the spawner
+     * @param entityType Spawned entity type, or null if unknown
+     * @param quantity The quantity being placed
+     * @return true if allowed, false otherwise
+     */
+    public boolean canPlaceEntity(Player player, String entityType, int quantity) {
+        return checkEntity(player, entityType, quantity).allowed();
+    }
+
+    /**
+     * Check the per-player limit of one entity type (SYNC)
+     * @param player The player placing the spawner
+     * @param entityType Spawned entity type, or null if unknown
+     * @param quantity The quantity being placed
+     * @return the outcome, with the player's count of the type and its limit when denied
+     */
+    public LimitCheck checkEntity(Player player, String entityType, int quantity) {
+        if (!enabled || entityType == null) {
+            return LimitCheck.ALLOWED;
+        }
+
+        int limit = getEntityLimit(entityType);
+        if (limit == LimitRules.UNLIMITED || player.hasPermission(BYPASS_PERMISSION)) {
+            return LimitCheck.ALLOWED;
+        }
+
+        return LimitCheck.of(getEntityCount(player.getUniqueId(), entityType), quantity, limit);
+    }
+
+    /**
+     * Get the per-player limit of one entity type
+     * @return the limit, or {@link LimitRules#UNLIMITED}
+     */
+    public int getEntityLimit(String entityType) {
+        LimitRules rules = plugin.getChunkLimitService().getLimitRules();
+        return rules.playerLimit(rules.entityId(entityType));
+    }
+
+    /**
+     * Get number of spawners of one entity type owned by a player, from the ownership index
+     */
+    public int getEntityCount(UUID uuid, String entityType) {
+        SpawnerOwnershipService ownershipService = plugin.getSpawnerOwnershipService();
+        return ownershipService != null ? ownershipService.getPlayerEntityCount(uuid, entityType) : 0;
+    }
 
-        return newCount <= limit;
+    /**
+     * Check if the load governor currently has expensive paths turned off
+     */
+    private boolean isDegraded() {
+        LoadGovernor loadGovernor = plugin.getLoadGovernor();
+        return loadGovernor != null && loadGovernor.isDegraded();
+    }
+
+    /**
+     * Get the net increase of a player that is buffered or not yet written
+     */
+    private int getPendingDelta(UUID uuid) {
+        SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+        return deltaBatcher != null ? deltaBatcher.getPendingPlayerDelta(uuid) : 0;
     }
 
     /**
@@ -87,6 +230,14 @@ public class PlayerLimitService {
             return Integer.MAX_VALUE;
         }
 
+        // Under load reuse the last scanned limit instead of matching every permission again
+        if (isDegraded()) {
+            Integer knownLimit = knownLimits.get(player.getUniqueId());
+            if (knownLimit != null) {
+                return knownLimit;
+            }
+        }
+
         int highestLimit = defaultMaxSpawnersPerPlayer;
 
         // Check all effective permissions for player
@@ -96,20 +247,17 @@ public class PlayerLimitService {
             }
 
             String permission = permAttachment.getPermission();
-            Matcher matcher = PERMISSION_PATTERN.matcher(permission);
-
-            if (matcher.matches()) {
-                try {
-                    int limit = Integer.parseInt(matcher.group(1));
-                    if (limit > highestLimit) {
-                        highestLimit = limit;
-                    }
-                } catch (NumberFormatException e) {
-                    plugin.getLogger().warning("Invalid permission limit: " + permission);
+            try {
+                int limit = PermissionLimits.parse(permission);
+                if (limit > highestLimit) {
+                    highestLimit = limit;
                 }
+            } catch (NumberFormatException e) {
+                plugin.getLogger().warning("Invalid permission limit: " + permission);
             }
         }
 
+        knownLimits.put(player.getUniqueId(), highestLimit);
         return highestLimit;
     }
 
@@ -123,35 +271,32 @@ public class PlayerLimitService {
             return 0;
         }
 
-        CacheEntry cached = getCachedCount(uuid);
-        if (cached != null && !cached.isExpired()) {
-            return cached.count;
-        }
-
-        // Cache miss or expired, fetch from database synchronously
-        try {
-            int count = databaseManager.getPlayerSpawnerCount(uuid.toString()).get();
-            updateCache(uuid, count);
-            return count;
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error getting player spawner count for " + uuid + ": " + e.getMessage());
-            return 0;
-        }
+        return Math.max(0, counts.storedCount(uuid));
     }
 
     /**
      * Add spawners to a player's count (ASYNC - for background database update)
      * @param uuid Player UUID
      * @param quantity The quantity to add
+     * @return CompletableFuture completing once the cache holds the written count
      */
-    public void addSpawners(UUID uuid, int quantity) {
+    public CompletableFuture<Void> addSpawners(UUID uuid, int quantity) {
         if (!enabled) {
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
-        databaseManager.incrementPlayerSpawnerCount(uuid.toString(), quantity)
+        return counts.write(uuid, () -> {
+                // Placements drawn from a lease also take the quota off the lease
+                CompletableFuture<Integer> update = quantity > 0 && leaseManager != null
+                    ? leaseManager.commit(uuid, quantity)
+                    : null;
+                return update != null ? update : databaseManager.incrementPlayerSpawnerCount(uuid.toString(), quantity);
+            })
             .thenAccept(newCount -> {
-                updateCache(uuid, newCount);
+                if (newCount < 0) {
+                    return;
+                }
+                publishChange(uuid, newCount);
 
                 if (plugin.getConfig().getBoolean("debug", false)) {
                     plugin.getLogger().info(String.format(
@@ -196,106 +341,118 @@ public class PlayerLimitService {
      * @return CompletableFuture indicating success
      */
     public CompletableFuture<Boolean> setPlayerSpawnerCount(UUID uuid, int count) {
-        return databaseManager.setPlayerSpawnerCount(uuid.toString(), count)
-            .thenApply(success -> {
-                if (success) {
-                    updateCache(uuid, count);
+        return counts.write(uuid, () -> databaseManager.setPlayerSpawnerCount(uuid.toString(), count)
+                .thenApply(success -> success ? count : -1))
+            .thenApply(written -> {
+                if (written < 0) {
+                    return false;
                 }
-                return success;
+                publishChange(uuid, written);
+                return true;
             });
     }
 
     /**
-     * Get cached count for a player
+     * Lease quota for a player ahead of their first placement
+     * @param player The player
      */
-    private CacheEntry getCachedCount(UUID uuid) {
-        cacheLock.readLock().lock();
-        try {
-            return playerCache.get(uuid);
-        } finally {
-            cacheLock.readLock().unlock();
+    public void onPlayerJoin(Player player) {
+        if (enabled && leaseManager != null && !player.hasPermission(BYPASS_PERMISSION)) {
+            leaseManager.prefetch(player.getUniqueId(), getPlayerLimit(player));
         }
     }
 
     /**
-     * Update cache with new count
+     * Return a player's leased quota to the shared pool
+     * @param uuid Player UUID
      */
-    private void updateCache(UUID uuid, int count) {
-        cacheLock.writeLock().lock();
-        try {
-            playerCache.put(uuid, new CacheEntry(count, System.currentTimeMillis()));
-        } finally {
-            cacheLock.writeLock().unlock();
+    public void onPlayerQuit(UUID uuid) {
+        knownLimits.remove(uuid);
+        if (leaseManager != null) {
+            leaseManager.release(uuid);
         }
     }
 
     /**
-     * Invalidate cache for a player
+     * Correct counts found wrong by reconciliation in one transaction (ASYNC).
+     * The transaction starts once earlier writes of every corrected player are done, and later writes wait for it.
+     * @param corrections Correction to add to the stored count, per player UUID
+     * @return CompletableFuture with true if every correction was written, false if none was
      */
-    private void invalidateCache(UUID uuid) {
-        cacheLock.writeLock().lock();
-        try {
-            playerCache.remove(uuid);
-        } finally {
-            cacheLock.writeLock().unlock();
+    public CompletableFuture<Boolean> applyCorrections(Map<UUID, Integer> corrections) {
+        if (corrections.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
         }
+
+        // Each player's turn comes once their earlier writes are done
+        Map<String, Integer> amounts = new HashMap<>();
+        Map<UUID, CompletableFuture<Void>> turns = new HashMap<>();
+        corrections.forEach((uuid, delta) -> {
+            amounts.put(uuid.toString(), delta);
+            turns.put(uuid, new CompletableFuture<>());
+        });
+        CompletableFuture<Map<String, Integer>> batch = CompletableFuture
+            .allOf(turns.values().toArray(CompletableFuture[]::new))
+            .thenCompose(ignored -> databaseManager.adjustPlayerSpawnerCounts(amounts));
+
+        List<CompletableFuture<Integer>> writes = new ArrayList<>(turns.size());
+        turns.forEach((uuid, turn) -> writes.add(counts.write(uuid, () -> {
+                turn.complete(null);
+                return batch.thenApply(newCounts -> newCounts != null ? newCounts.getOrDefault(uuid.toString(), -1) : -1);
+            })
+            .thenApply(newCount -> {
+                if (newCount >= 0) {
+                    publishChange(uuid, newCount);
+                }
+                return newCount;
+            })));
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+            .thenCompose(ignored -> batch)
+            .thenApply(Objects::nonNull);
     }
 
     /**
-     * Clear all cache entries
+     * Apply a count written by another server sharing the storage backend.
+     * Ignored when the local entry was written later.
+     * @param uuid Player UUID
+     * @param count New count, negative to drop the entry
+     * @param writtenAt When the other server wrote the count (epoch millis)
      */
-    public void clearCache() {
-        cacheLock.writeLock().lock();
-        try {
-            playerCache.clear();
-            plugin.getLogger().info("Player cache cleared");
-        } finally {
-            cacheLock.writeLock().unlock();
-        }
+    public void applyRemoteCount(UUID uuid, int count, long writtenAt) {
+        counts.applyRemote(uuid, count, writtenAt);
     }
 
     /**
-     * Clean up expired cache entries
+     * Queue a written count for other servers sharing the storage backend
+     * @param count New count, negative if the entry should be dropped
      */
-    public void cleanupExpiredCache() {
-        cacheLock.writeLock().lock();
-        try {
-            long now = System.currentTimeMillis();
-            playerCache.entrySet().removeIf(entry ->
-                now - entry.getValue().timestamp > cacheExpirationMs
-            );
-        } finally {
-            cacheLock.writeLock().unlock();
+    private void publishChange(UUID uuid, int count) {
+        CacheSyncService cacheSyncService = plugin.getCacheSyncService();
+        if (cacheSyncService != null) {
+            cacheSyncService.recordPlayer(uuid, count);
         }
     }
 
     /**
-     * Get cache size
+     * Clear all cache entries
      */
-    public int getCacheSize() {
-        cacheLock.readLock().lock();
-        try {
-            return playerCache.size();
-        } finally {
-            cacheLock.readLock().unlock();
-        }
+    public void clearCache() {
+        counts.clear();
+        knownLimits.clear();
+        plugin.getLogger().info("Player cache cleared");
     }
 
     /**
-     * Cache entry with expiration
+     * Clean up expired cache entries
      */
-    private class CacheEntry {
-        final int count;
-        final long timestamp;
-
-        CacheEntry(int count, long timestamp) {
-            this.count = count;
-            this.timestamp = timestamp;
-        }
+    public void cleanupExpiredCache() {
+        counts.removeExpired();
+    }
 
-        boolean isExpired() {
-            return System.currentTimeMillis() - timestamp > cacheExpirationMs;
-        }
+    /**
+     * Get cache size
+     */
+    public int getCacheSize() {
+        return counts.size();
     }
 }
-
@@ -0,0 +1,237 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Recomputes per-player spawner counts from SmartSpawner's spawner list and the ownership index,
+ * and corrects drifted counts in {@code player_spawners}.
+ * Grouping runs as a parallel stream on a dedicated fork-join pool, so the common pool used by
+ * database futures stays free.
+ */
+public class PlayerReconciliationService {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+    private final SpawnerOwnershipService ownershipService;
+    private final PlayerLimitService playerLimitService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PlayerReconciliationService(SSASpawnerLimiter plugin, DatabaseManager databaseManager,
+                                       SpawnerOwnershipService ownershipService, PlayerLimitService playerLimitService) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.ownershipService = ownershipService;
+        this.playerLimitService = playerLimitService;
+    }
+
+    /**
+     * Reconcile all player counts (ASYNC)
+     * @param apply false for a dry run that only reports discrepancies
+     * @param reportSize Number of largest discrepancies to include in the report
+     * @return CompletableFuture with the report, or null if a reconciliation is already running or failed
+     */
+    public CompletableFuture<Report> reconcile(boolean apply, int reportSize) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return CompletableFuture.supplyAsync(() -> run(apply, reportSize))
+            .exceptionally(throwable -> {
+                plugin.getLogger().log(Level.SEVERE, "Error reconciling player spawner counts", throwable);
+                return null;
+            })
+            .whenComplete((report, throwable) -> running.set(false));
+    }
+
+    private Report run(boolean apply, int reportSize) {
+        long start = System.nanoTime();
+
+        List<SpawnerDataDTO> spawners = plugin.getApi().getAllSpawners();
+        if (spawners == null) {
+            return null;
+        }
+
+        // Copy the snapshot so SmartSpawner objects are only touched once
+        Snapshot[] snapshot = spawners.stream()
+            .map(Snapshot::of)
+            .filter(Objects::nonNull)
+            .toArray(Snapshot[]::new);
+
+        // The index already has changes that are still buffered or being written, get them stored first
+        SpawnerDeltaBatcher deltaBatcher = plugin.getSpawnerDeltaBatcher();
+        if (deltaBatcher != null) {
+            deltaBatcher.flush().join();
+        }
+
+        Map<String, Integer> stored = databaseManager.getAllPlayerSpawnerCounts().join();
+        if (stored == null) {
+            return null;
+        }
+
+        int parallelism = Math.max(1, plugin.getConfig().getInt("reconciliation.parallelism",
+            Runtime.getRuntime().availableProcessors() / 2));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ConcurrentMap<UUID, Integer> actual;
+        try {
+            actual = pool.submit(() -> Arrays.stream(snapshot)
+                .parallel()
+                .flatMap(this::attribute)
+                .collect(Collectors.groupingByConcurrent(Share::owner, Collectors.summingInt(Share::amount))))
+                .join();
+        } finally {
+            pool.shutdown();
+        }
+
+        int unowned = actual.getOrDefault(Share.UNOWNED, 0);
+        actual.remove(Share.UNOWNED);
+
+        // Diff against stored counts, players without any indexed spawner drop to 0 (only applied without unowned spawners)
+        Set<String> players = new HashSet<>(stored.keySet());
+        actual.keySet().forEach(uuid -> players.add(uuid.toString()));
+
+        Map<UUID, Integer> corrections = new HashMap<>();
+        List<Discrepancy> discrepancies = new ArrayList<>();
+        for (String uuid : players) {
+            UUID owner;
+            try {
+                owner = UUID.fromString(uuid);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            // Changes made since the flush are in the index but not in the stored count, their writes add them
+            int unwritten = deltaBatcher != null ? deltaBatcher.getUnwrittenPlayerDelta(owner) : 0;
+            int storedCount = stored.getOrDefault(uuid, 0);
+            int actualCount = actual.getOrDefault(owner, 0);
+
+            if (storedCount + unwritten != actualCount) {
+                corrections.put(owner, actualCount - storedCount - unwritten);
+                discrepancies.add(new Discrepancy(uuid, storedCount + unwritten, actualCount));
+            }
+        }
+        discrepancies.sort(Comparator.comparingInt((Discrepancy d) -> Math.abs(d.actual() - d.stored())).reversed());
+
+        // Unowned spawners belong to someone, whose recomputed count would be too low and whose limit would open up
+        boolean refused = apply && unowned > 0 && !corrections.isEmpty();
+        if (refused) {
+            plugin.getLogger().warning("Player reconciliation not applied: " + unowned
+                + " spawners have no recorded owner, so their owners' counts can't be recomputed");
+        }
+
+        // Corrections are applied as increments in one transaction, so counts changed since the read are kept
+        boolean applied = false;
+        if (apply && !refused && !corrections.isEmpty()) {
+            applied = playerLimitService.applyCorrections(corrections).join();
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000L;
+        plugin.getLogger().info(String.format(
+            "Player reconciliation%s: %d spawners, %d players checked, %d discrepancies, %d unowned spawners in %d ms",
+            apply ? "" : " (dry run)", snapshot.length, players.size(), discrepancies.size(), unowned, durationMs
+        ));
+
+        return new Report(snapshot.length, unowned, players.size(), discrepancies.size(),
+            List.copyOf(discrepancies.subList(0, Math.min(reportSize, discrepancies.size()))), applied, refused,
+            durationMs);
+    }
+
+    /**
+     * Split a spawner's stack over its owners in proportion to their indexed shares.
+     * The shares may not add up to the stack size when it changed without events.
+     */
+    private Stream<Share> attribute(Snapshot spawner) {
+        Map<UUID, Integer> owners = ownershipService.getOwners(spawner.key());
+        if (owners.isEmpty()) {
+            return Stream.of(new Share(Share.UNOWNED, spawner.stackSize()));
+        }
+
+        int indexed = owners.values().stream().mapToInt(Integer::intValue).sum();
+        if (indexed == spawner.stackSize()) {
+            return owners.entrySet().stream().map(entry -> new Share(entry.getKey(), entry.getValue()));
+        }
+        if (owners.size() == 1) {
+            return Stream.of(new Share(owners.keySet().iterator().next(), spawner.stackSize()));
+        }
+
+        List<Share> shares = new ArrayList<>(owners.size());
+        UUID largest = null;
+        int largestShare = -1;
+        int assigned = 0;
+        for (Map.Entry<UUID, Integer> entry : owners.entrySet()) {
+            int amount = (int) ((long) entry.getValue() * spawner.stackSize() / indexed);
+            shares.add(new Share(entry.getKey(), amount));
+            assigned += amount;
+            if (entry.getValue() > largestShare) {
+                largestShare = entry.getValue();
+                largest = entry.getKey();
+            }
+        }
+        // Rounding remainder goes to the largest owner
+        shares.add(new Share(largest, spawner.stackSize() - assigned));
+        return shares.stream();
+    }
+
+    /**
+     * Check if a reconciliation is currently running
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private record Snapshot(BlockKey key, int stackSize) {
+        static Snapshot of(SpawnerDataDTO spawner) {
+            Location location = spawner.getLocation();
+            if (location == null || location.getWorld() == null) {
+                return null;
+            }
+            return new Snapshot(BukkitKeys.block(location), spawner.getStackSize());
+        }
+    }
+
+    private record Share(UUID owner, int amount) {
+        // Groups spawners without a known owner
+        static final UUID UNOWNED = new UUID(0L, 0L);
+    }
+
+    /**
+     * Difference between stored and actual count of one player
+     */
+    public record Discrepancy(String uuid, int stored, int actual) {}
+
+    /**
+     * Result of a reconciliation run
+     * @param spawners Number of spawners in the snapshot
+     * @param unownedSpawners Spawners without an indexed owner (not counted for any player)
+     * @param playersChecked Number of players compared
+     * @param discrepancyCount Number of players whose stored count was wrong
+     * @param largest Largest discrepancies, sorted by size
+     * @param applied Whether corrections were written
+     * @param refused Whether corrections were withheld because some spawners have no indexed owner
+     * @param durationMs Duration of the run
+     */
+    public record Report(int spawners, int unownedSpawners, int playersChecked, int discrepancyCount,
+                         List<Discrepancy> largest, boolean applied, boolean refused, long durationMs) {}
+}
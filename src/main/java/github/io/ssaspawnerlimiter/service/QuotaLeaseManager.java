@@ -0,0 +1,215 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.storage.QuotaLease;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serves per-player limits from blocks of quota leased from the shared storage backend.
+ * Each server leases part of a player's remaining quota and answers placement checks locally,
+ * so the network-wide limit holds without a database round trip per placement.
+ * Leases are topped up and returned asynchronously.
+ */
+public class QuotaLeaseManager {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+
+    @Getter
+    private final String serverId;
+    private final int blockSize;
+    private final int lowWatermark;
+    private final long ttlMs;
+
+    private final Map<UUID, Lease> leases = new ConcurrentHashMap<>();
+
+    public QuotaLeaseManager(SSASpawnerLimiter plugin, DatabaseManager databaseManager,
+                             String serverId, int blockSize, int lowWatermark, long ttlMs) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.serverId = serverId;
+        this.blockSize = blockSize;
+        this.lowWatermark = lowWatermark;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Check whether the local lease covers a placement (SYNC).
+     * Blocks on a lease request only when the local lease is too small.
+     * @param uuid Player UUID
+     * @param quantity The quantity being placed
+     * @param limit Network-wide limit of the player
+     * @return true if allowed, false otherwise
+     */
+    public boolean hasQuota(UUID uuid, int quantity, int limit) {
+        Lease lease = leases.computeIfAbsent(uuid, Lease::new);
+        lease.limit = limit;
+
+        if (lease.available.get() < quantity && databaseManager.awaitSync(
+                () -> acquire(lease, Math.max(blockSize, quantity)), grant -> grant != null && !grant.isFailed()) == null) {
+            // Same storage.unavailable_policy as unleased checks, the local lease is the last known quota
+            DatabaseManager.FailurePolicy policy = databaseManager.getFailurePolicy();
+            plugin.getLogger().warning("Could not acquire quota lease for " + uuid + " in time, following the "
+                + policy + " policy");
+            switch (policy) {
+                case ALLOW -> {
+                    return true;
+                }
+                case DENY -> {
+                    return false;
+                }
+                case LAST_KNOWN -> { }
+            }
+        }
+
+        int available = lease.available.get();
+        if (available < quantity) {
+            return false;
+        }
+
+        if (available - quantity < lowWatermark) {
+            renewAsync(lease);
+        }
+        return true;
+    }
+
+    /**
+     * Record placed spawners against the local lease (ASYNC database update)
+     * @param uuid Player UUID
+     * @param quantity The quantity placed
+     * @return CompletableFuture with the new player count, or null if the player holds no lease
+     */
+    public CompletableFuture<Integer> commit(UUID uuid, int quantity) {
+        Lease lease = leases.get(uuid);
+        if (lease == null) {
+            return null;
+        }
+
+        // Taken off the local lease once stored, until then the caller's pending delta counts the placement
+        return enqueue(lease, () -> databaseManager.commitLeasedSpawners(uuid.toString(), serverId, quantity))
+            .thenApply(count -> {
+                if (count >= 0) {
+                    lease.available.addAndGet(-quantity);
+                }
+                return count;
+            });
+    }
+
+    /**
+     * Lease quota ahead of the first placement (e.g. on join)
+     * @param uuid Player UUID
+     * @param limit Network-wide limit of the player
+     */
+    public void prefetch(UUID uuid, int limit) {
+        Lease lease = leases.computeIfAbsent(uuid, Lease::new);
+        lease.limit = limit;
+        renewAsync(lease);
+    }
+
+    /**
+     * Return a player's unused quota to the shared pool (e.g. on quit)
+     * @param uuid Player UUID
+     */
+    public void release(UUID uuid) {
+        Lease lease = leases.remove(uuid);
+        if (lease == null) {
+            return;
+        }
+
+        // Queued behind pending commits, so they still draw from the lease
+        enqueue(lease, () -> databaseManager.releaseQuotaLease(uuid.toString(), serverId));
+    }
+
+    /**
+     * Extend expiry of all leases held by this server, so other servers keep honoring them
+     */
+    public void renewExpiry() {
+        if (!leases.isEmpty()) {
+            databaseManager.renewQuotaLeases(serverId, System.currentTimeMillis() + ttlMs);
+        }
+    }
+
+    /**
+     * Return every lease held by this server
+     * @return CompletableFuture indicating success
+     */
+    public CompletableFuture<Boolean> releaseAll() {
+        leases.clear();
+        return databaseManager.releaseQuotaLeases(serverId);
+    }
+
+    /**
+     * Get number of players with an active lease on this server
+     */
+    public int getLeaseCount() {
+        return leases.size();
+    }
+
+    /**
+     * Top up a lease in the background, at most one request in flight per player
+     */
+    private void renewAsync(Lease lease) {
+        if (lease.renewing.compareAndSet(false, true)) {
+            acquire(lease, blockSize).whenComplete((grant, throwable) -> lease.renewing.set(false));
+        }
+    }
+
+    /**
+     * Request a lease of the given size. Operations of a lease run one at a time and the local available quota
+     * follows each once it completes, so it equals the database lease and applying the returned delta keeps both in sync.
+     */
+    private CompletableFuture<QuotaLease> acquire(Lease lease, int target) {
+        String uuid = lease.uuid.toString();
+        return enqueue(lease, () -> databaseManager.acquireQuotaLease(
+                uuid, serverId, lease.limit, target, System.currentTimeMillis() + ttlMs))
+            .thenApply(grant -> {
+                if (!grant.isFailed()) {
+                    lease.available.addAndGet(grant.delta());
+
+                    if (plugin.getConfig().getBoolean("debug", false)) {
+                        plugin.getLogger().info(String.format(
+                            "[DEBUG] Lease for %s: %d leased (%+d), %d available locally",
+                            uuid, grant.leased(), grant.delta(), lease.available.get()
+                        ));
+                    }
+                }
+                return grant;
+            });
+    }
+
+    /**
+     * Chain a database operation behind earlier operations of the same lease
+     */
+    private <T> CompletableFuture<T> enqueue(Lease lease, Supplier<CompletableFuture<T>> operation) {
+        synchronized (lease) {
+            CompletableFuture<T> next = lease.tail
+                .handle((result, throwable) -> null)
+                .thenCompose(ignored -> operation.get());
+            lease.tail = next;
+            return next;
+        }
+    }
+
+    /**
+     * Local view of one player's lease
+     */
+    private static class Lease {
+        final UUID uuid;
+        final AtomicInteger available = new AtomicInteger();
+        final AtomicBoolean renewing = new AtomicBoolean();
+        volatile int limit;
+        CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+        Lease(UUID uuid) {
+            this.uuid = uuid;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.ratelimit.TokenBucketMap;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-player and per-chunk token bucket rate limit on spawner mutations, against automated
+ * place/stack loops. Checked before any cache, permission or database work.
+ */
+public class RateLimitService {
+    private final SSASpawnerLimiter plugin;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Getter
+    private boolean enabled;
+    private volatile TokenBucketMap playerBuckets;
+    private volatile TokenBucketMap chunkBuckets;
+
+    public RateLimitService(SSASpawnerLimiter plugin) {
+        this.plugin = plugin;
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("rate_limit.enabled", true);
+        this.playerBuckets = new TokenBucketMap(
+            Math.max(0.1, plugin.getConfig().getDouble("rate_limit.player.rate", 20.0)),
+            Math.max(1, plugin.getConfig().getInt("rate_limit.player.burst", 40)));
+        this.chunkBuckets = new TokenBucketMap(
+            Math.max(0.1, plugin.getConfig().getDouble("rate_limit.chunk.rate", 40.0)),
+            Math.max(1, plugin.getConfig().getInt("rate_limit.chunk.burst", 80)));
+    }
+
+    /**
+     * Take a token for one spawner mutation (SYNC)
+     * @param player The player mutating the spawner
+     * @param location Spawner location
+     * @return true if allowed, false if the player or chunk is over its rate
+     */
+    public boolean tryAcquire(Player player, Location location) {
+        if (!enabled) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        UUID uuid = player.getUniqueId();
+        if (!playerBuckets.tryAcquire(uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits(), now)) {
+            rejected.increment();
+            return false;
+        }
+
+        long chunkKey = ((long) (location.getBlockX() >> 4) << 32) | ((location.getBlockZ() >> 4) & 0xFFFFFFFFL);
+        long worldHash = location.getWorld().getName().hashCode() * 0x9E3779B97F4A7C15L;
+        if (!chunkBuckets.tryAcquire(chunkKey ^ worldHash, now)) {
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Get number of mutations rejected since startup
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Drop idle buckets
+     */
+    public void cleanup() {
+        long now = System.nanoTime();
+        playerBuckets.purgeIdle(now);
+        chunkBuckets.purgeIdle(now);
+    }
+}
@@ -0,0 +1,185 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.batch.DeltaBuffer;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
+import lombok.Getter;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Folds chunk and player count deltas of one tick into a single net delta per chunk and per player,
+ * so bursts like SmartSpawner's "stack all" / "take all" cost one database write instead of one per event.
+ * Buffered and unwritten deltas are added to stored counts by the limit checks, so enforcement stays as strict
+ * as writing every event. World totals and area densities are applied right away since they are in memory only.
+ */
+public class SpawnerDeltaBatcher {
+    private final SSASpawnerLimiter plugin;
+    private final ChunkLimitService chunkLimitService;
+    private final PlayerLimitService playerLimitService;
+
+    private final DeltaBuffer<ChunkKey> chunkDeltas = new DeltaBuffer<>();
+    private final DeltaBuffer<UUID> playerDeltas = new DeltaBuffer<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final LongAdder events;
+    private final LongAdder writes;
+
+    @Getter
+    private boolean enabled;
+
+    public SpawnerDeltaBatcher(SSASpawnerLimiter plugin, ChunkLimitService chunkLimitService,
+                               PlayerLimitService playerLimitService) {
+        this.plugin = plugin;
+        this.chunkLimitService = chunkLimitService;
+        this.playerLimitService = playerLimitService;
+        this.events = plugin.getMetricsRegistry().counter("batch.events");
+        this.writes = plugin.getMetricsRegistry().counter("batch.writes");
+        loadConfiguration();
+
+        plugin.getMetricsRegistry().gauge("batch.pending_chunks", chunkDeltas::size);
+        plugin.getMetricsRegistry().gauge("batch.pending_players", playerDeltas::size);
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("stack_batching.enabled", true);
+    }
+
+    /**
+     * Add spawners to a chunk count (ASYNC database update on the next tick)
+     * @param location The location of the spawner
+     * @param quantity The quantity to add (negative to remove)
+     */
+    public void addChunkSpawners(Location location, int quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        if (!enabled) {
+            chunkLimitService.addSpawners(location, quantity);
+            return;
+        }
+
+        ChunkKey key = BukkitKeys.chunk(location);
+        WorldCapService worldCapService = plugin.getWorldCapService();
+        if (worldCapService != null) {
+            worldCapService.add(key.world(), quantity);
+        }
+        chunkDeltas.add(key, quantity);
+        // After the buffer, so a write completing in between sees the chunk isn't quiet and leaves the index alone
+        DensityLimitService densityLimitService = plugin.getDensityLimitService();
+        if (densityLimitService != null) {
+            densityLimitService.onChunkDelta(key, quantity);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * Add spawners to a player count (ASYNC database update on the next tick)
+     * @param uuid Player UUID
+     * @param quantity The quantity to add (negative to remove)
+     */
+    public void addPlayerSpawners(UUID uuid, int quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        if (!enabled) {
+            playerLimitService.addSpawners(uuid, quantity);
+            return;
+        }
+
+        playerDeltas.add(uuid, quantity);
+        scheduleFlush();
+    }
+
+    /**
+     * Get the net increase of a chunk that is buffered or not yet written
+     */
+    public int getPendingChunkDelta(ChunkKey key) {
+        return chunkDeltas.pending(key);
+    }
+
+    /**
+     * Get the net change of a chunk that is buffered and not yet handed to a write, removals included
+     */
+    public int getBufferedChunkDelta(ChunkKey key) {
+        return chunkDeltas.buffered(key);
+    }
+
+    /**
+     * Drop the buffered delta of a chunk whose count was just recounted from the world
+     * @return the dropped delta
+     */
+    public int discardChunkDelta(ChunkKey key) {
+        return chunkDeltas.discard(key);
+    }
+
+    /**
+     * Get the net increase of a player that is buffered or not yet written
+     */
+    public int getPendingPlayerDelta(UUID uuid) {
+        return playerDeltas.pending(uuid);
+    }
+
+    /**
+     * Drop the buffered deltas of a world's chunks whose counts are about to be replaced
+     * @return the sum of the dropped deltas
+     */
+    public int discardWorldDeltas(String world) {
+        return chunkDeltas.discardIf(key -> key.world().equals(world));
+    }
+
+    /**
+     * Get the net change of a player that is buffered or not yet written, removals included
+     */
+    public int getUnwrittenPlayerDelta(UUID uuid) {
+        return playerDeltas.unwritten(uuid);
+    }
+
+    /**
+     * Get number of count changes received since startup
+     */
+    public long getEventCount() {
+        return events.sum();
+    }
+
+    /**
+     * Get number of database writes they were folded into
+     */
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    /**
+     * Write all buffered deltas now (e.g. on shutdown)
+     * @return CompletableFuture completing once the writes started here are done
+     */
+    public CompletableFuture<Void> flush() {
+        flushScheduled.set(false);
+
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        events.add(chunkDeltas.drain((key, delta) -> {
+            writes.increment();
+            pending.add(chunkLimitService.writeDelta(key, delta)
+                .whenComplete((ignored, throwable) -> chunkDeltas.complete(key, delta)));
+        }));
+        events.add(playerDeltas.drain((uuid, delta) -> {
+            writes.increment();
+            pending.add(playerLimitService.addSpawners(uuid, delta)
+                .whenComplete((ignored, throwable) -> playerDeltas.complete(uuid, delta)));
+        }));
+        return CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new));
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            Scheduler.runTaskLaterAsync(this::flush, 1L);
+        }
+    }
+}
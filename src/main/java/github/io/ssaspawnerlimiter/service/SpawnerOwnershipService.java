@@ -0,0 +1,349 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.storage.OwnedSpawner;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.util.BukkitKeys;
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of spawner owners by block, so removed spawners are charged to the players who placed them
+ * instead of whoever breaks them. Persisted in the database and fully cached in memory.
+ * A stack can have several owners when players stack onto each other's spawners.
+ */
+public class SpawnerOwnershipService {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+
+    private final Map<BlockKey, OwnedStack> stacks = new ConcurrentHashMap<>();
+    // Blocks per owner, only modified while holding the stack's map bin (inside compute)
+    private final Map<UUID, Set<BlockKey>> ownerIndex = new ConcurrentHashMap<>();
+    // Spawner counts per entity type, maintained alongside the stacks for per-type limits
+    private final Map<ChunkEntity, Integer> chunkEntityCounts = new ConcurrentHashMap<>();
+    private final Map<PlayerEntity, Integer> playerEntityCounts = new ConcurrentHashMap<>();
+
+    public SpawnerOwnershipService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+    }
+
+    /**
+     * Load the index from the database (blocks, call off the main thread)
+     * @return true if loaded, false otherwise
+     */
+    public boolean load() {
+        List<OwnedSpawner> spawners = databaseManager.getAllOwnedSpawners().join();
+        if (spawners == null) {
+            return false;
+        }
+
+        for (OwnedSpawner spawner : spawners) {
+            UUID owner;
+            try {
+                owner = UUID.fromString(spawner.owner());
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+
+            BlockKey key = new BlockKey(spawner.world(), spawner.x(), spawner.y(), spawner.z());
+            stacks.compute(key, (k, stack) -> {
+                if (stack == null) {
+                    stack = new OwnedStack();
+                }
+                stack.add(owner, spawner.stackSize(), spawner.entityType(), spawner.teamId());
+                indexOwner(owner, k);
+                return stack;
+            });
+        }
+
+        stacks.forEach((key, stack) -> countEntities(key, stack.getEntityType(), stack.getShares(), 1));
+
+        plugin.getLogger().info("Loaded " + spawners.size() + " spawner owner entries across " + stacks.size() + " blocks");
+        return true;
+    }
+
+    /**
+     * Record spawners placed or stacked by a player (ASYNC database update)
+     * @param location Spawner location
+     * @param owner Player UUID
+     * @param quantity The quantity added
+     * @param entityType Spawned entity type, or null if unknown
+     * @param teamId Team pool charged for the spawners, empty for none, or null if not charged
+     */
+    public void addSpawners(Location location, UUID owner, int quantity, String entityType, String teamId) {
+        if (quantity <= 0) {
+            return;
+        }
+
+        BlockKey key = BukkitKeys.block(location);
+        stacks.compute(key, (k, stack) -> {
+            if (stack == null) {
+                stack = new OwnedStack();
+            }
+            String before = stack.getEntityType();
+            if (before != null && !before.equals(entityType) && entityType != null) {
+                // Spawner changed type, move every share over to the new one
+                countEntities(k, before, stack.getShares(), -1);
+                stack.add(owner, quantity, entityType, teamId);
+                countEntities(k, entityType, stack.getShares(), 1);
+            } else if (before == null && entityType != null) {
+                // Type learned now, count the whole stack
+                stack.add(owner, quantity, entityType, teamId);
+                countEntities(k, entityType, stack.getShares(), 1);
+            } else {
+                stack.add(owner, quantity, entityType, teamId);
+                countEntities(k, before, Map.of(owner, quantity), 1);
+            }
+            indexOwner(owner, k);
+            return stack;
+        });
+
+        databaseManager.adjustOwnedSpawners(key.world(), key.x(), key.y(), key.z(), owner.toString(), quantity,
+            entityType, teamId);
+    }
+
+    /**
+     * Take spawners off the stack at a block (ASYNC database update).
+     * The actor's own share is taken first, then the largest shares of other owners.
+     * @param location Spawner location
+     * @param actor Player breaking or removing the spawners
+     * @param quantity The quantity removed
+     * @return Amount taken per owner, with the team pool each share was charged to. Spawners without a known owner
+     *         (e.g. placed before the index existed) are attributed to the actor with an unknown team.
+     */
+    public List<Removal> removeSpawners(Location location, UUID actor, int quantity) {
+        if (quantity <= 0) {
+            return List.of();
+        }
+
+        Map<UUID, Integer> taken = new LinkedHashMap<>();
+        Map<UUID, String> teams = new HashMap<>();
+        BlockKey key = BukkitKeys.block(location);
+        stacks.computeIfPresent(key, (k, stack) -> {
+            stack.take(actor, quantity, taken, teams);
+            countEntities(k, stack.getEntityType(), taken, -1);
+            for (UUID owner : taken.keySet()) {
+                if (stack.getShare(owner) == 0) {
+                    unindexOwner(owner, k);
+                }
+            }
+            return stack.isEmpty() ? null : stack;
+        });
+
+        List<Removal> removals = new ArrayList<>(taken.size() + 1);
+        int known = 0;
+        for (Map.Entry<UUID, Integer> entry : taken.entrySet()) {
+            known += entry.getValue();
+            removals.add(new Removal(entry.getKey(), entry.getValue(), teams.get(entry.getKey())));
+            databaseManager.adjustOwnedSpawners(key.world(), key.x(), key.y(), key.z(),
+                entry.getKey().toString(), -entry.getValue(), null, null);
+        }
+
+        if (known < quantity) {
+            removals.add(new Removal(actor, quantity - known, null));
+        }
+        return removals;
+    }
+
+    /**
+     * Get owners of the stack at a block
+     * @param key Block key
+     * @return Share per owner (empty if unknown)
+     */
+    public Map<UUID, Integer> getOwners(BlockKey key) {
+        OwnedStack stack = stacks.get(key);
+        return stack != null ? stack.getShares() : Map.of();
+    }
+
+    /**
+     * List spawners owned by a player from the in-memory index
+     * @param owner Player UUID
+     * @return The player's spawner shares
+     */
+    public List<OwnedSpawner> getOwnedSpawners(UUID owner) {
+        Set<BlockKey> keys = ownerIndex.get(owner);
+        if (keys == null) {
+            return List.of();
+        }
+
+        List<OwnedSpawner> spawners = new ArrayList<>(keys.size());
+        for (BlockKey key : keys) {
+            OwnedStack stack = stacks.get(key);
+            if (stack == null) {
+                continue;
+            }
+            int share = stack.getShare(owner);
+            if (share > 0) {
+                spawners.add(new OwnedSpawner(key.world(), key.x(), key.y(), key.z(),
+                    owner.toString(), share, stack.getEntityType(), stack.getTeam(owner)));
+            }
+        }
+        return spawners;
+    }
+
+    /**
+     * Get entity type of the stack at a block
+     * @param key Block key
+     * @return Entity type name, or null if unknown
+     */
+    public String getEntityType(BlockKey key) {
+        OwnedStack stack = stacks.get(key);
+        return stack != null ? stack.getEntityType() : null;
+    }
+
+    /**
+     * Get number of indexed spawners of one entity type in a chunk
+     * @param chunk The chunk key
+     * @param entityType Entity type name
+     * @return Spawner count
+     */
+    public int getChunkEntityCount(ChunkKey chunk, String entityType) {
+        return chunkEntityCounts.getOrDefault(new ChunkEntity(chunk, entityType), 0);
+    }
+
+    /**
+     * Get number of indexed spawners of one entity type owned by a player
+     * @param owner Player UUID
+     * @param entityType Entity type name
+     * @return Spawner count
+     */
+    public int getPlayerEntityCount(UUID owner, String entityType) {
+        return playerEntityCounts.getOrDefault(new PlayerEntity(owner, entityType), 0);
+    }
+
+    /**
+     * Get number of blocks in the index
+     */
+    public int getIndexedBlocks() {
+        return stacks.size();
+    }
+
+    /**
+     * Add or subtract shares from the per-type counters, nothing is counted for unknown types
+     */
+    private void countEntities(BlockKey key, String entityType, Map<UUID, Integer> shares, int sign) {
+        if (entityType == null || shares.isEmpty()) {
+            return;
+        }
+
+        int total = 0;
+        for (Map.Entry<UUID, Integer> entry : shares.entrySet()) {
+            total += entry.getValue();
+            playerEntityCounts.merge(new PlayerEntity(entry.getKey(), entityType), sign * entry.getValue(),
+                (a, b) -> a + b == 0 ? null : a + b);
+        }
+        chunkEntityCounts.merge(new ChunkEntity(key.toChunkKey(), entityType), sign * total,
+            (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    private void indexOwner(UUID owner, BlockKey key) {
+        ownerIndex.computeIfAbsent(owner, k -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    private void unindexOwner(UUID owner, BlockKey key) {
+        ownerIndex.computeIfPresent(owner, (k, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * Spawners taken from one owner
+     * @param owner Owner UUID
+     * @param amount Number of spawners taken
+     * @param teamId Team pool the spawners were charged to, empty for none, or null if unknown
+     */
+    public record Removal(UUID owner, int amount, String teamId) {}
+
+    private record ChunkEntity(ChunkKey chunk, String entityType) {}
+
+    private record PlayerEntity(UUID owner, String entityType) {}
+
+    /**
+     * Owners of one spawner stack
+     */
+    private static final class OwnedStack {
+        private final Map<UUID, Integer> shares = new LinkedHashMap<>(2);
+        // Team pool each share was charged to, a share added after a team change keeps the latest team
+        private final Map<UUID, String> teams = new HashMap<>(2);
+        private String entityType;
+
+        synchronized void add(UUID owner, int quantity, String entityType, String teamId) {
+            shares.merge(owner, quantity, Integer::sum);
+            if (entityType != null) {
+                this.entityType = entityType;
+            }
+            if (teamId != null) {
+                teams.put(owner, teamId);
+            }
+        }
+
+        synchronized void take(UUID actor, int quantity, Map<UUID, Integer> taken, Map<UUID, String> takenTeams) {
+            int remaining = takeFrom(actor, quantity, taken, takenTeams);
+            if (remaining <= 0) {
+                return;
+            }
+
+            List<UUID> others = new ArrayList<>(shares.keySet());
+            others.sort(Comparator.comparingInt((UUID owner) -> shares.get(owner)).reversed());
+            for (UUID owner : others) {
+                remaining = takeFrom(owner, remaining, taken, takenTeams);
+                if (remaining <= 0) {
+                    return;
+                }
+            }
+        }
+
+        private int takeFrom(UUID owner, int quantity, Map<UUID, Integer> taken, Map<UUID, String> takenTeams) {
+            Integer share = shares.get(owner);
+            if (share == null) {
+                return quantity;
+            }
+
+            int amount = Math.min(share, quantity);
+            String teamId = amount == share ? teams.remove(owner) : teams.get(owner);
+            if (amount == share) {
+                shares.remove(owner);
+            } else {
+                shares.put(owner, share - amount);
+            }
+            taken.merge(owner, amount, Integer::sum);
+            if (teamId != null) {
+                takenTeams.put(owner, teamId);
+            }
+            return quantity - amount;
+        }
+
+        synchronized int getShare(UUID owner) {
+            return shares.getOrDefault(owner, 0);
+        }
+
+        synchronized Map<UUID, Integer> getShares() {
+            return new LinkedHashMap<>(shares);
+        }
+
+        synchronized String getTeam(UUID owner) {
+            return teams.get(owner);
+        }
+
+        synchronized String getEntityType() {
+            return entityType;
+        }
+
+        synchronized boolean isEmpty() {
+            return shares.isEmpty();
+        }
+    }
+}
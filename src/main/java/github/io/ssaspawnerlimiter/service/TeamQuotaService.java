@@ -0,0 +1,319 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.team.PermissionTeamProvider;
+import github.io.ssaspawnerlimiter.team.TeamProvider;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared quota pools on top of the per-player limit: members of a team draw from one team limit,
+ * and all spawners count toward an optional server-wide cap.
+ * Team counts are kept in atomic counters and the server count is the sum of the world totals, so a check is a few reads.
+ */
+public class TeamQuotaService {
+    private static final String BYPASS_PERMISSION = "ssaspawnerlimiter.team.bypass";
+    // Cached marker for players resolved to no team
+    private static final String NO_TEAM = "";
+
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+
+    // Thread-safe cache for team pool counts
+    private final Map<String, CacheEntry> teamCache = new ConcurrentHashMap<>();
+    // Team of each player seen this session
+    private final Map<UUID, String> memberTeams = new ConcurrentHashMap<>();
+    // Increments sent to the database but not yet acknowledged, per team
+    private final Map<String, AtomicInteger> pendingIncrements = new ConcurrentHashMap<>();
+    private final long cacheExpirationMs = 300 * 1000L; // 5 minutes
+
+    @Getter
+    private boolean enabled;
+    @Getter
+    private int defaultTeamLimit;
+    @Getter
+    private long serverCap;
+    private Map<String, Integer> teamLimits = Map.of();
+    @Getter
+    private volatile TeamProvider teamProvider;
+
+    /**
+     * Outcome of a quota pool check
+     */
+    public enum Result {
+        ALLOWED,
+        TEAM_LIMIT,
+        SERVER_LIMIT,
+        // The team count couldn't be read in time
+        UNAVAILABLE
+    }
+
+    public TeamQuotaService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.teamProvider = new PermissionTeamProvider();
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("quota_pools.enabled", false);
+        this.defaultTeamLimit = plugin.getConfig().getInt("quota_pools.default_team_limit", 2000);
+        this.serverCap = plugin.getConfig().getLong("quota_pools.server_cap", -1L);
+
+        Map<String, Integer> limits = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("quota_pools.team_limits");
+        if (section != null) {
+            for (String teamId : section.getKeys(false)) {
+                limits.put(teamId, section.getInt(teamId));
+            }
+        }
+        this.teamLimits = Map.copyOf(limits);
+        memberTeams.clear();
+    }
+
+    /**
+     * Register the team provider of a team plugin, replacing the permission based default
+     * @param teamProvider The provider
+     */
+    public void setTeamProvider(TeamProvider teamProvider) {
+        this.teamProvider = teamProvider;
+        memberTeams.clear();
+        plugin.getLogger().info("Using team provider: " + teamProvider.getName());
+    }
+
+    /**
+     * Check the team pool and server cap (SYNC)
+     * @param player The player placing the spawner
+     * @param quantity The quantity being placed
+     * @return which limit would be exceeded, if any
+     */
+    public Result canPlaceSpawner(Player player, int quantity) {
+        if (!enabled) {
+            return Result.ALLOWED;
+        }
+
+        if (player.hasPermission(BYPASS_PERMISSION)) {
+            return Result.ALLOWED;
+        }
+
+        if (serverCap >= 0 && getServerCount() + quantity > serverCap) {
+            return Result.SERVER_LIMIT;
+        }
+
+        String teamId = getTeamId(player.getUniqueId());
+        if (teamId == null) {
+            return Result.ALLOWED;
+        }
+
+        int count = getStoredCount(teamId);
+        if (count < 0) {
+            return Result.UNAVAILABLE;
+        }
+        return count + quantity > getTeamLimit(teamId) ? Result.TEAM_LIMIT : Result.ALLOWED;
+    }
+
+    /**
+     * Get the team of a player, cached for the session
+     * @param uuid Player UUID
+     * @return Team id, or null if none
+     */
+    public String getTeamId(UUID uuid) {
+        String teamId = memberTeams.get(uuid);
+        if (teamId == null) {
+            teamId = teamProvider.getTeamId(uuid);
+            if (teamId == null) {
+                // Providers may not resolve offline players, so only an online player is known to have no team
+                if (Bukkit.getPlayer(uuid) == null) {
+                    return null;
+                }
+                teamId = NO_TEAM;
+            }
+            memberTeams.put(uuid, teamId);
+        }
+        return teamId.isEmpty() ? null : teamId;
+    }
+
+    /**
+     * Get the limit of a team's pool
+     */
+    public int getTeamLimit(String teamId) {
+        return teamLimits.getOrDefault(teamId, defaultTeamLimit);
+    }
+
+    /**
+     * Get current spawner count of a team's pool (SYNC)
+     * @param teamId Team id
+     * @return current count
+     */
+    public int getTeamSpawnerCount(String teamId) {
+        return Math.max(0, getStoredCount(teamId));
+    }
+
+    /**
+     * Get stored spawner count of a team's pool from the cache, or the database on a miss (SYNC)
+     * @return the count, or -1 if it couldn't be read and storage.unavailable_policy is DENY
+     */
+    private int getStoredCount(String teamId) {
+        CacheEntry cached = teamCache.get(teamId);
+        // Under load an expired count is better than blocking the tick on the database
+        if (cached != null && (!cached.isExpired() || isDegraded())) {
+            return cached.count.get();
+        }
+
+        // Pending first, so an increment acknowledged during the read is counted twice rather than missed
+        int pending = getPendingIncrement(teamId);
+
+        // Cache miss or expired, fetch from database with a bounded wait
+        Integer count = databaseManager.awaitCount(() -> databaseManager.getTeamSpawnerCount(teamId));
+        if (count == null) {
+            return databaseManager.getUnavailableCount(cached != null ? cached.count.get() : -1);
+        }
+        teamCache.put(teamId, new CacheEntry(count + pending));
+        return count + pending;
+    }
+
+    /**
+     * Get the increments of a team's pool still on their way to the database
+     */
+    private int getPendingIncrement(String teamId) {
+        AtomicInteger pending = pendingIncrements.get(teamId);
+        return pending != null ? pending.get() : 0;
+    }
+
+    /**
+     * Get server-wide spawner count, the sum of the world totals
+     */
+    public long getServerCount() {
+        WorldCapService worldCapService = plugin.getWorldCapService();
+        return worldCapService != null ? worldCapService.getServerTotal() : 0;
+    }
+
+    /**
+     * Add spawners placed by a player to their team pool (ASYNC database update)
+     * @param uuid Player UUID
+     * @param quantity The quantity to add
+     * @return Team id charged, empty if the player has no team, or null if pools are off.
+     *         Stored with the ownership record so the removal decrements the same pool.
+     */
+    public String addSpawners(UUID uuid, int quantity) {
+        if (!enabled || quantity <= 0) {
+            return null;
+        }
+
+        String teamId = getTeamId(uuid);
+        if (teamId == null) {
+            return NO_TEAM;
+        }
+        adjustTeam(teamId, quantity);
+        return teamId;
+    }
+
+    /**
+     * Remove spawners owned by a player from the team pool they were charged to (ASYNC database update)
+     * @param uuid Owner UUID
+     * @param quantity The quantity to remove
+     * @param teamId Team id recorded when the spawners were placed, empty for none,
+     *               or null if unknown to use the owner's current team
+     */
+    public void removeSpawners(UUID uuid, int quantity, String teamId) {
+        if (!enabled || quantity <= 0) {
+            return;
+        }
+
+        if (teamId == null) {
+            teamId = getTeamId(uuid);
+        }
+        if (teamId == null || teamId.isEmpty()) {
+            return;
+        }
+        adjustTeam(teamId, -quantity);
+    }
+
+    /**
+     * Apply a change to a team's cached count and send it to the database
+     */
+    private void adjustTeam(String teamId, int quantity) {
+        CacheEntry cached = teamCache.get(teamId);
+        if (cached != null) {
+            cached.count.updateAndGet(count -> Math.max(0, count + quantity));
+        }
+
+        // Only increments are tracked, a removal still in flight makes a miss over-count, never under-count
+        if (quantity > 0) {
+            pendingIncrements.computeIfAbsent(teamId, k -> new AtomicInteger()).addAndGet(quantity);
+        }
+        databaseManager.incrementTeamSpawnerCount(teamId, quantity)
+            .whenComplete((newCount, error) -> {
+                if (quantity > 0) {
+                    pendingIncrements.computeIfPresent(teamId,
+                        (k, pending) -> pending.addAndGet(-quantity) <= 0 ? null : pending);
+                }
+                if (newCount != null && newCount >= 0) {
+                    teamCache.putIfAbsent(teamId, new CacheEntry(newCount + getPendingIncrement(teamId)));
+                }
+            });
+    }
+
+    /**
+     * Forget the team cached for a player before they joined, it may have been resolved while they were offline
+     */
+    public void onPlayerJoin(UUID uuid) {
+        memberTeams.remove(uuid);
+    }
+
+    /**
+     * Forget the cached team of a player who left
+     */
+    public void onPlayerQuit(UUID uuid) {
+        memberTeams.remove(uuid);
+    }
+
+    /**
+     * Clean up expired cache entries
+     */
+    public void cleanupExpiredCache() {
+        teamCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    }
+
+    /**
+     * Clear all cache entries
+     */
+    public void clearCache() {
+        teamCache.clear();
+        memberTeams.clear();
+    }
+
+    /**
+     * Check if the load governor currently has expensive paths turned off
+     */
+    private boolean isDegraded() {
+        LoadGovernor loadGovernor = plugin.getLoadGovernor();
+        return loadGovernor != null && loadGovernor.isDegraded();
+    }
+
+    /**
+     * Cache entry with expiration, the count is updated in place on every change
+     */
+    private class CacheEntry {
+        final AtomicInteger count;
+        final long timestamp;
+
+        CacheEntry(int count) {
+            this.count = new AtomicInteger(count);
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - timestamp > cacheExpirationMs;
+        }
+    }
+}
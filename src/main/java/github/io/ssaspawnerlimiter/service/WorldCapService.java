@@ -0,0 +1,175 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.limit.LimitCheck;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Hard ceiling on the total spawners per world.
+ * Totals are kept in striped {@link LongAdder} counters, so placements in different Folia regions of the same world
+ * don't contend on one value. Counters follow every chunk count delta and are periodically corrected
+ * against the exact sums in {@code spawner_chunks}.
+ */
+public class WorldCapService {
+    private final SSASpawnerLimiter plugin;
+    private final DatabaseManager databaseManager;
+
+    private final Map<String, LongAdder> totals = new ConcurrentHashMap<>();
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    @Getter
+    private boolean enabled;
+    @Getter
+    private long defaultCap;
+    private Map<String, Long> worldCaps = Map.of();
+
+    public WorldCapService(SSASpawnerLimiter plugin, DatabaseManager databaseManager) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        loadConfiguration();
+    }
+
+    public void loadConfiguration() {
+        this.enabled = plugin.getConfig().getBoolean("world_caps.enabled", false);
+        this.defaultCap = plugin.getConfig().getLong("world_caps.default_cap", -1L);
+
+        Map<String, Long> caps = new HashMap<>();
+        ConfigurationSection section = plugin.getConfig().getConfigurationSection("world_caps.worlds");
+        if (section != null) {
+            for (String world : section.getKeys(false)) {
+                caps.put(world, section.getLong(world));
+            }
+        }
+        this.worldCaps = Map.copyOf(caps);
+    }
+
+    /**
+     * Check if a player can place spawners without exceeding the world's cap (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param quantity The quantity being placed
+     * @return true if allowed, false otherwise
+     */
+    public boolean canPlaceSpawner(Player player, Location location, int quantity) {
+        return checkSpawner(player, location, quantity).allowed();
+    }
+
+    /**
+     * Check if a player can place spawners without exceeding the world's cap (SYNC)
+     * @param player The player placing the spawner
+     * @param location The location where spawner will be placed
+     * @param quantity The quantity being placed
+     * @return the outcome, with the world total and cap when denied
+     */
+    public LimitCheck checkSpawner(Player player, Location location, int quantity) {
+        if (!enabled) {
+            return LimitCheck.ALLOWED;
+        }
+
+        String world = location.getWorld().getName();
+        long cap = getCap(world);
+        if (cap < 0 || player.hasPermission("ssaspawnerlimiter.bypass")) {
+            return LimitCheck.ALLOWED;
+        }
+
+        return LimitCheck.of(getTotal(world), quantity, cap);
+    }
+
+    /**
+     * Get the cap of a world
+     * @return the cap, or -1 if uncapped
+     */
+    public long getCap(String world) {
+        return worldCaps.getOrDefault(world, defaultCap);
+    }
+
+    /**
+     * Get the current spawner total of a world
+     */
+    public long getTotal(String world) {
+        LongAdder total = totals.get(world);
+        return total != null ? total.sum() : 0;
+    }
+
+    /**
+     * Get the spawner total of all worlds
+     */
+    public long getServerTotal() {
+        long sum = 0;
+        for (LongAdder total : totals.values()) {
+            sum += total.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * Apply a chunk count delta
+     * @param world World name
+     * @param quantity Spawners added (negative when removed)
+     */
+    public void add(String world, int quantity) {
+        totals.computeIfAbsent(world, k -> new LongAdder()).add(quantity);
+    }
+
+    /**
+     * Get current totals of all worlds, sorted by name
+     */
+    public Map<String, Long> getTotals() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        totals.forEach((world, total) -> snapshot.put(world, total.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Correct all counters against the exact totals in the database (blocks, call off the main thread).
+     * Corrections are added rather than set, so deltas applied while the query runs are kept;
+     * a delta whose write lands in the query result as well is counted twice until the next run.
+     * @return true if reconciled, false otherwise
+     */
+    public boolean reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            Map<String, Long> local = new HashMap<>();
+            totals.forEach((world, total) -> local.put(world, total.sum()));
+
+            Map<String, Long> exact = databaseManager.getWorldSpawnerTotals().join();
+            if (exact == null) {
+                return false;
+            }
+
+            for (String world : local.keySet()) {
+                exact.putIfAbsent(world, 0L);
+            }
+            exact.forEach((world, count) -> {
+                long drift = count - local.getOrDefault(world, 0L);
+                if (drift != 0) {
+                    totals.computeIfAbsent(world, k -> new LongAdder()).add(drift);
+                    if (plugin.getConfig().getBoolean("debug", false)) {
+                        plugin.getLogger().info(String.format("[WORLD CAP] Corrected %s by %d to %d", world, drift, count));
+                    }
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Error reconciling world spawner totals", e);
+            return false;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package github.io.ssaspawnerlimiter.sync;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.Scheduler;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.sync.ChangeBatch;
+import github.io.ssaspawnerlimiter.core.sync.ChangeBatchCodec;
+import github.io.ssaspawnerlimiter.core.sync.InvalidationTransport;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Keeps chunk and player caches of servers sharing one storage backend in sync.
+ * Local writes are collected per key (latest value wins) and published in batches,
+ * received batches patch the local caches in place without reading the database.
+ */
+public class CacheSyncService {
+    private final SSASpawnerLimiter plugin;
+    @Getter
+    private InvalidationTransport transport;
+    private final int maxEntriesPerMessage;
+    private final long flushIntervalTicks;
+    private final long pollIntervalTicks;
+
+    private final Map<ChunkKey, PendingValue> pendingChunks = new ConcurrentHashMap<>();
+    private final Map<UUID, PendingValue> pendingPlayers = new ConcurrentHashMap<>();
+
+    private Scheduler.Task flushTask;
+    private Scheduler.Task pollTask;
+
+    @Getter
+    private final AtomicLong sentChanges = new AtomicLong();
+    @Getter
+    private final AtomicLong receivedChanges = new AtomicLong();
+
+    public CacheSyncService(SSASpawnerLimiter plugin, InvalidationTransport transport,
+                            int maxEntriesPerMessage, long flushIntervalTicks, long pollIntervalTicks) {
+        this.plugin = plugin;
+        this.transport = transport;
+        this.maxEntriesPerMessage = maxEntriesPerMessage;
+        this.flushIntervalTicks = flushIntervalTicks;
+        this.pollIntervalTicks = pollIntervalTicks;
+    }
+
+    /**
+     * Start the transport and the flush/poll tasks
+     */
+    public void start() {
+        transport.start().thenAccept(success -> {
+            if (!success) {
+                plugin.getLogger().warning("Failed to start cache sync transport " + transport.getName());
+                return;
+            }
+            flushTask = Scheduler.runTaskTimerAsync(this::flush, flushIntervalTicks, flushIntervalTicks);
+            pollTask = Scheduler.runTaskTimerAsync(this::poll, pollIntervalTicks, pollIntervalTicks);
+            plugin.getLogger().info("Cache sync is ENABLED using " + transport.getName());
+        });
+    }
+
+    /**
+     * Replace the transport, e.g. with a message broker provided by another plugin
+     * @param transport The new transport
+     */
+    public void setTransport(InvalidationTransport transport) {
+        stop();
+        this.transport = transport;
+        start();
+    }
+
+    /**
+     * Record a chunk count written by this server
+     * @param count New count, negative if other servers should drop their entry
+     */
+    public void recordChunk(ChunkKey key, int count) {
+        pendingChunks.put(key, new PendingValue(count, System.currentTimeMillis()));
+    }
+
+    /**
+     * Record a player count written by this server
+     * @param count New count, negative if other servers should drop their entry
+     */
+    public void recordPlayer(UUID uuid, int count) {
+        pendingPlayers.put(uuid, new PendingValue(count, System.currentTimeMillis()));
+    }
+
+    /**
+     * Publish pending changes, split into messages of at most maxEntriesPerMessage entries
+     */
+    public void flush() {
+        if (pendingChunks.isEmpty() && pendingPlayers.isEmpty()) {
+            return;
+        }
+
+        List<ChangeBatch.ChunkChange> chunks = new ArrayList<>();
+        List<ChangeBatch.PlayerChange> players = new ArrayList<>();
+
+        for (Map.Entry<ChunkKey, PendingValue> entry : pendingChunks.entrySet()) {
+            // Only drain the value we read, a newer one stays queued for the next flush
+            if (pendingChunks.remove(entry.getKey(), entry.getValue())) {
+                ChunkKey key = entry.getKey();
+                chunks.add(new ChangeBatch.ChunkChange(key.world(), key.x(), key.z(),
+                    entry.getValue().count(), entry.getValue().writtenAt()));
+                if (chunks.size() >= maxEntriesPerMessage) {
+                    publish(chunks, players);
+                    chunks = new ArrayList<>();
+                }
+            }
+        }
+
+        for (Map.Entry<UUID, PendingValue> entry : pendingPlayers.entrySet()) {
+            if (pendingPlayers.remove(entry.getKey(), entry.getValue())) {
+                players.add(new ChangeBatch.PlayerChange(entry.getKey(),
+                    entry.getValue().count(), entry.getValue().writtenAt()));
+                if (chunks.size() + players.size() >= maxEntriesPerMessage) {
+                    publish(chunks, players);
+                    chunks = new ArrayList<>();
+                    players = new ArrayList<>();
+                }
+            }
+        }
+
+        if (!chunks.isEmpty() || !players.isEmpty()) {
+            publish(chunks, players);
+        }
+    }
+
+    private void publish(List<ChangeBatch.ChunkChange> chunks, List<ChangeBatch.PlayerChange> players) {
+        ChangeBatch batch = new ChangeBatch(chunks, players);
+        sentChanges.addAndGet(batch.size());
+        transport.publish(ChangeBatchCodec.encode(batch));
+    }
+
+    /**
+     * Fetch changes of other servers and patch local caches
+     */
+    public void poll() {
+        transport.poll().thenAccept(payloads -> {
+            for (byte[] payload : payloads) {
+                try {
+                    apply(ChangeBatchCodec.decode(payload));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().log(Level.WARNING, "Skipping malformed cache sync message", e);
+                }
+            }
+        });
+    }
+
+    private void apply(ChangeBatch batch) {
+        receivedChanges.addAndGet(batch.size());
+
+        if (plugin.getChunkLimitService() != null) {
+            for (ChangeBatch.ChunkChange change : batch.chunks()) {
+                plugin.getChunkLimitService().applyRemoteCount(
+                    new ChunkKey(change.world(), change.x(), change.z()), change.count(), change.writtenAt());
+            }
+        }
+
+        if (plugin.getPlayerLimitService() != null) {
+            for (ChangeBatch.PlayerChange change : batch.players()) {
+                plugin.getPlayerLimitService().applyRemoteCount(change.uuid(), change.count(), change.writtenAt());
+            }
+        }
+
+        if (plugin.getConfig().getBoolean("debug", false)) {
+            plugin.getLogger().info(String.format(
+                "[DEBUG] Applied %d chunk and %d player changes from other servers",
+                batch.chunks().size(), batch.players().size()
+            ));
+        }
+    }
+
+    /**
+     * Stop tasks and publish what is still pending
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (pollTask != null) {
+            pollTask.cancel();
+            pollTask = null;
+        }
+        flush();
+        transport.close();
+    }
+
+    private record PendingValue(int count, long writtenAt) {}
+}
@@ -0,0 +1,111 @@
+package github.io.ssaspawnerlimiter.sync;
+
+import github.io.ssaspawnerlimiter.core.storage.ChangeLogEntry;
+import github.io.ssaspawnerlimiter.core.sync.InvalidationTransport;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport over the shared database: messages are rows of a change log table keyed by sequence number,
+ * and every server polls for rows written by others after the last sequence it has seen.
+ * <p>
+ * Sequence numbers can become visible out of order when concurrent transactions commit,
+ * so a gap below an already seen row is kept open for a while before it is skipped.
+ */
+public class DatabaseChangeLogTransport implements InvalidationTransport {
+    private static final int POLL_LIMIT = 256;
+    private static final long GAP_TIMEOUT_MS = 10_000L;
+
+    private final DatabaseManager databaseManager;
+    private final String serverId;
+    private final long retentionMs;
+
+    // Everything up to this sequence has been processed
+    private long contiguousSeq;
+    // Sequences above contiguousSeq already processed, with the time they were first seen
+    private final TreeMap<Long, Long> processedAhead = new TreeMap<>();
+    private long lastPrune;
+
+    public DatabaseChangeLogTransport(DatabaseManager databaseManager, String serverId, long retentionMs) {
+        this.databaseManager = databaseManager;
+        this.serverId = serverId;
+        this.retentionMs = retentionMs;
+    }
+
+    @Override
+    public String getName() {
+        return "Database change log";
+    }
+
+    @Override
+    public CompletableFuture<Boolean> start() {
+        // Start at the tail, history before this server started is already in the database
+        return databaseManager.getLatestChangeSeq().thenApply(seq -> {
+            if (seq < 0) {
+                return false;
+            }
+            synchronized (this) {
+                contiguousSeq = seq;
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> publish(byte[] payload) {
+        return databaseManager.appendChangeLog(serverId, payload).thenApply(seq -> seq >= 0);
+    }
+
+    @Override
+    public synchronized CompletableFuture<List<byte[]>> poll() {
+        long now = System.currentTimeMillis();
+        if (now - lastPrune > retentionMs / 2) {
+            lastPrune = now;
+            databaseManager.pruneChangeLog(now - retentionMs);
+        }
+
+        return databaseManager.readChangeLog(contiguousSeq, POLL_LIMIT).thenApply(this::accept);
+    }
+
+    /**
+     * Collect unseen entries of other servers and advance the sequence window
+     */
+    private synchronized List<byte[]> accept(List<ChangeLogEntry> entries) {
+        long now = System.currentTimeMillis();
+        List<byte[]> payloads = new ArrayList<>();
+
+        for (ChangeLogEntry entry : entries) {
+            if (entry.seq() <= contiguousSeq || processedAhead.containsKey(entry.seq())) {
+                continue;
+            }
+            processedAhead.put(entry.seq(), now);
+            if (!entry.origin().equals(serverId)) {
+                payloads.add(entry.payload());
+            }
+        }
+
+        // Close the window over consecutive sequences, skip gaps that stayed open too long
+        Iterator<Map.Entry<Long, Long>> iterator = processedAhead.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Long> next = iterator.next();
+            if (next.getKey() != contiguousSeq + 1 && now - next.getValue() < GAP_TIMEOUT_MS) {
+                break;
+            }
+            contiguousSeq = next.getKey();
+            iterator.remove();
+        }
+
+        return payloads;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, the database connection is owned by DatabaseManager
+    }
+}
@@ -0,0 +1,37 @@
+package github.io.ssaspawnerlimiter.team;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Team provider based on permission nodes: a player holding {@code ssaspawnerlimiter.team.<id>} is in team {@code <id>}.
+ * Works with any permission plugin, but only resolves online players.
+ */
+public class PermissionTeamProvider implements TeamProvider {
+    private static final String PREFIX = "ssaspawnerlimiter.team.";
+    private static final String BYPASS = PREFIX + "bypass";
+
+    @Override
+    public String getName() {
+        return "permissions";
+    }
+
+    @Override
+    public String getTeamId(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null) {
+            return null;
+        }
+
+        for (var permAttachment : player.getEffectivePermissions()) {
+            String permission = permAttachment.getPermission();
+            if (permAttachment.getValue() && permission.startsWith(PREFIX) && !permission.equals(BYPASS)
+                    && permission.length() > PREFIX.length()) {
+                return permission.substring(PREFIX.length());
+            }
+        }
+        return null;
+    }
+}
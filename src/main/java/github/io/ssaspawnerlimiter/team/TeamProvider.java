@@ -0,0 +1,24 @@
+package github.io.ssaspawnerlimiter.team;
+
+import java.util.UUID;
+
+/**
+ * Resolves which team (island, faction, party...) a player belongs to, so team members share one quota pool.
+ * Team plugins can register their own implementation through
+ * {@link github.io.ssaspawnerlimiter.service.TeamQuotaService#setTeamProvider(TeamProvider)}.
+ */
+public interface TeamProvider {
+
+    /**
+     * Get name of the provider for logging
+     */
+    String getName();
+
+    /**
+     * Get the team of a player. Called off the main thread and for offline players when their spawners are removed,
+     * so implementations should not depend on the player being online where the team plugin allows it.
+     * @param player Player UUID
+     * @return Team id (at most 64 characters), or null if the player has no team
+     */
+    String getTeamId(UUID player);
+}
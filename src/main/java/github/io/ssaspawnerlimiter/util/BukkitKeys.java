@@ -0,0 +1,28 @@
+package github.io.ssaspawnerlimiter.util;
+
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+
+/**
+ * Builds the core's chunk and block keys from server types.
+ * Chunk keys are computed from block coordinates, so the chunk is never loaded for them.
+ */
+public final class BukkitKeys {
+
+    private BukkitKeys() {
+    }
+
+    public static ChunkKey chunk(Chunk chunk) {
+        return new ChunkKey(chunk.getWorld().getName(), chunk.getX(), chunk.getZ());
+    }
+
+    public static ChunkKey chunk(Location location) {
+        return ChunkKey.ofBlock(location.getWorld().getName(), location.getBlockX(), location.getBlockZ());
+    }
+
+    public static BlockKey block(Location location) {
+        return new BlockKey(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}
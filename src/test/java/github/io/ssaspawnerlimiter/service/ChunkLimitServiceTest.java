@@ -0,0 +1,47 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChunkLimitServiceTest {
+
+    private static World world(String name) {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn(name);
+        return world;
+    }
+
+    private static SpawnerDataDTO spawner(Location location) {
+        SpawnerDataDTO spawner = mock(SpawnerDataDTO.class);
+        when(spawner.getLocation()).thenReturn(location);
+        return spawner;
+    }
+
+    @Test
+    void countsOnlySpawnersInTheChunk() {
+        World world = world("world");
+        World nether = world("world_nether");
+        List<SpawnerDataDTO> spawners = List.of(
+            spawner(new Location(world, -1, 64, -1)),
+            spawner(new Location(world, -16, 10, -16)),
+            spawner(new Location(world, -17, 64, -1)),
+            spawner(new Location(world, 0, 64, 0)),
+            spawner(new Location(nether, -1, 64, -1)),
+            spawner(new Location(null, -1, 64, -1)),
+            spawner(null));
+
+        assertEquals(2, ChunkLimitService.countSpawnersInChunk(spawners, new ChunkKey("world", -1, -1)));
+        assertEquals(1, ChunkLimitService.countSpawnersInChunk(spawners, new ChunkKey("world", -2, -1)));
+        assertEquals(1, ChunkLimitService.countSpawnersInChunk(spawners, new ChunkKey("world_nether", -1, -1)));
+        assertEquals(0, ChunkLimitService.countSpawnersInChunk(spawners, new ChunkKey("world_the_end", -1, -1)));
+    }
+}
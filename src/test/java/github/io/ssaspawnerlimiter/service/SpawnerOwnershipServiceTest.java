@@ -0,0 +1,71 @@
+package github.io.ssaspawnerlimiter.service;
+
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.service.SpawnerOwnershipService.Removal;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpawnerOwnershipServiceTest {
+    private static final UUID ALICE = new UUID(1L, 1L);
+    private static final UUID BOB = new UUID(2L, 2L);
+    private static final UUID CAROL = new UUID(3L, 3L);
+
+    private final SpawnerOwnershipService service =
+        new SpawnerOwnershipService(mock(SSASpawnerLimiter.class), mock(DatabaseManager.class));
+    private final Location location;
+
+    SpawnerOwnershipServiceTest() {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn("world");
+        location = new Location(world, -5, 40, 20);
+    }
+
+    @Test
+    void actorShareIsTakenFirstThenLargestShares() {
+        service.addSpawners(location, ALICE, 2, "ZOMBIE", "red");
+        service.addSpawners(location, BOB, 5, "ZOMBIE", "");
+        service.addSpawners(location, CAROL, 1, "ZOMBIE", null);
+
+        List<Removal> removals = service.removeSpawners(location, ALICE, 4);
+
+        assertEquals(List.of(new Removal(ALICE, 2, "red"), new Removal(BOB, 2, "")), removals);
+        assertEquals(Map.of(BOB, 3, CAROL, 1), service.getOwners(new BlockKey("world", -5, 40, 20)));
+        assertEquals(4, service.getChunkEntityCount(new ChunkKey("world", -1, 1), "ZOMBIE"));
+        assertEquals(0, service.getPlayerEntityCount(ALICE, "ZOMBIE"));
+    }
+
+    @Test
+    void unindexedSpawnersAreChargedToActorWithUnknownTeam() {
+        service.addSpawners(location, BOB, 1, "ZOMBIE", "blue");
+
+        List<Removal> removals = service.removeSpawners(location, ALICE, 3);
+
+        assertEquals(List.of(new Removal(BOB, 1, "blue"), new Removal(ALICE, 2, null)), removals);
+        assertEquals(0, service.getIndexedBlocks());
+        assertTrue(service.getOwnedSpawners(BOB).isEmpty());
+    }
+
+    @Test
+    void typeChangeMovesEveryShare() {
+        service.addSpawners(location, ALICE, 2, "ZOMBIE", null);
+        service.addSpawners(location, BOB, 1, "BLAZE", null);
+
+        ChunkKey chunk = new ChunkKey("world", -1, 1);
+        assertEquals(0, service.getChunkEntityCount(chunk, "ZOMBIE"));
+        assertEquals(3, service.getChunkEntityCount(chunk, "BLAZE"));
+        assertEquals(2, service.getPlayerEntityCount(ALICE, "BLAZE"));
+    }
+}
@@ -0,0 +1,18 @@
+package github.io.ssaspawnerlimiter.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ServerSimulationTest {
+
+    @Test
+    void storedCountsMatchTheWorld() throws Exception {
+        ServerSimulation.Options options = new ServerSimulation.Options(2_000, 50, 200, 50, 0, 64, 2, Map.of());
+
+        assertEquals(List.of(), ServerSimulation.simulate(options, 1L));
+    }
+}
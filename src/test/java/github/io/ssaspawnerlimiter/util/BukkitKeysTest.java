@@ -0,0 +1,36 @@
+package github.io.ssaspawnerlimiter.util;
+
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BukkitKeysTest {
+
+    private static World world(String name) {
+        World world = mock(World.class);
+        when(world.getName()).thenReturn(name);
+        return world;
+    }
+
+    @Test
+    void chunkIsTakenFromBlockCoordinates() {
+        World world = world("world");
+
+        assertEquals(new ChunkKey("world", 0, 0), BukkitKeys.chunk(new Location(world, 15.9, 64, 0)));
+        assertEquals(new ChunkKey("world", -1, -2), BukkitKeys.chunk(new Location(world, -0.5, 64, -17)));
+        assertEquals(new ChunkKey("world", 1, -1), BukkitKeys.chunk(new Location(world, 16, 64, -16)));
+    }
+
+    @Test
+    void blockRoundsDown() {
+        World world = world("world_nether");
+
+        assertEquals(new BlockKey("world_nether", -1, 70, 3), BukkitKeys.block(new Location(world, -0.2, 70.9, 3.7)));
+    }
+}
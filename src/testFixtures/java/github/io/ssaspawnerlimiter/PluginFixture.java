@@ -0,0 +1,304 @@
+package github.io.ssaspawnerlimiter;
+
+import github.io.ssaspawnerlimiter.core.metrics.MetricsRegistry;
+import github.io.ssaspawnerlimiter.core.metrics.SlowOperationLog;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.nighter.smartspawner.api.SmartSpawnerAPI;
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.objenesis.ObjenesisStd;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Headless stand-ins for the server, SmartSpawner and the plugin, so services can be benchmarked, tested and run end
+ * to end without a server.
+ * The plugin instance is allocated without running the {@link JavaPlugin} constructor and gets the bundled
+ * config.yml, a temp data folder and SmartSpawner's spawner list through its fields. Bukkit interfaces are
+ * backed by small {@link Proxy} stubs with the lookups a real server does; SmartSpawner's spawner DTOs are stub-only
+ * mocks. Storage is a real SQLite file in the temp data folder.
+ */
+public final class PluginFixture implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger("SSASpawnerLimiter-Fixture");
+
+    private final Path dataFolder;
+    private final SSASpawnerLimiter plugin;
+    private final SlowOperationLog slowOperationLog;
+    private final List<SpawnerDataDTO> spawners = new ArrayList<>();
+    private volatile Supplier<List<SpawnerDataDTO>> spawnerSource = () -> spawners;
+    private DatabaseManager databaseManager;
+
+    /**
+     * @param overrides Config values replacing the defaults of config.yml, by path
+     */
+    public PluginFixture(Map<String, Object> overrides) {
+        LOGGER.setLevel(Level.WARNING);
+        try {
+            this.dataFolder = Files.createTempDirectory("ssaspawnerlimiter-fixture");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        YamlConfiguration config = new YamlConfiguration();
+        try (InputStream in = SSASpawnerLimiter.class.getResourceAsStream("/config.yml")) {
+            config.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new IllegalStateException("Failed to load bundled config.yml", e);
+        }
+        overrides.forEach(config::set);
+
+        this.plugin = new ObjenesisStd().newInstance(SSASpawnerLimiter.class);
+        this.slowOperationLog = new SlowOperationLog(dataFolder.resolve("slow-operations.log"), LOGGER);
+        setField(JavaPlugin.class, "newConfig", config);
+        setField(JavaPlugin.class, "dataFolder", dataFolder.toFile());
+        setField(JavaPlugin.class, "logger", LOGGER);
+        setField(SSASpawnerLimiter.class, "metricsRegistry", new MetricsRegistry());
+        setField(SSASpawnerLimiter.class, "slowOperationLog", slowOperationLog);
+        setField(SSASpawnerLimiter.class, "api",
+            stub(SmartSpawnerAPI.class, (method, args) -> method.equals("getAllSpawners") ? spawnerSource.get() : null));
+    }
+
+    public SSASpawnerLimiter getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Open the SQLite database in the temp data folder
+     */
+    public DatabaseManager openDatabase() {
+        databaseManager = new DatabaseManager(plugin);
+        if (!databaseManager.initialize().join()) {
+            throw new IllegalStateException("Failed to open fixture database");
+        }
+        setField(SSASpawnerLimiter.class, "databaseManager", databaseManager);
+        return databaseManager;
+    }
+
+    /**
+     * Add a spawner to the list SmartSpawner returns
+     */
+    public void addSpawner(Location location, int stackSize) {
+        SpawnerDataDTO spawner = mock(SpawnerDataDTO.class, withSettings().stubOnly());
+        when(spawner.getLocation()).thenReturn(location);
+        when(spawner.getStackSize()).thenReturn(stackSize);
+        spawners.add(spawner);
+    }
+
+    public List<SpawnerDataDTO> getSpawners() {
+        return spawners;
+    }
+
+    /**
+     * Serve SmartSpawner's spawner list from elsewhere instead of the spawners added here
+     * @param source Called on every getAllSpawners()
+     */
+    public void setSpawnerSource(Supplier<List<SpawnerDataDTO>> source) {
+        this.spawnerSource = source;
+    }
+
+    @Override
+    public void close() {
+        if (databaseManager != null) {
+            databaseManager.close();
+        }
+        slowOperationLog.close();
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            LOGGER.warning("Failed to delete " + dataFolder + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Create a world whose chunks are cached like a server's loaded chunks. Blocks have no state, so spawner types
+     * read from placed blocks are unknown.
+     */
+    public static World world(String name) {
+        Map<Long, Chunk> chunks = new ConcurrentHashMap<>();
+        World[] world = new World[1];
+        world[0] = stub(World.class, (method, args) -> switch (method) {
+            case "getName" -> name;
+            case "getChunkAt" -> {
+                int x;
+                int z;
+                if (args[0] instanceof Location location) {
+                    x = location.getBlockX() >> 4;
+                    z = location.getBlockZ() >> 4;
+                } else if (args[0] instanceof Long chunkKey) {
+                    x = (int) (long) chunkKey;
+                    z = (int) (chunkKey >> 32);
+                } else {
+                    x = (int) args[0];
+                    z = (int) args[1];
+                }
+                yield chunks.computeIfAbsent(((long) x << 32) ^ (z & 0xFFFFFFFFL), k -> chunk(world[0], x, z));
+            }
+            case "getBlockAt" -> stub(Block.class, (blockMethod, blockArgs) -> switch (blockMethod) {
+                case "getWorld" -> world[0];
+                default -> null;
+            });
+            default -> null;
+        });
+        return world[0];
+    }
+
+    private static Chunk chunk(World world, int x, int z) {
+        return stub(Chunk.class, (method, args) -> switch (method) {
+            case "getWorld" -> world;
+            case "getX" -> x;
+            case "getZ" -> z;
+            default -> null;
+        });
+    }
+
+    /**
+     * Create an online player holding a set of permissions, looked up like a server's permissible does.
+     * Their hands are empty.
+     * @param permissions Granted permission nodes; nodes starting with "-" are negated
+     */
+    public static Player player(UUID uuid, List<String> permissions) {
+        Map<String, Boolean> granted = new HashMap<>();
+        for (String permission : permissions) {
+            boolean negated = permission.startsWith("-");
+            granted.put(negated ? permission.substring(1) : permission, !negated);
+        }
+
+        Player[] player = new Player[1];
+        Set<PermissionAttachmentInfo> effective = new HashSet<>();
+        PlayerInventory inventory = stub(PlayerInventory.class, (method, args) -> null);
+        player[0] = stub(Player.class, (method, args) -> switch (method) {
+            case "getUniqueId" -> uuid;
+            case "getName" -> "player-" + uuid.toString().substring(0, 8);
+            case "isOnline" -> true;
+            case "hasPermission" -> args[0] instanceof String node && granted.getOrDefault(node, false);
+            case "isPermissionSet" -> args[0] instanceof String node && granted.containsKey(node);
+            case "getEffectivePermissions" -> effective;
+            case "getInventory" -> inventory;
+            default -> null;
+        });
+        granted.forEach((node, value) -> effective.add(new PermissionAttachmentInfo(player[0], node, null, value)));
+        return player[0];
+    }
+
+    /**
+     * Build a permission set like a player's on a survival server: rank and plugin nodes, a few negated ones and
+     * spawner limit tiers from inherited groups
+     * @param size Number of nodes
+     */
+    public static List<String> permissionSet(int size) {
+        String[] plugins = {"essentials", "luckperms", "worldguard", "griefprevention", "mcmmo", "jobs",
+            "shopkeepers", "chestshop", "coreprotect", "smartspawner", "vault", "multiverse"};
+        List<String> permissions = new ArrayList<>(size);
+        permissions.add("ssaspawnerlimiter.perplayer.1500");
+        permissions.add("ssaspawnerlimiter.perplayer.2000");
+        permissions.add("-essentials.fly");
+        for (int i = 0; permissions.size() < size; i++) {
+            permissions.add(plugins[i % plugins.length] + ".command.node" + i);
+        }
+        return permissions;
+    }
+
+    /**
+     * Answers calls to a stub by method name
+     */
+    @FunctionalInterface
+    public interface StubHandler {
+        Object invoke(String method, Object[] args);
+    }
+
+    /**
+     * Implement an interface by method name; unhandled methods return null, false or zero
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, StubHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return type.getSimpleName() + "Stub";
+                default:
+                    break;
+            }
+            Object result = handler.invoke(method.getName(), args != null ? args : new Object[0]);
+            if (result == null && method.getReturnType().isPrimitive()) {
+                return defaultValue(method.getReturnType());
+            }
+            return result;
+        });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == void.class) {
+            return null;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        return 0;
+    }
+
+    private void setField(Class<?> owner, String name, Object value) {
+        try {
+            Field field = owner.getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(plugin, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to set " + owner.getSimpleName() + "." + name, e);
+        }
+    }
+}
@@ -0,0 +1,612 @@
+package github.io.ssaspawnerlimiter.simulation;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import github.io.ssaspawnerlimiter.SSASpawnerLimiter;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.io.ssaspawnerlimiter.core.metrics.MetricsRegistry;
+import github.io.ssaspawnerlimiter.core.storage.ChunkCount;
+import github.io.ssaspawnerlimiter.database.DatabaseManager;
+import github.io.ssaspawnerlimiter.listener.SpawnerLimitListener;
+import github.nighter.smartspawner.api.events.SpawnerPlaceEvent;
+import github.nighter.smartspawner.api.events.SpawnerPlayerBreakEvent;
+import github.nighter.smartspawner.api.events.SpawnerRemoveEvent;
+import github.nighter.smartspawner.api.events.SpawnerStackEvent;
+import io.github.pluginlangcore.language.MessageService;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.mockito.Answers;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Runs the plugin end to end on a simulated server: the services start as on a real one, against a temp SQLite
+ * database, and SmartSpawner's events are fired at the registered {@link SpawnerLimitListener} tick by tick by
+ * players building on a synthetic world that SmartSpawner's spawner list is served from. Reports the latency of every
+ * event the listener handled, tick times, which limits denied what and the plugin's own metrics, then checks that the
+ * database ended up with the counts of the synthetic world.
+ * <p>
+ * Players only break and unstack their own spawners, so every count has one right value. Spawners that exist before
+ * the run have no recorded owner; removing one charges the remover, who is the owner here, so that adds up too.
+ * {@link #main} exits with status 1 if a stored count differs from the world's, {@link #simulate} returns the
+ * differences.
+ */
+public final class ServerSimulation {
+    private static final String USAGE = """
+        Usage: ServerSimulation [options]
+          --spawners <n>         Spawners in the world before the run (default 100000)
+          --players <n>          Online players building (default 1000)
+          --ticks <n>            Ticks to run (default 1200)
+          --events-per-tick <n>  SmartSpawner events fired per tick (default 50)
+          --tick-ms <n>          Wall time per tick, 0 to run ticks back to back (default 50)
+          --area <n>             Chunks along each side of the area players live in (default 512)
+          --spread <n>           Chunks around their home chunk players build in (default 2)
+          --seed <n>             Seed of the world and the events (default random)
+          --set <path>=<value>   Override a config.yml value, repeatable""";
+
+    private static final int MAX_REPORTED = 10;
+    private static final long QUIESCE_TIMEOUT_SECONDS = 60;
+
+    private final Options options;
+    private final SplittableRandom random;
+    private final PluginFixture fixture;
+    private final SimulatedServer server = new SimulatedServer();
+    private final SyntheticWorld world;
+    private final List<Player> players = new ArrayList<>();
+    private final Map<String, LongAdder> messages = new ConcurrentHashMap<>();
+    private final Map<EventType, EventStats> stats = new LinkedHashMap<>();
+    private final EventState state = new EventState();
+
+    private SSASpawnerLimiter plugin;
+    private SpawnerLimitListener listener;
+    private SpawnerPlaceEvent placeEvent;
+    private SpawnerStackEvent stackEvent;
+    private SpawnerPlayerBreakEvent breakEvent;
+    private SpawnerRemoveEvent removeEvent;
+
+    /**
+     * @param tickMs Wall time per tick, 0 to run ticks back to back
+     * @param area Chunks along each side of the area players live in
+     * @param spread Chunks around their home chunk players build in
+     * @param overrides Config values replacing the defaults of config.yml, by path
+     */
+    public record Options(int spawners, int players, int ticks, int eventsPerTick, long tickMs, int area, int spread,
+                          Map<String, Object> overrides) {
+    }
+
+    /**
+     * SmartSpawner events, with how often players fire each, in percent
+     */
+    private enum EventType {
+        PLACE(40),
+        STACK(30),
+        BREAK(20),
+        REMOVE(10);
+
+        private final int weight;
+
+        EventType(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * What the reusable event mocks currently answer
+     */
+    private static final class EventState {
+        Player player;
+        Location location;
+        int quantity;
+        int oldStackSize;
+        int newStackSize;
+        int changeAmount;
+        boolean cancelled;
+
+        void reset(Player player, Location location) {
+            this.player = player;
+            this.location = location;
+            this.quantity = 0;
+            this.oldStackSize = 0;
+            this.newStackSize = 0;
+            this.changeAmount = 0;
+            this.cancelled = false;
+        }
+    }
+
+    /**
+     * Latencies of one event type, kept whole so percentiles are exact
+     */
+    private static final class EventStats {
+        long[] nanos = new long[1024];
+        int count;
+        long allowed;
+        long skipped;
+
+        void record(long elapsed, boolean wasAllowed) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+            if (wasAllowed) {
+                allowed++;
+            }
+        }
+    }
+
+    private ServerSimulation(Options options, long seed) {
+        this.options = options;
+        this.random = new SplittableRandom(seed);
+        this.fixture = new PluginFixture(options.overrides());
+        this.world = new SyntheticWorld(new World[]{PluginFixture.world("world"), PluginFixture.world("world_nether")},
+            options.spread());
+        for (EventType type : EventType.values()) {
+            stats.put(type, new EventStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int spawners = 100_000;
+        int players = 1000;
+        int ticks = 1200;
+        int eventsPerTick = 50;
+        long tickMs = 50;
+        int area = 512;
+        int spread = 2;
+        long seed = ThreadLocalRandom.current().nextLong();
+        Map<String, Object> overrides = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                System.err.println("Missing value of " + args[i] + "\n" + USAGE);
+                System.exit(2);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--spawners" -> spawners = Integer.parseInt(value);
+                case "--players" -> players = Integer.parseInt(value);
+                case "--ticks" -> ticks = Integer.parseInt(value);
+                case "--events-per-tick" -> eventsPerTick = Integer.parseInt(value);
+                case "--tick-ms" -> tickMs = Long.parseLong(value);
+                case "--area" -> area = Integer.parseInt(value);
+                case "--spread" -> spread = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--set" -> {
+                    int separator = value.indexOf('=');
+                    if (separator <= 0) {
+                        System.err.println("Expected <path>=<value> after --set, got " + value + "\n" + USAGE);
+                        System.exit(2);
+                    }
+                    overrides.put(value.substring(0, separator), parseValue(value.substring(separator + 1)));
+                }
+                default -> {
+                    System.err.println("Unknown option " + args[i - 1] + "\n" + USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        Options options = new Options(spawners, Math.max(1, players), ticks, eventsPerTick, tickMs, Math.max(1, area),
+            Math.max(0, spread), overrides);
+        List<String> mismatches = simulate(options, seed);
+        if (!mismatches.isEmpty()) {
+            System.out.println("FAILED: " + mismatches.size() + " stored count(s) differ from the world");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+        System.exit(0);
+    }
+
+    /**
+     * Run one simulation and report it on standard out
+     * @param seed Seed of the world and the events
+     * @return Stored counts differing from the world's, empty if all match
+     */
+    public static List<String> simulate(Options options, long seed) throws ReflectiveOperationException,
+            InterruptedException {
+        System.out.println("Seed " + seed);
+        ServerSimulation simulation = new ServerSimulation(options, seed);
+        try {
+            simulation.start();
+            simulation.run();
+            return simulation.finish();
+        } finally {
+            simulation.close();
+        }
+    }
+
+    /**
+     * Build the world, seed the database with it and start the plugin's services
+     */
+    private void start() throws ReflectiveOperationException {
+        plugin = fixture.getPlugin();
+        // The scheduler looks the plugin up once when first used
+        setField(SSASpawnerLimiter.class, null, "instance", plugin);
+        setField(SSASpawnerLimiter.class, plugin, "serverId", "simulation");
+        setField(SSASpawnerLimiter.class, plugin, "messageService", mock(MessageService.class,
+            withSettings().stubOnly().defaultAnswer(invocation -> {
+                if (invocation.getMethod().getName().equals("sendMessage") && invocation.getArguments().length > 1
+                        && invocation.getArguments()[1] instanceof String key) {
+                    messages.computeIfAbsent(key, k -> new LongAdder()).increment();
+                }
+                return Answers.RETURNS_DEFAULTS.answer(invocation);
+            })));
+        server.install();
+
+        List<String> permissions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permissions.add("essentials.command.node" + i);
+        }
+        for (int i = 0; i < options.players(); i++) {
+            UUID uuid = new UUID(random.nextLong(), random.nextLong());
+            Player player = PluginFixture.player(uuid, permissions);
+            players.add(player);
+            server.addPlayer(player);
+            world.addPlayer(uuid, options.area(), random);
+        }
+
+        long startNanos = System.nanoTime();
+        int chunkLimit = plugin.getConfig().getInt("max_spawners_per_chunk", 1000);
+        int playerLimit = plugin.getConfig().getInt("max_spawners_per_player", 500);
+        int placed = 0;
+        for (int attempt = 0; placed < options.spawners() && attempt < options.spawners() * 4; attempt++) {
+            Player player = players.get(random.nextInt(players.size()));
+            Location location = world.freeBlockNear(player.getUniqueId(), random);
+            int stackSize = 1 + random.nextInt(4);
+            if (location == null || world.getPlayerTotal(player.getUniqueId()) + stackSize > playerLimit
+                    || world.getChunkTotal(chunkKey(location)) + stackSize > chunkLimit) {
+                continue;
+            }
+            world.place(location, player.getUniqueId(), stackSize);
+            placed++;
+        }
+        fixture.setSpawnerSource(world::getAllSpawners);
+
+        DatabaseManager databaseManager = fixture.openDatabase();
+        Map<String, List<ChunkCount>> chunkCounts = new HashMap<>();
+        world.getChunkTotals().forEach((chunk, count) -> chunkCounts.computeIfAbsent(chunk.world(), k -> new ArrayList<>())
+            .add(new ChunkCount(chunk.x(), chunk.z(), count)));
+        chunkCounts.forEach((worldName, counts) -> databaseManager.replaceSpawnerCounts(worldName, counts).join());
+        Map<String, Integer> playerCounts = new HashMap<>();
+        world.getPlayerTotals().forEach((uuid, count) -> {
+            if (count > 0) {
+                playerCounts.put(uuid.toString(), count);
+            }
+        });
+        databaseManager.adjustPlayerSpawnerCounts(playerCounts).join();
+        long seededNanos = System.nanoTime() - startNanos;
+
+        Method initializeServices = SSASpawnerLimiter.class.getDeclaredMethod("initializeServices");
+        initializeServices.setAccessible(true);
+        initializeServices.invoke(plugin);
+        listener = server.getListener(SpawnerLimitListener.class);
+        long startedNanos = System.nanoTime() - startNanos - seededNanos;
+
+        placeEvent = eventMock(SpawnerPlaceEvent.class);
+        stackEvent = eventMock(SpawnerStackEvent.class);
+        breakEvent = eventMock(SpawnerPlayerBreakEvent.class);
+        removeEvent = eventMock(SpawnerRemoveEvent.class);
+
+        System.out.printf(Locale.ROOT, "World: %d spawners in %d chunks, %d players; seeded in %d ms, services started in %d ms%n",
+            placed, world.getChunkTotals().size(), players.size(), TimeUnit.NANOSECONDS.toMillis(seededNanos),
+            TimeUnit.NANOSECONDS.toMillis(startedNanos));
+    }
+
+    /**
+     * Fire the events tick by tick, running the plugin's scheduled tasks in between like the server does
+     */
+    private void run() throws InterruptedException {
+        long[] tickNanos = new long[options.ticks()];
+        double averageTickTime = 0;
+        long runStart = System.nanoTime();
+        for (int tick = 0; tick < options.ticks(); tick++) {
+            long tickStart = System.nanoTime();
+            server.runDueTasks();
+            for (int i = 0; i < options.eventsPerTick(); i++) {
+                fireEvent();
+            }
+            long elapsed = System.nanoTime() - tickStart;
+            tickNanos[tick] = elapsed;
+            // What Paper reports as MSPT, smoothed like its rolling average
+            double mspt = elapsed / 1_000_000.0;
+            averageTickTime = tick == 0 ? mspt : averageTickTime * 0.95 + mspt * 0.05;
+            server.setAverageTickTime(averageTickTime);
+
+            if (options.tickMs() > 0) {
+                long sleep = TimeUnit.MILLISECONDS.toNanos(options.tickMs()) - elapsed;
+                if (sleep > 0) {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                }
+            }
+            server.nextTick();
+        }
+        long runNanos = System.nanoTime() - runStart;
+
+        System.out.printf(Locale.ROOT, "Ran %d ticks in %.1f s%n%n", options.ticks(), runNanos / 1e9);
+        printEvents();
+        printTicks(tickNanos);
+    }
+
+    private void fireEvent() {
+        Player player = players.get(random.nextInt(players.size()));
+        UUID uuid = player.getUniqueId();
+        int roll = random.nextInt(100);
+        EventType type = EventType.PLACE;
+        for (EventType candidate : EventType.values()) {
+            if (roll < candidate.weight) {
+                type = candidate;
+                break;
+            }
+            roll -= candidate.weight;
+        }
+
+        SyntheticWorld.Spawner spawner = type == EventType.PLACE ? null : world.ownedBy(uuid, random);
+        if (type != EventType.PLACE && spawner == null) {
+            // Nothing of theirs to change, so they place one
+            type = EventType.PLACE;
+        }
+        EventStats eventStats = stats.get(type);
+
+        switch (type) {
+            case PLACE -> {
+                Location location = world.freeBlockNear(uuid, random);
+                if (location == null) {
+                    eventStats.skipped++;
+                    return;
+                }
+                state.reset(player, location);
+                state.quantity = 1 + random.nextInt(2);
+                long start = System.nanoTime();
+                listener.onSpawnerPlace(placeEvent);
+                long elapsed = System.nanoTime() - start;
+                eventStats.record(elapsed, !state.cancelled);
+                if (!state.cancelled) {
+                    world.place(location, uuid, state.quantity);
+                }
+            }
+            case STACK -> {
+                // One in four is taking some off the stack
+                int oldStackSize = spawner.stackSize;
+                int newStackSize = random.nextInt(4) == 0
+                    ? Math.max(1, oldStackSize - 1 - random.nextInt(Math.max(1, oldStackSize - 1)))
+                    : oldStackSize + 1 + random.nextInt(4);
+                if (newStackSize == oldStackSize) {
+                    eventStats.skipped++;
+                    return;
+                }
+                state.reset(player, spawner.location);
+                state.oldStackSize = oldStackSize;
+                state.newStackSize = newStackSize;
+                long start = System.nanoTime();
+                listener.onSpawnerStack(stackEvent);
+                if (!state.cancelled) {
+                    listener.onSpawnerStackComplete(stackEvent);
+                }
+                long elapsed = System.nanoTime() - start;
+                eventStats.record(elapsed, !state.cancelled);
+                if (!state.cancelled) {
+                    world.setStackSize(spawner, newStackSize);
+                }
+            }
+            case BREAK -> {
+                state.reset(player, spawner.location);
+                state.quantity = spawner.stackSize;
+                long start = System.nanoTime();
+                listener.onSpawnerBreak(breakEvent);
+                long elapsed = System.nanoTime() - start;
+                eventStats.record(elapsed, true);
+                world.remove(spawner);
+            }
+            case REMOVE -> {
+                // Taking part of a stack out through the GUI, or all of it
+                int amount = 1 + random.nextInt(spawner.stackSize);
+                state.reset(player, spawner.location);
+                state.changeAmount = -amount;
+                long start = System.nanoTime();
+                listener.onSpawnerRemove(removeEvent);
+                long elapsed = System.nanoTime() - start;
+                eventStats.record(elapsed, true);
+                if (amount == spawner.stackSize) {
+                    world.remove(spawner);
+                } else {
+                    world.setStackSize(spawner, spawner.stackSize - amount);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write everything still buffered, wait for it and compare the database with the world
+     * @return stored counts differing from the world's
+     */
+    private List<String> finish() throws InterruptedException {
+        MetricsRegistry metrics = plugin.getMetricsRegistry();
+        plugin.getSpawnerDeltaBatcher().flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(QUIESCE_TIMEOUT_SECONDS);
+        while (!quiet(metrics) && System.nanoTime() < deadline) {
+            server.runDueTasks();
+            server.nextTick();
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        if (!quiet(metrics)) {
+            System.out.println("Writes still pending after " + QUIESCE_TIMEOUT_SECONDS + " s: " + metrics.gaugeValues());
+        }
+
+        printMessages();
+        printMetrics(metrics);
+        return checkCounts();
+    }
+
+    private boolean quiet(MetricsRegistry metrics) {
+        Map<String, Long> gauges = metrics.gaugeValues();
+        return !server.isAsyncBusy()
+            && gauges.getOrDefault("db.in_flight", 0L) == 0
+            && gauges.getOrDefault("batch.pending_chunks", 0L) == 0
+            && gauges.getOrDefault("batch.pending_players", 0L) == 0;
+    }
+
+    private List<String> checkCounts() {
+        DatabaseManager databaseManager = plugin.getDatabaseManager();
+        Map<ChunkKey, Integer> storedChunks = new HashMap<>();
+        databaseManager.getAllSpawnerCounts().join().forEach((worldName, counts) -> {
+            for (ChunkCount count : counts) {
+                storedChunks.put(new ChunkKey(worldName, count.chunkX(), count.chunkZ()), count.count());
+            }
+        });
+        Map<String, Integer> storedPlayers = databaseManager.getAllPlayerSpawnerCounts().join();
+
+        List<String> mismatches = new ArrayList<>();
+        Map<ChunkKey, Integer> chunks = new HashMap<>(world.getChunkTotals());
+        storedChunks.keySet().forEach(chunk -> chunks.putIfAbsent(chunk, 0));
+        chunks.forEach((chunk, expected) -> {
+            int stored = storedChunks.getOrDefault(chunk, 0);
+            if (stored != expected) {
+                mismatches.add("chunk " + chunk + ": stored " + stored + ", world " + expected);
+            }
+        });
+        world.getPlayerTotals().forEach((uuid, expected) -> {
+            int stored = storedPlayers.getOrDefault(uuid.toString(), 0);
+            if (stored != expected) {
+                mismatches.add("player " + uuid + ": stored " + stored + ", world " + expected);
+            }
+        });
+
+        System.out.printf(Locale.ROOT, "Counts: %d chunks and %d players checked against the world, %d differ%n",
+            chunks.size(), world.getPlayerTotals().size(), mismatches.size());
+        mismatches.stream().limit(MAX_REPORTED).forEach(mismatch -> System.out.println("  " + mismatch));
+        if (mismatches.size() > MAX_REPORTED) {
+            System.out.println("  ... and " + (mismatches.size() - MAX_REPORTED) + " more");
+        }
+        return mismatches;
+    }
+
+    private void printEvents() {
+        System.out.println("Event latency (us, handler calls only):");
+        System.out.printf(Locale.ROOT, "  %-7s %9s %9s %9s %9s %9s %9s %9s%n",
+            "event", "count", "allowed", "mean", "p50", "p99", "p99.9", "max");
+        stats.forEach((type, eventStats) -> {
+            long[] sorted = Arrays.copyOf(eventStats.nanos, eventStats.count);
+            Arrays.sort(sorted);
+            double mean = sorted.length == 0 ? 0 : Arrays.stream(sorted).average().orElse(0) / 1000.0;
+            System.out.printf(Locale.ROOT, "  %-7s %9d %9d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                type.name().toLowerCase(Locale.ROOT), sorted.length, eventStats.allowed, mean,
+                percentile(sorted, 0.5) / 1000.0, percentile(sorted, 0.99) / 1000.0,
+                percentile(sorted, 0.999) / 1000.0, percentile(sorted, 1.0) / 1000.0);
+        });
+        long skipped = stats.values().stream().mapToLong(eventStats -> eventStats.skipped).sum();
+        if (skipped > 0) {
+            System.out.println("  (" + skipped + " events skipped: no free block or no stack change)");
+        }
+        System.out.println();
+    }
+
+    private void printTicks(long[] tickNanos) {
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "Tick time (ms, scheduled tasks and events): mean %.3f, p50 %.3f, p99 %.3f, max %.3f%n%n",
+            Arrays.stream(sorted).average().orElse(0) / 1e6, percentile(sorted, 0.5) / 1e6,
+            percentile(sorted, 0.99) / 1e6, percentile(sorted, 1.0) / 1e6);
+    }
+
+    private void printMessages() {
+        if (messages.isEmpty()) {
+            System.out.println("Messages sent: none");
+        } else {
+            System.out.println("Messages sent:");
+            new TreeMap<>(messages).forEach((key, count) ->
+                System.out.printf(Locale.ROOT, "  %-40s %d%n", key, count.sum()));
+        }
+        System.out.println();
+    }
+
+    private void printMetrics(MetricsRegistry metrics) {
+        System.out.println("Plugin counters:");
+        metrics.counterValues().forEach((name, value) -> System.out.printf(Locale.ROOT, "  %-40s %d%n", name, value));
+        System.out.println("Plugin histograms (us):");
+        System.out.printf(Locale.ROOT, "  %-40s %9s %9s %9s %9s%n", "name", "count", "mean", "p50", "p99");
+        metrics.histogramSnapshots().forEach((name, snapshot) -> {
+            if (snapshot.count() == 0) {
+                return;
+            }
+            System.out.printf(Locale.ROOT, "  %-40s %9d %9.1f %9s %9s%n", name, snapshot.count(),
+                snapshot.meanMicros(), "<" + snapshot.percentileMicros(0.5), "<" + snapshot.percentileMicros(0.99));
+        });
+        System.out.println();
+    }
+
+    private void close() {
+        server.shutdown();
+        fixture.close();
+    }
+
+    /**
+     * Mock an event class whose getters and cancelled flag read {@link #state}
+     */
+    private <T> T eventMock(Class<T> type) {
+        return mock(type, withSettings().stubOnly().defaultAnswer(invocation -> switch (invocation.getMethod().getName()) {
+            case "getPlayer" -> state.player;
+            case "getLocation" -> state.location;
+            case "getQuantity" -> state.quantity;
+            case "getOldStackSize" -> state.oldStackSize;
+            case "getNewStackSize" -> state.newStackSize;
+            case "getChangeAmount" -> state.changeAmount;
+            case "isCancelled" -> state.cancelled;
+            case "setCancelled" -> {
+                state.cancelled = (boolean) invocation.getArguments()[0];
+                yield null;
+            }
+            default -> Answers.RETURNS_DEFAULTS.answer(invocation);
+        }));
+    }
+
+    private static ChunkKey chunkKey(Location location) {
+        return new ChunkKey(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static Object parseValue(String value) {
+        if (value.equals("true") || value.equals("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException ignored) {
+            // Not an integer
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignored) {
+            return value;
+        }
+    }
+
+    private static void setField(Class<?> owner, Object target, String name, Object value)
+            throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
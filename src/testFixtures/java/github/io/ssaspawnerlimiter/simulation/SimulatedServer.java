@@ -0,0 +1,220 @@
+package github.io.ssaspawnerlimiter.simulation;
+
+import github.io.ssaspawnerlimiter.PluginFixture;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The parts of a Paper server the plugin reaches through {@link Bukkit}: a scheduler, the plugin manager (which
+ * only collects listeners), online players and the average tick time. Time is counted in ticks the simulation
+ * advances itself: sync tasks run on the simulation thread when their tick comes, async ones are handed to a pool
+ * then, so with unpaced ticks a one tick delay is one loop of the simulation rather than 50 ms.
+ */
+final class SimulatedServer {
+    private static final Logger LOGGER = Logger.getLogger("SimulatedServer");
+
+    private final Map<UUID, Player> players = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Tasks scheduled from any thread, moved to the queue by the simulation thread
+    private final ConcurrentLinkedQueue<ScheduledTask> submitted = new ConcurrentLinkedQueue<>();
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>();
+    private final ExecutorService asyncPool = Executors.newFixedThreadPool(4, runnable -> {
+        Thread thread = new Thread(runnable, "Simulated-Async");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Async tasks handed to the pool and not finished yet
+    private final AtomicInteger runningAsync = new AtomicInteger();
+    private final AtomicInteger nextTaskId = new AtomicInteger();
+
+    private volatile long currentTick;
+    private volatile double averageTickTime;
+
+    SimulatedServer() {
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    /**
+     * Make this the server {@link Bukkit} delegates to
+     */
+    void install() {
+        BukkitScheduler scheduler = PluginFixture.stub(BukkitScheduler.class, (method, args) -> switch (method) {
+            case "runTask" -> schedule((Runnable) args[1], 0, -1, false);
+            case "runTaskLater" -> schedule((Runnable) args[1], (long) args[2], -1, false);
+            case "runTaskTimer" -> schedule((Runnable) args[1], (long) args[2], (long) args[3], false);
+            case "runTaskAsynchronously" -> schedule((Runnable) args[1], 0, -1, true);
+            case "runTaskLaterAsynchronously" -> schedule((Runnable) args[1], (long) args[2], -1, true);
+            case "runTaskTimerAsynchronously" -> schedule((Runnable) args[1], (long) args[2], (long) args[3], true);
+            default -> throw new UnsupportedOperationException("BukkitScheduler." + method);
+        });
+        PluginManager pluginManager = PluginFixture.stub(PluginManager.class, (method, args) -> {
+            if (method.equals("registerEvents")) {
+                listeners.add((Listener) args[0]);
+            }
+            return null;
+        });
+        Server server = PluginFixture.stub(Server.class, (method, args) -> switch (method) {
+            case "getScheduler" -> scheduler;
+            case "getPluginManager" -> pluginManager;
+            case "getLogger" -> LOGGER;
+            case "getName" -> "SimulatedServer";
+            case "getAverageTickTime" -> averageTickTime;
+            case "getPlayer" -> args[0] instanceof UUID uuid ? players.get(uuid) : null;
+            case "getOnlinePlayers" -> List.copyOf(players.values());
+            case "isPrimaryThread" -> true;
+            default -> null;
+        });
+
+        // Bukkit.setServer also prints version information the headless API can't look up
+        try {
+            Field field = Bukkit.class.getDeclaredField("server");
+            field.setAccessible(true);
+            field.set(null, server);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to install simulated server", e);
+        }
+    }
+
+    void addPlayer(Player player) {
+        players.put(player.getUniqueId(), player);
+    }
+
+    /**
+     * Get the first registered listener of a type
+     */
+    <T extends Listener> T getListener(Class<T> type) {
+        for (Listener listener : listeners) {
+            if (type.isInstance(listener)) {
+                return type.cast(listener);
+            }
+        }
+        throw new IllegalStateException(type.getSimpleName() + " was not registered");
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Set the average tick time the load governor reads, in milliseconds
+     */
+    void setAverageTickTime(double averageTickTime) {
+        this.averageTickTime = averageTickTime;
+    }
+
+    /**
+     * Run the tasks due this tick: sync ones here, async ones on the pool
+     */
+    void runDueTasks() {
+        ScheduledTask task;
+        while ((task = submitted.poll()) != null) {
+            queue.add(task);
+        }
+        while (!queue.isEmpty() && queue.peek().dueTick <= currentTick) {
+            task = queue.poll();
+            if (task.cancelled.get()) {
+                continue;
+            }
+            run(task);
+            if (task.period > 0 && !task.cancelled.get()) {
+                queue.add(task.next(currentTick + task.period));
+            }
+        }
+    }
+
+    /**
+     * Advance to the next tick
+     */
+    void nextTick() {
+        currentTick++;
+    }
+
+    /**
+     * Check if async tasks handed to the pool are still running
+     */
+    boolean isAsyncBusy() {
+        return runningAsync.get() > 0;
+    }
+
+    void shutdown() {
+        asyncPool.shutdownNow();
+    }
+
+    private void run(ScheduledTask task) {
+        if (!task.async) {
+            runSafely(task.runnable);
+            return;
+        }
+        runningAsync.incrementAndGet();
+        asyncPool.execute(() -> {
+            try {
+                runSafely(task.runnable);
+            } finally {
+                runningAsync.decrementAndGet();
+            }
+        });
+    }
+
+    private BukkitTask schedule(Runnable runnable, long delayTicks, long periodTicks, boolean async) {
+        ScheduledTask task = new ScheduledTask(nextTaskId.incrementAndGet(), runnable,
+            currentTick + Math.max(0L, delayTicks), periodTicks, async, new AtomicBoolean());
+        if (async && delayTicks <= 0 && periodTicks <= 0) {
+            // Not tied to a tick, like the server's async scheduler
+            run(task);
+        } else {
+            submitted.add(task);
+        }
+        return PluginFixture.stub(BukkitTask.class, (method, args) -> switch (method) {
+            case "cancel" -> {
+                task.cancelled.set(true);
+                yield null;
+            }
+            case "isCancelled" -> task.cancelled.get();
+            case "getTaskId" -> task.id;
+            case "isSync" -> !async;
+            default -> null;
+        });
+    }
+
+    private static void runSafely(Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            // A server logs task exceptions and keeps ticking
+            LOGGER.log(Level.SEVERE, "Task threw an exception", e);
+        }
+    }
+
+    private record ScheduledTask(int id, Runnable runnable, long dueTick, long period, boolean async,
+                                 AtomicBoolean cancelled) implements Comparable<ScheduledTask> {
+        ScheduledTask next(long dueTick) {
+            return new ScheduledTask(id, runnable, dueTick, period, async, cancelled);
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            return dueTick != other.dueTick ? Long.compare(dueTick, other.dueTick) : Integer.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package github.io.ssaspawnerlimiter.simulation;
+
+import github.io.ssaspawnerlimiter.core.key.BlockKey;
+import github.io.ssaspawnerlimiter.core.key.ChunkKey;
+import github.nighter.smartspawner.api.data.SpawnerDataDTO;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.mockito.Answers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The spawners SmartSpawner knows about: where each one is, its stack size and who placed it, with chunk and player
+ * totals kept alongside. Players build around a home chunk, so their spawners cluster like bases on a real server.
+ * Changed on the simulation thread only; {@link #getAllSpawners()} may be called from any thread and returns a copy,
+ * as SmartSpawner does.
+ */
+final class SyntheticWorld {
+    private final World[] worlds;
+    private final int spread;
+
+    private final List<Spawner> spawners = new ArrayList<>();
+    private final Map<BlockKey, Spawner> byBlock = new HashMap<>();
+    private final Map<ChunkKey, Integer> chunkTotals = new HashMap<>();
+    private final Map<UUID, Home> homes = new HashMap<>();
+
+    /**
+     * A spawner block, with the DTO SmartSpawner hands out for it
+     */
+    static final class Spawner {
+        final Location location;
+        final BlockKey key;
+        final UUID owner;
+        final SpawnerDataDTO dto;
+        volatile int stackSize;
+        int index;
+        int ownerIndex;
+
+        private Spawner(Location location, BlockKey key, UUID owner, int stackSize) {
+            this.location = location;
+            this.key = key;
+            this.owner = owner;
+            this.stackSize = stackSize;
+            // Reads the live stack size, so a DTO handed out before a stack change sees the change like a live one
+            this.dto = mock(SpawnerDataDTO.class, withSettings().stubOnly().defaultAnswer(invocation ->
+                switch (invocation.getMethod().getName()) {
+                    case "getLocation" -> this.location;
+                    case "getStackSize" -> this.stackSize;
+                    default -> Answers.RETURNS_DEFAULTS.answer(invocation);
+                }));
+        }
+    }
+
+    /**
+     * Where a player builds, and what they own
+     */
+    private static final class Home {
+        final World world;
+        final int chunkX;
+        final int chunkZ;
+        final List<Spawner> owned = new ArrayList<>();
+        int total;
+
+        Home(World world, int chunkX, int chunkZ) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+    }
+
+    /**
+     * @param worlds Worlds to build in
+     * @param spread Chunks around a player's home chunk they build in
+     */
+    SyntheticWorld(World[] worlds, int spread) {
+        this.worlds = worlds;
+        this.spread = spread;
+    }
+
+    /**
+     * Give a player a home chunk
+     * @param areaChunks Chunks along each side of the area homes are spread over
+     */
+    void addPlayer(UUID player, int areaChunks, SplittableRandom random) {
+        // Three in four players live in the first world
+        World world = worlds[random.nextInt(4) == 0 && worlds.length > 1 ? 1 : 0];
+        homes.put(player, new Home(world, random.nextInt(areaChunks) - areaChunks / 2,
+            random.nextInt(areaChunks) - areaChunks / 2));
+    }
+
+    /**
+     * Pick a free block near a player's home
+     * @return the location, or null if the picks were all taken
+     */
+    Location freeBlockNear(UUID player, SplittableRandom random) {
+        Home home = homes.get(player);
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int chunkX = home.chunkX + random.nextInt(-spread, spread + 1);
+            int chunkZ = home.chunkZ + random.nextInt(-spread, spread + 1);
+            Location location = new Location(home.world, (chunkX << 4) + random.nextInt(16), random.nextInt(-60, 120),
+                (chunkZ << 4) + random.nextInt(16));
+            if (!byBlock.containsKey(key(location))) {
+                return location;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pick a random spawner a player owns
+     * @return the spawner, or null if they own none
+     */
+    Spawner ownedBy(UUID player, SplittableRandom random) {
+        List<Spawner> owned = homes.get(player).owned;
+        return owned.isEmpty() ? null : owned.get(random.nextInt(owned.size()));
+    }
+
+    void place(Location location, UUID owner, int stackSize) {
+        Spawner spawner = new Spawner(location, key(location), owner, stackSize);
+        synchronized (this) {
+            spawner.index = spawners.size();
+            spawners.add(spawner);
+        }
+        byBlock.put(spawner.key, spawner);
+        Home home = homes.get(owner);
+        spawner.ownerIndex = home.owned.size();
+        home.owned.add(spawner);
+        changeTotals(spawner, stackSize);
+    }
+
+    void setStackSize(Spawner spawner, int stackSize) {
+        changeTotals(spawner, stackSize - spawner.stackSize);
+        spawner.stackSize = stackSize;
+    }
+
+    void remove(Spawner spawner) {
+        synchronized (this) {
+            Spawner last = spawners.removeLast();
+            if (last != spawner) {
+                spawners.set(spawner.index, last);
+                last.index = spawner.index;
+            }
+        }
+        byBlock.remove(spawner.key);
+        List<Spawner> owned = homes.get(spawner.owner).owned;
+        Spawner last = owned.removeLast();
+        if (last != spawner) {
+            owned.set(spawner.ownerIndex, last);
+            last.ownerIndex = spawner.ownerIndex;
+        }
+        changeTotals(spawner, -spawner.stackSize);
+    }
+
+    /**
+     * SmartSpawner's spawner list
+     */
+    synchronized List<SpawnerDataDTO> getAllSpawners() {
+        List<SpawnerDataDTO> all = new ArrayList<>(spawners.size());
+        for (Spawner spawner : spawners) {
+            all.add(spawner.dto);
+        }
+        return all;
+    }
+
+    synchronized int getSpawnerCount() {
+        return spawners.size();
+    }
+
+    int getChunkTotal(ChunkKey chunk) {
+        return chunkTotals.getOrDefault(chunk, 0);
+    }
+
+    int getPlayerTotal(UUID player) {
+        return homes.get(player).total;
+    }
+
+    Map<ChunkKey, Integer> getChunkTotals() {
+        return chunkTotals;
+    }
+
+    Map<UUID, Integer> getPlayerTotals() {
+        Map<UUID, Integer> totals = new HashMap<>();
+        homes.forEach((player, home) -> totals.put(player, home.total));
+        return totals;
+    }
+
+    private void changeTotals(Spawner spawner, int delta) {
+        ChunkKey chunk = new ChunkKey(spawner.key.world(), spawner.key.x() >> 4, spawner.key.z() >> 4);
+        chunkTotals.merge(chunk, delta, (current, change) -> current + change == 0 ? null : current + change);
+        homes.get(spawner.owner).total += delta;
+    }
+
+    private static BlockKey key(Location location) {
+        return new BlockKey(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}